@@ -21,16 +21,22 @@ import javafx.stage.Stage;
 import net.dragondelve.customdriversutil.gui.CustomDriverUtilController;
 import net.dragondelve.customdriversutil.gui.CustomGridWelcomeController;
 import net.dragondelve.customdriversutil.model.OverrideFlags;
+import net.dragondelve.customdriversutil.model.TrackLibrary;
+import net.dragondelve.customdriversutil.model.VehicleClassLibrary;
+import net.dragondelve.customdriversutil.model.xml.XMLGridImporter;
 import net.dragondelve.customdriversutil.util.Configuration;
 import net.dragondelve.customdriversutil.util.Configurator;
 import net.dragondelve.customdriversutil.util.DDUtil;
-import net.dragondelve.customdriversutil.util.LibraryManager;
+import net.dragondelve.customdriversutil.util.JAXBContextRegistry;
+import net.dragondelve.customdriversutil.util.StartupLoader;
 import net.dragondelve.mabelfx.StageController;
 
+import java.util.concurrent.CompletableFuture;
+
 /**
  * CustomDriverUtility's main class.
- * Responsible for launching the application, making sure the Configurator loads the Configuration and the
- * LibraryManager loads the last used libraries.
+ * Responsible for launching the application, making sure the StartupLoader loads the Configuration and the last used
+ * libraries while the first window is shown.
  */
 public class CustomDriverUtilMain extends Application {
     /**
@@ -49,15 +55,9 @@ public class CustomDriverUtilMain extends Application {
      */
     @Override
     public void start(Stage primaryStage) {
-        if (!Configurator.getInstance().loadConfiguration()) {
-            Configurator.getInstance().setConfiguration(generateDefaultConfiguration());
-            Configurator.getInstance().saveConfiguration();
-        }
-        LibraryManager.getInstance().importTrackLibrary(Configurator.getInstance().getConfiguration().getTrackLibraryPathname());
-        LibraryManager.getInstance().importVehicleClassLibrary(Configurator.getInstance().getConfiguration().getVehicleClassLibraryPathname());
-        if (Configurator.getInstance().getConfiguration().getDriverLibraryPathname() != null && Configurator.getInstance().getConfiguration().getDriverLibraryPathname().length() > 0) {
-            LibraryManager.getInstance().importDriverLibrary(Configurator.getInstance().getConfiguration().getDriverLibraryPathname());
-        }
+        JAXBContextRegistry.getInstance().warmUp(TrackLibrary.class, VehicleClassLibrary.class);
+        XMLGridImporter.warmUpContexts();
+        CompletableFuture<Void> loading = StartupLoader.getInstance().start(this::generateDefaultConfiguration);
 
         primaryStage.setTitle("Custom Driver Utility V2.4.2");
         primaryStage.setMinWidth(880);
@@ -68,20 +68,24 @@ public class CustomDriverUtilMain extends Application {
         primaryStage.getIcons().add(DDUtil.LARGE_ICON_IMAGE);
         primaryStage.getIcons().add(DDUtil.MAIN_ICON_IMAGE);
         if (Configurator.getInstance().getConfiguration().isSkipWelcomeScreen()) {
-            try {
-                FXMLLoader loader = new FXMLLoader(DDUtil.getInstance().MAIN_WINDOW_FXML_URL);
-                StageController stageController = new CustomDriverUtilController();
-                stageController.setStage(primaryStage);
-                loader.setController(stageController);
-                Scene scene = new Scene(loader.load());
-                //scene.setFill(Color.TRANSPARENT);
-                //primaryStage.initStyle(StageStyle.TRANSPARENT);
-                primaryStage.setScene(scene);
-                primaryStage.show();
-            } catch (Exception e) {
-                e.printStackTrace();
-            }
+            //The main window needs the libraries to build its editors, so it's only shown once they are loaded.
+            loading.thenRun(() -> {
+                try {
+                    FXMLLoader loader = new FXMLLoader(DDUtil.getInstance().MAIN_WINDOW_FXML_URL);
+                    StageController stageController = new CustomDriverUtilController();
+                    stageController.setStage(primaryStage);
+                    loader.setController(stageController);
+                    Scene scene = new Scene(loader.load());
+                    //scene.setFill(Color.TRANSPARENT);
+                    //primaryStage.initStyle(StageStyle.TRANSPARENT);
+                    primaryStage.setScene(scene);
+                    primaryStage.show();
+                } catch (Exception e) {
+                    e.printStackTrace();
+                }
+            });
         } else {
+            //The welcome screen shows the loading progress and enables its actions once the libraries are loaded.
             try {
                 FXMLLoader loader = new FXMLLoader(DDUtil.getInstance().CUSTOM_GRID_WELCOME_FXML_URL);
                 StageController stageController = new CustomGridWelcomeController();
@@ -1,6 +1,5 @@
 package net.dragondelve.customdriversutil;
 
-import javafx.collections.transformation.FilteredList;
 import net.dragondelve.customdriversutil.model.Driver;
 import net.dragondelve.customdriversutil.model.Grid;
 import net.dragondelve.customdriversutil.model.OverrideFlags;
@@ -28,7 +27,7 @@ public class NamesInterpreter {
             }
         }
 
-        LibraryManager.getInstance().exportVehicleClassLibrary("ams2_vehicles_1.5.6.3.xml");
+        LibraryManager.getInstance().exportVehicleClassLibrary("ams2_vehicles_1.5.6.3.xml").join();
     }
 
     private static void updateVehicleClass(VehicleClass vehicleClass, File file) {
@@ -52,11 +51,7 @@ public class NamesInterpreter {
     }
 
     private static VehicleClass fromLibrary(String xml_name) {
-        FilteredList<VehicleClass> fromLib = LibraryManager.getInstance().getVehicleClassLibrary().getVehicleClasses().filtered(vehicleClass -> vehicleClass.getXmlName().equals(xml_name));
-        if (fromLib.isEmpty())
-            return null;
-        else
-            return fromLib.get(0);
+        return LibraryManager.getInstance().getVehicleClassLibrary().findVehicleClass(xml_name);
     }
 
     public static void main(String[] args) {
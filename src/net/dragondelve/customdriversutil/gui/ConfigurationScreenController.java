@@ -103,6 +103,26 @@ public class ConfigurationScreenController implements StageController {
      */
     @FXML
     private CheckBox skipWelcomeScreenCheckBox;
+    /**
+     * CheckBox that is used to edit the streamingGridImport flag of the configuration.
+     */
+    @FXML
+    private CheckBox streamingGridImportCheckBox;
+    /**
+     * CheckBox that is used to edit the autosaveJournal flag of the configuration.
+     */
+    @FXML
+    private CheckBox autosaveJournalCheckBox;
+    /**
+     * CheckBox that is used to edit the compactTrackOverrides flag of the configuration.
+     */
+    @FXML
+    private CheckBox compactTrackOverridesCheckBox;
+    /**
+     * CheckBox that is used to edit the parseCache flag of the configuration.
+     */
+    @FXML
+    private CheckBox parseCacheCheckBox;
     /**
      * Button that displays the FileChooser that allows the user to choose the new track library xml file.
      */
@@ -150,6 +170,10 @@ public class ConfigurationScreenController implements StageController {
         loadOverrideFlagsEditor(defaultNewOverrideAnchorPane, buffer.getDefaultTrackOverrideFlags());
 
         skipWelcomeScreenCheckBox.selectedProperty().set(buffer.isSkipWelcomeScreen());
+        streamingGridImportCheckBox.selectedProperty().set(buffer.isStreamingGridImport());
+        autosaveJournalCheckBox.selectedProperty().set(buffer.isAutosaveJournal());
+        compactTrackOverridesCheckBox.selectedProperty().set(buffer.isCompactTrackOverrides());
+        parseCacheCheckBox.selectedProperty().set(buffer.isParseCache());
         chooseLiveryCheckBox.selectedProperty().set(buffer.isChooseLivery());
 
         roundGeneratedCheckBox.setSelected(buffer.isRoundGeneratedValues());
@@ -211,6 +235,10 @@ public class ConfigurationScreenController implements StageController {
         buffer.setUpdateURL(configuration.getUpdateURL());
         buffer.setRoundGeneratedValues(configuration.isRoundGeneratedValues());
         buffer.setRoundingDecimalPlaces(configuration.getRoundingDecimalPlaces());
+        buffer.setStreamingGridImport(configuration.isStreamingGridImport());
+        buffer.setAutosaveJournal(configuration.isAutosaveJournal());
+        buffer.setCompactTrackOverrides(configuration.isCompactTrackOverrides());
+        buffer.setParseCache(configuration.isParseCache());
     }
 
     /**
@@ -222,6 +250,10 @@ public class ConfigurationScreenController implements StageController {
         buffer.setVehicleClassLibraryPathname(vehicleClassLibraryTextField.getText());
         buffer.setDriverLibraryPathname(driverLibraryTextField.getText());
         buffer.setSkipWelcomeScreen(skipWelcomeScreenCheckBox.isSelected());
+        buffer.setStreamingGridImport(streamingGridImportCheckBox.isSelected());
+        buffer.setAutosaveJournal(autosaveJournalCheckBox.isSelected());
+        buffer.setCompactTrackOverrides(compactTrackOverridesCheckBox.isSelected());
+        buffer.setParseCache(parseCacheCheckBox.isSelected());
         buffer.setChooseLivery(chooseLiveryCheckBox.isSelected());
         buffer.setRoundGeneratedValues(roundGeneratedCheckBox.isSelected());
         buffer.setRoundingDecimalPlaces(roundingBuffer.getValue());
@@ -277,6 +309,10 @@ public class ConfigurationScreenController implements StageController {
         roundingTextField.setTooltip(TooltipUtil.ROUND_DECIMAL_POINTS_TOOLTIP);
         chooseLiveryCheckBox.setTooltip(TooltipUtil.CONFIG_CHOOSE_LIVERY_TOOLTIP);
         skipWelcomeScreenCheckBox.setTooltip(TooltipUtil.SKIP_WELCOME_SCREEN_TOOLTIP);
+        streamingGridImportCheckBox.setTooltip(TooltipUtil.STREAMING_GRID_IMPORT_TOOLTIP);
+        autosaveJournalCheckBox.setTooltip(TooltipUtil.AUTOSAVE_JOURNAL_TOOLTIP);
+        compactTrackOverridesCheckBox.setTooltip(TooltipUtil.COMPACT_TRACK_OVERRIDES_TOOLTIP);
+        parseCacheCheckBox.setTooltip(TooltipUtil.PARSE_CACHE_TOOLTIP);
         okButton.setTooltip(TooltipUtil.CONFIG_OK_BUTTON);
         cancelButton.setTooltip(TooltipUtil.CONFIG_CANCEL_BUTTON);
     }
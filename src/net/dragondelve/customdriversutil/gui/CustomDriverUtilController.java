@@ -14,11 +14,13 @@
 
 package net.dragondelve.customdriversutil.gui;
 
+import javafx.application.Platform;
 import javafx.collections.transformation.FilteredList;
 import javafx.fxml.FXML;
 import javafx.fxml.FXMLLoader;
 import javafx.scene.Node;
 import javafx.scene.Scene;
+import javafx.scene.control.Alert;
 import javafx.scene.control.Button;
 import javafx.scene.control.MenuItem;
 import javafx.scene.control.TableColumn;
@@ -30,6 +32,7 @@ import javafx.scene.input.Dragboard;
 import javafx.scene.input.TransferMode;
 import javafx.scene.layout.AnchorPane;
 import javafx.scene.layout.BorderPane;
+import javafx.stage.DirectoryChooser;
 import javafx.stage.FileChooser;
 import javafx.stage.Stage;
 import net.dragondelve.customdriversutil.gui.editor.DriverEditor;
@@ -37,9 +40,10 @@ import net.dragondelve.customdriversutil.gui.editor.Editor;
 import net.dragondelve.customdriversutil.gui.editor.TrackLibraryEditor;
 import net.dragondelve.customdriversutil.gui.editor.VehicleClassLibraryEditor;
 import net.dragondelve.customdriversutil.model.*;
-import net.dragondelve.customdriversutil.model.xml.XMLGridExporter;
 import net.dragondelve.customdriversutil.model.xml.XMLGridImporter;
 import net.dragondelve.customdriversutil.model.xml.XMLOverridesImporter;
+import net.dragondelve.customdriversutil.tools.export.BatchExportResult;
+import net.dragondelve.customdriversutil.tools.export.BatchGridExporter;
 import net.dragondelve.customdriversutil.util.*;
 import net.dragondelve.mabelfx.FXObjectChooser;
 import net.dragondelve.mabelfx.StageController;
@@ -48,6 +52,12 @@ import net.dragondelve.mabelfx.util.FXTableRefresher;
 import java.io.File;
 import java.io.IOException;
 import java.net.URL;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+import java.util.function.Function;
 
 /**
  * Controls the main screen of the CustomDriverUtility.
@@ -126,6 +136,11 @@ public class CustomDriverUtilController implements StageController {
      */
     @FXML
     private MenuItem importGridWithClassItem;
+    /**
+     * Performs exportGridsToFolderAction on action.
+     */
+    @FXML
+    private MenuItem exportGridsToFolderItem;
     /**
      * Imports a Grid.
      * Imports the grid without the vehicle class.
@@ -202,6 +217,21 @@ public class CustomDriverUtilController implements StageController {
      */
     @FXML
     private MenuItem importDriverLibraryItem;
+    /**
+     * Performs mergeDriverLibraryAction on action.
+     */
+    @FXML
+    private MenuItem mergeDriverLibraryItem;
+    /**
+     * Performs applyLibraryPatchAction on action.
+     */
+    @FXML
+    private MenuItem applyLibraryPatchItem;
+    /**
+     * Performs exportLibraryPatchAction on action.
+     */
+    @FXML
+    private MenuItem exportLibraryPatchItem;
     /**
      * Tableview That displays the drivers from the grid that is being edited.
      */
@@ -290,6 +320,7 @@ public class CustomDriverUtilController implements StageController {
         exportGridItem.setOnAction(e -> exportGridAction());
         importGridItem.setOnAction(e -> importGridAction());
         importGridWithClassItem.setOnAction(e -> importGridWithClassAction());
+        exportGridsToFolderItem.setOnAction(e -> exportGridsToFolderAction());
 
         editTracksItem.setOnAction(e -> editTracksAction());
         exportTracksItem.setOnAction(e -> exportTracksAction());
@@ -302,6 +333,9 @@ public class CustomDriverUtilController implements StageController {
 
         exportDriverLibraryItem.setOnAction(e -> exportDriverLibraryAction());
         importDriverLibraryItem.setOnAction(e -> importDriverLibraryAction());
+        mergeDriverLibraryItem.setOnAction(e -> mergeDriverLibraryAction());
+        applyLibraryPatchItem.setOnAction(e -> applyLibraryPatchAction());
+        exportLibraryPatchItem.setOnAction(e -> exportLibraryPatchAction());
 
         massModifyItem.setOnAction(e -> massModifyAction());
         customModifyItem.setOnAction(e -> customModifyAction());
@@ -575,17 +609,42 @@ public class CustomDriverUtilController implements StageController {
     /**
      * Action that is performed by ExportGridItem. Exports the currently edited grid to an XML file chosen by the
      * FileChooser that is displayed to the user. If the selection is made exports the currently edited grid to the file
-     * selected.
+     * selected. The grid is saved in the background, saveGridButton is disabled until the save has completed. If the
+     * track override compaction has removed driver elements from the saved file, their number is shown to the user.
      */
     private void exportGridAction() {
         FileChooser fileChooser = LibraryManager.createLibraryFileChooser("Choose XML Grid File", "grids");
         if (editedGrid.getVehicleClass().getXmlName() != null)
             fileChooser.setInitialFileName(editedGrid.getVehicleClass().getXmlName() + ".xml");
         File file = fileChooser.showSaveDialog(stage);
-        GridExporter exporter = new XMLGridExporter();
-        if (file != null)
-            exporter.exportToFile(editedGrid, file);
+        if (file != null) {
+            saveGridButton.setDisable(true);
+            AtomicInteger removedElements = new AtomicInteger();
+            LibraryManager.getInstance().exportGrid(editedGrid, file, removedElements::set)
+                    .thenAcceptAsync(saved -> {
+                        saveGridButton.setDisable(false);
+                        if (saved && removedElements.get() > 0)
+                            showCompactionResult(file, removedElements.get());
+                    }, Platform::runLater);
+            LibraryManager.getInstance().watchGrid(file, editedGrid);
+        }
+    }
 
+    /**
+     * Shows how many driver elements the track override compaction has removed from an exported grid file.
+     *
+     * @param file            File to which the grid was exported.
+     * @param removedElements Number of driver elements that were removed.
+     */
+    private void showCompactionResult(File file, int removedElements) {
+        Alert alert = new Alert(Alert.AlertType.INFORMATION);
+        alert.initOwner(stage);
+        alert.setTitle("Export Grid");
+        alert.setHeaderText(null);
+        alert.setContentText("Grid saved to " + file.getName() + ". Track override compaction removed " + removedElements
+                + " redundant driver elements from the file, the edited grid is unchanged.");
+        alert.getDialogPane().getStylesheets().add(DDUtil.MAIN_CSS_RESOURCE);
+        alert.show();
     }
 
     /**
@@ -601,12 +660,13 @@ public class CustomDriverUtilController implements StageController {
             LibraryManager.getInstance().getVehicleClassLibrary().getVehicleClasses().add(vehicleClass);
             driverEditor.setVehicleClass(vehicleClass);
         }
-        GridImporter importer = new XMLGridImporter();
+        GridImporter importer = LibraryManager.createGridImporter();
         Grid importedGrid = importer.importFromFile(file);
         if (importedGrid != null) {
             editedGrid.getDrivers().clear();
             editedGrid.getDrivers().addAll(importedGrid.getDrivers());
             editedGrid.setVehicleClass(vehicleClass);
+            LibraryManager.getInstance().watchGrid(file, editedGrid);
         }
     }
 
@@ -616,7 +676,7 @@ public class CustomDriverUtilController implements StageController {
      */
     private void importGridAction() {
         File file = chooseFileToOpen("Choose XML Grid File", "grids");
-        XMLGridImporter importer = new XMLGridImporter();
+        GridImporter importer = LibraryManager.createGridImporter();
         if (file != null) {
             Grid importedGrid = importer.importFromFile(file);
             if (importedGrid != null) {
@@ -628,10 +688,74 @@ public class CustomDriverUtilController implements StageController {
                     driverEditor.setVehicleClass(new VehicleClass());
                 editedGrid.getDrivers().clear();
                 editedGrid.getDrivers().addAll(importedGrid.getDrivers());
+                LibraryManager.getInstance().watchGrid(file, editedGrid);
             }
         }
     }
 
+    /**
+     * Action that is performed by exportGridsToFolderItem. Displays a file chooser in which any number of XML grids can be
+     * selected and a directory chooser for the folder they are exported to, such as the AMS2 custom AI folder. The grids
+     * are imported in the background, their vehicle classes are looked up by their file names, and they are exported
+     * together by a BatchGridExporter. Files whose contents have not changed are not rewritten. How many grids were
+     * written, unchanged and failed is shown once the export has finished.
+     */
+    private void exportGridsToFolderAction() {
+        List<File> files = LibraryManager.createLibraryFileChooser("Choose XML Grid Files", "grids").showOpenMultipleDialog(stage);
+        if (files == null || files.isEmpty())
+            return;
+        DirectoryChooser directoryChooser = new DirectoryChooser();
+        directoryChooser.setTitle("Choose Export Folder");
+        File directory = directoryChooser.showDialog(stage);
+        if (directory == null)
+            return;
+
+        AtomicInteger unreadable = new AtomicInteger();
+        new BatchGridExporter(directory).exportAllAsync(() -> importGrids(files, unreadable)).thenAcceptAsync(results -> {
+            int failed = BatchGridExporter.count(results, BatchExportResult.Status.FAILED) + unreadable.get();
+            Alert alert = new Alert(failed > 0 ? Alert.AlertType.WARNING : Alert.AlertType.INFORMATION);
+            alert.initOwner(stage);
+            alert.setTitle("Export Grids to Folder");
+            alert.setHeaderText(null);
+            alert.setContentText("Grids exported to " + directory.getName() + ": "
+                    + BatchGridExporter.count(results, BatchExportResult.Status.WRITTEN) + " written, "
+                    + BatchGridExporter.count(results, BatchExportResult.Status.UNCHANGED) + " unchanged, " + failed + " failed.");
+            alert.getDialogPane().getStylesheets().add(DDUtil.MAIN_CSS_RESOURCE);
+            alert.show();
+        }, Platform::runLater);
+    }
+
+    /**
+     * Imports XML grids and sets the vehicle class named by each file, vanilla or modded. A vehicle class that is not in
+     * the library is created with the xml name of the file. Safe to call from any thread.
+     *
+     * @param files      XML grid files to be imported.
+     * @param unreadable Counts the files that could not be imported.
+     * @return Grids that were imported, in the order of their files.
+     */
+    private static List<Grid> importGrids(List<File> files, AtomicInteger unreadable) {
+        GridImporter importer = LibraryManager.createGridImporter();
+        List<Grid> grids = new ArrayList<>();
+        for (File file : files) {
+            Grid grid = importer.importFromFile(file);
+            if (grid == null) {
+                unreadable.incrementAndGet();
+                continue;
+            }
+            String xmlName = file.getName();
+            if (xmlName.lastIndexOf('.') > 0)
+                xmlName = xmlName.substring(0, xmlName.lastIndexOf('.'));
+            VehicleClass vehicleClass = LibraryManager.getInstance().getVehicleClassLibrary().findVehicleClass(xmlName);
+            if (vehicleClass == null) {
+                vehicleClass = new VehicleClass();
+                vehicleClass.setXmlName(xmlName);
+            }
+            grid.setVehicleClass(vehicleClass);
+            grids.add(grid);
+        }
+        return grids;
+    }
+
     /**
      * Action that is performed by editTracksItem.
      * Opens a new Stage with a TrackLibraryEditor, and waits until the stage is closed by the user.
@@ -790,15 +914,22 @@ public class CustomDriverUtilController implements StageController {
      * Action that is performed by exportDriverLibraryItem.
      * Opens a FileChooser with the *.xml extension filter, displays the FileChooser to the user and allows them to make
      * a selection. When the FileChooser is closed if a file was selected it attempts to export the currently loaded
-     * DriverLibrary to the chosen file.
+     * DriverLibrary to the chosen file. The library is saved in the background, saveDriverLibraryButton is disabled
+     * until the save has completed and the configuration is only updated if it has succeeded.
      */
     private void exportDriverLibraryAction() {
         File selectedFile = chooseFileToSave("Export Driver Library", "library/drivers");
-        if (selectedFile != null && LibraryManager.getInstance().exportDriverLibrary(selectedFile.getPath())) {
-            PathRelativisor relativisor = new PathRelativisor(selectedFile.toPath());
-            Configurator.getInstance().getConfiguration().setDriverLibraryPathname(relativisor.relativize());
-            Configurator.getInstance().saveConfiguration();
-        }
+        if (selectedFile == null)
+            return;
+        saveDriverLibraryButton.setDisable(true);
+        LibraryManager.getInstance().exportDriverLibrary(selectedFile.getPath()).thenAcceptAsync(saved -> {
+            saveDriverLibraryButton.setDisable(false);
+            if (saved) {
+                PathRelativisor relativisor = new PathRelativisor(selectedFile.toPath());
+                Configurator.getInstance().getConfiguration().setDriverLibraryPathname(relativisor.relativize());
+                Configurator.getInstance().saveConfiguration();
+            }
+        }, Platform::runLater);
     }
 
     /**
@@ -815,6 +946,132 @@ public class CustomDriverUtilController implements StageController {
         }
     }
 
+    /**
+     * Shows a file chooser and merges the drivers of the chosen Driver Library into the currently loaded one, then shows
+     * how many drivers were added, updated and skipped. This action is performed by the mergeDriverLibraryItem.
+     */
+    private void mergeDriverLibraryAction() {
+        File selectedFile = chooseFileToOpen("Merge Driver Library", "library/drivers");
+        if (selectedFile == null)
+            return;
+        MergeSummary summary = LibraryManager.getInstance().mergeDriverLibrary(selectedFile.getPath());
+        Alert alert = new Alert(summary != null ? Alert.AlertType.INFORMATION : Alert.AlertType.WARNING);
+        alert.initOwner(stage);
+        alert.setTitle("Merge Driver Library");
+        alert.setHeaderText(null);
+        alert.setContentText(summary != null ? "Drivers merged: " + summary + "." : "The Driver Library could not be read from " + selectedFile.getName() + ".");
+        alert.getDialogPane().getStylesheets().add(DDUtil.MAIN_CSS_RESOURCE);
+        alert.showAndWait();
+    }
+
+    /**
+     * Shows a file chooser and applies the chosen library patch to the currently loaded Track Library and Vehicle Class
+     * Library. The user is then asked for the files to which the patched libraries are saved, the bundled libraries are
+     * never overwritten. How many tracks and vehicle classes were changed is shown once the saves have completed. This
+     * action is performed by the applyLibraryPatchItem.
+     */
+    private void applyLibraryPatchAction() {
+        File selectedFile = chooseFileToOpen("Apply Library Patch", "library");
+        if (selectedFile == null)
+            return;
+        MergeSummary summary = LibraryManager.getInstance().applyLibraryPatch(selectedFile.getPath());
+        if (summary == null) {
+            showLibraryPatchResult("Apply Library Patch", Alert.AlertType.WARNING, "The library patch could not be read from " + selectedFile.getName() + ".");
+            return;
+        }
+        Configuration configuration = Configurator.getInstance().getConfiguration();
+        CompletableFuture<Boolean> tracksSaved = savePatchedLibrary("Save Patched Track Library", "library/tracks",
+                DDUtil.TRACK_LIBRARY_DEFAULT_PATHNAME, LibraryManager.getInstance()::exportTrackLibrary, configuration::setTrackLibraryPathname);
+        CompletableFuture<Boolean> vehicleClassesSaved = savePatchedLibrary("Save Patched Vehicle Class Library", "library/vehicles",
+                DDUtil.VEHICLE_CLASS_LIBRARY_DEFAULT_PATHNAME, LibraryManager.getInstance()::exportVehicleClassLibrary, configuration::setVehicleClassLibraryPathname);
+        tracksSaved.thenCombine(vehicleClassesSaved, (tracks, vehicleClasses) -> tracks && vehicleClasses).thenAcceptAsync(saved -> {
+            Configurator.getInstance().saveConfiguration();
+            if (saved)
+                showLibraryPatchResult("Apply Library Patch", Alert.AlertType.INFORMATION, "Tracks and vehicle classes patched: " + summary
+                        + ". The patched libraries were saved and are loaded on the next start.");
+            else
+                showLibraryPatchResult("Apply Library Patch", Alert.AlertType.WARNING, "Tracks and vehicle classes patched: " + summary
+                        + ". Not all patched libraries were saved, export them to keep the changes.");
+        }, Platform::runLater);
+    }
+
+    /**
+     * Shows a file chooser for the file to which a patched library is saved and saves the library there in the
+     * background. The bundled libraries are named after the AMS2 version they describe, so they are never overwritten.
+     * Once the library is saved, the configuration points to the chosen file, so it's loaded on the next start.
+     *
+     * @param title            Title of the file chooser.
+     * @param initialDirectory Pathname to an initial directory for the file chooser.
+     * @param bundledPathname  Pathname of the bundled library that must not be overwritten.
+     * @param exporter         Saves the library to a given pathname.
+     * @param pathnameSetter   Sets the pathname of the library in the configuration.
+     * @return Future that is completed on the JavaFX Application Thread with true if the library was saved, false if it
+     * was not saved or no file was chosen.
+     */
+    private CompletableFuture<Boolean> savePatchedLibrary(String title, String initialDirectory, String bundledPathname,
+                                                          Function<String, CompletableFuture<Boolean>> exporter, Consumer<String> pathnameSetter) {
+        File file = chooseFileToSave(title, initialDirectory);
+        if (file == null)
+            return CompletableFuture.completedFuture(false);
+        if (file.toPath().toAbsolutePath().normalize().equals(new File(bundledPathname).toPath().toAbsolutePath().normalize())) {
+            Alert alert = new Alert(Alert.AlertType.WARNING);
+            alert.initOwner(stage);
+            alert.setTitle(title);
+            alert.setHeaderText(null);
+            alert.setContentText("The bundled library " + file.getName() + " is not overwritten, export the patched library to another file.");
+            alert.getDialogPane().getStylesheets().add(DDUtil.MAIN_CSS_RESOURCE);
+            alert.showAndWait();
+            return CompletableFuture.completedFuture(false);
+        }
+        return exporter.apply(file.getPath()).thenApplyAsync(saved -> {
+            if (saved)
+                pathnameSetter.accept(new PathRelativisor(file.toPath()).relativize());
+            return saved;
+        }, Platform::runLater);
+    }
+
+    /**
+     * Shows file choosers for the Track Library and the Vehicle Class Library of the previous AMS2 version and for the
+     * patch file, then exports a library patch that turns the chosen libraries into the currently loaded ones. The patch
+     * is saved in the background and the result is shown once the save has completed. This action is performed by the
+     * exportLibraryPatchItem.
+     */
+    private void exportLibraryPatchAction() {
+        File trackLibraryFile = chooseFileToOpen("Choose Previous Track Library", "library/tracks");
+        if (trackLibraryFile == null)
+            return;
+        File vehicleClassLibraryFile = chooseFileToOpen("Choose Previous Vehicle Class Library", "library/vehicles");
+        if (vehicleClassLibraryFile == null)
+            return;
+        File selectedFile = chooseFileToSave("Export Library Patch", "library");
+        if (selectedFile == null)
+            return;
+        LibraryManager.getInstance().exportLibraryPatch(trackLibraryFile.getPath(), vehicleClassLibraryFile.getPath(), selectedFile.getPath())
+                .thenAcceptAsync(saved -> {
+                    if (saved)
+                        showLibraryPatchResult("Export Library Patch", Alert.AlertType.INFORMATION, "Library patch saved to " + selectedFile.getName() + ".");
+                    else
+                        showLibraryPatchResult("Export Library Patch", Alert.AlertType.WARNING, "The library patch could not be saved to " + selectedFile.getName() + ".");
+                }, Platform::runLater);
+    }
+
+    /**
+     * Shows the result of applying or exporting a library patch to the user.
+     *
+     * @param title   Title of the alert.
+     * @param type    Type of the alert.
+     * @param content Text that describes the result.
+     */
+    private void showLibraryPatchResult(String title, Alert.AlertType type, String content) {
+        Alert alert = new Alert(type);
+        alert.initOwner(stage);
+        alert.setTitle(title);
+        alert.setHeaderText(null);
+        alert.setContentText(content);
+        alert.getDialogPane().getStylesheets().add(DDUtil.MAIN_CSS_RESOURCE);
+        alert.show();
+    }
+
     /**
      * Shows the ConfigurationScreen on a separate stage. This action is performed by the configurationMenuItem.
      */
@@ -19,7 +19,10 @@ import javafx.fxml.FXMLLoader;
 import javafx.scene.Scene;
 import javafx.scene.control.Button;
 import javafx.scene.control.CheckBox;
+import javafx.scene.control.Label;
+import javafx.scene.control.ProgressIndicator;
 import javafx.scene.image.ImageView;
+import javafx.scene.layout.HBox;
 import javafx.scene.layout.VBox;
 import javafx.stage.FileChooser;
 import javafx.stage.Stage;
@@ -30,6 +33,7 @@ import net.dragondelve.customdriversutil.util.Configurator;
 import net.dragondelve.customdriversutil.util.DDUtil;
 import net.dragondelve.customdriversutil.util.GridImporter;
 import net.dragondelve.customdriversutil.util.LibraryManager;
+import net.dragondelve.customdriversutil.util.StartupLoader;
 import net.dragondelve.mabelfx.StageController;
 
 import java.awt.*;
@@ -89,6 +93,21 @@ public class CustomGridWelcomeController implements StageController {
     private CheckBox skipWelcomeScreenCheckBox;
     @FXML
     private ImageView bannerImageView;
+    /**
+     * HBox that holds the loadingProgressIndicator and the loadingLabel, hidden once the libraries are loaded.
+     */
+    @FXML
+    private HBox loadingHBox;
+    /**
+     * ProgressIndicator that shows how many of the last used libraries have been loaded since the program was started.
+     */
+    @FXML
+    private ProgressIndicator loadingProgressIndicator;
+    /**
+     * Label that describes what is currently loaded.
+     */
+    @FXML
+    private Label loadingLabel;
 
     /**
      * Initialize method initializes all the visual elements before they are displayed by the user.
@@ -113,6 +132,16 @@ public class CustomGridWelcomeController implements StageController {
 
         bannerImageView.setStyle(" -fx-background-color: transparent;");
         bannerImageView.setImage(DDUtil.BANNER_IMAGE);
+
+        //Grids can only be created or loaded once the libraries they refer to are loaded.
+        StartupLoader startupLoader = StartupLoader.getInstance();
+        loadingProgressIndicator.progressProperty().bind(startupLoader.progressProperty());
+        loadingLabel.textProperty().bind(startupLoader.statusProperty());
+        loadingHBox.visibleProperty().bind(startupLoader.loadedProperty().not());
+        newEmptyGridButton.disableProperty().bind(startupLoader.loadedProperty().not());
+        newGeneratedGridButton.disableProperty().bind(startupLoader.loadedProperty().not());
+        loadExistingVanillaGrid.disableProperty().bind(startupLoader.loadedProperty().not());
+        loadModdedGridButton.disableProperty().bind(startupLoader.loadedProperty().not());
     }
 
     /**
@@ -156,7 +185,7 @@ public class CustomGridWelcomeController implements StageController {
         fileChooser.setInitialDirectory(new File("grids"));
         File file = fileChooser.showOpenDialog(stage);
 
-        XMLGridImporter importer = new XMLGridImporter();
+        GridImporter importer = LibraryManager.createGridImporter();
         if (file != null) {
             Grid importedGrid = importer.importFromFile(file);
             if (importedGrid != null) {
@@ -166,6 +195,7 @@ public class CustomGridWelcomeController implements StageController {
                 } else
                     importedGrid.setVehicleClass(new VehicleClass());
                 controller.setEditedGrid(importedGrid);
+                LibraryManager.getInstance().watchGrid(file, importedGrid);
                 nextScene(controller, DDUtil.getInstance().MAIN_WINDOW_FXML_URL);
             }
         }
@@ -191,13 +221,14 @@ public class CustomGridWelcomeController implements StageController {
             return;
 
         LibraryManager.getInstance().getVehicleClassLibrary().getVehicleClasses().add(vehicleClass);
-        GridImporter importer = new XMLGridImporter();
+        GridImporter importer = LibraryManager.createGridImporter();
         Grid importedGrid = importer.importFromFile(file);
         if (importedGrid == null)
             return;
 
         importedGrid.setVehicleClass(vehicleClass);
         controller.setEditedGrid(importedGrid);
+        LibraryManager.getInstance().watchGrid(file, importedGrid);
         nextScene(controller, DDUtil.getInstance().MAIN_WINDOW_FXML_URL);
     }
 
@@ -14,6 +14,7 @@
 
 package net.dragondelve.customdriversutil.gui.editor;
 
+import javafx.beans.InvalidationListener;
 import javafx.beans.property.BooleanProperty;
 import javafx.beans.property.SimpleBooleanProperty;
 import javafx.beans.value.ChangeListener;
@@ -24,6 +25,7 @@ import javafx.stage.Stage;
 import net.dragondelve.customdriversutil.gui.CustomDriverUtilController;
 import net.dragondelve.customdriversutil.model.Driver;
 import net.dragondelve.customdriversutil.model.DriverBase;
+import net.dragondelve.customdriversutil.model.LiverySearchIndex;
 import net.dragondelve.customdriversutil.model.VehicleClass;
 import net.dragondelve.customdriversutil.util.Configurator;
 import net.dragondelve.customdriversutil.util.DDUtil;
@@ -33,6 +35,10 @@ import net.dragondelve.mabelfx.FXObjectChooser;
 import net.dragondelve.mabelfx.HybridComboBox;
 import net.dragondelve.mabelfx.util.FXTableRefresher;
 
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
 /**
  * Driver Editor is designed to edit a single driver or a single track specific override if it is put into
  * trackOverrideMode. This is a controller for the fxml/editor/DriverEditor.fxml.
@@ -350,6 +356,20 @@ public class DriverEditor {
         if (refresher != null)
             refresher.refresh();
     };
+    /**
+     * Livery names of the vehicle class of the edited driver as a set, used to filter the livery suggestions. It's
+     * rebuilt from the livery list when needed, null if it has to be rebuilt.
+     */
+    private Set<String> liveryNameSet;
+    /**
+     * Invalidates the liveryNameSet whenever the livery list of the vehicle class changes.
+     */
+    private final InvalidationListener liveryNamesListener = observable -> liveryNameSet = null;
+    /**
+     * Flag that determines if the vehicle class of the edited driver is one of the classes of the Vehicle Class Library,
+     * whose liveries are in its search index.
+     */
+    private boolean libraryVehicleClass = false;
     private CustomDriverUtilController.LiveryValidator liveryValidator;
     //TODO: Remove This crutch
     private ListView<String> crutchListView;
@@ -413,6 +433,7 @@ public class DriverEditor {
         randomizeButton.setOnAction(e -> randomizeDriverAction());
 
         chooseLiveryHBox.initialize("Choose Livery", liveryNameComboBox);
+        chooseLiveryHBox.setSuggestionProvider(this::suggestLiveries);
 
         chooseLiveryHBox.getCheckBox().selectedProperty().addListener((observable, oldValue, newValue) -> {
             if (newValue && vehicleClass.getLiveryNames().isEmpty()) {
@@ -493,12 +514,37 @@ public class DriverEditor {
      * @param vehicleClass Vehicle class of the edited driver/
      */
     public void setVehicleClass(VehicleClass vehicleClass) {
+        this.vehicleClass.getLiveryNames().removeListener(liveryNamesListener);
         this.vehicleClass.setLiveryNames(vehicleClass.getLiveryNames());
+        this.vehicleClass.getLiveryNames().addListener(liveryNamesListener);
+        liveryNameSet = null;
+        libraryVehicleClass = LibraryManager.getInstance().getVehicleClassLibrary().contains(vehicleClass);
         this.vehicleClass.setName(vehicleClass.getName());
         this.vehicleClass.setXmlName(vehicleClass.getXmlName());
         chooseLiveryHBox.getComboBox().setItems(vehicleClass.getLiveryNames());
     }
 
+    /**
+     * Suggests livery names for the text typed by the user. Only liveries of the vehicle class of the edited driver are
+     * suggested, they are looked up in the search index of the Vehicle Class Library. Liveries of a class that is not in
+     * the library are searched directly, and if no class is set all liveries of the library are suggested.
+     *
+     * @param text  Text typed by the user.
+     * @param limit Maximum number of suggestions.
+     * @return Suggested livery names, the best suggestion first.
+     */
+    private List<String> suggestLiveries(String text, int limit) {
+        List<String> liveryNames = vehicleClass.getLiveryNames();
+        LiverySearchIndex index = LibraryManager.getInstance().getVehicleClassLibrary().getLiverySearchIndex();
+        if (liveryNames.isEmpty())
+            return index.search(text, limit);
+        if (!libraryVehicleClass)
+            return LiverySearchIndex.search(liveryNames, text, limit);
+        if (liveryNameSet == null)
+            liveryNameSet = new HashSet<>(liveryNames);
+        return index.search(text, limit, liveryNameSet::contains);
+    }
+
     /**
      * Lightweight Mutator Method
      *
@@ -14,12 +14,18 @@
 
 package net.dragondelve.customdriversutil.model;
 
+import javafx.beans.InvalidationListener;
 import javafx.beans.property.IntegerProperty;
 import javafx.beans.property.SimpleIntegerProperty;
 import javafx.beans.property.SimpleStringProperty;
 import javafx.beans.property.StringProperty;
 import javafx.collections.FXCollections;
 import javafx.collections.ObservableList;
+import net.dragondelve.customdriversutil.model.snapshot.DriverSnapshot;
+import net.dragondelve.customdriversutil.model.snapshot.TrackOverrideSnapshot;
+
+import java.util.ArrayList;
+import java.util.List;
 
 /**
  * Represents a model of a driver with their track overrides included as described by AMS2 Developers here:
@@ -45,6 +51,16 @@ public final class Driver extends DriverBase {
      */
     private final ObservableList<TrackOverride> trackOverrides = FXCollections.observableArrayList();
 
+    /**
+     * Cached snapshot of this driver, null if it has to be taken again.
+     */
+    private DriverSnapshot snapshot;
+
+    /**
+     * Listener that discards the cached snapshot, registered when the first snapshot is taken.
+     */
+    private InvalidationListener snapshotInvalidator;
+
     /**
      * Lightweight accessor method.
      *
@@ -89,4 +105,31 @@ public final class Driver extends DriverBase {
     public IntegerProperty pointsProperty() {
         return points;
     }
+
+    /**
+     * Takes an immutable snapshot of this driver and its track specific overrides. The snapshot is cached and returned
+     * again until this driver or one of its overrides changes, overrides that did not change keep their snapshots.
+     * Must be called on the thread that owns the driver.
+     *
+     * @return Snapshot of this driver.
+     */
+    public DriverSnapshot snapshot() {
+        if (snapshotInvalidator == null) {
+            snapshotInvalidator = observable -> snapshot = null;
+            addPropertyListener(snapshotInvalidator);
+            liveryName.addListener(snapshotInvalidator);
+            points.addListener(snapshotInvalidator);
+            trackOverrides.addListener(snapshotInvalidator);
+        }
+        List<TrackOverrideSnapshot> overrideSnapshots = new ArrayList<>(trackOverrides.size());
+        boolean unchanged = snapshot != null;
+        for (int i = 0; i < trackOverrides.size(); i++) {
+            TrackOverrideSnapshot overrideSnapshot = trackOverrides.get(i).snapshot();
+            unchanged = unchanged && overrideSnapshot == snapshot.getTrackOverrides().get(i);
+            overrideSnapshots.add(overrideSnapshot);
+        }
+        if (!unchanged)
+            snapshot = new DriverSnapshot(this, overrideSnapshots);
+        return snapshot;
+    }
 }
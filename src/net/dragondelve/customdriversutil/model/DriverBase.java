@@ -14,6 +14,7 @@
 
 package net.dragondelve.customdriversutil.model;
 
+import javafx.beans.InvalidationListener;
 import javafx.beans.property.DoubleProperty;
 import javafx.beans.property.SimpleDoubleProperty;
 import javafx.beans.property.SimpleStringProperty;
@@ -478,6 +479,50 @@ public abstract class DriverBase {
         this.overrideFlags.overrideVehicleReliabilityProperty().set(overrideFlags.isOverrideVehicleReliability());
     }
 
+    /**
+     * Semi lightweight mutator method. Sets the name, country, all skill values and the override flags to match the
+     * values of a given DriverBase. Properties whose value does not change do not notify their listeners.
+     *
+     * @param source DriverBase whose values are to be assigned to this DriverBase.
+     */
+    public final void setBaseProperties(DriverBase source) {
+        nameProperty().set(source.getName());
+        countryProperty().set(source.getCountry());
+        raceSkillProperty().set(source.getRaceSkill());
+        qualifyingSkillProperty().set(source.getQualifyingSkill());
+        aggressionProperty().set(source.getAggression());
+        defendingProperty().set(source.getDefending());
+        staminaProperty().set(source.getStamina());
+        consistencyProperty().set(source.getConsistency());
+        startReactionsProperty().set(source.getStartReactions());
+        wetSkillProperty().set(source.getWetSkill());
+        tyreManagementProperty().set(source.getTyreManagement());
+        fuelManagementProperty().set(source.getFuelManagement());
+        blueFlagConcedingProperty().set(source.getBlueFlagConceding());
+        weatherTyreChangeProperty().set(source.getWeatherTyreChange());
+        avoidanceOfMistakesProperty().set(source.getAvoidanceOfMistakes());
+        avoidanceOfForcedMistakesProperty().set(source.getAvoidanceOfForcedMistakes());
+        vehicleReliabilityProperty().set(source.getVehicleReliability());
+        setOverrideFlags(source.getOverrideFlags());
+    }
+
+    /**
+     * Registers a listener with the name, the country, all skill values and all override flags, so that it's notified
+     * whenever any of them changes. Used to invalidate cached snapshots.
+     *
+     * @param listener Listener to be registered.
+     */
+    final void addPropertyListener(InvalidationListener listener) {
+        name.addListener(listener);
+        country.addListener(listener);
+        overrideFlags.overrideNameProperty().addListener(listener);
+        overrideFlags.overrideCountryProperty().addListener(listener);
+        for (DriverParameter parameter : DriverParameter.all()) {
+            parameter.propertyOf(this).addListener(listener);
+            parameter.flagOf(overrideFlags).addListener(listener);
+        }
+    }
+
     /**
      * Gives a String representation of the driver
      *
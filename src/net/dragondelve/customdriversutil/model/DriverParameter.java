@@ -0,0 +1,166 @@
+// Copyright 2023 Prokhor Kalinin
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package net.dragondelve.customdriversutil.model;
+
+import javafx.beans.property.BooleanProperty;
+import javafx.beans.property.DoubleProperty;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * Numeric parameters of a DriverBase as they are named in the AMS2 XML representation of Custom AI. Every parameter
+ * knows its xml element name, the property that holds its value and the flag that determines whether it's overridden,
+ * so importers and exporters can handle all of them in a single loop. Every parameter also has a unique bit, that is
+ * used to store which parameters are set in a single int.
+ */
+public enum DriverParameter {
+    RACE_SKILL("race_skill", DriverBase::raceSkillProperty, OverrideFlags::overrideRaceSkillProperty),
+    QUALIFYING_SKILL("qualifying_skill", DriverBase::qualifyingSkillProperty, OverrideFlags::overrideQualifyingSkillProperty),
+    AGGRESSION("aggression", DriverBase::aggressionProperty, OverrideFlags::overrideAggressionProperty),
+    DEFENDING("defending", DriverBase::defendingProperty, OverrideFlags::overrideDefendingProperty),
+    STAMINA("stamina", DriverBase::staminaProperty, OverrideFlags::overrideStaminaProperty),
+    CONSISTENCY("consistency", DriverBase::consistencyProperty, OverrideFlags::overrideConsistencyProperty),
+    START_REACTIONS("start_reactions", DriverBase::startReactionsProperty, OverrideFlags::overrideStartReactionsProperty),
+    WET_SKILL("wet_skill", DriverBase::wetSkillProperty, OverrideFlags::overrideWetSkillProperty),
+    TYRE_MANAGEMENT("tyre_management", DriverBase::tyreManagementProperty, OverrideFlags::overrideTyreManagementProperty),
+    FUEL_MANAGEMENT("fuel_management", DriverBase::fuelManagementProperty, OverrideFlags::overrideFuelManagementProperty),
+    BLUE_FLAG_CONCEDING("blue_flag_conceding", DriverBase::blueFlagConcedingProperty, OverrideFlags::overrideBlueFlagConcedingProperty),
+    WEATHER_TYRE_CHANGES("weather_tyre_changes", DriverBase::weatherTyreChangeProperty, OverrideFlags::overrideWeatherTyreChangeProperty),
+    AVOIDANCE_OF_MISTAKES("avoidance_of_mistakes", DriverBase::avoidanceOfMistakesProperty, OverrideFlags::overrideAvoidanceOfMistakesProperty),
+    AVOIDANCE_OF_FORCED_MISTAKES("avoidance_of_forced_mistakes", DriverBase::avoidanceOfForcedMistakesProperty, OverrideFlags::overrideAvoidanceOfForcedMistakesProperty),
+    VEHICLE_RELIABILITY("vehicle_reliability", DriverBase::vehicleReliabilityProperty, OverrideFlags::overrideVehicleReliabilityProperty);
+
+    /**
+     * Lowest value any parameter can have.
+     */
+    public static final double MIN_VALUE = 0.0;
+
+    /**
+     * Highest value any parameter can have.
+     */
+    public static final double MAX_VALUE = 1.0;
+
+    /**
+     * Cached result of values(), as values() copies the array on every call.
+     */
+    private static final DriverParameter[] VALUES = values();
+
+    /**
+     * Parameters by their xml element name.
+     */
+    private static final Map<String, DriverParameter> BY_XML_NAME = new HashMap<>();
+
+    static {
+        for (DriverParameter parameter : VALUES)
+            BY_XML_NAME.put(parameter.xmlName, parameter);
+    }
+
+    /**
+     * Name of the xml element that contains the value of the parameter.
+     */
+    private final String xmlName;
+
+    /**
+     * Returns the property of a DriverBase that holds the value of the parameter.
+     */
+    private final Function<DriverBase, DoubleProperty> property;
+
+    /**
+     * Returns the flag of OverrideFlags that determines whether the parameter is overridden.
+     */
+    private final Function<OverrideFlags, BooleanProperty> flag;
+
+    /**
+     * Creates a new DriverParameter.
+     *
+     * @param xmlName  Name of the xml element that contains the value of the parameter.
+     * @param property Returns the property of a DriverBase that holds the value of the parameter.
+     * @param flag     Returns the flag of OverrideFlags that determines whether the parameter is overridden.
+     */
+    DriverParameter(String xmlName, Function<DriverBase, DoubleProperty> property, Function<OverrideFlags, BooleanProperty> flag) {
+        this.xmlName = xmlName;
+        this.property = property;
+        this.flag = flag;
+    }
+
+    /**
+     * Finds a parameter by the name of its xml element.
+     *
+     * @param xmlName Name of the xml element.
+     * @return Parameter with the given xml name, or null if there is none.
+     */
+    public static DriverParameter fromXmlName(String xmlName) {
+        return BY_XML_NAME.get(xmlName);
+    }
+
+    /**
+     * Lightweight accessor method that does not copy the array.
+     *
+     * @return All parameters in declaration order. The array must not be modified.
+     */
+    public static DriverParameter[] all() {
+        return VALUES;
+    }
+
+    /**
+     * Lightweight accessor method.
+     *
+     * @return Name of the xml element that contains the value of the parameter.
+     */
+    public String getXmlName() {
+        return xmlName;
+    }
+
+    /**
+     * Lightweight accessor method.
+     *
+     * @return Unique bit of this parameter, used in masks of the set parameters.
+     */
+    public int getBit() {
+        return 1 << ordinal();
+    }
+
+    /**
+     * Returns the property that holds the value of this parameter.
+     *
+     * @param driverBase Driver or TrackOverride.
+     * @return Property of the given driverBase that holds the value of this parameter.
+     */
+    public DoubleProperty propertyOf(DriverBase driverBase) {
+        return property.apply(driverBase);
+    }
+
+    /**
+     * Returns the flag that determines whether this parameter is overridden.
+     *
+     * @param overrideFlags Override flags of a Driver or TrackOverride.
+     * @return Flag of the given overrideFlags that corresponds to this parameter.
+     */
+    public BooleanProperty flagOf(OverrideFlags overrideFlags) {
+        return flag.apply(overrideFlags);
+    }
+
+    /**
+     * Checks whether a value lies within the range of the parameters.
+     *
+     * @param value Value to check.
+     * @return True if the value is between MIN_VALUE and MAX_VALUE inclusive, false otherwise or if it's NaN.
+     */
+    public static boolean isInRange(double value) {
+        return value >= MIN_VALUE && value <= MAX_VALUE;
+    }
+}
@@ -14,6 +14,8 @@
 
 package net.dragondelve.customdriversutil.model;
 
+import net.dragondelve.customdriversutil.model.snapshot.GridSnapshot;
+
 /**
  * Full Grid of Drivers stores the specific class that has been assigned to the grid.
  */
@@ -40,4 +42,14 @@ public final class Grid extends DriverLibrary {
     public void setVehicleClass(VehicleClass vehicleClass) {
         this.vehicleClass = vehicleClass;
     }
+
+    /**
+     * Takes an immutable snapshot of this grid, that shares the cached snapshots of all drivers that have not changed
+     * since they were last taken. Must be called on the thread that owns the grid.
+     *
+     * @return New instance of GridSnapshot.
+     */
+    public GridSnapshot snapshot() {
+        return GridSnapshot.of(this);
+    }
 }
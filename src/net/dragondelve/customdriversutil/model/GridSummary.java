@@ -0,0 +1,140 @@
+// Copyright 2023 Prokhor Kalinin
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package net.dragondelve.customdriversutil.model;
+
+import java.io.File;
+import java.util.Collections;
+import java.util.Set;
+
+/**
+ * Summary of a grid file that is produced by scanning the file without importing it. It holds no Drivers,
+ * TrackOverrides or JavaFX properties, so it's cheap to create for many files at once.
+ * Instances of this class are immutable.
+ */
+public final class GridSummary {
+    /**
+     * File that was scanned.
+     */
+    private final File file;
+
+    /**
+     * Vehicle class from the library whose xml name matches the file name, null if none was found.
+     */
+    private final VehicleClass vehicleClass;
+
+    /**
+     * Number of base drivers in the grid.
+     */
+    private final int driverCount;
+
+    /**
+     * Number of track specific overrides in the grid.
+     */
+    private final int overrideCount;
+
+    /**
+     * Livery names of the base drivers in the order they appear in the file.
+     */
+    private final Set<String> liveryNames;
+
+    /**
+     * Xml names of all tracks referenced by the track specific overrides in the order they first appear in the file.
+     */
+    private final Set<String> trackNames;
+
+    /**
+     * Creates a new instance of GridSummary.
+     *
+     * @param file          File that was scanned.
+     * @param vehicleClass  Vehicle class from the library whose xml name matches the file name, can be null.
+     * @param driverCount   Number of base drivers in the grid.
+     * @param overrideCount Number of track specific overrides in the grid.
+     * @param liveryNames   Livery names of the base drivers. The set is not copied and must not be modified afterwards.
+     * @param trackNames    Xml names of all referenced tracks. The set is not copied and must not be modified afterwards.
+     */
+    public GridSummary(File file, VehicleClass vehicleClass, int driverCount, int overrideCount, Set<String> liveryNames, Set<String> trackNames) {
+        this.file = file;
+        this.vehicleClass = vehicleClass;
+        this.driverCount = driverCount;
+        this.overrideCount = overrideCount;
+        this.liveryNames = Collections.unmodifiableSet(liveryNames);
+        this.trackNames = Collections.unmodifiableSet(trackNames);
+    }
+
+    /**
+     * Lightweight accessor method.
+     *
+     * @return File that was scanned.
+     */
+    public File getFile() {
+        return file;
+    }
+
+    /**
+     * Lightweight accessor method.
+     *
+     * @return Vehicle class from the library whose xml name matches the file name, or null if none was found.
+     */
+    public VehicleClass getVehicleClass() {
+        return vehicleClass;
+    }
+
+    /**
+     * Lightweight accessor method.
+     *
+     * @return Number of base drivers in the grid.
+     */
+    public int getDriverCount() {
+        return driverCount;
+    }
+
+    /**
+     * Lightweight accessor method.
+     *
+     * @return Number of track specific overrides in the grid.
+     */
+    public int getOverrideCount() {
+        return overrideCount;
+    }
+
+    /**
+     * Lightweight accessor method.
+     *
+     * @return Unmodifiable set of livery names of the base drivers in the order they appear in the file.
+     */
+    public Set<String> getLiveryNames() {
+        return liveryNames;
+    }
+
+    /**
+     * Lightweight accessor method.
+     *
+     * @return Unmodifiable set of xml names of all tracks referenced by the track specific overrides.
+     */
+    public Set<String> getTrackNames() {
+        return trackNames;
+    }
+
+    /**
+     * Converts the summary to a String for visual representation of the object.
+     *
+     * @return Human-readable summary of the grid.
+     */
+    @Override
+    public String toString() {
+        return file.getName() + " (" + (vehicleClass == null ? "unknown class" : vehicleClass.getName()) + "): "
+                + driverCount + " drivers, " + overrideCount + " overrides, " + trackNames.size() + " tracks";
+    }
+}
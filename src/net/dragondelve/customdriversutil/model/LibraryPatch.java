@@ -0,0 +1,198 @@
+// Copyright 2023 Prokhor Kalinin
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package net.dragondelve.customdriversutil.model;
+
+import net.dragondelve.customdriversutil.util.InternedStringAdapter;
+
+import javax.xml.bind.annotation.XmlElement;
+import javax.xml.bind.annotation.XmlElementWrapper;
+import javax.xml.bind.annotation.XmlRootElement;
+import javax.xml.bind.annotation.XmlTransient;
+import javax.xml.bind.annotation.adapters.XmlJavaTypeAdapter;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Difference between two versions of the Track Library and the Vehicle Class Library, such as the libraries of two
+ * AMS2 versions. Only vanilla vehicle classes are described by a patch, modded vehicle classes are never added,
+ * changed or removed by one. Tracks and vehicle classes are identified by their xml name.
+ * Patches are created and applied with ModelDiff.
+ * This class is fully annotated with JAXB for easy XML conversion.
+ */
+@XmlRootElement(name = "library_patch")
+public class LibraryPatch {
+    /**
+     * Tracks that are added to the Track Library.
+     */
+    private List<Track> addedTracks = new ArrayList<>();
+
+    /**
+     * Tracks of the Track Library whose name or flags have changed, with their new values.
+     */
+    private List<Track> changedTracks = new ArrayList<>();
+
+    /**
+     * Xml names of the tracks that are removed from the Track Library.
+     */
+    private List<String> removedTracks = new ArrayList<>();
+
+    /**
+     * Vanilla vehicle classes that are added to the Vehicle Class Library.
+     */
+    private List<VehicleClass> addedVehicleClasses = new ArrayList<>();
+
+    /**
+     * Changes of the vanilla vehicle classes of the Vehicle Class Library.
+     */
+    private List<VehicleClassPatch> changedVehicleClasses = new ArrayList<>();
+
+    /**
+     * Xml names of the vanilla vehicle classes that are removed from the Vehicle Class Library.
+     */
+    private List<String> removedVehicleClasses = new ArrayList<>();
+
+    /**
+     * Lightweight accessor method.
+     *
+     * @return Tracks that are added to the Track Library.
+     */
+    @XmlElementWrapper(name = "added_tracks")
+    @XmlElement(name = "track")
+    public List<Track> getAddedTracks() {
+        return addedTracks;
+    }
+
+    /**
+     * Lightweight mutator method.
+     *
+     * @param addedTracks Tracks that are added to the Track Library.
+     */
+    public void setAddedTracks(List<Track> addedTracks) {
+        this.addedTracks = addedTracks;
+    }
+
+    /**
+     * Lightweight accessor method.
+     *
+     * @return Tracks of the Track Library whose name or flags have changed, with their new values.
+     */
+    @XmlElementWrapper(name = "changed_tracks")
+    @XmlElement(name = "track")
+    public List<Track> getChangedTracks() {
+        return changedTracks;
+    }
+
+    /**
+     * Lightweight mutator method.
+     *
+     * @param changedTracks Tracks of the Track Library whose name or flags have changed, with their new values.
+     */
+    public void setChangedTracks(List<Track> changedTracks) {
+        this.changedTracks = changedTracks;
+    }
+
+    /**
+     * Lightweight accessor method.
+     *
+     * @return Xml names of the tracks that are removed from the Track Library.
+     */
+    @XmlElementWrapper(name = "removed_tracks")
+    @XmlElement(name = "track")
+    @XmlJavaTypeAdapter(InternedStringAdapter.class)
+    public List<String> getRemovedTracks() {
+        return removedTracks;
+    }
+
+    /**
+     * Lightweight mutator method.
+     *
+     * @param removedTracks Xml names of the tracks that are removed from the Track Library.
+     */
+    public void setRemovedTracks(List<String> removedTracks) {
+        this.removedTracks = removedTracks;
+    }
+
+    /**
+     * Lightweight accessor method.
+     *
+     * @return Vanilla vehicle classes that are added to the Vehicle Class Library.
+     */
+    @XmlElementWrapper(name = "added_vehicle_classes")
+    @XmlElement(name = "vehicle_class")
+    public List<VehicleClass> getAddedVehicleClasses() {
+        return addedVehicleClasses;
+    }
+
+    /**
+     * Lightweight mutator method.
+     *
+     * @param addedVehicleClasses Vanilla vehicle classes that are added to the Vehicle Class Library.
+     */
+    public void setAddedVehicleClasses(List<VehicleClass> addedVehicleClasses) {
+        this.addedVehicleClasses = addedVehicleClasses;
+    }
+
+    /**
+     * Lightweight accessor method.
+     *
+     * @return Changes of the vanilla vehicle classes of the Vehicle Class Library.
+     */
+    @XmlElementWrapper(name = "changed_vehicle_classes")
+    @XmlElement(name = "vehicle_class")
+    public List<VehicleClassPatch> getChangedVehicleClasses() {
+        return changedVehicleClasses;
+    }
+
+    /**
+     * Lightweight mutator method.
+     *
+     * @param changedVehicleClasses Changes of the vanilla vehicle classes of the Vehicle Class Library.
+     */
+    public void setChangedVehicleClasses(List<VehicleClassPatch> changedVehicleClasses) {
+        this.changedVehicleClasses = changedVehicleClasses;
+    }
+
+    /**
+     * Lightweight accessor method.
+     *
+     * @return Xml names of the vanilla vehicle classes that are removed from the Vehicle Class Library.
+     */
+    @XmlElementWrapper(name = "removed_vehicle_classes")
+    @XmlElement(name = "vehicle_class")
+    @XmlJavaTypeAdapter(InternedStringAdapter.class)
+    public List<String> getRemovedVehicleClasses() {
+        return removedVehicleClasses;
+    }
+
+    /**
+     * Lightweight mutator method.
+     *
+     * @param removedVehicleClasses Xml names of the vanilla vehicle classes that are removed from the Vehicle Class Library.
+     */
+    public void setRemovedVehicleClasses(List<String> removedVehicleClasses) {
+        this.removedVehicleClasses = removedVehicleClasses;
+    }
+
+    /**
+     * Checks whether this patch changes anything.
+     *
+     * @return True if the patch contains no changes at all, false otherwise.
+     */
+    @XmlTransient
+    public boolean isEmpty() {
+        return addedTracks.isEmpty() && changedTracks.isEmpty() && removedTracks.isEmpty()
+                && addedVehicleClasses.isEmpty() && changedVehicleClasses.isEmpty() && removedVehicleClasses.isEmpty();
+    }
+}
@@ -0,0 +1,232 @@
+// Copyright 2023 Prokhor Kalinin
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package net.dragondelve.customdriversutil.model;
+
+import java.util.*;
+import java.util.function.Predicate;
+
+/**
+ * Case-insensitive search index over livery names for type-ahead lookups. Names are kept sorted by their lower case
+ * form, so all names that start with a query are found with a single range lookup, and every name is also indexed by
+ * the trigrams it contains, so that names that contain the query elsewhere are found without scanning all names.
+ * The index is updated incrementally, every name is counted as many times as it was added and stays in the index until
+ * it was removed as many times. Prefix matches are always returned before other matches, both in alphabetical order.
+ * It's safe to use from any thread.
+ */
+public class LiverySearchIndex {
+    /**
+     * Length of the n-grams by which the names are indexed. Queries that are shorter are matched against all names.
+     */
+    private static final int GRAM_LENGTH = 3;
+
+    /**
+     * Entries of all indexed names by their key, which orders them by their lower case form.
+     */
+    private final NavigableMap<String, Entry> entries = new TreeMap<>();
+
+    /**
+     * Entries by every trigram contained in their lower case form.
+     */
+    private final Map<String, Set<Entry>> grams = new HashMap<>();
+
+    /**
+     * Adds an occurrence of a name to the index.
+     *
+     * @param name Livery name, can be null.
+     */
+    public synchronized void add(String name) {
+        if (name == null)
+            return;
+        String key = keyOf(name);
+        Entry entry = entries.get(key);
+        if (entry == null) {
+            entry = new Entry(key, name);
+            entries.put(key, entry);
+            for (String gram : gramsOf(entry.lowerCase))
+                grams.computeIfAbsent(gram, k -> new HashSet<>()).add(entry);
+        }
+        entry.count++;
+    }
+
+    /**
+     * Removes an occurrence of a name from the index. The name is no longer found once all of its occurrences have been
+     * removed.
+     *
+     * @param name Livery name, can be null.
+     */
+    public synchronized void remove(String name) {
+        if (name == null)
+            return;
+        String key = keyOf(name);
+        Entry entry = entries.get(key);
+        if (entry == null || --entry.count > 0)
+            return;
+        entries.remove(key);
+        for (String gram : gramsOf(entry.lowerCase)) {
+            Set<Entry> postings = grams.get(gram);
+            if (postings != null && postings.remove(entry) && postings.isEmpty())
+                grams.remove(gram);
+        }
+    }
+
+    /**
+     * Removes all names from the index.
+     */
+    public synchronized void clear() {
+        entries.clear();
+        grams.clear();
+    }
+
+    /**
+     * Lightweight accessor method.
+     *
+     * @return Number of distinct names in the index.
+     */
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    /**
+     * Finds the names that contain a given query, ignoring case.
+     *
+     * @param query Text typed by the user, can be null.
+     * @param limit Maximum number of names that are returned.
+     * @return Names that start with the query followed by the names that contain it elsewhere, empty if the query is
+     * empty.
+     */
+    public List<String> search(String query, int limit) {
+        return search(query, limit, name -> true);
+    }
+
+    /**
+     * Finds the names that contain a given query and are accepted by a filter, ignoring case.
+     *
+     * @param query  Text typed by the user, can be null.
+     * @param limit  Maximum number of names that are returned.
+     * @param filter Accepts the names that can be returned, it's called while the index is locked.
+     * @return Names that start with the query followed by the names that contain it elsewhere, empty if the query is
+     * empty.
+     */
+    public synchronized List<String> search(String query, int limit, Predicate<String> filter) {
+        List<String> results = new ArrayList<>();
+        if (query == null || query.isEmpty() || limit <= 0)
+            return results;
+        String lowerCase = query.toLowerCase(Locale.ROOT);
+
+        for (Entry entry : entries.subMap(lowerCase, true, lowerCase + Character.MAX_VALUE, false).values()) {
+            if (results.size() >= limit)
+                return results;
+            if (entry.lowerCase.startsWith(lowerCase) && filter.test(entry.name))
+                results.add(entry.name);
+        }
+
+        Collection<Entry> candidates = null;
+        if (lowerCase.length() >= GRAM_LENGTH) {
+            //Every match contains all trigrams of the query, so the smallest of their posting sets holds all matches.
+            for (String gram : gramsOf(lowerCase)) {
+                Set<Entry> postings = grams.getOrDefault(gram, Collections.emptySet());
+                if (candidates == null || postings.size() < candidates.size())
+                    candidates = postings;
+            }
+        }
+        if (candidates == null)
+            candidates = entries.values();
+        List<Entry> matches = new ArrayList<>();
+        for (Entry entry : candidates)
+            if (!entry.lowerCase.startsWith(lowerCase) && entry.lowerCase.contains(lowerCase) && filter.test(entry.name))
+                matches.add(entry);
+        matches.sort(Comparator.comparing(entry -> entry.key));
+        for (int i = 0; i < matches.size() && results.size() < limit; i++)
+            results.add(matches.get(i).name);
+        return results;
+    }
+
+    /**
+     * Finds the names of a collection that contain a given query, ignoring case, in the same order the index returns
+     * them. Used for small collections of names that are not indexed.
+     *
+     * @param names Names to search.
+     * @param query Text typed by the user, can be null.
+     * @param limit Maximum number of names that are returned.
+     * @return Names that start with the query followed by the names that contain it elsewhere, empty if the query is
+     * empty.
+     */
+    public static List<String> search(Collection<String> names, String query, int limit) {
+        LiverySearchIndex index = new LiverySearchIndex();
+        names.forEach(index::add);
+        return index.search(query, limit);
+    }
+
+    /**
+     * Creates the key of a name, which orders names by their lower case form and keeps names that only differ in case
+     * apart.
+     *
+     * @param name Livery name.
+     * @return Key of the name.
+     */
+    private static String keyOf(String name) {
+        return name.toLowerCase(Locale.ROOT) + '\0' + name;
+    }
+
+    /**
+     * Lists the distinct trigrams of a lower case name.
+     *
+     * @param lowerCase Lower case form of a name.
+     * @return Distinct trigrams of the name, empty if it's shorter than a trigram.
+     */
+    private static Set<String> gramsOf(String lowerCase) {
+        Set<String> result = new HashSet<>();
+        for (int i = 0; i + GRAM_LENGTH <= lowerCase.length(); i++)
+            result.add(lowerCase.substring(i, i + GRAM_LENGTH));
+        return result;
+    }
+
+    /**
+     * A single indexed name.
+     */
+    private static final class Entry {
+        /**
+         * Key by which the entry is sorted.
+         */
+        private final String key;
+
+        /**
+         * Livery name as it was added.
+         */
+        private final String name;
+
+        /**
+         * Lower case form of the name.
+         */
+        private final String lowerCase;
+
+        /**
+         * Number of times the name was added and not removed yet.
+         */
+        private int count;
+
+        /**
+         * Creates a new entry.
+         *
+         * @param key  Key by which the entry is sorted.
+         * @param name Livery name as it was added.
+         */
+        private Entry(String key, String name) {
+            this.key = key;
+            this.name = name;
+            this.lowerCase = name.toLowerCase(Locale.ROOT);
+        }
+    }
+}
@@ -18,10 +18,12 @@ import javafx.beans.property.BooleanProperty;
 import javafx.beans.property.SimpleBooleanProperty;
 import javafx.beans.property.SimpleStringProperty;
 import javafx.beans.property.StringProperty;
+import net.dragondelve.customdriversutil.util.InternedStringAdapter;
 
 import javax.xml.bind.annotation.XmlAttribute;
 import javax.xml.bind.annotation.XmlElement;
 import javax.xml.bind.annotation.XmlRootElement;
+import javax.xml.bind.annotation.adapters.XmlJavaTypeAdapter;
 
 /**
  * Represents an in game track.
@@ -80,6 +82,7 @@ public final class Track {
      * @return Track name that is human-readable, it's used for display purposes.
      */
     @XmlAttribute(name = "name")
+    @XmlJavaTypeAdapter(InternedStringAdapter.class)
     public String getName() {
         return name.get();
     }
@@ -108,6 +111,7 @@ public final class Track {
      * @return Track name that is used in the XML when exporting.
      */
     @XmlAttribute(name = "xml_name")
+    @XmlJavaTypeAdapter(InternedStringAdapter.class)
     public String getXmlName() {
         return xmlName.get();
     }
@@ -14,18 +14,24 @@
 
 package net.dragondelve.customdriversutil.model;
 
+import javafx.beans.value.ChangeListener;
 import javafx.collections.FXCollections;
+import javafx.collections.ListChangeListener;
 import javafx.collections.ObservableList;
 import net.dragondelve.customdriversutil.util.DDUtil;
 
 import javax.xml.bind.annotation.XmlElement;
 import javax.xml.bind.annotation.XmlElementWrapper;
 import javax.xml.bind.annotation.XmlRootElement;
-import java.util.NoSuchElementException;
+import java.util.IdentityHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.logging.Level;
 
 /**
  * Library of tracks that is used when generating a custom AI grid.
+ * Tracks are indexed by their xml name, the index is kept in sync with the list of tracks and with the xml names of the
+ * individual tracks. Failed lookups are counted by the caller, so that every import reports only its own unknown tracks.
  * This class is fully annotated with JAXB for easy XML conversion.
  */
 @XmlRootElement(name = "track_library")
@@ -35,6 +41,33 @@ public class TrackLibrary {
      */
     private ObservableList<Track> tracks = FXCollections.observableArrayList();
 
+    /**
+     * Tracks by their xml name. If several tracks share an xml name only one of them is indexed.
+     */
+    private final Map<String, Track> xmlNameIndex = new ConcurrentHashMap<>();
+
+    /**
+     * Listeners registered on the xml name property of each indexed track, so that they can be removed with the track.
+     */
+    private final Map<Track, ChangeListener<String>> xmlNameListeners = new IdentityHashMap<>();
+
+    /**
+     * Keeps the index in sync with the list of tracks.
+     */
+    private final ListChangeListener<Track> tracksListener = change -> {
+        while (change.next()) {
+            change.getRemoved().forEach(this::unindexTrack);
+            change.getAddedSubList().forEach(this::indexTrack);
+        }
+    };
+
+    /**
+     * Default constructor. Creates an empty library.
+     */
+    public TrackLibrary() {
+        tracks.addListener(tracksListener);
+    }
+
     /**
      * Lightweight accessor method.
      *
@@ -47,12 +80,20 @@ public class TrackLibrary {
     }
 
     /**
-     * Lightweight mutator method.
+     * Lightweight mutator method. The index is rebuilt from the new list.
      *
      * @param tracks List of all tracks in the Track Library.
      */
     public void setTracks(ObservableList<Track> tracks) {
+        if (this.tracks == tracks)
+            return;
+        this.tracks.removeListener(tracksListener);
+        xmlNameListeners.forEach((track, listener) -> track.xmlNameProperty().removeListener(listener));
+        xmlNameListeners.clear();
+        xmlNameIndex.clear();
         this.tracks = tracks;
+        this.tracks.forEach(this::indexTrack);
+        this.tracks.addListener(tracksListener);
     }
 
     /**
@@ -62,11 +103,91 @@ public class TrackLibrary {
      * @return track from the library with that name or null if none found.
      */
     public Track findTrackWithXmlName(String xmlName) {
-        try {
-            return tracks.stream().filter(track -> track.getXmlName().equals(xmlName)).findFirst().get();
-        } catch (NoSuchElementException e) {
-            DDUtil.DEFAULT_LOGGER.log(Level.WARNING, "Trying to find track with name '" + xmlName + "' in the library but no such track found");
-            return null;
-        }
+        return xmlName != null ? xmlNameIndex.get(xmlName) : null;
+    }
+
+    /**
+     * Finds a track in the library with a given name and counts the lookup in a given map if the track is not found.
+     * Misses are not logged immediately, an import collects them in its own map and logs them once it has finished
+     * with logUnknownTracks().
+     *
+     * @param xmlName Track name that is used in the XML when exporting.
+     * @param misses  Number of failed lookups per unknown xml name, owned by the caller.
+     * @return track from the library with that name or null if none found.
+     */
+    public Track findTrackWithXmlName(String xmlName, Map<String, Integer> misses) {
+        Track track = findTrackWithXmlName(xmlName);
+        if (track == null && xmlName != null)
+            misses.merge(xmlName, 1, Integer::sum);
+        return track;
+    }
+
+    /**
+     * Logs one warning for every unknown track name collected by findTrackWithXmlName(String, Map), with the number of
+     * times it was looked up. Should be called once an import has finished.
+     *
+     * @param misses Number of failed lookups per unknown xml name collected by a single import.
+     */
+    public static void logUnknownTracks(Map<String, Integer> misses) {
+        misses.forEach((xmlName, count) -> DDUtil.DEFAULT_LOGGER.log(Level.WARNING,
+                "Trying to find track with name '" + xmlName + "' in the library but no such track found (" + count + " references)"));
+    }
+
+    /**
+     * Adds a track to the index and starts listening to changes of its xml name.
+     *
+     * @param track Track that was added to the library.
+     */
+    private void indexTrack(Track track) {
+        if (xmlNameListeners.containsKey(track))
+            return;
+        ChangeListener<String> listener = (observable, oldValue, newValue) -> {
+            removeFromIndex(oldValue, track);
+            addToIndex(newValue, track);
+        };
+        track.xmlNameProperty().addListener(listener);
+        xmlNameListeners.put(track, listener);
+        addToIndex(track.getXmlName(), track);
+    }
+
+    /**
+     * Removes a track from the index and stops listening to changes of its xml name.
+     *
+     * @param track Track that was removed from the library.
+     */
+    private void unindexTrack(Track track) {
+        if (tracks.contains(track))
+            return;
+        ChangeListener<String> listener = xmlNameListeners.remove(track);
+        if (listener != null)
+            track.xmlNameProperty().removeListener(listener);
+        removeFromIndex(track.getXmlName(), track);
+    }
+
+    /**
+     * Maps an xml name to a track unless another track is already mapped to it.
+     *
+     * @param xmlName Xml name of the track, can be null.
+     * @param track   Track to be mapped.
+     */
+    private void addToIndex(String xmlName, Track track) {
+        if (xmlName == null)
+            return;
+        xmlNameIndex.putIfAbsent(xmlName, track);
+    }
+
+    /**
+     * Removes the mapping of an xml name to a track. If another track in the library shares that name it is mapped instead.
+     *
+     * @param xmlName Xml name of the track, can be null.
+     * @param track   Track whose mapping is removed.
+     */
+    private void removeFromIndex(String xmlName, Track track) {
+        if (xmlName == null || !xmlNameIndex.remove(xmlName, track))
+            return;
+        tracks.stream()
+                .filter(other -> other != track && xmlName.equals(other.getXmlName()))
+                .findFirst()
+                .ifPresent(other -> xmlNameIndex.put(xmlName, other));
     }
 }
@@ -14,8 +14,10 @@
 
 package net.dragondelve.customdriversutil.model;
 
+import javafx.beans.InvalidationListener;
 import javafx.collections.FXCollections;
 import javafx.collections.ObservableList;
+import net.dragondelve.customdriversutil.model.snapshot.TrackOverrideSnapshot;
 
 /**
  * Represents a model of a specific track override as described by AMS2 Developers here:
@@ -28,6 +30,16 @@ final public class TrackOverride extends DriverBase {
      */
     private final ObservableList<Track> tracks = FXCollections.observableArrayList();
 
+    /**
+     * Cached snapshot of this override, null if it has to be taken again.
+     */
+    private TrackOverrideSnapshot snapshot;
+
+    /**
+     * Listener that discards the cached snapshot, registered when the first snapshot is taken.
+     */
+    private InvalidationListener snapshotInvalidator;
+
     /**
      * Lightweight Accessor Method.
      *
@@ -36,4 +48,22 @@ final public class TrackOverride extends DriverBase {
     public ObservableList<Track> getTrack() {
         return tracks;
     }
+
+    /**
+     * Takes an immutable snapshot of this override. The snapshot is cached and returned again until any value, flag or
+     * track of this override changes, or one of its tracks is renamed. Must be called on the thread that owns the
+     * override.
+     *
+     * @return Snapshot of this override.
+     */
+    public TrackOverrideSnapshot snapshot() {
+        if (snapshotInvalidator == null) {
+            snapshotInvalidator = observable -> snapshot = null;
+            addPropertyListener(snapshotInvalidator);
+            tracks.addListener(snapshotInvalidator);
+        }
+        if (snapshot == null || !snapshot.hasSameTracks(this))
+            snapshot = new TrackOverrideSnapshot(this);
+        return snapshot;
+    }
 }
@@ -16,9 +16,11 @@ package net.dragondelve.customdriversutil.model;
 
 import javafx.beans.property.SimpleStringProperty;
 import javafx.beans.property.StringProperty;
+import net.dragondelve.customdriversutil.util.InternedStringAdapter;
 
 import javax.xml.bind.annotation.XmlAttribute;
 import javax.xml.bind.annotation.XmlRootElement;
+import javax.xml.bind.annotation.adapters.XmlJavaTypeAdapter;
 
 /**
  * Represents a vehicle in the game
@@ -43,6 +45,7 @@ public class Vehicle {
      * @return Human-readable name of the vehicle
      */
     @XmlAttribute(name = "name")
+    @XmlJavaTypeAdapter(InternedStringAdapter.class)
     public String getName() {
         return name.get();
     }
@@ -71,6 +74,7 @@ public class Vehicle {
      * @return Xml-name of the vehicle used in livery overrides
      */
     @XmlAttribute(name = "xml_name")
+    @XmlJavaTypeAdapter(InternedStringAdapter.class)
     public String getXmlName() {
         return xmlName.get();
     }
@@ -20,11 +20,13 @@ import javafx.beans.property.SimpleStringProperty;
 import javafx.beans.property.StringProperty;
 import javafx.collections.FXCollections;
 import javafx.collections.ObservableList;
+import net.dragondelve.customdriversutil.util.InternedStringAdapter;
 
 import javax.xml.bind.annotation.XmlAttribute;
 import javax.xml.bind.annotation.XmlElement;
 import javax.xml.bind.annotation.XmlElementWrapper;
 import javax.xml.bind.annotation.XmlRootElement;
+import javax.xml.bind.annotation.adapters.XmlJavaTypeAdapter;
 
 /**
  * Represents an in game vehicle class.
@@ -63,6 +65,7 @@ public final class VehicleClass {
      * @return Vehicle Class name that is human-readable.
      */
     @XmlAttribute(name = "name")
+    @XmlJavaTypeAdapter(InternedStringAdapter.class)
     public String getName() {
         return name.get();
     }
@@ -91,6 +94,7 @@ public final class VehicleClass {
      * @return Vehicle Class name that is used in the XML when exporting.
      */
     @XmlAttribute(name = "xml_name")
+    @XmlJavaTypeAdapter(InternedStringAdapter.class)
     public String getXmlName() {
         return xmlName.get();
     }
@@ -148,6 +152,7 @@ public final class VehicleClass {
      */
     @XmlElementWrapper(name = "liveries")
     @XmlElement(name = "livery")
+    @XmlJavaTypeAdapter(InternedStringAdapter.class)
     public ObservableList<String> getLiveryNames() {
         return liveryNames;
     }
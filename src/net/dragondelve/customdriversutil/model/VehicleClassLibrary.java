@@ -14,18 +14,26 @@
 
 package net.dragondelve.customdriversutil.model;
 
+import javafx.beans.value.ChangeListener;
 import javafx.collections.FXCollections;
+import javafx.collections.ListChangeListener;
 import javafx.collections.ObservableList;
 import net.dragondelve.customdriversutil.util.DDUtil;
 
 import javax.xml.bind.annotation.XmlElement;
 import javax.xml.bind.annotation.XmlElementWrapper;
 import javax.xml.bind.annotation.XmlRootElement;
-import java.util.NoSuchElementException;
+import javax.xml.bind.annotation.XmlTransient;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.logging.Level;
 
 /**
  * Represents a reference Library of Vehicle Classes.
+ * Vehicle classes are indexed by their xml name and modded flag, and by every livery name they contain, the livery
+ * names are also kept in a LiverySearchIndex for type-ahead lookups. The indexes are kept in sync with the list of
+ * vehicle classes, with the xml name and modded flag of every class and with the contents of their livery lists.
+ * Replacing the livery list of a class with setLiveryNames is not tracked, reindex should be called after doing so.
  * This class is fully annotated with JAXB for easy XML conversion.
  */
 @XmlRootElement(name = "vehicle_class_library")
@@ -35,6 +43,49 @@ public class VehicleClassLibrary {
      */
     private ObservableList<VehicleClass> vehicleClasses = FXCollections.observableArrayList();
 
+    /**
+     * Vanilla vehicle classes by their xml name. If several classes share an xml name only one of them is indexed.
+     */
+    private final Map<String, VehicleClass> vanillaIndex = new ConcurrentHashMap<>();
+
+    /**
+     * Modded vehicle classes by their xml name. If several classes share an xml name only one of them is indexed.
+     */
+    private final Map<String, VehicleClass> moddedIndex = new ConcurrentHashMap<>();
+
+    /**
+     * Vehicle classes by the livery names they contain.
+     */
+    private final Map<String, Set<VehicleClass>> liveryIndex = new ConcurrentHashMap<>();
+
+    /**
+     * Search index over the livery names of all vehicle classes, a livery name is counted once for every class that
+     * contains it.
+     */
+    private final LiverySearchIndex liverySearchIndex = new LiverySearchIndex();
+
+    /**
+     * Listeners registered on each indexed vehicle class, so that they can be removed with the class.
+     */
+    private final Map<VehicleClass, ClassListeners> classListeners = new IdentityHashMap<>();
+
+    /**
+     * Keeps the indexes in sync with the list of vehicle classes.
+     */
+    private final ListChangeListener<VehicleClass> vehicleClassesListener = change -> {
+        while (change.next()) {
+            change.getRemoved().forEach(this::unindexVehicleClass);
+            change.getAddedSubList().forEach(this::indexVehicleClass);
+        }
+    };
+
+    /**
+     * Default constructor. Creates an empty library.
+     */
+    public VehicleClassLibrary() {
+        vehicleClasses.addListener(vehicleClassesListener);
+    }
+
     /**
      * Lightweight Accessor Method
      *
@@ -47,12 +98,22 @@ public class VehicleClassLibrary {
     }
 
     /**
-     * Lightweight Mutator Method
+     * Lightweight Mutator Method. The indexes are rebuilt from the new list.
      *
      * @param vehicleClasses List of vehicle classes contained in the library.
      */
     public void setVehicleClasses(ObservableList<VehicleClass> vehicleClasses) {
+        if (this.vehicleClasses == vehicleClasses)
+            return;
+        this.vehicleClasses.removeListener(vehicleClassesListener);
+        new ArrayList<>(classListeners.keySet()).forEach(this::detach);
+        vanillaIndex.clear();
+        moddedIndex.clear();
+        liveryIndex.clear();
+        liverySearchIndex.clear();
         this.vehicleClasses = vehicleClasses;
+        this.vehicleClasses.forEach(this::indexVehicleClass);
+        this.vehicleClasses.addListener(vehicleClassesListener);
     }
 
     /**
@@ -62,11 +123,247 @@ public class VehicleClassLibrary {
      * @return Vanilla vehicle class with xmlName that matches the xmlName provided if it's found or null if it isn't found.
      */
     public VehicleClass findVanillaVehicleClass(String xmlName) {
-        try {
-            return vehicleClasses.stream().filter(track -> track.getXmlName().equals(xmlName) && !track.isModded()).findFirst().get();
-        } catch (NoSuchElementException e) {
-            DDUtil.DEFAULT_LOGGER.log(Level.WARNING, "Trying to find vehicle class with xml name '" + xmlName + "' in the library but no such track found");
+        VehicleClass vehicleClass = findVehicleClass(xmlName, false);
+        if (vehicleClass == null)
+            DDUtil.DEFAULT_LOGGER.log(Level.WARNING, "Trying to find vehicle class with xml name '" + xmlName + "' in the library but no such vehicle class found");
+        return vehicleClass;
+    }
+
+    /**
+     * Finds a vehicle class with a given xml name and modded flag.
+     *
+     * @param xmlName Name of the xmlFile of the vehicle class without the .xml
+     * @param modded  True to look for a modded vehicle class, false to look for a vanilla one.
+     * @return Vehicle class that matches both the xmlName and the modded flag, or null if it isn't found.
+     */
+    public VehicleClass findVehicleClass(String xmlName, boolean modded) {
+        if (xmlName == null)
             return null;
+        return (modded ? moddedIndex : vanillaIndex).get(xmlName);
+    }
+
+    /**
+     * Finds a vehicle class with a given xml name. Vanilla vehicle classes take precedence over modded ones.
+     *
+     * @param xmlName Name of the xmlFile of the vehicle class without the .xml
+     * @return Vanilla vehicle class with that xml name if there is one, otherwise a modded one, or null if there is neither.
+     */
+    public VehicleClass findVehicleClass(String xmlName) {
+        VehicleClass vehicleClass = findVehicleClass(xmlName, false);
+        return vehicleClass != null ? vehicleClass : findVehicleClass(xmlName, true);
+    }
+
+    /**
+     * Finds all vehicle classes that contain a given livery name.
+     *
+     * @param liveryName In game name of the livery.
+     * @return Unmodifiable list of the vehicle classes that contain the livery, empty if there are none.
+     */
+    public List<VehicleClass> findVehicleClassesWithLivery(String liveryName) {
+        if (liveryName == null)
+            return Collections.emptyList();
+        Set<VehicleClass> classes = liveryIndex.get(liveryName);
+        if (classes == null)
+            return Collections.emptyList();
+        return List.copyOf(classes);
+    }
+
+    /**
+     * Checks whether a vehicle class is one of the vehicle classes of this library.
+     *
+     * @param vehicleClass Vehicle class to check.
+     * @return True if this library contains that instance of the vehicle class, false otherwise.
+     */
+    public boolean contains(VehicleClass vehicleClass) {
+        return classListeners.containsKey(vehicleClass);
+    }
+
+    /**
+     * Lightweight accessor method.
+     *
+     * @return Search index over the livery names of all vehicle classes, it's kept in sync the same way the other
+     * indexes are.
+     */
+    @XmlTransient
+    public LiverySearchIndex getLiverySearchIndex() {
+        return liverySearchIndex;
+    }
+
+    /**
+     * Rebuilds the index entries of a single vehicle class. Should be called after the livery list of a class in this
+     * library has been replaced with setLiveryNames.
+     *
+     * @param vehicleClass Vehicle class contained in this library.
+     */
+    public void reindex(VehicleClass vehicleClass) {
+        ClassListeners listeners = classListeners.get(vehicleClass);
+        if (listeners == null)
+            return;
+        listeners.liveryNames.forEach(liveryName -> removeLivery(liveryName, vehicleClass, null));
+        detach(vehicleClass);
+        removeFromIndex(vehicleClass.getXmlName(), vehicleClass.isModded(), vehicleClass);
+        indexVehicleClass(vehicleClass);
+    }
+
+    /**
+     * Adds a vehicle class to all indexes and starts listening to its changes.
+     *
+     * @param vehicleClass Vehicle class that was added to the library.
+     */
+    private void indexVehicleClass(VehicleClass vehicleClass) {
+        if (classListeners.containsKey(vehicleClass))
+            return;
+        ClassListeners listeners = new ClassListeners(vehicleClass);
+        classListeners.put(vehicleClass, listeners);
+        addToIndex(vehicleClass.getXmlName(), vehicleClass.isModded(), vehicleClass);
+        listeners.liveryNames.forEach(liveryName -> addLivery(liveryName, vehicleClass));
+    }
+
+    /**
+     * Removes a vehicle class from all indexes and stops listening to its changes.
+     *
+     * @param vehicleClass Vehicle class that was removed from the library.
+     */
+    private void unindexVehicleClass(VehicleClass vehicleClass) {
+        if (vehicleClasses.contains(vehicleClass))
+            return;
+        ClassListeners listeners = classListeners.get(vehicleClass);
+        if (listeners == null)
+            return;
+        detach(vehicleClass);
+        removeFromIndex(vehicleClass.getXmlName(), vehicleClass.isModded(), vehicleClass);
+        listeners.liveryNames.forEach(liveryName -> removeLivery(liveryName, vehicleClass, null));
+    }
+
+    /**
+     * Removes all listeners that were registered on a vehicle class.
+     *
+     * @param vehicleClass Indexed vehicle class.
+     */
+    private void detach(VehicleClass vehicleClass) {
+        ClassListeners listeners = classListeners.remove(vehicleClass);
+        if (listeners != null)
+            listeners.remove(vehicleClass);
+    }
+
+    /**
+     * Maps an xml name to a vehicle class unless another class with the same modded flag is already mapped to it.
+     *
+     * @param xmlName      Xml name of the vehicle class, can be null.
+     * @param modded       Modded flag of the vehicle class.
+     * @param vehicleClass Vehicle class to be mapped.
+     */
+    private void addToIndex(String xmlName, boolean modded, VehicleClass vehicleClass) {
+        if (xmlName != null)
+            (modded ? moddedIndex : vanillaIndex).putIfAbsent(xmlName, vehicleClass);
+    }
+
+    /**
+     * Removes the mapping of an xml name to a vehicle class. If another class in the library has the same xml name and
+     * modded flag it is mapped instead.
+     *
+     * @param xmlName      Xml name of the vehicle class, can be null.
+     * @param modded       Modded flag of the vehicle class.
+     * @param vehicleClass Vehicle class whose mapping is removed.
+     */
+    private void removeFromIndex(String xmlName, boolean modded, VehicleClass vehicleClass) {
+        Map<String, VehicleClass> index = modded ? moddedIndex : vanillaIndex;
+        if (xmlName == null || !index.remove(xmlName, vehicleClass))
+            return;
+        vehicleClasses.stream()
+                .filter(other -> other != vehicleClass && other.isModded() == modded && xmlName.equals(other.getXmlName()))
+                .findFirst()
+                .ifPresent(other -> index.put(xmlName, other));
+    }
+
+    /**
+     * Adds a vehicle class to the reverse index entry of a livery name.
+     *
+     * @param liveryName   Livery name contained in the vehicle class, can be null.
+     * @param vehicleClass Vehicle class that contains the livery.
+     */
+    private void addLivery(String liveryName, VehicleClass vehicleClass) {
+        if (liveryName != null && liveryIndex.computeIfAbsent(liveryName, key -> ConcurrentHashMap.newKeySet()).add(vehicleClass))
+            liverySearchIndex.add(liveryName);
+    }
+
+    /**
+     * Removes a vehicle class from the reverse index entry of a livery name, unless the livery is still contained in its
+     * livery list.
+     *
+     * @param liveryName   Livery name that was removed from the vehicle class, can be null.
+     * @param vehicleClass Vehicle class that contained the livery.
+     * @param liveryNames  Livery list of the vehicle class that is checked for other occurrences of the livery, can be null.
+     */
+    private void removeLivery(String liveryName, VehicleClass vehicleClass, List<String> liveryNames) {
+        if (liveryName == null || (liveryNames != null && liveryNames.contains(liveryName)))
+            return;
+        liveryIndex.computeIfPresent(liveryName, (key, classes) -> {
+            if (classes.remove(vehicleClass))
+                liverySearchIndex.remove(liveryName);
+            return classes.isEmpty() ? null : classes;
+        });
+    }
+
+    /**
+     * Listeners that keep the indexes in sync with a single vehicle class.
+     */
+    private final class ClassListeners {
+        /**
+         * Livery list the listener was registered on.
+         */
+        private final ObservableList<String> liveryNames;
+
+        /**
+         * Moves the class between xml names in the index.
+         */
+        private final ChangeListener<String> xmlNameListener;
+
+        /**
+         * Moves the class between the vanilla and modded index.
+         */
+        private final ChangeListener<Boolean> isModdedListener;
+
+        /**
+         * Keeps the reverse livery index in sync with the livery list.
+         */
+        private final ListChangeListener<String> liveryNamesListener;
+
+        /**
+         * Creates the listeners and registers them on a given vehicle class.
+         *
+         * @param vehicleClass Vehicle class to listen to.
+         */
+        private ClassListeners(VehicleClass vehicleClass) {
+            liveryNames = vehicleClass.getLiveryNames();
+            xmlNameListener = (observable, oldValue, newValue) -> {
+                removeFromIndex(oldValue, vehicleClass.isModded(), vehicleClass);
+                addToIndex(newValue, vehicleClass.isModded(), vehicleClass);
+            };
+            isModdedListener = (observable, oldValue, newValue) -> {
+                removeFromIndex(vehicleClass.getXmlName(), oldValue, vehicleClass);
+                addToIndex(vehicleClass.getXmlName(), newValue, vehicleClass);
+            };
+            liveryNamesListener = change -> {
+                while (change.next()) {
+                    change.getRemoved().forEach(liveryName -> removeLivery(liveryName, vehicleClass, liveryNames));
+                    change.getAddedSubList().forEach(liveryName -> addLivery(liveryName, vehicleClass));
+                }
+            };
+            vehicleClass.xmlNameProperty().addListener(xmlNameListener);
+            vehicleClass.isModdedProperty().addListener(isModdedListener);
+            liveryNames.addListener(liveryNamesListener);
+        }
+
+        /**
+         * Removes the listeners from a given vehicle class.
+         *
+         * @param vehicleClass Vehicle class the listeners were registered on.
+         */
+        private void remove(VehicleClass vehicleClass) {
+            vehicleClass.xmlNameProperty().removeListener(xmlNameListener);
+            vehicleClass.isModdedProperty().removeListener(isModdedListener);
+            liveryNames.removeListener(liveryNamesListener);
         }
     }
 }
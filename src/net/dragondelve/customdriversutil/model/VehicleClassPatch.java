@@ -0,0 +1,195 @@
+// Copyright 2023 Prokhor Kalinin
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package net.dragondelve.customdriversutil.model;
+
+import net.dragondelve.customdriversutil.util.InternedStringAdapter;
+
+import javax.xml.bind.annotation.XmlAttribute;
+import javax.xml.bind.annotation.XmlElement;
+import javax.xml.bind.annotation.XmlElementWrapper;
+import javax.xml.bind.annotation.XmlTransient;
+import javax.xml.bind.annotation.adapters.XmlJavaTypeAdapter;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Changes of a single vanilla vehicle class that is part of a LibraryPatch. Only the liveries and vehicles that were
+ * added or removed are listed, so that a class with a few new liveries does not have to be shipped in full.
+ * This class is fully annotated with JAXB for easy XML conversion.
+ */
+public class VehicleClassPatch {
+    /**
+     * Xml name of the vehicle class that is changed.
+     */
+    private String xmlName;
+
+    /**
+     * New human-readable name of the vehicle class, or null if the name has not changed.
+     */
+    private String name;
+
+    /**
+     * Liveries that are added to the vehicle class.
+     */
+    private List<String> addedLiveries = new ArrayList<>();
+
+    /**
+     * Liveries that are removed from the vehicle class.
+     */
+    private List<String> removedLiveries = new ArrayList<>();
+
+    /**
+     * Vehicles that are added to the vehicle class, or whose name has changed.
+     */
+    private List<Vehicle> addedVehicles = new ArrayList<>();
+
+    /**
+     * Xml names of the vehicles that are removed from the vehicle class.
+     */
+    private List<String> removedVehicles = new ArrayList<>();
+
+    /**
+     * Lightweight accessor method.
+     *
+     * @return Xml name of the vehicle class that is changed.
+     */
+    @XmlAttribute(name = "xml_name")
+    @XmlJavaTypeAdapter(InternedStringAdapter.class)
+    public String getXmlName() {
+        return xmlName;
+    }
+
+    /**
+     * Lightweight mutator method.
+     *
+     * @param xmlName Xml name of the vehicle class that is changed.
+     */
+    public void setXmlName(String xmlName) {
+        this.xmlName = xmlName;
+    }
+
+    /**
+     * Lightweight accessor method.
+     *
+     * @return New human-readable name of the vehicle class, or null if the name has not changed.
+     */
+    @XmlAttribute(name = "name")
+    @XmlJavaTypeAdapter(InternedStringAdapter.class)
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * Lightweight mutator method.
+     *
+     * @param name New human-readable name of the vehicle class, or null if the name has not changed.
+     */
+    public void setName(String name) {
+        this.name = name;
+    }
+
+    /**
+     * Lightweight accessor method.
+     *
+     * @return Liveries that are added to the vehicle class.
+     */
+    @XmlElementWrapper(name = "added_liveries")
+    @XmlElement(name = "livery")
+    @XmlJavaTypeAdapter(InternedStringAdapter.class)
+    public List<String> getAddedLiveries() {
+        return addedLiveries;
+    }
+
+    /**
+     * Lightweight mutator method.
+     *
+     * @param addedLiveries Liveries that are added to the vehicle class.
+     */
+    public void setAddedLiveries(List<String> addedLiveries) {
+        this.addedLiveries = addedLiveries;
+    }
+
+    /**
+     * Lightweight accessor method.
+     *
+     * @return Liveries that are removed from the vehicle class.
+     */
+    @XmlElementWrapper(name = "removed_liveries")
+    @XmlElement(name = "livery")
+    @XmlJavaTypeAdapter(InternedStringAdapter.class)
+    public List<String> getRemovedLiveries() {
+        return removedLiveries;
+    }
+
+    /**
+     * Lightweight mutator method.
+     *
+     * @param removedLiveries Liveries that are removed from the vehicle class.
+     */
+    public void setRemovedLiveries(List<String> removedLiveries) {
+        this.removedLiveries = removedLiveries;
+    }
+
+    /**
+     * Lightweight accessor method.
+     *
+     * @return Vehicles that are added to the vehicle class, or whose name has changed.
+     */
+    @XmlElementWrapper(name = "added_vehicles")
+    @XmlElement(name = "vehicle")
+    public List<Vehicle> getAddedVehicles() {
+        return addedVehicles;
+    }
+
+    /**
+     * Lightweight mutator method.
+     *
+     * @param addedVehicles Vehicles that are added to the vehicle class, or whose name has changed.
+     */
+    public void setAddedVehicles(List<Vehicle> addedVehicles) {
+        this.addedVehicles = addedVehicles;
+    }
+
+    /**
+     * Lightweight accessor method.
+     *
+     * @return Xml names of the vehicles that are removed from the vehicle class.
+     */
+    @XmlElementWrapper(name = "removed_vehicles")
+    @XmlElement(name = "vehicle")
+    @XmlJavaTypeAdapter(InternedStringAdapter.class)
+    public List<String> getRemovedVehicles() {
+        return removedVehicles;
+    }
+
+    /**
+     * Lightweight mutator method.
+     *
+     * @param removedVehicles Xml names of the vehicles that are removed from the vehicle class.
+     */
+    public void setRemovedVehicles(List<String> removedVehicles) {
+        this.removedVehicles = removedVehicles;
+    }
+
+    /**
+     * Checks whether this patch changes anything.
+     *
+     * @return True if the patch contains no changes at all, false otherwise.
+     */
+    @XmlTransient
+    public boolean isEmpty() {
+        return name == null && addedLiveries.isEmpty() && removedLiveries.isEmpty() && addedVehicles.isEmpty() && removedVehicles.isEmpty();
+    }
+}
@@ -0,0 +1,111 @@
+// Copyright 2023 Prokhor Kalinin
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package net.dragondelve.customdriversutil.model.binary;
+
+/**
+ * Constants of the binary project format.
+ * A file starts with a header of the magic number, the format version, the format flags and the length of the payload.
+ * The payload follows, deflated if the compression flag is set, and the file ends with the CRC32 of the uncompressed
+ * payload. The payload consists of the string table followed by sections, every section starts with its tag and its
+ * length, so that readers skip sections they don't know. The payload ends with the END tag.
+ * All strings are written once into the string table and referenced by their index, index 0 stands for null.
+ * Numbers are written as unsigned variable length integers unless stated otherwise, parameter values as doubles.
+ * The bits of the parameters in flag and value masks are DriverParameter.getBit(), so the order of the parameters is
+ * part of the format and must not change without changing the version.
+ */
+final class BinaryFormat {
+    /**
+     * Magic number at the start of every file, "CDPB".
+     */
+    static final int MAGIC = 0x43445042;
+
+    /**
+     * Version of the format that is written. Readers refuse files with a newer version.
+     */
+    static final short VERSION = 1;
+
+    /**
+     * Format flag that is set if the payload is deflated.
+     */
+    static final byte FLAG_COMPRESSED = 0x01;
+
+    /**
+     * Tag that ends the payload.
+     */
+    static final byte SECTION_END = 0;
+
+    /**
+     * Tag of the section that contains a TrackLibrary.
+     */
+    static final byte SECTION_TRACK_LIBRARY = 1;
+
+    /**
+     * Tag of the section that contains a VehicleClassLibrary.
+     */
+    static final byte SECTION_VEHICLE_CLASS_LIBRARY = 2;
+
+    /**
+     * Tag of the section that contains a DriverLibrary.
+     */
+    static final byte SECTION_DRIVER_LIBRARY = 3;
+
+    /**
+     * Tag of the section that contains the grids.
+     */
+    static final byte SECTION_GRIDS = 4;
+
+    /**
+     * Bit of the override flag mask that is set if the name is overridden.
+     */
+    static final int FLAG_NAME = 1 << 16;
+
+    /**
+     * Bit of the override flag mask that is set if the country is overridden.
+     */
+    static final int FLAG_COUNTRY = 1 << 17;
+
+    /**
+     * Bit of the track attributes that is set if the track is an oval.
+     */
+    static final int TRACK_OVAL = 0x01;
+
+    /**
+     * Bit of the track attributes that is set if the track is a rallycross track.
+     */
+    static final int TRACK_RX = 0x02;
+
+    /**
+     * Reference to the vehicle class of a grid that stands for no vehicle class.
+     */
+    static final int VEHICLE_CLASS_NONE = 0;
+
+    /**
+     * Reference to the vehicle class of a grid that stands for a vehicle class written inline. Greater references are
+     * indices into the VehicleClassLibrary section offset by VEHICLE_CLASS_FIRST_INDEX.
+     */
+    static final int VEHICLE_CLASS_INLINE = 1;
+
+    /**
+     * Offset of references to the vehicle classes of the VehicleClassLibrary section.
+     */
+    static final int VEHICLE_CLASS_FIRST_INDEX = 2;
+
+    /**
+     * Private constructor. Used to make this class non instantiable.
+     */
+    private BinaryFormat() {
+        super();
+    }
+}
@@ -0,0 +1,82 @@
+// Copyright 2023 Prokhor Kalinin
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package net.dragondelve.customdriversutil.model.binary;
+
+import net.dragondelve.customdriversutil.model.Grid;
+import net.dragondelve.customdriversutil.util.DDUtil;
+import net.dragondelve.customdriversutil.util.GridExporter;
+
+import java.io.*;
+import java.util.logging.Level;
+
+/**
+ * Exports a single grid together with its vehicle class into the binary project format. Unlike the AMS2 XML exporters
+ * it keeps every value of the grid, so the grid can be restored exactly with BinaryGridImporter. Files written by this
+ * exporter can not be read by the game.
+ */
+public class BinaryGridExporter implements GridExporter {
+    /**
+     * Exporter that writes the project that contains the grid.
+     */
+    private final BinaryProjectExporter projectExporter;
+
+    /**
+     * Creates a new instance of BinaryGridExporter that does not compress the files it writes.
+     */
+    public BinaryGridExporter() {
+        this(false);
+    }
+
+    /**
+     * Creates a new instance of BinaryGridExporter.
+     *
+     * @param compress If true, the payload is deflated.
+     */
+    public BinaryGridExporter(boolean compress) {
+        projectExporter = new BinaryProjectExporter(compress);
+    }
+
+    /**
+     * Exports the given grid to a given file.
+     *
+     * @param grid Grid to be exported.
+     * @param file File to which the grid is to be exported.
+     */
+    @Override
+    public void exportToFile(Grid grid, File file) {
+        DDUtil.DEFAULT_LOGGER.log(Level.FINE, "Binary grid saving initiated to path: " + file.getPath());
+        try (OutputStream outputStream = new BufferedOutputStream(new FileOutputStream(file))) {
+            if (exportToStream(grid, outputStream))
+                DDUtil.DEFAULT_LOGGER.log(Level.FINE, "Binary grid saving successful to path: " + file.getPath());
+        } catch (IOException e) {
+            e.printStackTrace();
+            DDUtil.DEFAULT_LOGGER.log(Level.WARNING, "Binary grid saving failed to path: " + file.getPath());
+        }
+    }
+
+    /**
+     * Exports the given grid to a given output stream. The stream is flushed but not closed.
+     *
+     * @param grid         Grid to be exported.
+     * @param outputStream Stream to which the grid is to be exported.
+     * @return True if the grid was exported successfully, false otherwise.
+     */
+    @Override
+    public boolean exportToStream(Grid grid, OutputStream outputStream) {
+        ProjectBundle bundle = new ProjectBundle();
+        bundle.getGrids().add(grid);
+        return projectExporter.exportToStream(bundle, outputStream);
+    }
+}
@@ -0,0 +1,126 @@
+// Copyright 2023 Prokhor Kalinin
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package net.dragondelve.customdriversutil.model.binary;
+
+import net.dragondelve.customdriversutil.model.Grid;
+import net.dragondelve.customdriversutil.model.TrackLibrary;
+import net.dragondelve.customdriversutil.model.VehicleClass;
+import net.dragondelve.customdriversutil.model.VehicleClassLibrary;
+import net.dragondelve.customdriversutil.util.DDUtil;
+import net.dragondelve.customdriversutil.util.GridImporter;
+import net.dragondelve.customdriversutil.util.ImportReport;
+
+import java.io.File;
+import java.io.InputStream;
+import java.util.logging.Level;
+
+/**
+ * Imports a grid written by BinaryGridExporter, or the first grid of a binary project file. The grid keeps the vehicle
+ * class that was written with it. Binary files are validated by their checksum as a whole, so the ImportReport of an
+ * import never contains issues, a damaged file fails to import instead.
+ */
+public class BinaryGridImporter implements GridImporter {
+    /**
+     * Importer that reads the project that contains the grid.
+     */
+    private final BinaryProjectImporter projectImporter = new BinaryProjectImporter();
+
+    /**
+     * Report of the problems found during the last import.
+     */
+    private ImportReport lastImportReport;
+
+    /**
+     * Imports a grid from a given binary file.
+     *
+     * @param file a file that contains the Grid.
+     * @return New instance of a Grid from the source, or null if the import has failed.
+     */
+    @Override
+    public Grid importFromFile(File file) {
+        lastImportReport = new ImportReport();
+        return firstGridOf(projectImporter.importFromFile(file));
+    }
+
+    /**
+     * Imports a grid from a given input stream.
+     *
+     * @param inputStream an input stream that contains the Grid in the binary format.
+     * @return New instance of a Grid from the source, or null if the import has failed.
+     */
+    @Override
+    public Grid importFromStream(InputStream inputStream) {
+        lastImportReport = new ImportReport();
+        return firstGridOf(projectImporter.importFromStream(inputStream));
+    }
+
+    /**
+     * Imports a grid from a given binary file. If the given VehicleClassLibrary already contains a vehicle class with the
+     * same xml name, the grid uses that vehicle class, otherwise the vehicle class of the file is added to the library.
+     *
+     * @param file    a file that contains the Grid.
+     * @param library Vehicle Class Library that is meant to contain the newly loaded VehicleClass.
+     * @return New instance of a Grid from the source, or null if the import has failed.
+     */
+    @Override
+    public Grid importWithVehicleClass(File file, VehicleClassLibrary library) {
+        Grid grid = importFromFile(file);
+        if (grid == null || grid.getVehicleClass() == null)
+            return grid;
+        VehicleClass vehicleClass = library.findVehicleClass(grid.getVehicleClass().getXmlName(), grid.getVehicleClass().isModded());
+        if (vehicleClass != null)
+            grid.setVehicleClass(vehicleClass);
+        else
+            library.getVehicleClasses().add(grid.getVehicleClass());
+        return grid;
+    }
+
+    /**
+     * Sets the Track Library that is searched before the currently loaded one. Tracks of a binary file that contains
+     * its own Track Library are always resolved against that library.
+     *
+     * @param trackLibrary Track Library that is searched first, or null to only search the currently loaded one.
+     */
+    @Override
+    public void setTrackLibrary(TrackLibrary trackLibrary) {
+        projectImporter.setTrackLibrary(trackLibrary);
+    }
+
+    /**
+     * Lightweight accessor method.
+     *
+     * @return Report of the problems found during the last import, or null if nothing has been imported yet.
+     */
+    @Override
+    public ImportReport getLastImportReport() {
+        return lastImportReport;
+    }
+
+    /**
+     * Returns the first grid of an imported project.
+     *
+     * @param bundle Imported project, can be null.
+     * @return First grid of the project, or null if the project could not be imported or contains no grid.
+     */
+    private Grid firstGridOf(ProjectBundle bundle) {
+        if (bundle == null)
+            return null;
+        if (bundle.getGrids().isEmpty()) {
+            DDUtil.DEFAULT_LOGGER.log(Level.WARNING, "Binary file contains no grid");
+            return null;
+        }
+        return bundle.getGrids().get(0);
+    }
+}
@@ -0,0 +1,253 @@
+// Copyright 2023 Prokhor Kalinin
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package net.dragondelve.customdriversutil.model.binary;
+
+import net.dragondelve.customdriversutil.util.StringPool;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.zip.CRC32;
+import java.util.zip.DataFormatException;
+import java.util.zip.Inflater;
+
+/**
+ * Reads the payload of a binary project file. The whole payload is read, inflated and verified against its checksum
+ * before anything is decoded, so a damaged file is rejected before any model object is created.
+ * Strings of the string table are interned with the StringPool, so they are shared with the other loaded files.
+ */
+final class BinaryInput {
+    /**
+     * Payload of the file without the string table.
+     */
+    private final ByteBuffer buffer;
+
+    /**
+     * Strings of the string table by their index, index 0 is null.
+     */
+    private final String[] strings;
+
+    /**
+     * Position at which the current section ends.
+     */
+    private int sectionEnd;
+
+    /**
+     * Creates a new instance of BinaryInput.
+     *
+     * @param buffer  Payload positioned after the string table.
+     * @param strings Strings of the string table by their index.
+     */
+    private BinaryInput(ByteBuffer buffer, String[] strings) {
+        this.buffer = buffer;
+        this.strings = strings;
+        this.sectionEnd = buffer.position();
+    }
+
+    /**
+     * Reads a binary project file from a stream. The stream is read to its end but not closed.
+     *
+     * @param inputStream Stream that contains the file.
+     * @return New instance of BinaryInput positioned before the first section.
+     * @throws IOException If the stream could not be read or does not contain a valid file of a supported version.
+     */
+    static BinaryInput read(InputStream inputStream) throws IOException {
+        return read(ByteBuffer.wrap(inputStream.readAllBytes()));
+    }
+
+    /**
+     * Reads a binary project file from a buffer, such as a memory-mapped file. An uncompressed payload is decoded
+     * directly from the buffer without being copied.
+     *
+     * @param file Buffer that contains the file from its position to its limit.
+     * @return New instance of BinaryInput positioned before the first section.
+     * @throws IOException If the buffer does not contain a valid file of a supported version.
+     */
+    static BinaryInput read(ByteBuffer file) throws IOException {
+        ByteBuffer buffer;
+        int storedCrc;
+        try {
+            if (file.getInt() != BinaryFormat.MAGIC)
+                throw new IOException("Not a binary project file");
+            short version = file.getShort();
+            if (version > BinaryFormat.VERSION)
+                throw new IOException("Unsupported binary project version " + version);
+            byte flags = file.get();
+            int length = file.getInt();
+            int storedLength = file.remaining() - Integer.BYTES;
+            if (length < 0 || storedLength < 0)
+                throw new IOException("Binary project file is truncated");
+            storedCrc = file.getInt(file.position() + storedLength);
+
+            if ((flags & BinaryFormat.FLAG_COMPRESSED) != 0)
+                buffer = ByteBuffer.wrap(inflate(file, storedLength, length));
+            else if (storedLength == length)
+                buffer = file.slice().limit(length);
+            else
+                throw new IOException("Binary project file is truncated");
+        } catch (BufferUnderflowException | IndexOutOfBoundsException e) {
+            throw new IOException("Binary project file is truncated", e);
+        }
+
+        CRC32 crc = new CRC32();
+        crc.update(buffer.duplicate());
+        if ((int) crc.getValue() != storedCrc)
+            throw new IOException("Binary project file is damaged, checksum mismatch");
+
+        try {
+            String[] strings = new String[readVarInt(buffer) + 1];
+            for (int i = 1; i < strings.length; i++) {
+                byte[] bytes = new byte[readVarInt(buffer)];
+                buffer.get(bytes);
+                strings[i] = StringPool.getInstance().intern(new String(bytes, StandardCharsets.UTF_8));
+            }
+            return new BinaryInput(buffer, strings);
+        } catch (BufferUnderflowException | IllegalArgumentException | NegativeArraySizeException e) {
+            throw new IOException("Binary project string table is damaged", e);
+        }
+    }
+
+    /**
+     * Moves to the next section, skipping whatever is left of the current one.
+     *
+     * @return Tag of the next section, or SECTION_END if there are no more sections.
+     * @throws IOException If the section header is damaged.
+     */
+    byte nextSection() throws IOException {
+        try {
+            buffer.position(sectionEnd);
+            byte tag = buffer.get();
+            if (tag == BinaryFormat.SECTION_END)
+                return tag;
+            int length = readVarInt(buffer);
+            sectionEnd = buffer.position() + length;
+            if (length < 0 || sectionEnd > buffer.limit())
+                throw new IOException("Binary project section " + tag + " is truncated");
+            return tag;
+        } catch (BufferUnderflowException | IllegalArgumentException e) {
+            throw new IOException("Binary project section header is damaged", e);
+        }
+    }
+
+    /**
+     * Reads a non-negative number written with BinaryOutput.writeVarInt().
+     *
+     * @return Number that was read.
+     */
+    int readVarInt() {
+        return readVarInt(buffer);
+    }
+
+    /**
+     * Reads a number written with BinaryOutput.writeSignedVarInt().
+     *
+     * @return Number that was read.
+     */
+    int readSignedVarInt() {
+        int value = readVarInt(buffer);
+        return (value >>> 1) ^ -(value & 1);
+    }
+
+    /**
+     * Reads a single unsigned byte.
+     *
+     * @return Byte that was read.
+     */
+    int readByte() {
+        return buffer.get() & 0xFF;
+    }
+
+    /**
+     * Reads a double.
+     *
+     * @return Value that was read.
+     */
+    double readDouble() {
+        return buffer.getDouble();
+    }
+
+    /**
+     * Reads a reference to a string of the string table.
+     *
+     * @return String that is referenced, can be null.
+     */
+    String readString() {
+        return strings[readVarInt(buffer)];
+    }
+
+    /**
+     * Reads a count of elements and checks that it can possibly fit into the rest of the current section, so that a
+     * damaged count does not lead to huge allocations.
+     *
+     * @return Count that was read.
+     * @throws IOException If the count is larger than the number of remaining bytes of the section.
+     */
+    int readCount() throws IOException {
+        int count = readVarInt(buffer);
+        if (count < 0 || count > sectionEnd - buffer.position())
+            throw new IOException("Binary project count " + count + " exceeds its section");
+        return count;
+    }
+
+    /**
+     * Reads a non-negative number written with as few bytes as needed, 7 bits per byte.
+     *
+     * @param buffer Buffer to read from.
+     * @return Number that was read.
+     */
+    private static int readVarInt(ByteBuffer buffer) {
+        int value = 0;
+        for (int shift = 0; shift < 35; shift += 7) {
+            byte b = buffer.get();
+            value |= (b & 0x7F) << shift;
+            if (b >= 0)
+                return value;
+        }
+        throw new IllegalArgumentException("Variable length integer is too long");
+    }
+
+    /**
+     * Inflates a deflated payload.
+     *
+     * @param compressed Buffer that contains the deflated payload at its position.
+     * @param length     Number of deflated bytes.
+     * @param inflated   Expected length of the inflated payload.
+     * @return Inflated payload.
+     * @throws IOException If the payload is damaged or has a different length.
+     */
+    private static byte[] inflate(ByteBuffer compressed, int length, int inflated) throws IOException {
+        Inflater inflater = new Inflater();
+        try {
+            inflater.setInput(compressed.slice().limit(length));
+            byte[] payload = new byte[inflated];
+            int read = 0;
+            while (read < inflated && !inflater.finished()) {
+                int count = inflater.inflate(payload, read, inflated - read);
+                if (count == 0 && (inflater.needsInput() || inflater.needsDictionary()))
+                    break;
+                read += count;
+            }
+            if (read != inflated)
+                throw new IOException("Binary project payload has an unexpected length");
+            return payload;
+        } catch (DataFormatException e) {
+            throw new IOException("Binary project payload is damaged", e);
+        } finally {
+            inflater.end();
+        }
+    }
+}
@@ -0,0 +1,206 @@
+// Copyright 2023 Prokhor Kalinin
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package net.dragondelve.customdriversutil.model.binary;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+
+/**
+ * Collects the sections of a binary project file in memory and writes the complete file once all sections are done.
+ * Strings are collected into the string table while the sections are written, which is why the file can only be
+ * written at the end.
+ */
+final class BinaryOutput {
+    /**
+     * Strings of the string table in the order of their index, index 0 is null and not in the list.
+     */
+    private final List<String> strings = new ArrayList<>();
+
+    /**
+     * Indices of the strings in the string table.
+     */
+    private final Map<String, Integer> stringIndices = new HashMap<>();
+
+    /**
+     * Sections that have been completed.
+     */
+    private final ByteArrayOutputStream sections = new ByteArrayOutputStream();
+
+    /**
+     * Contents of the section that is currently written.
+     */
+    private final ByteArrayOutputStream section = new ByteArrayOutputStream();
+
+    /**
+     * Stream that writes into the current section.
+     */
+    private final DataOutputStream sectionStream = new DataOutputStream(section);
+
+    /**
+     * Tag of the section that is currently written, or SECTION_END if no section is started.
+     */
+    private byte sectionTag = BinaryFormat.SECTION_END;
+
+    /**
+     * Starts a new section. The previous section must have been ended.
+     *
+     * @param tag Tag of the section.
+     */
+    void beginSection(byte tag) {
+        if (sectionTag != BinaryFormat.SECTION_END)
+            throw new IllegalStateException("Section " + sectionTag + " has not been ended");
+        sectionTag = tag;
+        section.reset();
+    }
+
+    /**
+     * Ends the current section and appends it to the completed sections with its tag and length.
+     */
+    void endSection() {
+        sections.write(sectionTag);
+        writeVarInt(sections, section.size());
+        sections.write(section.toByteArray(), 0, section.size());
+        sectionTag = BinaryFormat.SECTION_END;
+    }
+
+    /**
+     * Writes a non-negative number with as few bytes as needed, 7 bits per byte.
+     *
+     * @param value Number that is not negative.
+     */
+    void writeVarInt(int value) {
+        writeVarInt(section, value);
+    }
+
+    /**
+     * Writes a number that can be negative with as few bytes as needed, small negative numbers are zigzag encoded into
+     * small positive numbers first.
+     *
+     * @param value Number.
+     */
+    void writeSignedVarInt(int value) {
+        writeVarInt(section, (value << 1) ^ (value >> 31));
+    }
+
+    /**
+     * Writes a single byte.
+     *
+     * @param value Byte to write, only the lowest 8 bits are written.
+     */
+    void writeByte(int value) {
+        section.write(value);
+    }
+
+    /**
+     * Writes a double with its full precision.
+     *
+     * @param value Value to write.
+     */
+    void writeDouble(double value) {
+        try {
+            sectionStream.writeDouble(value);
+        } catch (IOException e) {
+            //ByteArrayOutputStream never throws.
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * Writes a reference to a string in the string table, the string is added to the table if it's not in it yet.
+     *
+     * @param value String to write, can be null.
+     */
+    void writeString(String value) {
+        if (value == null) {
+            writeVarInt(0);
+            return;
+        }
+        Integer index = stringIndices.get(value);
+        if (index == null) {
+            strings.add(value);
+            index = strings.size();
+            stringIndices.put(value, index);
+        }
+        writeVarInt(index);
+    }
+
+    /**
+     * Writes the complete file with the header, the string table, all completed sections and the checksum.
+     *
+     * @param outputStream Stream to which the file is written. It's flushed but not closed.
+     * @param compress     If true, the payload is deflated.
+     * @throws IOException If the stream could not be written.
+     */
+    void writeTo(OutputStream outputStream, boolean compress) throws IOException {
+        if (sectionTag != BinaryFormat.SECTION_END)
+            throw new IllegalStateException("Section " + sectionTag + " has not been ended");
+        ByteArrayOutputStream payload = new ByteArrayOutputStream(sections.size() + strings.size() * 16 + 16);
+        writeVarInt(payload, strings.size());
+        for (String string : strings) {
+            byte[] bytes = string.getBytes(StandardCharsets.UTF_8);
+            writeVarInt(payload, bytes.length);
+            payload.write(bytes);
+        }
+        sections.writeTo(payload);
+        payload.write(BinaryFormat.SECTION_END);
+        byte[] bytes = payload.toByteArray();
+        CRC32 crc = new CRC32();
+        crc.update(bytes);
+
+        DataOutputStream dataStream = new DataOutputStream(outputStream);
+        dataStream.writeInt(BinaryFormat.MAGIC);
+        dataStream.writeShort(BinaryFormat.VERSION);
+        dataStream.writeByte(compress ? BinaryFormat.FLAG_COMPRESSED : 0);
+        dataStream.writeInt(bytes.length);
+        if (compress) {
+            Deflater deflater = new Deflater(Deflater.DEFAULT_COMPRESSION);
+            try {
+                //The deflater stream is finished but not closed, so that the underlying stream stays open.
+                DeflaterOutputStream deflaterStream = new DeflaterOutputStream(dataStream, deflater, 8192);
+                deflaterStream.write(bytes);
+                deflaterStream.finish();
+            } finally {
+                deflater.end();
+            }
+        } else
+            dataStream.write(bytes);
+        dataStream.writeInt((int) crc.getValue());
+        dataStream.flush();
+    }
+
+    /**
+     * Writes a non-negative number with as few bytes as needed to a given stream.
+     *
+     * @param stream Stream to write to.
+     * @param value  Number that is not negative.
+     */
+    private static void writeVarInt(ByteArrayOutputStream stream, int value) {
+        while ((value & ~0x7F) != 0) {
+            stream.write((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        stream.write(value);
+    }
+}
@@ -0,0 +1,239 @@
+// Copyright 2023 Prokhor Kalinin
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package net.dragondelve.customdriversutil.model.binary;
+
+import net.dragondelve.customdriversutil.model.*;
+import net.dragondelve.customdriversutil.util.DDUtil;
+
+import java.io.*;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.logging.Level;
+
+/**
+ * Writes a ProjectBundle into the compact binary project format described in BinaryFormat. Unlike the AMS2 XML
+ * representation it keeps the whole model, including values that are not overridden, points and the libraries, and
+ * every string is stored only once. The AMS2 XML export remains the format that is read by the game.
+ * The model is read on the calling thread, so instances should be used on the thread that owns the model.
+ */
+public class BinaryProjectExporter {
+    /**
+     * Determines whether the payload is deflated.
+     */
+    private final boolean compress;
+
+    /**
+     * Creates a new instance of BinaryProjectExporter that does not compress the files it writes.
+     */
+    public BinaryProjectExporter() {
+        this(false);
+    }
+
+    /**
+     * Creates a new instance of BinaryProjectExporter.
+     *
+     * @param compress If true, the payload is deflated. Compressed files are smaller but slightly slower to read.
+     */
+    public BinaryProjectExporter(boolean compress) {
+        this.compress = compress;
+    }
+
+    /**
+     * Exports a project to a given file.
+     *
+     * @param bundle Project to be exported.
+     * @param file   File to which the project is to be exported.
+     * @return True if the project was exported successfully, false otherwise.
+     */
+    public boolean exportToFile(ProjectBundle bundle, File file) {
+        DDUtil.DEFAULT_LOGGER.log(Level.FINE, "Binary project saving initiated to path: " + file.getPath());
+        try (OutputStream outputStream = new BufferedOutputStream(new FileOutputStream(file))) {
+            if (!exportToStream(bundle, outputStream))
+                return false;
+        } catch (IOException e) {
+            e.printStackTrace();
+            DDUtil.DEFAULT_LOGGER.log(Level.WARNING, "Binary project saving failed to path: " + file.getPath());
+            return false;
+        }
+        DDUtil.DEFAULT_LOGGER.log(Level.FINE, "Binary project saving successful to path: " + file.getPath());
+        return true;
+    }
+
+    /**
+     * Exports a project to a given output stream. The stream is flushed but not closed.
+     *
+     * @param bundle       Project to be exported.
+     * @param outputStream Stream to which the project is to be exported.
+     * @return True if the project was exported successfully, false otherwise.
+     */
+    public boolean exportToStream(ProjectBundle bundle, OutputStream outputStream) {
+        try {
+            encode(bundle).writeTo(outputStream, compress);
+            return true;
+        } catch (IOException e) {
+            e.printStackTrace();
+            DDUtil.DEFAULT_LOGGER.log(Level.WARNING, "Binary project saving failed");
+            return false;
+        }
+    }
+
+    /**
+     * Exports a project into memory, so that it can be written by the SaveService.
+     *
+     * @param bundle Project to be exported.
+     * @return Contents of the binary project file, or null if the export has failed.
+     */
+    public byte[] exportToBytes(ProjectBundle bundle) {
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        if (!exportToStream(bundle, outputStream))
+            return null;
+        return outputStream.toByteArray();
+    }
+
+    /**
+     * Encodes all sections of a project.
+     *
+     * @param bundle Project to be encoded.
+     * @return BinaryOutput that holds the encoded sections.
+     */
+    private BinaryOutput encode(ProjectBundle bundle) {
+        BinaryOutput output = new BinaryOutput();
+        Map<VehicleClass, Integer> vehicleClassReferences = new IdentityHashMap<>();
+
+        if (bundle.getTrackLibrary() != null) {
+            output.beginSection(BinaryFormat.SECTION_TRACK_LIBRARY);
+            List<Track> tracks = bundle.getTrackLibrary().getTracks();
+            output.writeVarInt(tracks.size());
+            for (Track track : tracks) {
+                output.writeString(track.getName());
+                output.writeString(track.getXmlName());
+                output.writeByte((track.isOval() ? BinaryFormat.TRACK_OVAL : 0) | (track.isRX() ? BinaryFormat.TRACK_RX : 0));
+            }
+            output.endSection();
+        }
+
+        if (bundle.getVehicleClassLibrary() != null) {
+            output.beginSection(BinaryFormat.SECTION_VEHICLE_CLASS_LIBRARY);
+            List<VehicleClass> vehicleClasses = bundle.getVehicleClassLibrary().getVehicleClasses();
+            output.writeVarInt(vehicleClasses.size());
+            for (int i = 0; i < vehicleClasses.size(); i++) {
+                writeVehicleClass(output, vehicleClasses.get(i));
+                vehicleClassReferences.putIfAbsent(vehicleClasses.get(i), i + BinaryFormat.VEHICLE_CLASS_FIRST_INDEX);
+            }
+            output.endSection();
+        }
+
+        if (bundle.getDriverLibrary() != null) {
+            output.beginSection(BinaryFormat.SECTION_DRIVER_LIBRARY);
+            writeDrivers(output, bundle.getDriverLibrary().getDrivers());
+            output.endSection();
+        }
+
+        if (!bundle.getGrids().isEmpty()) {
+            output.beginSection(BinaryFormat.SECTION_GRIDS);
+            output.writeVarInt(bundle.getGrids().size());
+            for (Grid grid : bundle.getGrids()) {
+                VehicleClass vehicleClass = grid.getVehicleClass();
+                if (vehicleClass == null)
+                    output.writeVarInt(BinaryFormat.VEHICLE_CLASS_NONE);
+                else if (vehicleClassReferences.containsKey(vehicleClass))
+                    output.writeVarInt(vehicleClassReferences.get(vehicleClass));
+                else {
+                    output.writeVarInt(BinaryFormat.VEHICLE_CLASS_INLINE);
+                    writeVehicleClass(output, vehicleClass);
+                }
+                writeDrivers(output, grid.getDrivers());
+            }
+            output.endSection();
+        }
+        return output;
+    }
+
+    /**
+     * Writes a vehicle class with its liveries and vehicles.
+     *
+     * @param output       Output to write to.
+     * @param vehicleClass Vehicle class to write.
+     */
+    private void writeVehicleClass(BinaryOutput output, VehicleClass vehicleClass) {
+        output.writeString(vehicleClass.getName());
+        output.writeString(vehicleClass.getXmlName());
+        output.writeByte(vehicleClass.isModded() ? 1 : 0);
+        output.writeVarInt(vehicleClass.getLiveryNames().size());
+        vehicleClass.getLiveryNames().forEach(output::writeString);
+        output.writeVarInt(vehicleClass.getVehicles().size());
+        for (Vehicle vehicle : vehicleClass.getVehicles()) {
+            output.writeString(vehicle.getName());
+            output.writeString(vehicle.getXmlName());
+        }
+    }
+
+    /**
+     * Writes a list of drivers with their track specific overrides.
+     *
+     * @param output  Output to write to.
+     * @param drivers Drivers to write.
+     */
+    private void writeDrivers(BinaryOutput output, List<Driver> drivers) {
+        output.writeVarInt(drivers.size());
+        for (Driver driver : drivers) {
+            writeBaseProperties(output, driver);
+            output.writeString(driver.getLiveryName());
+            output.writeSignedVarInt(driver.getPoints());
+            output.writeVarInt(driver.getTrackOverrides().size());
+            for (TrackOverride trackOverride : driver.getTrackOverrides()) {
+                writeBaseProperties(output, trackOverride);
+                output.writeVarInt(trackOverride.getTrack().size());
+                for (Track track : trackOverride.getTrack()) {
+                    output.writeString(track.getXmlName());
+                    output.writeString(track.getName());
+                }
+            }
+        }
+    }
+
+    /**
+     * Writes the properties shared between drivers and track specific overrides. The override flags are written as a
+     * single mask, followed by a mask of the parameters whose value is not 0 and the values of these parameters.
+     *
+     * @param output     Output to write to.
+     * @param driverBase Driver or TrackOverride to write.
+     */
+    private void writeBaseProperties(BinaryOutput output, DriverBase driverBase) {
+        output.writeString(driverBase.getName());
+        output.writeString(driverBase.getCountry());
+
+        OverrideFlags overrideFlags = driverBase.getOverrideFlags();
+        int flags = 0;
+        int values = 0;
+        for (DriverParameter parameter : DriverParameter.all()) {
+            if (parameter.flagOf(overrideFlags).get())
+                flags |= parameter.getBit();
+            if (parameter.propertyOf(driverBase).get() != 0.0)
+                values |= parameter.getBit();
+        }
+        if (overrideFlags.isOverrideName())
+            flags |= BinaryFormat.FLAG_NAME;
+        if (overrideFlags.isOverrideCountry())
+            flags |= BinaryFormat.FLAG_COUNTRY;
+
+        output.writeVarInt(flags);
+        output.writeVarInt(values);
+        for (DriverParameter parameter : DriverParameter.all())
+            if ((values & parameter.getBit()) != 0)
+                output.writeDouble(parameter.propertyOf(driverBase).get());
+    }
+}
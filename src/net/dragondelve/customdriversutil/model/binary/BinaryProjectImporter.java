@@ -0,0 +1,384 @@
+// Copyright 2023 Prokhor Kalinin
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package net.dragondelve.customdriversutil.model.binary;
+
+import net.dragondelve.customdriversutil.model.*;
+import net.dragondelve.customdriversutil.util.DDUtil;
+import net.dragondelve.customdriversutil.util.LibraryManager;
+
+import java.io.*;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.logging.Level;
+
+/**
+ * Reads a ProjectBundle from the compact binary project format described in BinaryFormat.
+ * Tracks of track specific overrides are resolved by their xml name against the Track Library of the project if it
+ * contains one, otherwise against the Track Library set with setTrackLibrary() and then the currently loaded Track
+ * Library, just like the AMS2 XML importers do. Tracks that
+ * are not found are created from the name and xml name that were written.
+ * Instances are not thread safe, but a single import can run on any thread as long as the currently loaded Track
+ * Library is not modified at the same time.
+ */
+public class BinaryProjectImporter {
+    /**
+     * Track Library that is searched before the currently loaded one if the project has none, can be null.
+     */
+    private TrackLibrary trackLibrary;
+
+    /**
+     * Lightweight mutator method.
+     *
+     * @param trackLibrary Track Library that is searched before the currently loaded one if the project has none, or
+     *                     null to only search the currently loaded one.
+     */
+    public void setTrackLibrary(TrackLibrary trackLibrary) {
+        this.trackLibrary = trackLibrary;
+    }
+
+    /**
+     * Imports a project from a given file.
+     *
+     * @param file Binary project file.
+     * @return New instance of ProjectBundle from the file, or null if the import has failed.
+     */
+    public ProjectBundle importFromFile(File file) {
+        DDUtil.DEFAULT_LOGGER.log(Level.FINE, "Binary project loading initiated from path: " + file.getPath());
+        try (InputStream inputStream = new FileInputStream(file)) {
+            ProjectBundle bundle = decode(BinaryInput.read(inputStream));
+            DDUtil.DEFAULT_LOGGER.log(Level.FINE, "Binary project loading successful from path: " + file.getPath());
+            return bundle;
+        } catch (IOException e) {
+            e.printStackTrace();
+            DDUtil.DEFAULT_LOGGER.log(Level.WARNING, "Binary project loading failed from path: " + file.getPath());
+            return null;
+        }
+    }
+
+    /**
+     * Imports a project from a given input stream. The stream is read to its end but not closed.
+     *
+     * @param inputStream Stream that contains a binary project.
+     * @return New instance of ProjectBundle from the stream, or null if the import has failed.
+     */
+    public ProjectBundle importFromStream(InputStream inputStream) {
+        if (inputStream == null)
+            return null;
+        try {
+            return decode(BinaryInput.read(inputStream));
+        } catch (IOException e) {
+            e.printStackTrace();
+            DDUtil.DEFAULT_LOGGER.log(Level.WARNING, "Binary project loading failed from stream");
+            return null;
+        }
+    }
+
+    /**
+     * Imports a project from a buffer, such as a memory-mapped file. An uncompressed project is decoded directly from
+     * the buffer. The position of the buffer is moved past the project.
+     *
+     * @param buffer Buffer that contains a binary project from its position to its limit.
+     * @return New instance of ProjectBundle from the buffer, or null if the import has failed.
+     */
+    public ProjectBundle importFromBuffer(ByteBuffer buffer) {
+        try {
+            return decode(BinaryInput.read(buffer));
+        } catch (IOException e) {
+            e.printStackTrace();
+            DDUtil.DEFAULT_LOGGER.log(Level.WARNING, "Binary project loading failed from buffer");
+            return null;
+        }
+    }
+
+    /**
+     * Decodes all sections of a project. Sections with unknown tags are skipped.
+     *
+     * @param input Input positioned before the first section.
+     * @return New instance of ProjectBundle.
+     * @throws IOException If a section is damaged.
+     */
+    private ProjectBundle decode(BinaryInput input) throws IOException {
+        ProjectBundle bundle = new ProjectBundle();
+        TrackResolver trackResolver = new TrackResolver(trackLibrary);
+        List<VehicleClass> vehicleClasses = new ArrayList<>();
+        try {
+            for (byte tag = input.nextSection(); tag != BinaryFormat.SECTION_END; tag = input.nextSection()) {
+                switch (tag) {
+                    case BinaryFormat.SECTION_TRACK_LIBRARY:
+                        bundle.setTrackLibrary(readTrackLibrary(input));
+                        trackResolver.useLibrary(bundle.getTrackLibrary());
+                        break;
+                    case BinaryFormat.SECTION_VEHICLE_CLASS_LIBRARY:
+                        bundle.setVehicleClassLibrary(readVehicleClassLibrary(input));
+                        vehicleClasses = bundle.getVehicleClassLibrary().getVehicleClasses();
+                        break;
+                    case BinaryFormat.SECTION_DRIVER_LIBRARY:
+                        DriverLibrary driverLibrary = new DriverLibrary();
+                        driverLibrary.getDrivers().addAll(readDrivers(input, trackResolver));
+                        bundle.setDriverLibrary(driverLibrary);
+                        break;
+                    case BinaryFormat.SECTION_GRIDS:
+                        bundle.getGrids().addAll(readGrids(input, vehicleClasses, trackResolver));
+                        break;
+                    default:
+                        DDUtil.DEFAULT_LOGGER.log(Level.FINE, "Skipping unknown binary project section " + tag);
+                }
+            }
+        } catch (BufferUnderflowException | ArrayIndexOutOfBoundsException | IllegalArgumentException e) {
+            throw new IOException("Binary project section is damaged", e);
+        } finally {
+            trackResolver.flushUnknownTrackWarnings();
+        }
+        return bundle;
+    }
+
+    /**
+     * Reads the Track Library section.
+     *
+     * @param input Input positioned at the start of the section.
+     * @return New instance of TrackLibrary.
+     * @throws IOException If the section is damaged.
+     */
+    private TrackLibrary readTrackLibrary(BinaryInput input) throws IOException {
+        int count = input.readCount();
+        List<Track> tracks = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            Track track = new Track(input.readString(), input.readString());
+            int attributes = input.readByte();
+            track.setOval((attributes & BinaryFormat.TRACK_OVAL) != 0);
+            track.setRX((attributes & BinaryFormat.TRACK_RX) != 0);
+            tracks.add(track);
+        }
+        TrackLibrary trackLibrary = new TrackLibrary();
+        trackLibrary.getTracks().addAll(tracks);
+        return trackLibrary;
+    }
+
+    /**
+     * Reads the Vehicle Class Library section.
+     *
+     * @param input Input positioned at the start of the section.
+     * @return New instance of VehicleClassLibrary.
+     * @throws IOException If the section is damaged.
+     */
+    private VehicleClassLibrary readVehicleClassLibrary(BinaryInput input) throws IOException {
+        int count = input.readCount();
+        List<VehicleClass> vehicleClasses = new ArrayList<>(count);
+        for (int i = 0; i < count; i++)
+            vehicleClasses.add(readVehicleClass(input));
+        VehicleClassLibrary vehicleClassLibrary = new VehicleClassLibrary();
+        vehicleClassLibrary.getVehicleClasses().addAll(vehicleClasses);
+        return vehicleClassLibrary;
+    }
+
+    /**
+     * Reads a vehicle class with its liveries and vehicles.
+     *
+     * @param input Input positioned at the start of the vehicle class.
+     * @return New instance of VehicleClass.
+     * @throws IOException If the vehicle class is damaged.
+     */
+    private VehicleClass readVehicleClass(BinaryInput input) throws IOException {
+        VehicleClass vehicleClass = new VehicleClass();
+        vehicleClass.setName(input.readString());
+        vehicleClass.setXmlName(input.readString());
+        vehicleClass.setModded(input.readByte() != 0);
+
+        int liveryCount = input.readCount();
+        List<String> liveryNames = new ArrayList<>(liveryCount);
+        for (int i = 0; i < liveryCount; i++)
+            liveryNames.add(input.readString());
+        vehicleClass.getLiveryNames().addAll(liveryNames);
+
+        int vehicleCount = input.readCount();
+        List<Vehicle> vehicles = new ArrayList<>(vehicleCount);
+        for (int i = 0; i < vehicleCount; i++) {
+            Vehicle vehicle = new Vehicle();
+            vehicle.setName(input.readString());
+            vehicle.setXmlName(input.readString());
+            vehicles.add(vehicle);
+        }
+        vehicleClass.getVehicles().addAll(vehicles);
+        return vehicleClass;
+    }
+
+    /**
+     * Reads the grids section.
+     *
+     * @param input          Input positioned at the start of the section.
+     * @param vehicleClasses Vehicle classes of the Vehicle Class Library section, referenced by the grids.
+     * @param trackResolver  Resolves the tracks of track specific overrides.
+     * @return List of new grids.
+     * @throws IOException If the section is damaged.
+     */
+    private List<Grid> readGrids(BinaryInput input, List<VehicleClass> vehicleClasses, TrackResolver trackResolver) throws IOException {
+        int count = input.readCount();
+        List<Grid> grids = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            Grid grid = new Grid();
+            int reference = input.readVarInt();
+            if (reference == BinaryFormat.VEHICLE_CLASS_NONE)
+                grid.setVehicleClass(null);
+            else if (reference == BinaryFormat.VEHICLE_CLASS_INLINE)
+                grid.setVehicleClass(readVehicleClass(input));
+            else if (reference - BinaryFormat.VEHICLE_CLASS_FIRST_INDEX < vehicleClasses.size())
+                grid.setVehicleClass(vehicleClasses.get(reference - BinaryFormat.VEHICLE_CLASS_FIRST_INDEX));
+            else
+                throw new IOException("Binary project grid references unknown vehicle class " + reference);
+            grid.getDrivers().addAll(readDrivers(input, trackResolver));
+            grids.add(grid);
+        }
+        return grids;
+    }
+
+    /**
+     * Reads a list of drivers with their track specific overrides.
+     *
+     * @param input         Input positioned at the start of the list.
+     * @param trackResolver Resolves the tracks of track specific overrides.
+     * @return List of new drivers.
+     * @throws IOException If the list is damaged.
+     */
+    private List<Driver> readDrivers(BinaryInput input, TrackResolver trackResolver) throws IOException {
+        int count = input.readCount();
+        List<Driver> drivers = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            Driver driver = new Driver();
+            readBaseProperties(input, driver);
+            driver.liveryNameProperty().set(input.readString());
+            driver.pointsProperty().set(input.readSignedVarInt());
+
+            int overrideCount = input.readCount();
+            List<TrackOverride> trackOverrides = new ArrayList<>(overrideCount);
+            for (int j = 0; j < overrideCount; j++) {
+                TrackOverride trackOverride = new TrackOverride();
+                readBaseProperties(input, trackOverride);
+                int trackCount = input.readCount();
+                List<Track> tracks = new ArrayList<>(trackCount);
+                for (int k = 0; k < trackCount; k++)
+                    tracks.add(trackResolver.resolve(input.readString(), input.readString()));
+                trackOverride.getTrack().addAll(tracks);
+                trackOverrides.add(trackOverride);
+            }
+            driver.getTrackOverrides().addAll(trackOverrides);
+            drivers.add(driver);
+        }
+        return drivers;
+    }
+
+    /**
+     * Reads the properties shared between drivers and track specific overrides.
+     *
+     * @param input      Input positioned at the start of the properties.
+     * @param driverBase Driver or TrackOverride whose properties are set.
+     */
+    private void readBaseProperties(BinaryInput input, DriverBase driverBase) {
+        driverBase.nameProperty().set(input.readString());
+        driverBase.countryProperty().set(input.readString());
+
+        int flags = input.readVarInt();
+        int values = input.readVarInt();
+        OverrideFlags overrideFlags = driverBase.getOverrideFlags();
+        for (DriverParameter parameter : DriverParameter.all()) {
+            if ((values & parameter.getBit()) != 0)
+                parameter.propertyOf(driverBase).set(input.readDouble());
+            if ((flags & parameter.getBit()) != 0)
+                parameter.flagOf(overrideFlags).set(true);
+        }
+        overrideFlags.setOverrideName((flags & BinaryFormat.FLAG_NAME) != 0);
+        overrideFlags.setOverrideCountry((flags & BinaryFormat.FLAG_COUNTRY) != 0);
+    }
+
+    /**
+     * Resolves the tracks of track specific overrides by their xml name, so that overrides share the Track instances
+     * of the Track Library.
+     */
+    private static final class TrackResolver {
+        /**
+         * Tracks that have been resolved by their xml name.
+         */
+        private final Map<String, Track> tracks = new HashMap<>();
+
+        /**
+         * Number of failed lookups per unknown xml name in the currently loaded Track Library.
+         */
+        private final Map<String, Integer> misses = new HashMap<>();
+
+        /**
+         * Track Library of the project, null if the project has none and the currently loaded one is used.
+         */
+        private TrackLibrary library;
+
+        /**
+         * Track Library that is searched before the currently loaded one if the project has none, can be null.
+         */
+        private final TrackLibrary fallback;
+
+        /**
+         * Creates a new instance of TrackResolver.
+         *
+         * @param fallback Track Library that is searched before the currently loaded one if the project has none, can
+         *                 be null.
+         */
+        private TrackResolver(TrackLibrary fallback) {
+            this.fallback = fallback;
+        }
+
+        /**
+         * Resolves all following tracks against the Track Library of the project.
+         *
+         * @param library Track Library of the project.
+         */
+        private void useLibrary(TrackLibrary library) {
+            this.library = library;
+            tracks.clear();
+            for (Track track : library.getTracks())
+                tracks.putIfAbsent(track.getXmlName(), track);
+        }
+
+        /**
+         * Finds the track with a given xml name, or creates a new one if there is no such track.
+         *
+         * @param xmlName Track name that is used in the XML when exporting.
+         * @param name    Human-readable name of the track, used if a new track is created.
+         * @return Track with the given xml name.
+         */
+        private Track resolve(String xmlName, String name) {
+            Track track = tracks.get(xmlName);
+            if (track != null)
+                return track;
+            if (library == null && fallback != null)
+                track = fallback.findTrackWithXmlName(xmlName);
+            if (library == null && track == null)
+                track = LibraryManager.getInstance().getTrackLibrary().findTrackWithXmlName(xmlName, misses);
+            if (track == null)
+                track = new Track(name, xmlName);
+            tracks.put(xmlName, track);
+            return track;
+        }
+
+        /**
+         * Logs the tracks that were not found in the currently loaded Track Library.
+         */
+        private void flushUnknownTrackWarnings() {
+            TrackLibrary.logUnknownTracks(misses);
+            misses.clear();
+        }
+    }
+}
@@ -0,0 +1,118 @@
+// Copyright 2023 Prokhor Kalinin
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package net.dragondelve.customdriversutil.model.binary;
+
+import net.dragondelve.customdriversutil.model.DriverLibrary;
+import net.dragondelve.customdriversutil.model.Grid;
+import net.dragondelve.customdriversutil.model.TrackLibrary;
+import net.dragondelve.customdriversutil.model.VehicleClassLibrary;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Everything a user works on, saved together into a single binary project file: the three libraries and any number of
+ * grids. Every library is optional, libraries that are null are not written and are null after reading.
+ * Grid packs exported as ZIP archives are described by a ProjectBundle as well, without the Driver Library.
+ */
+public class ProjectBundle {
+    /**
+     * Extension of binary project files.
+     */
+    public static final String EXTENSION = ".cdproj";
+
+    /**
+     * Track Library of the project, can be null.
+     */
+    private TrackLibrary trackLibrary;
+
+    /**
+     * Vehicle Class Library of the project, can be null.
+     */
+    private VehicleClassLibrary vehicleClassLibrary;
+
+    /**
+     * Driver Library of the project, can be null.
+     */
+    private DriverLibrary driverLibrary;
+
+    /**
+     * Grids of the project.
+     */
+    private final List<Grid> grids = new ArrayList<>();
+
+    /**
+     * Lightweight accessor method.
+     *
+     * @return Track Library of the project, can be null.
+     */
+    public TrackLibrary getTrackLibrary() {
+        return trackLibrary;
+    }
+
+    /**
+     * Lightweight mutator method.
+     *
+     * @param trackLibrary Track Library of the project, can be null.
+     */
+    public void setTrackLibrary(TrackLibrary trackLibrary) {
+        this.trackLibrary = trackLibrary;
+    }
+
+    /**
+     * Lightweight accessor method.
+     *
+     * @return Vehicle Class Library of the project, can be null.
+     */
+    public VehicleClassLibrary getVehicleClassLibrary() {
+        return vehicleClassLibrary;
+    }
+
+    /**
+     * Lightweight mutator method.
+     *
+     * @param vehicleClassLibrary Vehicle Class Library of the project, can be null.
+     */
+    public void setVehicleClassLibrary(VehicleClassLibrary vehicleClassLibrary) {
+        this.vehicleClassLibrary = vehicleClassLibrary;
+    }
+
+    /**
+     * Lightweight accessor method.
+     *
+     * @return Driver Library of the project, can be null.
+     */
+    public DriverLibrary getDriverLibrary() {
+        return driverLibrary;
+    }
+
+    /**
+     * Lightweight mutator method.
+     *
+     * @param driverLibrary Driver Library of the project, can be null.
+     */
+    public void setDriverLibrary(DriverLibrary driverLibrary) {
+        this.driverLibrary = driverLibrary;
+    }
+
+    /**
+     * Lightweight accessor method.
+     *
+     * @return Grids of the project.
+     */
+    public List<Grid> getGrids() {
+        return grids;
+    }
+}
@@ -0,0 +1,199 @@
+// Copyright 2023 Prokhor Kalinin
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package net.dragondelve.customdriversutil.model.snapshot;
+
+import net.dragondelve.customdriversutil.model.DriverBase;
+import net.dragondelve.customdriversutil.model.DriverParameter;
+import net.dragondelve.customdriversutil.model.OverrideFlags;
+
+/**
+ * Immutable snapshot of the properties shared between drivers and track specific overrides. The override flags are
+ * held in a single mask that uses the bits of the DriverParameters, and the values in an array indexed by their
+ * ordinal. Snapshots derived from another snapshot share its value array, as it's never modified after construction.
+ */
+public abstract class DriverBaseSnapshot {
+    /**
+     * Bit of the override mask that determines if the name is overridden.
+     */
+    public static final int OVERRIDE_NAME = 1 << 16;
+
+    /**
+     * Bit of the override mask that determines if the country is overridden.
+     */
+    public static final int OVERRIDE_COUNTRY = 1 << 17;
+
+    /**
+     * Driver name.
+     */
+    private final String name;
+
+    /**
+     * 3-letter country code.
+     */
+    private final String country;
+
+    /**
+     * Mask of the overridden properties, made of the bits of the DriverParameters, OVERRIDE_NAME and OVERRIDE_COUNTRY.
+     */
+    private final int overrideMask;
+
+    /**
+     * Values of all parameters by their ordinal. Never modified.
+     */
+    private final double[] values;
+
+    /**
+     * Creates a new instance of DriverBaseSnapshot that copies the values of a DriverBase. Must be called on the thread
+     * that owns the DriverBase.
+     *
+     * @param source Driver or TrackOverride.
+     */
+    protected DriverBaseSnapshot(DriverBase source) {
+        OverrideFlags flags = source.getOverrideFlags();
+        DriverParameter[] parameters = DriverParameter.all();
+        int mask = 0;
+        values = new double[parameters.length];
+        for (DriverParameter parameter : parameters) {
+            values[parameter.ordinal()] = parameter.propertyOf(source).get();
+            if (parameter.flagOf(flags).get())
+                mask |= parameter.getBit();
+        }
+        if (flags.isOverrideName())
+            mask |= OVERRIDE_NAME;
+        if (flags.isOverrideCountry())
+            mask |= OVERRIDE_COUNTRY;
+        name = source.getName();
+        country = source.getCountry();
+        overrideMask = mask;
+    }
+
+    /**
+     * Creates a new instance of DriverBaseSnapshot that shares the name, country and values of another snapshot.
+     *
+     * @param source       Snapshot whose name, country and values are shared.
+     * @param overrideMask Mask of the overridden properties.
+     */
+    protected DriverBaseSnapshot(DriverBaseSnapshot source, int overrideMask) {
+        this.name = source.name;
+        this.country = source.country;
+        this.values = source.values;
+        this.overrideMask = overrideMask;
+    }
+
+    /**
+     * Sets the name, the country, all values and all override flags of a DriverBase to match this snapshot.
+     *
+     * @param target Driver or TrackOverride that is not shared with other threads.
+     */
+    protected final void applyTo(DriverBase target) {
+        OverrideFlags flags = target.getOverrideFlags();
+        target.nameProperty().set(name);
+        target.countryProperty().set(country);
+        for (DriverParameter parameter : DriverParameter.all()) {
+            parameter.propertyOf(target).set(values[parameter.ordinal()]);
+            parameter.flagOf(flags).set(isOverridden(parameter));
+        }
+        flags.setOverrideName(isOverrideName());
+        flags.setOverrideCountry(isOverrideCountry());
+    }
+
+    /**
+     * Lightweight accessor method.
+     *
+     * @return Driver name.
+     */
+    public final String getName() {
+        return name;
+    }
+
+    /**
+     * Lightweight accessor method.
+     *
+     * @return 3-letter country code.
+     */
+    public final String getCountry() {
+        return country;
+    }
+
+    /**
+     * Lightweight accessor method.
+     *
+     * @return Mask of the overridden properties, made of the bits of the DriverParameters, OVERRIDE_NAME and
+     * OVERRIDE_COUNTRY.
+     */
+    public final int getOverrideMask() {
+        return overrideMask;
+    }
+
+    /**
+     * Lightweight accessor method.
+     *
+     * @param parameter Parameter whose value is returned.
+     * @return Value of the parameter.
+     */
+    public final double getValue(DriverParameter parameter) {
+        return values[parameter.ordinal()];
+    }
+
+    /**
+     * Lightweight accessor method.
+     *
+     * @param parameter Parameter whose flag is returned.
+     * @return True if the parameter is overridden, false otherwise.
+     */
+    public final boolean isOverridden(DriverParameter parameter) {
+        return (overrideMask & parameter.getBit()) != 0;
+    }
+
+    /**
+     * Lightweight accessor method.
+     *
+     * @return True if the name is overridden, false otherwise.
+     */
+    public final boolean isOverrideName() {
+        return (overrideMask & OVERRIDE_NAME) != 0;
+    }
+
+    /**
+     * Lightweight accessor method.
+     *
+     * @return True if the country is overridden, false otherwise.
+     */
+    public final boolean isOverrideCountry() {
+        return (overrideMask & OVERRIDE_COUNTRY) != 0;
+    }
+
+    /**
+     * Checks whether anything is going to be exported for this snapshot. A name or country that is overridden but null
+     * is not exported.
+     *
+     * @return True if at least one value is overridden and exported, false otherwise.
+     */
+    public final boolean overridesAnything() {
+        if ((isOverrideName() && name != null) || (isOverrideCountry() && country != null))
+            return true;
+        return (overrideMask & ~(OVERRIDE_NAME | OVERRIDE_COUNTRY)) != 0;
+    }
+
+    /**
+     * Gives a String representation of the snapshot.
+     *
+     * @return name of the driver.
+     */
+    @Override
+    public String toString() {
+        return name;
+    }
+}
@@ -0,0 +1,132 @@
+// Copyright 2023 Prokhor Kalinin
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package net.dragondelve.customdriversutil.model.snapshot;
+
+import net.dragondelve.customdriversutil.model.Driver;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Immutable snapshot of a driver with its livery name, points and track specific overrides. Snapshots are taken with
+ * Driver.snapshot(), which returns the same instance for as long as the driver is not changed, so consecutive
+ * snapshots of a grid share every driver that was not edited in between.
+ */
+public final class DriverSnapshot extends DriverBaseSnapshot {
+    /**
+     * In game name of the livery.
+     */
+    private final String liveryName;
+
+    /**
+     * Points that the driver has.
+     */
+    private final int points;
+
+    /**
+     * Unmodifiable list of the track specific overrides of the driver.
+     */
+    private final List<TrackOverrideSnapshot> trackOverrides;
+
+    /**
+     * Creates a new instance of DriverSnapshot. Must be called on the thread that owns the driver, Driver.snapshot()
+     * should be used instead to share snapshots of drivers that have not changed.
+     *
+     * @param source         Driver whose values are copied.
+     * @param trackOverrides Snapshots of the track specific overrides of the driver. The list is copied.
+     */
+    public DriverSnapshot(Driver source, List<TrackOverrideSnapshot> trackOverrides) {
+        super(source);
+        this.liveryName = source.getLiveryName();
+        this.points = source.getPoints();
+        this.trackOverrides = Collections.unmodifiableList(new ArrayList<>(trackOverrides));
+    }
+
+    /**
+     * Creates a new instance of DriverSnapshot that shares the values of another snapshot.
+     *
+     * @param source         Snapshot whose base values and points are shared.
+     * @param liveryName     In game name of the livery.
+     * @param trackOverrides Snapshots of the track specific overrides. The list is not copied and must not be modified.
+     */
+    private DriverSnapshot(DriverSnapshot source, String liveryName, List<TrackOverrideSnapshot> trackOverrides) {
+        super(source, source.getOverrideMask());
+        this.liveryName = liveryName;
+        this.points = source.points;
+        this.trackOverrides = trackOverrides;
+    }
+
+    /**
+     * Creates a snapshot that differs from this one only in its livery name.
+     *
+     * @param liveryName In game name of the livery.
+     * @return New instance of DriverSnapshot that shares the track specific overrides of this snapshot.
+     */
+    public DriverSnapshot withLiveryName(String liveryName) {
+        return new DriverSnapshot(this, liveryName, trackOverrides);
+    }
+
+    /**
+     * Creates a snapshot that differs from this one only in its track specific overrides.
+     *
+     * @param trackOverrides Snapshots of the track specific overrides. The list is copied.
+     * @return New instance of DriverSnapshot.
+     */
+    public DriverSnapshot withTrackOverrides(List<TrackOverrideSnapshot> trackOverrides) {
+        return new DriverSnapshot(this, liveryName, Collections.unmodifiableList(new ArrayList<>(trackOverrides)));
+    }
+
+    /**
+     * Creates a new detached Driver with the values and track specific overrides of this snapshot.
+     *
+     * @return New instance of Driver.
+     */
+    public Driver toDriver() {
+        Driver driver = new Driver();
+        applyTo(driver);
+        driver.liveryNameProperty().set(liveryName);
+        driver.pointsProperty().set(points);
+        trackOverrides.forEach(trackOverride -> driver.getTrackOverrides().add(trackOverride.toTrackOverride()));
+        return driver;
+    }
+
+    /**
+     * Lightweight accessor method.
+     *
+     * @return In game name of the livery.
+     */
+    public String getLiveryName() {
+        return liveryName;
+    }
+
+    /**
+     * Lightweight accessor method.
+     *
+     * @return Points that the driver has.
+     */
+    public int getPoints() {
+        return points;
+    }
+
+    /**
+     * Lightweight accessor method.
+     *
+     * @return Unmodifiable list of the track specific overrides of the driver.
+     */
+    public List<TrackOverrideSnapshot> getTrackOverrides() {
+        return trackOverrides;
+    }
+}
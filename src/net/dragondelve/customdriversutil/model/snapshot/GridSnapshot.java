@@ -0,0 +1,129 @@
+// Copyright 2023 Prokhor Kalinin
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package net.dragondelve.customdriversutil.model.snapshot;
+
+import net.dragondelve.customdriversutil.model.Driver;
+import net.dragondelve.customdriversutil.model.Grid;
+import net.dragondelve.customdriversutil.model.VehicleClass;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Immutable snapshot of a grid or a driver library. Taking a snapshot only collects the cached snapshots of the drivers,
+ * so it's cheap enough to be taken on the JavaFX Application Thread before every save, after which the snapshot can be
+ * read, exported or analysed on any thread while the grid is being edited.
+ * The vehicle class is shared with the grid, the AMS2 XML exporters never read it.
+ */
+public final class GridSnapshot {
+    /**
+     * Class of cars that are driven by the grid, null for driver libraries.
+     */
+    private final VehicleClass vehicleClass;
+
+    /**
+     * Unmodifiable list of the snapshots of the drivers.
+     */
+    private final List<DriverSnapshot> drivers;
+
+    /**
+     * Creates a new instance of GridSnapshot.
+     *
+     * @param vehicleClass Class of cars that are driven by the grid, can be null.
+     * @param drivers      Snapshots of the drivers. The list is not copied and must not be modified.
+     */
+    private GridSnapshot(VehicleClass vehicleClass, List<DriverSnapshot> drivers) {
+        this.vehicleClass = vehicleClass;
+        this.drivers = Collections.unmodifiableList(drivers);
+    }
+
+    /**
+     * Takes a snapshot of a list of drivers. Must be called on the thread that owns the drivers.
+     *
+     * @param vehicleClass Class of cars that are driven by the drivers, can be null.
+     * @param drivers      Drivers whose snapshots are taken.
+     * @return New instance of GridSnapshot.
+     */
+    public static GridSnapshot of(VehicleClass vehicleClass, List<Driver> drivers) {
+        List<DriverSnapshot> snapshots = new ArrayList<>(drivers.size());
+        for (Driver driver : drivers)
+            snapshots.add(driver.snapshot());
+        return new GridSnapshot(vehicleClass, snapshots);
+    }
+
+    /**
+     * Takes a snapshot of a grid. Must be called on the thread that owns the grid.
+     *
+     * @param grid Grid whose snapshot is taken.
+     * @return New instance of GridSnapshot.
+     */
+    public static GridSnapshot of(Grid grid) {
+        return of(grid.getVehicleClass(), grid.getDrivers());
+    }
+
+    /**
+     * Creates a snapshot with the same vehicle class and different drivers.
+     *
+     * @param drivers Snapshots of the drivers. The list is copied.
+     * @return New instance of GridSnapshot.
+     */
+    public GridSnapshot withDrivers(List<DriverSnapshot> drivers) {
+        return new GridSnapshot(vehicleClass, new ArrayList<>(drivers));
+    }
+
+    /**
+     * Creates a snapshot whose drivers have an empty livery name, as liveries are not exported with driver libraries.
+     *
+     * @return New instance of GridSnapshot.
+     */
+    public GridSnapshot withoutLiveryNames() {
+        List<DriverSnapshot> snapshots = new ArrayList<>(drivers.size());
+        for (DriverSnapshot driver : drivers)
+            snapshots.add(driver.withLiveryName(""));
+        return new GridSnapshot(vehicleClass, snapshots);
+    }
+
+    /**
+     * Creates a new detached Grid with the drivers of this snapshot, for code that works with the mutable model.
+     *
+     * @return New instance of Grid that shares the vehicle class of this snapshot if it has one.
+     */
+    public Grid toGrid() {
+        Grid grid = new Grid();
+        if (vehicleClass != null)
+            grid.setVehicleClass(vehicleClass);
+        drivers.forEach(driver -> grid.getDrivers().add(driver.toDriver()));
+        return grid;
+    }
+
+    /**
+     * Lightweight accessor method.
+     *
+     * @return Class of cars that are driven by the grid, null for driver libraries.
+     */
+    public VehicleClass getVehicleClass() {
+        return vehicleClass;
+    }
+
+    /**
+     * Lightweight accessor method.
+     *
+     * @return Unmodifiable list of the snapshots of the drivers.
+     */
+    public List<DriverSnapshot> getDrivers() {
+        return drivers;
+    }
+}
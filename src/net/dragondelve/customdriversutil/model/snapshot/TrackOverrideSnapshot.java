@@ -0,0 +1,117 @@
+// Copyright 2023 Prokhor Kalinin
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package net.dragondelve.customdriversutil.model.snapshot;
+
+import net.dragondelve.customdriversutil.model.Track;
+import net.dragondelve.customdriversutil.model.TrackOverride;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Immutable snapshot of a track specific override with the tracks it applies to.
+ */
+public final class TrackOverrideSnapshot extends DriverBaseSnapshot {
+    /**
+     * Unmodifiable list of the tracks that this override applies to.
+     */
+    private final List<TrackSnapshot> tracks;
+
+    /**
+     * Creates a new instance of TrackOverrideSnapshot. Must be called on the thread that owns the override.
+     *
+     * @param source Track specific override whose values and tracks are copied.
+     */
+    public TrackOverrideSnapshot(TrackOverride source) {
+        super(source);
+        List<TrackSnapshot> trackSnapshots = new ArrayList<>(source.getTrack().size());
+        for (Track track : source.getTrack())
+            trackSnapshots.add(TrackSnapshot.of(track));
+        tracks = Collections.unmodifiableList(trackSnapshots);
+    }
+
+    /**
+     * Creates a new instance of TrackOverrideSnapshot that shares the values of another snapshot.
+     *
+     * @param source       Snapshot whose name, country and values are shared.
+     * @param overrideMask Mask of the overridden properties.
+     * @param tracks       Tracks that the override applies to. The list is not copied and must not be modified.
+     */
+    private TrackOverrideSnapshot(DriverBaseSnapshot source, int overrideMask, List<TrackSnapshot> tracks) {
+        super(source, overrideMask);
+        this.tracks = Collections.unmodifiableList(tracks);
+    }
+
+    /**
+     * Checks whether this snapshot still matches the tracks of an override. The values of the override are not
+     * compared, as their changes are observed by the Driver that caches the snapshot.
+     *
+     * @param trackOverride Override from which this snapshot may have been taken.
+     * @return True if the override applies to tracks with the same names in the same order, false otherwise.
+     */
+    public boolean hasSameTracks(TrackOverride trackOverride) {
+        List<Track> liveTracks = trackOverride.getTrack();
+        if (liveTracks.size() != tracks.size())
+            return false;
+        for (int i = 0; i < tracks.size(); i++)
+            if (!tracks.get(i).matches(liveTracks.get(i)))
+                return false;
+        return true;
+    }
+
+    /**
+     * Creates a snapshot that differs from this one only in its override mask.
+     *
+     * @param overrideMask Mask of the overridden properties.
+     * @return This snapshot if the mask is unchanged, a new instance of TrackOverrideSnapshot otherwise.
+     */
+    public TrackOverrideSnapshot withOverrideMask(int overrideMask) {
+        if (overrideMask == getOverrideMask())
+            return this;
+        return new TrackOverrideSnapshot(this, overrideMask, tracks);
+    }
+
+    /**
+     * Creates a snapshot that differs from this one only in its tracks.
+     *
+     * @param tracks Tracks that the override applies to. The list is copied.
+     * @return New instance of TrackOverrideSnapshot.
+     */
+    public TrackOverrideSnapshot withTracks(List<TrackSnapshot> tracks) {
+        return new TrackOverrideSnapshot(this, getOverrideMask(), new ArrayList<>(tracks));
+    }
+
+    /**
+     * Creates a new detached TrackOverride with the values and tracks of this snapshot.
+     *
+     * @return New instance of TrackOverride.
+     */
+    public TrackOverride toTrackOverride() {
+        TrackOverride trackOverride = new TrackOverride();
+        applyTo(trackOverride);
+        tracks.forEach(track -> trackOverride.getTrack().add(track.toTrack()));
+        return trackOverride;
+    }
+
+    /**
+     * Lightweight accessor method.
+     *
+     * @return Unmodifiable list of the tracks that this override applies to.
+     */
+    public List<TrackSnapshot> getTracks() {
+        return tracks;
+    }
+}
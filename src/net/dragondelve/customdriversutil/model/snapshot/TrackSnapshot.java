@@ -0,0 +1,102 @@
+// Copyright 2023 Prokhor Kalinin
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package net.dragondelve.customdriversutil.model.snapshot;
+
+import net.dragondelve.customdriversutil.model.Track;
+
+/**
+ * Immutable snapshot of a track that a track specific override applies to. Holds only the names that are exported,
+ * so it can be read on any thread while the Track in the TrackLibrary is being edited.
+ */
+public final class TrackSnapshot {
+    /**
+     * Human-readable name of the track.
+     */
+    private final String name;
+
+    /**
+     * Name of the track that is used by AMS2.
+     */
+    private final String xmlName;
+
+    /**
+     * Creates a new instance of TrackSnapshot.
+     *
+     * @param name    Human-readable name of the track.
+     * @param xmlName Name of the track that is used by AMS2.
+     */
+    public TrackSnapshot(String name, String xmlName) {
+        this.name = name;
+        this.xmlName = xmlName;
+    }
+
+    /**
+     * Takes a snapshot of a track. Must be called on the thread that owns the track.
+     *
+     * @param track Track whose names are copied.
+     * @return New instance of TrackSnapshot.
+     */
+    public static TrackSnapshot of(Track track) {
+        return new TrackSnapshot(track.getName(), track.getXmlName());
+    }
+
+    /**
+     * Checks whether this snapshot still matches a track.
+     *
+     * @param track Track from which this snapshot may have been taken.
+     * @return True if the track has the same names as this snapshot, false otherwise.
+     */
+    public boolean matches(Track track) {
+        return equals(name, track.getName()) && equals(xmlName, track.getXmlName());
+    }
+
+    /**
+     * Creates a new detached Track with the names of this snapshot.
+     *
+     * @return New instance of Track.
+     */
+    public Track toTrack() {
+        return new Track(name, xmlName);
+    }
+
+    /**
+     * Lightweight accessor method.
+     *
+     * @return Human-readable name of the track.
+     */
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * Lightweight accessor method.
+     *
+     * @return Name of the track that is used by AMS2.
+     */
+    public String getXmlName() {
+        return xmlName;
+    }
+
+    /**
+     * Compares two names, references are compared first as the names are usually shared through the StringPool.
+     *
+     * @param first  Name, can be null.
+     * @param second Name, can be null.
+     * @return True if both names are equal or both are null, false otherwise.
+     */
+    private static boolean equals(String first, String second) {
+        return first == second || (first != null && first.equals(second));
+    }
+}
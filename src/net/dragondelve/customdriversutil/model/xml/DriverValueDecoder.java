@@ -0,0 +1,267 @@
+// Copyright 2023 Prokhor Kalinin
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package net.dragondelve.customdriversutil.model.xml;
+
+import net.dragondelve.customdriversutil.model.DriverBase;
+import net.dragondelve.customdriversutil.model.DriverParameter;
+import net.dragondelve.customdriversutil.model.OverrideFlags;
+import net.dragondelve.customdriversutil.util.ImportReport;
+
+/**
+ * Decodes the numeric parameters of a single driver element straight into primitive doubles and a mask of the set
+ * parameters, then applies them to a Driver or TrackOverride in one go. Values are parsed from the characters of the
+ * element text without creating a String for the common short decimals. Values that are not numbers are left out and
+ * values outside the range of the parameters are clamped, both are recorded in the ImportReport.
+ * One instance is reused for all driver elements of an import and is not thread safe.
+ */
+final class DriverValueDecoder {
+    /**
+     * Maximum number of significant digits for which the fast path is exact. Both the digits and the power of ten
+     * are exactly representable as doubles, so a single division is correctly rounded.
+     */
+    private static final int MAX_FAST_DIGITS = 15;
+
+    /**
+     * Powers of ten that are exactly representable as doubles.
+     */
+    private static final double[] POWERS_OF_TEN = {
+            1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10,
+            1e11, 1e12, 1e13, 1e14, 1e15, 1e16, 1e17, 1e18, 1e19, 1e20, 1e21, 1e22
+    };
+
+    /**
+     * Report to which invalid values are added.
+     */
+    private final ImportReport report;
+
+    /**
+     * Decoded values indexed by the ordinal of their parameter. Only values whose bit is set in the mask are valid.
+     */
+    private final double[] values = new double[DriverParameter.all().length];
+
+    /**
+     * Bits of the parameters that were decoded since the last reset.
+     */
+    private int mask = 0;
+
+    /**
+     * Livery name of the current driver element, used in the report.
+     */
+    private String liveryName;
+
+    /**
+     * Tracks attribute of the current driver element, null if it's a base driver. Used in the report.
+     */
+    private String tracks;
+
+    /**
+     * Buffer that collects the text of the current element when it's split into multiple events.
+     */
+    private char[] text = new char[32];
+
+    /**
+     * Number of characters in the text buffer.
+     */
+    private int textLength = 0;
+
+    /**
+     * Creates a new instance of DriverValueDecoder.
+     *
+     * @param report Report to which invalid values are added.
+     */
+    DriverValueDecoder(ImportReport report) {
+        this.report = report;
+    }
+
+    /**
+     * Forgets all decoded values. Should be called before every driver element.
+     *
+     * @param liveryName Livery name of the driver element, used in the report.
+     * @param tracks     Tracks attribute of the driver element, null if it's a base driver. Used in the report.
+     */
+    void reset(String liveryName, String tracks) {
+        this.liveryName = liveryName;
+        this.tracks = tracks;
+        mask = 0;
+        textLength = 0;
+    }
+
+    /**
+     * Appends characters to the text of the current element.
+     *
+     * @param chars  Array that contains the characters.
+     * @param start  Index of the first character.
+     * @param length Number of characters.
+     */
+    void appendText(char[] chars, int start, int length) {
+        if (textLength + length > text.length) {
+            char[] grown = new char[Math.max(text.length * 2, textLength + length)];
+            System.arraycopy(text, 0, grown, 0, textLength);
+            text = grown;
+        }
+        System.arraycopy(chars, start, text, textLength, length);
+        textLength += length;
+    }
+
+    /**
+     * Decodes the collected text of the current element as the value of a parameter and clears the text buffer.
+     *
+     * @param parameter Parameter whose value the element contains.
+     */
+    void decodeText(DriverParameter parameter) {
+        decode(parameter, text, 0, textLength);
+        textLength = 0;
+    }
+
+    /**
+     * Decodes a String as the value of a parameter. Null values are ignored.
+     *
+     * @param parameter Parameter whose value the String contains.
+     * @param value     Text of the value, can be null.
+     */
+    void decode(DriverParameter parameter, String value) {
+        if (value != null)
+            decode(parameter, value.toCharArray(), 0, value.length());
+    }
+
+    /**
+     * Decodes characters as the value of a parameter. If the characters are a number it's stored and the bit of the
+     * parameter is set. Otherwise the problem is recorded in the report.
+     *
+     * @param parameter Parameter whose value the characters contain.
+     * @param chars     Array that contains the characters.
+     * @param start     Index of the first character.
+     * @param length    Number of characters.
+     */
+    void decode(DriverParameter parameter, char[] chars, int start, int length) {
+        double value = parseDecimal(chars, start, length);
+        if (Double.isNaN(value)) {
+            report.addInvalidValue(describeOwner(), parameter.getXmlName(), new String(chars, start, length), "not a number, value ignored");
+            return;
+        }
+        if (!DriverParameter.isInRange(value)) {
+            double clamped = Math.max(DriverParameter.MIN_VALUE, Math.min(DriverParameter.MAX_VALUE, value));
+            report.addInvalidValue(describeOwner(), parameter.getXmlName(), new String(chars, start, length), "out of range, clamped to " + clamped);
+            value = clamped;
+        }
+        values[parameter.ordinal()] = value;
+        mask |= parameter.getBit();
+    }
+
+    /**
+     * Lightweight accessor method.
+     *
+     * @return Bits of the parameters that were decoded since the last reset.
+     */
+    int getMask() {
+        return mask;
+    }
+
+    /**
+     * Sets the decoded values and override flags of a Driver or TrackOverride. Parameters that were not decoded have
+     * their override flag cleared and their value left untouched.
+     *
+     * @param target Target whose properties are going to be set. Should be either a Driver or a TrackOverride.
+     */
+    void applyTo(DriverBase target) {
+        OverrideFlags flags = target.getOverrideFlags();
+        for (DriverParameter parameter : DriverParameter.all()) {
+            boolean set = (mask & parameter.getBit()) != 0;
+            if (set)
+                parameter.propertyOf(target).set(values[parameter.ordinal()]);
+            parameter.flagOf(flags).set(set);
+        }
+    }
+
+    /**
+     * Describes the current driver element for the report.
+     *
+     * @return Livery name and, for track specific overrides, the tracks of the current driver element.
+     */
+    private String describeOwner() {
+        if (tracks == null)
+            return "livery '" + liveryName + "'";
+        return "livery '" + liveryName + "', tracks '" + tracks + "'";
+    }
+
+    /**
+     * Parses a decimal number. Surrounding whitespace is ignored. Plain decimals with up to 15 significant digits are
+     * parsed without creating any objects, everything else is handed to Double.parseDouble.
+     *
+     * @param chars  Array that contains the characters.
+     * @param start  Index of the first character.
+     * @param length Number of characters.
+     * @return Parsed value, or NaN if the characters are not a finite number.
+     */
+    static double parseDecimal(char[] chars, int start, int length) {
+        int begin = start;
+        int end = start + length;
+        while (begin < end && chars[begin] <= ' ')
+            begin++;
+        while (end > begin && chars[end - 1] <= ' ')
+            end--;
+        if (begin == end)
+            return Double.NaN;
+
+        int i = begin;
+        boolean negative = false;
+        if (chars[i] == '-' || chars[i] == '+') {
+            negative = chars[i] == '-';
+            i++;
+        }
+
+        long digits = 0;
+        int significantDigits = 0;
+        int scale = 0;
+        boolean hasDigits = false;
+        boolean hasPoint = false;
+        for (; i < end; i++) {
+            char c = chars[i];
+            if (c >= '0' && c <= '9') {
+                hasDigits = true;
+                digits = digits * 10 + (c - '0');
+                if (digits != 0 && ++significantDigits > MAX_FAST_DIGITS)
+                    return parseSlow(chars, begin, end);
+                if (hasPoint && ++scale >= POWERS_OF_TEN.length)
+                    return parseSlow(chars, begin, end);
+            } else if (c == '.' && !hasPoint)
+                hasPoint = true;
+            else
+                return parseSlow(chars, begin, end);
+        }
+        if (!hasDigits)
+            return Double.NaN;
+
+        double value = digits / POWERS_OF_TEN[scale];
+        return negative ? -value : value;
+    }
+
+    /**
+     * Parses a number that is not a plain short decimal, such as one in exponent notation.
+     *
+     * @param chars Array that contains the characters.
+     * @param begin Index of the first character.
+     * @param end   Index after the last character.
+     * @return Parsed value, or NaN if the characters are not a finite number.
+     */
+    private static double parseSlow(char[] chars, int begin, int end) {
+        try {
+            double value = Double.parseDouble(new String(chars, begin, end - begin));
+            return Double.isInfinite(value) ? Double.NaN : value;
+        } catch (NumberFormatException e) {
+            return Double.NaN;
+        }
+    }
+}
@@ -0,0 +1,129 @@
+// Copyright 2023 Prokhor Kalinin
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package net.dragondelve.customdriversutil.model.xml;
+
+import net.dragondelve.customdriversutil.model.Driver;
+import net.dragondelve.customdriversutil.model.Grid;
+import net.dragondelve.customdriversutil.model.TrackOverride;
+import net.dragondelve.customdriversutil.util.DDUtil;
+import net.dragondelve.customdriversutil.util.ImportReport;
+
+import java.util.*;
+import java.util.logging.Level;
+
+/**
+ * Builds a Grid in two phases. First all base drivers and track specific overrides are collected while the source is
+ * read, base drivers are indexed by their livery name as they are added. Then every override is attached to its driver
+ * with a single index lookup. Overrides that have no matching driver, or whose livery name is shared by several drivers,
+ * are not attached and are recorded in the ImportReport instead.
+ */
+class GridAssembler {
+    /**
+     * Base drivers in the order they were added.
+     */
+    private final List<Driver> drivers = new ArrayList<>();
+
+    /**
+     * Base drivers by their livery name.
+     */
+    private final Map<String, Driver> liveryIndex = new HashMap<>();
+
+    /**
+     * Livery names that were used by more than one base driver.
+     */
+    private final Set<String> duplicateLiveries = new LinkedHashSet<>();
+
+    /**
+     * Livery names of the collected overrides, matched by index with overrides.
+     */
+    private final List<String> overrideLiveryNames = new ArrayList<>();
+
+    /**
+     * Comma separated track names of the collected overrides as they appear in the source, matched by index with overrides.
+     */
+    private final List<String> overrideTracks = new ArrayList<>();
+
+    /**
+     * Collected overrides that have not been attached yet.
+     */
+    private final List<TrackOverride> overrides = new ArrayList<>();
+
+    /**
+     * Report to which the problems found during assembly are written.
+     */
+    private final ImportReport report;
+
+    /**
+     * Creates a new instance of GridAssembler.
+     *
+     * @param report Report to which the problems found during assembly are written.
+     */
+    GridAssembler(ImportReport report) {
+        this.report = report;
+    }
+
+    /**
+     * Adds a base driver to the grid being assembled.
+     *
+     * @param driver Base driver whose livery name has already been set.
+     */
+    void addDriver(Driver driver) {
+        drivers.add(driver);
+        String liveryName = driver.getLiveryName();
+        if (liveryName != null && liveryIndex.putIfAbsent(liveryName, driver) != null)
+            duplicateLiveries.add(liveryName);
+    }
+
+    /**
+     * Collects a track specific override that is going to be attached to its driver once the grid is assembled.
+     *
+     * @param liveryName Livery name of the driver to which the override belongs, can be null.
+     * @param tracks     Comma separated track names as they appear in the source. Only used for reporting.
+     * @param override   Track specific override.
+     */
+    void addOverride(String liveryName, String tracks, TrackOverride override) {
+        overrideLiveryNames.add(liveryName);
+        overrideTracks.add(tracks);
+        overrides.add(override);
+    }
+
+    /**
+     * Attaches all collected overrides to their drivers and creates the grid. Problems are written to the report and a
+     * summary is logged as a warning.
+     *
+     * @return New instance of Grid that contains all added drivers.
+     */
+    Grid assemble() {
+        duplicateLiveries.forEach(report::addDuplicateLivery);
+
+        for (int i = 0; i < overrides.size(); i++) {
+            String liveryName = overrideLiveryNames.get(i);
+            Driver driver = liveryName == null ? null : liveryIndex.get(liveryName);
+            if (driver == null)
+                report.addOrphanedOverride(liveryName, overrideTracks.get(i), "no driver with this livery");
+            else if (duplicateLiveries.contains(liveryName))
+                report.addOrphanedOverride(liveryName, overrideTracks.get(i), "livery is shared by multiple drivers");
+            else
+                driver.getTrackOverrides().add(overrides.get(i));
+        }
+
+        if (report.hasIssues())
+            DDUtil.DEFAULT_LOGGER.log(Level.WARNING, "Grid imported with " + report.getDuplicateLiveries().size() + " duplicate liveries, " + report.getOrphanedOverrides().size() + " orphaned overrides and " + report.getInvalidValues().size() + " invalid values:" + System.lineSeparator() + report);
+
+        Grid grid = new Grid();
+        grid.getDrivers().addAll(drivers);
+        return grid;
+    }
+}
@@ -0,0 +1,294 @@
+// Copyright 2023 Prokhor Kalinin
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package net.dragondelve.customdriversutil.model.xml;
+
+import net.dragondelve.customdriversutil.model.DriverParameter;
+import net.dragondelve.customdriversutil.model.Grid;
+import net.dragondelve.customdriversutil.model.snapshot.DriverBaseSnapshot;
+import net.dragondelve.customdriversutil.model.snapshot.DriverSnapshot;
+import net.dragondelve.customdriversutil.model.snapshot.GridSnapshot;
+import net.dragondelve.customdriversutil.model.snapshot.TrackOverrideSnapshot;
+import net.dragondelve.customdriversutil.model.snapshot.TrackSnapshot;
+import net.dragondelve.customdriversutil.util.DDUtil;
+import net.dragondelve.customdriversutil.util.FixedDecimalEncoder;
+import net.dragondelve.customdriversutil.util.GridExporter;
+
+import javax.xml.stream.XMLOutputFactory;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamWriter;
+import java.io.*;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.logging.Level;
+
+/**
+ * Exports a Grid to the AMS2 XML Custom Driver storage method in a single pass. Drivers and track specific overrides
+ * are written straight from an immutable GridSnapshot to an XMLStreamWriter, without building an XMLGrid
+ * representation first, so snapshots can be exported on any thread.
+ * The output is byte-identical to the formatted output of the JAXB based XMLGridExporter.
+ * AMS2 XML representation of the custom AI drivers can be found here:
+ * <a href="https://forum.reizastudios.com/threads/information-for-customizing-ai-drivers-in-ams2-v1-3.21758/">AMS2 Reiza Forums</a>
+ */
+public class StreamingXMLGridExporter implements GridExporter {
+    /**
+     * Factory that creates all XMLStreamWriters used by this exporter. Factories are thread safe once configured.
+     */
+    private static final XMLOutputFactory OUTPUT_FACTORY = XMLOutputFactory.newInstance();
+
+    /**
+     * XML declaration as it's written by JAXB. XMLStreamWriter can't write the standalone attribute, so it's written
+     * directly to the underlying Writer.
+     */
+    private static final String XML_DECLARATION = "<?xml version=\"1.0\" encoding=\"UTF-8\" standalone=\"yes\"?>\n";
+
+    /**
+     * Size of the character buffer between the XMLStreamWriter and the target stream. The XMLStreamWriter is always
+     * given a buffered Writer, as it writes single bytes when it's given an OutputStream.
+     */
+    private static final int BUFFER_SIZE = 65536;
+
+    /**
+     * Indentation of the driver elements.
+     */
+    private static final String DRIVER_INDENT = "\n    ";
+
+    /**
+     * Indentation of the child elements of a driver element.
+     */
+    private static final String VALUE_INDENT = "\n        ";
+
+    /**
+     * Names of the child elements of a driver element in the order JAXB writes them, which is the alphabetical order
+     * of the XMLDriver properties.
+     */
+    private static final String[] ELEMENT_ORDER = createElementOrder();
+
+    /**
+     * Parameters that correspond to the ELEMENT_ORDER entries, null for the name and country elements.
+     */
+    private static final DriverParameter[] PARAMETER_ORDER = createParameterOrder();
+
+    /**
+     * Exports the given grid to a given file.
+     *
+     * @param grid Grid to be exported in an AMS2 XML format.
+     * @param file File to which the grid is to be exported. Should preferably end with .xml.
+     */
+    @Override
+    public void exportToFile(Grid grid, File file) {
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            exportToChannel(grid, channel);
+        } catch (IOException e) {
+            e.printStackTrace();
+            DDUtil.DEFAULT_LOGGER.log(Level.WARNING, "XML Grid streaming export failed to file: " + file.getPath());
+        }
+    }
+
+    /**
+     * Exports the given grid to a given output stream. The stream is flushed but not closed. A snapshot of the grid is
+     * taken first, so this method must be called on the thread that owns the grid.
+     *
+     * @param grid         Grid to be exported in an AMS2 XML format.
+     * @param outputStream Stream to which the grid is to be exported.
+     * @return True if the grid was exported successfully, false otherwise.
+     */
+    @Override
+    public boolean exportToStream(Grid grid, OutputStream outputStream) {
+        return exportToStream(grid.snapshot(), outputStream);
+    }
+
+    /**
+     * Exports a snapshot of a grid to a given output stream. The stream is flushed but not closed.
+     *
+     * @param snapshot     Snapshot of the grid to be exported in an AMS2 XML format.
+     * @param outputStream Stream to which the grid is to be exported.
+     * @return True if the grid was exported successfully, false otherwise.
+     */
+    @Override
+    public boolean exportToStream(GridSnapshot snapshot, OutputStream outputStream) {
+        DDUtil.DEFAULT_LOGGER.log(Level.FINE, "XML Grid streaming export initiated");
+        try {
+            Writer buffered = new BufferedWriter(new OutputStreamWriter(outputStream, StandardCharsets.UTF_8), BUFFER_SIZE);
+            buffered.write(XML_DECLARATION);
+            XMLStreamWriter writer = OUTPUT_FACTORY.createXMLStreamWriter(buffered);
+            writeGrid(writer, snapshot, FixedDecimalEncoder.fromConfiguration());
+            writer.flush();
+            writer.close();
+            buffered.flush();
+            DDUtil.DEFAULT_LOGGER.log(Level.FINE, "XML Grid streaming export successful");
+            return true;
+        } catch (IOException | XMLStreamException e) {
+            e.printStackTrace();
+            DDUtil.DEFAULT_LOGGER.log(Level.WARNING, "XML Grid streaming export failed");
+            return false;
+        }
+    }
+
+    /**
+     * Exports the given grid to a given channel. The channel is not closed.
+     *
+     * @param grid    Grid to be exported in an AMS2 XML format.
+     * @param channel Channel to which the grid is to be exported.
+     * @return True if the grid was exported successfully, false otherwise.
+     */
+    public boolean exportToChannel(Grid grid, WritableByteChannel channel) {
+        //The stream is deliberately never closed, as that would close the channel.
+        return exportToStream(grid, Channels.newOutputStream(channel));
+    }
+
+    /**
+     * Writes the root element with all drivers and their track specific overrides.
+     *
+     * @param writer  XMLStreamWriter positioned after the XML declaration.
+     * @param grid    Snapshot of the grid to be written.
+     * @param encoder Encoder that converts the values according to the current Export Rules.
+     * @throws XMLStreamException If the writer fails.
+     */
+    private void writeGrid(XMLStreamWriter writer, GridSnapshot grid, FixedDecimalEncoder encoder) throws XMLStreamException {
+        if (grid.getDrivers().isEmpty()) {
+            writer.writeEmptyElement("custom_ai_drivers");
+            writer.writeCharacters("\n");
+            return;
+        }
+
+        writer.writeStartElement("custom_ai_drivers");
+        for (DriverSnapshot driver : grid.getDrivers()) {
+            writeDriver(writer, driver, driver.getLiveryName(), null, encoder);
+            for (TrackOverrideSnapshot trackOverride : driver.getTrackOverrides())
+                writeDriver(writer, trackOverride, driver.getLiveryName(), joinTracks(trackOverride), encoder);
+        }
+        writer.writeCharacters("\n");
+        writer.writeEndElement();
+        writer.writeCharacters("\n");
+    }
+
+    /**
+     * Writes a single driver element of a base driver or a track specific override.
+     *
+     * @param writer     XMLStreamWriter positioned inside the root element.
+     * @param source     Snapshot of a Driver or TrackOverride whose overridden properties are written.
+     * @param liveryName Livery name of the driver, omitted if null.
+     * @param tracks     Comma separated xml names of the tracks of an override, null for base drivers.
+     * @param encoder    Encoder that converts the values according to the current Export Rules.
+     * @throws XMLStreamException If the writer fails.
+     */
+    private void writeDriver(XMLStreamWriter writer, DriverBaseSnapshot source, String liveryName, String tracks, FixedDecimalEncoder encoder) throws XMLStreamException {
+        writer.writeCharacters(DRIVER_INDENT);
+        boolean empty = !source.overridesAnything();
+        if (empty)
+            writer.writeEmptyElement("driver");
+        else
+            writer.writeStartElement("driver");
+        if (liveryName != null)
+            writer.writeAttribute("livery_name", liveryName);
+        if (tracks != null)
+            writer.writeAttribute("tracks", tracks);
+        if (empty)
+            return;
+
+        for (int i = 0; i < ELEMENT_ORDER.length; i++) {
+            DriverParameter parameter = PARAMETER_ORDER[i];
+            if (parameter != null) {
+                if (source.isOverridden(parameter))
+                    writeElement(writer, ELEMENT_ORDER[i], encoder.getBuffer(), encoder.encode(source.getValue(parameter)));
+            } else if ("name".equals(ELEMENT_ORDER[i])) {
+                if (source.isOverrideName() && source.getName() != null)
+                    writeElement(writer, ELEMENT_ORDER[i], source.getName());
+            } else if (source.isOverrideCountry() && source.getCountry() != null)
+                writeElement(writer, ELEMENT_ORDER[i], source.getCountry());
+        }
+        writer.writeCharacters(DRIVER_INDENT);
+        writer.writeEndElement();
+    }
+
+    /**
+     * Writes a single child element of a driver element.
+     *
+     * @param writer  XMLStreamWriter positioned inside a driver element.
+     * @param element Name of the element.
+     * @param value   Text of the element.
+     * @throws XMLStreamException If the writer fails.
+     */
+    private void writeElement(XMLStreamWriter writer, String element, String value) throws XMLStreamException {
+        writer.writeCharacters(VALUE_INDENT);
+        writer.writeStartElement(element);
+        writer.writeCharacters(value);
+        writer.writeEndElement();
+    }
+
+    /**
+     * Writes a single child element of a driver element whose text is held in a char array.
+     *
+     * @param writer  XMLStreamWriter positioned inside a driver element.
+     * @param element Name of the element.
+     * @param text    Array that contains the text of the element from its start.
+     * @param length  Number of characters of the text.
+     * @throws XMLStreamException If the writer fails.
+     */
+    private void writeElement(XMLStreamWriter writer, String element, char[] text, int length) throws XMLStreamException {
+        writer.writeCharacters(VALUE_INDENT);
+        writer.writeStartElement(element);
+        writer.writeCharacters(text, 0, length);
+        writer.writeEndElement();
+    }
+
+    /**
+     * Joins the xml names of the tracks of an override the way they are stored in the tracks attribute.
+     *
+     * @param trackOverride Snapshot of a track specific override.
+     * @return Comma separated xml names of the tracks.
+     */
+    private String joinTracks(TrackOverrideSnapshot trackOverride) {
+        StringBuilder builder = new StringBuilder();
+        for (TrackSnapshot track : trackOverride.getTracks()) {
+            if (builder.length() > 0)
+                builder.append(',');
+            builder.append(track.getXmlName());
+        }
+        return builder.toString();
+    }
+
+    /**
+     * Creates the names of the child elements of a driver element in the order JAXB writes them.
+     *
+     * @return Alphabetically sorted names of all child elements.
+     */
+    private static String[] createElementOrder() {
+        List<String> elements = new ArrayList<>();
+        elements.add("name");
+        elements.add("country");
+        for (DriverParameter parameter : DriverParameter.all())
+            elements.add(parameter.getXmlName());
+        elements.sort(null);
+        return elements.toArray(new String[0]);
+    }
+
+    /**
+     * Maps the ELEMENT_ORDER entries to their parameters.
+     *
+     * @return Parameters in the order of ELEMENT_ORDER, null for the name and country elements.
+     */
+    private static DriverParameter[] createParameterOrder() {
+        DriverParameter[] parameters = new DriverParameter[ELEMENT_ORDER.length];
+        for (int i = 0; i < ELEMENT_ORDER.length; i++)
+            parameters[i] = DriverParameter.fromXmlName(ELEMENT_ORDER[i]);
+        return parameters;
+    }
+}
@@ -0,0 +1,336 @@
+// Copyright 2023 Prokhor Kalinin
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package net.dragondelve.customdriversutil.model.xml;
+
+import net.dragondelve.customdriversutil.model.*;
+import net.dragondelve.customdriversutil.util.DDUtil;
+import net.dragondelve.customdriversutil.util.GridImporter;
+import net.dragondelve.customdriversutil.util.ImportReport;
+import net.dragondelve.customdriversutil.util.LibraryManager;
+import net.dragondelve.customdriversutil.util.StringPool;
+
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+import java.io.*;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.logging.Level;
+
+/**
+ * Imports a Grid from the AMS2 XML Custom Driver storage method in a single pass. The XML is read with a StAX
+ * XMLStreamReader directly from the raw stream and the Drivers and TrackOverrides are built while the document is read,
+ * without an intermediate String copy of the file or an XMLGrid representation.
+ * AMS2 XML representation of the custom AI drivers can be found here:
+ * <a href="https://forum.reizastudios.com/threads/information-for-customizing-ai-drivers-in-ams2-v1-3.21758/">Reiza Studios Forum</a>
+ */
+public class StreamingXMLGridImporter implements GridImporter {
+    /**
+     * Factory that creates all XMLStreamReaders used by this importer. Factories are thread safe once configured.
+     */
+    private static final XMLInputFactory INPUT_FACTORY = createInputFactory();
+
+    /**
+     * Report of the problems found during the last import.
+     */
+    private ImportReport lastImportReport;
+
+    /**
+     * Track Library that is searched before the currently loaded one, null if only the currently loaded one is searched.
+     */
+    private TrackLibrary trackLibrary;
+
+    /**
+     * Imports a grid from a given File. If the File contains a valid XML formatted with AMS2 XML representation of Custom AI it will return a Grid.
+     * This will not set the correct Class for the grid. This should be handled elsewhere.
+     *
+     * @param file An XML file formatted with AMS2 XML representation of Custom AI.
+     * @return New instance of a Grid from the source, or null if the import has failed.
+     */
+    @Override
+    public Grid importFromFile(File file) {
+        try (Reader reader = XMLSanitizingReader.fromFile(file)) {
+            return parseGrid(reader, null);
+        } catch (IOException e) {
+            e.printStackTrace();
+            DDUtil.DEFAULT_LOGGER.log(Level.WARNING, "XML Grid streaming failed from file: " + file.getPath());
+            return null;
+        }
+    }
+
+    /**
+     * Imports a grid from a given input stream.
+     *
+     * @param inputStream an input stream that contains the Grid in an xml format;
+     * @return New instance of a Grid from the source, or null if the import has failed.
+     */
+    @Override
+    public Grid importFromStream(InputStream inputStream) {
+        if (inputStream == null)
+            return null;
+        try (Reader reader = XMLSanitizingReader.fromStream(inputStream)) {
+            return parseGrid(reader, null);
+        } catch (IOException e) {
+            e.printStackTrace();
+            DDUtil.DEFAULT_LOGGER.log(Level.WARNING, "XML Grid streaming failed from stream");
+            return null;
+        }
+    }
+
+    /**
+     * Imports a grid from a given File and generates a new VehicleClass from the liveries of its drivers in the same pass.
+     * The new VehicleClass is added to the given VehicleClassLibrary and set as the VehicleClass of the Grid.
+     *
+     * @param file    a file that contains the Grid formatted to XML.
+     * @param library Vehicle Class Library that is meant to contain the newly loaded VehicleClass.
+     * @return New instance of a Grid from the source, or null if the import has failed.
+     */
+    @Override
+    public Grid importWithVehicleClass(File file, VehicleClassLibrary library) {
+        String xmlName = file.getName().substring(0, file.getName().length() - 4);
+        VehicleClass vehicleClass = new VehicleClass();
+        vehicleClass.setName(xmlName);
+        vehicleClass.setXmlName(xmlName);
+        vehicleClass.setModded(true);
+
+        try (Reader reader = XMLSanitizingReader.fromFile(file)) {
+            Grid grid = parseGrid(reader, vehicleClass);
+            if (grid != null) {
+                library.getVehicleClasses().add(vehicleClass);
+                grid.setVehicleClass(vehicleClass);
+            }
+            return grid;
+        } catch (IOException e) {
+            e.printStackTrace();
+            DDUtil.DEFAULT_LOGGER.log(Level.WARNING, "XML Grid streaming failed from file: " + file.getPath());
+            return null;
+        }
+    }
+
+    /**
+     * Lightweight mutator method.
+     *
+     * @param trackLibrary Track Library that is searched first, or null to only search the currently loaded one.
+     */
+    @Override
+    public void setTrackLibrary(TrackLibrary trackLibrary) {
+        this.trackLibrary = trackLibrary;
+    }
+
+    /**
+     * Lightweight accessor method.
+     *
+     * @return Report of the problems found during the last import, or null if nothing has been imported yet.
+     */
+    @Override
+    public ImportReport getLastImportReport() {
+        return lastImportReport;
+    }
+
+    /**
+     * Creates and configures the XMLInputFactory. DTDs and external entities are never resolved.
+     *
+     * @return New configured instance of XMLInputFactory.
+     */
+    static XMLInputFactory createInputFactory() {
+        XMLInputFactory factory = XMLInputFactory.newInstance();
+        factory.setProperty(XMLInputFactory.IS_NAMESPACE_AWARE, false);
+        factory.setProperty(XMLInputFactory.IS_COALESCING, true);
+        factory.setProperty(XMLInputFactory.SUPPORT_DTD, false);
+        factory.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, false);
+        return factory;
+    }
+
+    /**
+     * Reads the whole grid from the stream in a single pass. Base drivers and track specific overrides are collected by
+     * a GridAssembler as soon as their element ends, overrides are attached to their drivers once the whole document
+     * has been read, as they can appear before the driver they belong to.
+     *
+     * @param reader       Sanitized reader that contains the grid formatted with AMS2 XML representation of Custom AI.
+     * @param vehicleClass Vehicle class whose livery names are filled in with the liveries of the base drivers, can be null.
+     * @return New instance of a Grid from the source, or null if the import has failed.
+     */
+    private Grid parseGrid(Reader reader, VehicleClass vehicleClass) {
+        DDUtil.DEFAULT_LOGGER.log(Level.FINE, "XML Grid streaming initiated");
+        lastImportReport = new ImportReport();
+        GridAssembler assembler = new GridAssembler(lastImportReport);
+        DriverValueDecoder decoder = new DriverValueDecoder(lastImportReport);
+        Map<String, Integer> trackMisses = new HashMap<>();
+
+        XMLStreamReader streamReader = null;
+        try {
+            streamReader = INPUT_FACTORY.createXMLStreamReader(reader);
+            while (streamReader.hasNext()) {
+                if (streamReader.next() != XMLStreamConstants.START_ELEMENT || !"driver".equals(streamReader.getLocalName()))
+                    continue;
+
+                String liveryName = StringPool.getInstance().intern(streamReader.getAttributeValue(null, "livery_name"));
+                String tracks = streamReader.getAttributeValue(null, "tracks");
+                decoder.reset(liveryName, tracks);
+                if (tracks == null) {
+                    Driver driver = new Driver();
+                    if (liveryName != null)
+                        driver.liveryNameProperty().set(liveryName);
+                    readBaseProperties(streamReader, driver, decoder);
+                    assembler.addDriver(driver);
+                    if (vehicleClass != null)
+                        vehicleClass.getLiveryNames().add(liveryName);
+                } else {
+                    TrackOverride override = new TrackOverride();
+                    override.getTrack().addAll(resolveTracks(tracks, trackMisses));
+                    readBaseProperties(streamReader, override, decoder);
+                    assembler.addOverride(liveryName, tracks, override);
+                }
+            }
+        } catch (XMLStreamException e) {
+            e.printStackTrace();
+            DDUtil.DEFAULT_LOGGER.log(Level.WARNING, "XML Grid streaming failed");
+            return null;
+        } finally {
+            closeQuietly(streamReader);
+            TrackLibrary.logUnknownTracks(trackMisses);
+        }
+
+        Grid grid = assembler.assemble();
+        DDUtil.DEFAULT_LOGGER.log(Level.FINE, "XML Grid streaming successful");
+        return grid;
+    }
+
+    /**
+     * Reads all child elements of the current driver element and sets the corresponding properties and override flags of
+     * the target. Numeric values are decoded straight from the characters of the element text. The reader is left
+     * positioned on the end of the driver element.
+     *
+     * @param reader  XMLStreamReader positioned on the start of a driver element.
+     * @param target  Target whose properties are going to be set. Should be either a Driver or a TrackOverride.
+     * @param decoder Decoder that has been reset for this driver element.
+     * @throws XMLStreamException If the XML is malformed.
+     */
+    private void readBaseProperties(XMLStreamReader reader, DriverBase target, DriverValueDecoder decoder) throws XMLStreamException {
+        OverrideFlags flags = target.getOverrideFlags();
+        int depth = 1;
+        while (depth > 0 && reader.hasNext()) {
+            int event = reader.next();
+            if (event == XMLStreamConstants.END_ELEMENT) {
+                depth--;
+                continue;
+            }
+            if (event != XMLStreamConstants.START_ELEMENT)
+                continue;
+
+            String element = reader.getLocalName();
+            if ("name".equals(element)) {
+                target.nameProperty().set(reader.getElementText());
+                flags.overrideNameProperty().set(true);
+            } else if ("country".equals(element)) {
+                target.countryProperty().set(StringPool.getInstance().intern(reader.getElementText()));
+                flags.overrideCountryProperty().set(true);
+            } else {
+                DriverParameter parameter = DriverParameter.fromXmlName(element);
+                if (parameter != null)
+                    readValue(reader, parameter, decoder);
+                else
+                    //Unknown elements are ignored the same way the game ignores them.
+                    depth++;
+            }
+        }
+        decoder.applyTo(target);
+    }
+
+    /**
+     * Reads the text of the current parameter element into the decoder without creating a String. The reader is left
+     * positioned on the end of the element.
+     *
+     * @param reader    XMLStreamReader positioned on the start of a parameter element.
+     * @param parameter Parameter whose value the element contains.
+     * @param decoder   Decoder that receives the value.
+     * @throws XMLStreamException If the XML is malformed or the element contains child elements.
+     */
+    private void readValue(XMLStreamReader reader, DriverParameter parameter, DriverValueDecoder decoder) throws XMLStreamException {
+        int event = reader.next();
+        while (event != XMLStreamConstants.END_ELEMENT) {
+            switch (event) {
+                case XMLStreamConstants.CHARACTERS:
+                case XMLStreamConstants.CDATA:
+                case XMLStreamConstants.SPACE:
+                    decoder.appendText(reader.getTextCharacters(), reader.getTextStart(), reader.getTextLength());
+                    break;
+                case XMLStreamConstants.ENTITY_REFERENCE:
+                    String text = reader.getText();
+                    decoder.appendText(text.toCharArray(), 0, text.length());
+                    break;
+                case XMLStreamConstants.START_ELEMENT:
+                    throw new XMLStreamException("Element " + parameter.getXmlName() + " must only contain text", reader.getLocation());
+                default:
+                    //Comments and processing instructions are skipped.
+            }
+            event = reader.next();
+        }
+        decoder.decodeText(parameter);
+    }
+
+    /**
+     * Converts a comma separated list of track xml names to a list of tracks. Tracks that are not present in the
+     * currently loaded TrackLibrary are created with their xml name used as their name.
+     *
+     * @param tracks Comma separated list of track xml names as it's stored in the tracks attribute.
+     * @param misses Number of failed lookups per unknown xml name of the current import.
+     * @return List of tracks that the override applies to.
+     */
+    private List<Track> resolveTracks(String tracks, Map<String, Integer> misses) {
+        List<Track> resolved = new ArrayList<>();
+        for (String stringTrack : tracks.split(",")) {
+            Track track = findTrack(stringTrack, misses);
+            if (track != null)
+                resolved.add(track);
+            else {
+                String xmlName = StringPool.getInstance().intern(stringTrack);
+                resolved.add(new Track(xmlName, xmlName));
+            }
+        }
+        return resolved;
+    }
+
+    /**
+     * Finds a track first in the Track Library set with setTrackLibrary() and then in the currently loaded one. Only
+     * tracks missing from both are counted as misses.
+     *
+     * @param xmlName Track name that is used in the XML when exporting.
+     * @param misses  Number of failed lookups per unknown xml name of the current import.
+     * @return Track with the given xml name, or null if none found.
+     */
+    private Track findTrack(String xmlName, Map<String, Integer> misses) {
+        Track track = trackLibrary != null ? trackLibrary.findTrackWithXmlName(xmlName) : null;
+        return track != null ? track : LibraryManager.getInstance().getTrackLibrary().findTrackWithXmlName(xmlName, misses);
+    }
+
+    /**
+     * Closes the XMLStreamReader if it was created, ignoring any exception that is thrown while closing.
+     *
+     * @param streamReader XMLStreamReader to close, can be null.
+     */
+    private void closeQuietly(XMLStreamReader streamReader) {
+        if (streamReader == null)
+            return;
+        try {
+            streamReader.close();
+        } catch (XMLStreamException e) {
+            DDUtil.DEFAULT_LOGGER.log(Level.FINE, "XML stream reader could not be closed");
+        }
+    }
+}
@@ -14,9 +14,12 @@
 
 package net.dragondelve.customdriversutil.model.xml;
 
+import net.dragondelve.customdriversutil.util.InternedStringAdapter;
+
 import javax.xml.bind.annotation.XmlAttribute;
 import javax.xml.bind.annotation.XmlElement;
 import javax.xml.bind.annotation.XmlRootElement;
+import javax.xml.bind.annotation.adapters.XmlJavaTypeAdapter;
 
 /**
  * This class is fully annotated for use with JAXB.
@@ -155,6 +158,7 @@ final class XMLDriver {
      * @return In game name of the livery.
      */
     @XmlAttribute(name = "livery_name")
+    @XmlJavaTypeAdapter(InternedStringAdapter.class)
     public String getLiveryName() {
         return liveryName;
     }
@@ -193,6 +197,7 @@ final class XMLDriver {
      * @return 3-letter country code. This is used for displaying the country flag.
      */
     @XmlElement(name = "country")
+    @XmlJavaTypeAdapter(InternedStringAdapter.class)
     public String getCountry() {
         return country;
     }
@@ -16,13 +16,17 @@ package net.dragondelve.customdriversutil.model.xml;
 
 import net.dragondelve.customdriversutil.model.DriverBase;
 import net.dragondelve.customdriversutil.model.Grid;
-import net.dragondelve.customdriversutil.util.Configurator;
 import net.dragondelve.customdriversutil.util.DDUtil;
+import net.dragondelve.customdriversutil.util.FixedDecimalEncoder;
 import net.dragondelve.customdriversutil.util.GridExporter;
+import net.dragondelve.customdriversutil.util.JAXBContextRegistry;
 
-import javax.xml.bind.JAXBContext;
+import javax.xml.bind.JAXBException;
 import javax.xml.bind.Marshaller;
 import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.logging.Level;
 
 /**
  * Responsible for the conversion between this program's data model and  the AMS2 XML Custom Driver storage method.
@@ -42,6 +46,27 @@ public class XMLGridExporter implements GridExporter {
         exportXMLGrid(toXMLGrid(grid), file);
     }
 
+    /**
+     * Exports the given grid to a given output stream using JAXB. The stream is flushed but not closed.
+     *
+     * @param grid         Grid to be exported in an AMS2 XML format.
+     * @param outputStream Stream to which the grid is to be exported.
+     * @return True if the grid was exported successfully, false otherwise.
+     */
+    @Override
+    public boolean exportToStream(Grid grid, OutputStream outputStream) {
+        try {
+            Marshaller marshaller = JAXBContextRegistry.getInstance().getMarshaller(XMLGrid.class);
+            marshaller.marshal(toXMLGrid(grid), outputStream);
+            outputStream.flush();
+            return true;
+        } catch (JAXBException | IOException e) {
+            e.printStackTrace();
+            DDUtil.DEFAULT_LOGGER.log(Level.WARNING, "XML Grid export failed to stream");
+            return false;
+        }
+    }
+
     /**
      * Exports a given XMLGrid to a given file.
      *
@@ -50,9 +75,7 @@ public class XMLGridExporter implements GridExporter {
      */
     private void exportXMLGrid(XMLGrid xmlGrid, File file) {
         try {
-            JAXBContext context = JAXBContext.newInstance(XMLGrid.class);
-            Marshaller marshaller = context.createMarshaller();
-            marshaller.setProperty(Marshaller.JAXB_FORMATTED_OUTPUT, true);
+            Marshaller marshaller = JAXBContextRegistry.getInstance().getMarshaller(XMLGrid.class);
             marshaller.marshal(xmlGrid, file);
         } catch (Exception e) {
             e.printStackTrace();
@@ -67,10 +90,11 @@ public class XMLGridExporter implements GridExporter {
      */
     private XMLGrid toXMLGrid(Grid grid) {
         XMLGrid xmlGrid = new XMLGrid();
+        FixedDecimalEncoder encoder = FixedDecimalEncoder.fromConfiguration();
         grid.getDrivers().forEach(driver -> {
             XMLDriver xmlDriver = new XMLDriver();
             xmlDriver.setLiveryName(driver.getLiveryName());
-            exportBaseProperties(driver, xmlDriver);
+            exportBaseProperties(driver, xmlDriver, encoder);
             xmlGrid.getXmlDrivers().add(xmlDriver);
 
             driver.getTrackOverrides().forEach(trackOverride -> {
@@ -84,7 +108,7 @@ public class XMLGridExporter implements GridExporter {
                 });
                 xmlOverride.setTracks(builder.toString());
                 xmlOverride.setLiveryName(driver.getLiveryName());
-                exportBaseProperties(trackOverride, xmlOverride);
+                exportBaseProperties(trackOverride, xmlOverride, encoder);
                 xmlGrid.getXmlDrivers().add(xmlOverride);
             });
         });
@@ -95,59 +119,45 @@ public class XMLGridExporter implements GridExporter {
     /**
      * Exports the base properties shared between the track specific overrides and driver overrides.
      *
-     * @param source Source DriverBase, whose fields will be used to set the base properties of the xmlDriver.
-     * @param target Target whose properties are going to be set. Should be an xmlDriver whose other fields are set appropriately.
+     * @param source  Source DriverBase, whose fields will be used to set the base properties of the xmlDriver.
+     * @param target  Target whose properties are going to be set. Should be an xmlDriver whose other fields are set appropriately.
+     * @param encoder Encoder that converts the values to Strings according to the current Export Rules.
      */
-    private void exportBaseProperties(DriverBase source, XMLDriver target) {
+    private void exportBaseProperties(DriverBase source, XMLDriver target, FixedDecimalEncoder encoder) {
         if (source.getOverrideFlags().isOverrideName())
             target.setName(source.getName());
         if (source.getOverrideFlags().isOverrideCountry())
             target.setCountry(source.getCountry());
         if (source.getOverrideFlags().isOverrideRaceSkill())
-            target.setRaceSkill(convertProperty(source.getRaceSkill()));
+            target.setRaceSkill(encoder.encodeToString(source.getRaceSkill()));
         if (source.getOverrideFlags().isOverrideQualifyingSkill())
-            target.setQualifyingSkill(convertProperty(source.getQualifyingSkill()));
+            target.setQualifyingSkill(encoder.encodeToString(source.getQualifyingSkill()));
         if (source.getOverrideFlags().isOverrideAggression())
-            target.setAggression(convertProperty(source.getAggression()));
+            target.setAggression(encoder.encodeToString(source.getAggression()));
         if (source.getOverrideFlags().isOverrideDefending())
-            target.setDefending(convertProperty(source.getDefending()));
+            target.setDefending(encoder.encodeToString(source.getDefending()));
         if (source.getOverrideFlags().isOverrideStamina())
-            target.setStamina(convertProperty(source.getStamina()));
+            target.setStamina(encoder.encodeToString(source.getStamina()));
         if (source.getOverrideFlags().isOverrideConsistency())
-            target.setConsistency(convertProperty(source.getConsistency()));
+            target.setConsistency(encoder.encodeToString(source.getConsistency()));
         if (source.getOverrideFlags().isOverrideStartReactions())
-            target.setStartReactions(convertProperty(source.getStartReactions()));
+            target.setStartReactions(encoder.encodeToString(source.getStartReactions()));
         if (source.getOverrideFlags().isOverrideWetSkill())
-            target.setWetSkill(convertProperty(source.getWetSkill()));
+            target.setWetSkill(encoder.encodeToString(source.getWetSkill()));
         if (source.getOverrideFlags().isOverrideTyreManagement())
-            target.setTyreManagement(convertProperty(source.getTyreManagement()));
+            target.setTyreManagement(encoder.encodeToString(source.getTyreManagement()));
         if (source.getOverrideFlags().isOverrideFuelManagement())
-            target.setFuelManagement(convertProperty(source.getFuelManagement()));
+            target.setFuelManagement(encoder.encodeToString(source.getFuelManagement()));
         if (source.getOverrideFlags().isOverrideBlueFlagConceding())
-            target.setBlueFlagConceding(convertProperty(source.getBlueFlagConceding()));
+            target.setBlueFlagConceding(encoder.encodeToString(source.getBlueFlagConceding()));
         if (source.getOverrideFlags().isOverrideWeatherTyreChange())
-            target.setWeatherTyreChanges(convertProperty(source.getWeatherTyreChange()));
+            target.setWeatherTyreChanges(encoder.encodeToString(source.getWeatherTyreChange()));
         if (source.getOverrideFlags().isOverrideAvoidanceOfMistakes())
-            target.setAvoidanceOfMistakes(convertProperty(source.getAvoidanceOfMistakes()));
+            target.setAvoidanceOfMistakes(encoder.encodeToString(source.getAvoidanceOfMistakes()));
         if (source.getOverrideFlags().isOverrideAvoidanceOfForcedMistakes())
-            target.setAvoidanceOfForcedMistakes(convertProperty(source.getAvoidanceOfForcedMistakes()));
+            target.setAvoidanceOfForcedMistakes(encoder.encodeToString(source.getAvoidanceOfForcedMistakes()));
         if (source.getOverrideFlags().isOverrideVehicleReliability())
-            target.setVehicleReliability(convertProperty(source.getVehicleReliability()));
-    }
-
-    /**
-     * Converts the given driver's property to a String according to the current Export Rules
-     *
-     * @param property property to be converted
-     * @return same property converted to a String
-     */
-    private String convertProperty(double property) {
-        String stringProperty = Double.toString(property);
-        int nDigits = DDUtil.DECIMAL_POINT_CONSTANT + Configurator.getInstance().getConfiguration().getRoundingDecimalPlaces();
-        if (Configurator.getInstance().getConfiguration().isRoundGeneratedValues() && stringProperty.length() >= nDigits)
-            return stringProperty.substring(0, nDigits);
-        else
-            return stringProperty;
+            target.setVehicleReliability(encoder.encodeToString(source.getVehicleReliability()));
     }
 
 }
\ No newline at end of file
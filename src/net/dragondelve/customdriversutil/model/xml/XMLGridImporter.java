@@ -17,18 +17,26 @@ package net.dragondelve.customdriversutil.model.xml;
 import net.dragondelve.customdriversutil.model.*;
 import net.dragondelve.customdriversutil.util.DDUtil;
 import net.dragondelve.customdriversutil.util.GridImporter;
+import net.dragondelve.customdriversutil.util.ImportReport;
+import net.dragondelve.customdriversutil.util.JAXBContextRegistry;
 import net.dragondelve.customdriversutil.util.LibraryManager;
+import net.dragondelve.customdriversutil.util.StringPool;
 
-import javax.xml.bind.JAXBContext;
 import javax.xml.bind.JAXBException;
 import javax.xml.bind.Unmarshaller;
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
 import java.io.*;
-import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.Arrays;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 import java.util.logging.Level;
-import java.util.stream.Collectors;
 
 /**
  * Responsible for the conversion between AMS2 XML Custom Driver storage method and this program's data model.
@@ -36,6 +44,29 @@ import java.util.stream.Collectors;
  * <a href="https://forum.reizastudios.com/threads/information-for-customizing-ai-drivers-in-ams2-v1-3.21758/">Reiza Studios Forum</a>
  */
 public class XMLGridImporter implements GridImporter {
+    /**
+     * Factory that creates the XMLStreamReaders used to scan grids. Text is not coalesced as it's never read.
+     */
+    private static final XMLInputFactory SCAN_FACTORY = createScanFactory();
+
+    /**
+     * Report of the problems found during the last import.
+     */
+    private ImportReport lastImportReport;
+
+    /**
+     * Track Library that is searched before the currently loaded one, null if only the currently loaded one is searched.
+     */
+    private TrackLibrary trackLibrary;
+
+    /**
+     * Starts building the JAXBContexts used by the AMS2 XML importers and exporters on a background thread, so that the
+     * first grid import or export does not have to wait for them.
+     */
+    public static void warmUpContexts() {
+        JAXBContextRegistry.getInstance().warmUp(XMLGrid.class, XMLOverrides.class);
+    }
+
     /**
      * Loads a Vehicle Class only from an XML Grid assigning all livery names to the grid setting its name and xmlname to
      * the name of the file.
@@ -52,94 +83,121 @@ public class XMLGridImporter implements GridImporter {
     }
 
     /**
-     * Unmarshals xml grid from a given file.
+     * Scans a grid file without importing it. Only the attributes of the driver elements are read, no Drivers,
+     * TrackOverrides or XMLDrivers are created, which makes this much cheaper than importing the file.
+     * The vehicle class is resolved from the currently loaded VehicleClassLibrary by the file name.
      *
-     * @param file File that contains XMLGrid formatted with XML.
-     * @return New instance of XMLGrid.
+     * @param file File that contains a grid formatted with AMS2 XML representation of Custom AI.
+     * @return New instance of GridSummary, or null if the file could not be read.
      */
-    private static XMLGrid loadXMLGrid(File file) {
-        return parseXMLGrid(preParseFile(file));
+    public static GridSummary scanFile(File file) {
+        int driverCount = 0;
+        int overrideCount = 0;
+        Set<String> liveryNames = new LinkedHashSet<>();
+        Set<String> trackNames = new LinkedHashSet<>();
+
+        XMLStreamReader streamReader = null;
+        try (Reader reader = XMLSanitizingReader.fromFile(file)) {
+            streamReader = SCAN_FACTORY.createXMLStreamReader(reader);
+            while (streamReader.hasNext()) {
+                if (streamReader.next() != XMLStreamConstants.START_ELEMENT || !"driver".equals(streamReader.getLocalName()))
+                    continue;
+                String tracks = streamReader.getAttributeValue(null, "tracks");
+                if (tracks == null) {
+                    driverCount++;
+                    String liveryName = streamReader.getAttributeValue(null, "livery_name");
+                    if (liveryName != null)
+                        liveryNames.add(liveryName);
+                } else {
+                    overrideCount++;
+                    for (String track : tracks.split(","))
+                        if (!track.isEmpty())
+                            trackNames.add(track);
+                }
+            }
+        } catch (IOException | XMLStreamException e) {
+            DDUtil.DEFAULT_LOGGER.log(Level.WARNING, "XML Grid scanning failed from file: " + file.getPath());
+            return null;
+        } finally {
+            if (streamReader != null) {
+                try {
+                    streamReader.close();
+                } catch (XMLStreamException e) {
+                    e.printStackTrace();
+                }
+            }
+        }
+
+        VehicleClass vehicleClass = null;
+        if (LibraryManager.getInstance().getVehicleClassLibrary() != null)
+            vehicleClass = LibraryManager.getInstance().getVehicleClassLibrary().findVehicleClass(file.getName().substring(0, file.getName().length() - 4));
+        return new GridSummary(file, vehicleClass, driverCount, overrideCount, liveryNames, trackNames);
     }
 
     /**
-     * Unmarshals xml grid from a given input stream.
+     * Creates the XMLInputFactory used to scan grids.
      *
-     * @param stream inputStream that contains XMLGrid formatted with XML.
-     * @return New instance of XMLGrid.
+     * @return New configured instance of XMLInputFactory.
      */
-    private static XMLGrid loadXMLGrid(InputStream stream) {
-        return parseXMLGrid(preParseInputStream(stream));
+    private static XMLInputFactory createScanFactory() {
+        XMLInputFactory factory = StreamingXMLGridImporter.createInputFactory();
+        factory.setProperty(XMLInputFactory.IS_COALESCING, false);
+        return factory;
     }
 
     /**
-     * Parses the xml grid from a given pre-Parsed String containing the XML grid.
+     * Unmarshals xml grid from a given file.
      *
-     * @param xml xml grid pre-parsed to remove weird discrepancies between AMS2's loader and JAXB unmarshaller
-     * @return new Instance of XMLGrid loaded from the String.
+     * @param file File that contains XMLGrid formatted with XML.
+     * @return New instance of XMLGrid.
      */
-    private static XMLGrid parseXMLGrid(String xml) {
-        try {
-            DDUtil.DEFAULT_LOGGER.log(Level.FINE, "XML Grid loading initiated from String");
-            JAXBContext context = JAXBContext.newInstance(XMLGrid.class);
-            Unmarshaller unmarshaller = context.createUnmarshaller();
-            XMLGrid xmlGrid = (XMLGrid) unmarshaller.unmarshal(new StringReader(xml));
-            DDUtil.DEFAULT_LOGGER.log(Level.FINE, "XML Grid loading successful from String");
-            return xmlGrid;
-        } catch (JAXBException e) {
+    private static XMLGrid loadXMLGrid(File file) {
+        try (Reader reader = XMLSanitizingReader.fromFile(file)) {
+            return parseXMLGrid(reader);
+        } catch (IOException e) {
             e.printStackTrace();
-            DDUtil.DEFAULT_LOGGER.log(Level.WARNING, "XML Grid loading failed from from String");
+            DDUtil.DEFAULT_LOGGER.log(Level.WARNING, "XML Grid loading failed from file: " + file.getPath());
             return null;
         }
     }
 
     /**
-     * Removes things from the XML file that are technically not allowed but AMS2 will ignore and still load the file
-     * For example comments containing multiple --- and multiple xml header declarations.
+     * Unmarshals xml grid from a given input stream.
      *
-     * @param inputStream InputStream that contains the xml grid.
-     * @return String containing the XMLGrid
+     * @param stream inputStream that contains XMLGrid formatted with XML.
+     * @return New instance of XMLGrid.
      */
-    private static String preParseInputStream(InputStream inputStream) {
-        try {
-            BufferedReader bufferedReader = new BufferedReader(new InputStreamReader(inputStream, StandardCharsets.UTF_8));
-            StringBuilder stringBuilder = new StringBuilder();
-            char[] buffer = new char[10];
-            while (bufferedReader.read(buffer) != -1) {
-                stringBuilder.append(new String(buffer));
-                buffer = new char[10];
-            }
-            bufferedReader.close();
-
-
-            //Fixes dropped characters at the beginning of the stream
-            String xml = stringBuilder.toString().trim().replaceFirst("^([\\W]+)<", "<");
-            //Removes any comments left in the xml
-            xml = xml.replaceAll("<!--[\\s\\S]*?-->", "");
-            //Removes redundant xml header declarations (don't ask, there are sometimes 2 headers in the same file
-            xml = xml.replaceAll("<\\?xml.*\\?>", "");
-            //Adding a fixed header after all other headers have been removed.
-            return "<?xml version=\"1.0\" encoding=\"UTF-8\"?> " + xml;
+    private static XMLGrid loadXMLGrid(InputStream stream) {
+        if (stream == null)
+            return null;
+        try (Reader reader = XMLSanitizingReader.fromStream(stream)) {
+            return parseXMLGrid(reader);
         } catch (IOException e) {
             e.printStackTrace();
+            DDUtil.DEFAULT_LOGGER.log(Level.WARNING, "XML Grid loading failed from stream");
+            return null;
         }
-
-        return null;
     }
 
     /**
-     * Removes things from the XML file that are technically not allowed but AMS2 will ignore and still load the file
-     * For example comments containing multiple --- and multiple xml header declarations.
+     * Parses the xml grid from a given Reader. The reader should remove the discrepancies between AMS2's loader and the
+     * JAXB unmarshaller, which XMLSanitizingReader does.
      *
-     * @param file File that contains the xml grid.
-     * @return String containing the XMLGrid
+     * @param reader Reader that contains the sanitized xml grid.
+     * @return new Instance of XMLGrid loaded from the Reader.
      */
-    private static String preParseFile(File file) {
+    private static XMLGrid parseXMLGrid(Reader reader) {
         try {
-            return preParseInputStream(new FileInputStream(file));
-        } catch (FileNotFoundException e) {
+            DDUtil.DEFAULT_LOGGER.log(Level.FINE, "XML Grid loading initiated");
+            Unmarshaller unmarshaller = JAXBContextRegistry.getInstance().getUnmarshaller(XMLGrid.class);
+            XMLGrid xmlGrid = (XMLGrid) unmarshaller.unmarshal(reader);
+            DDUtil.DEFAULT_LOGGER.log(Level.FINE, "XML Grid loading successful");
+            return xmlGrid;
+        } catch (JAXBException e) {
             e.printStackTrace();
+            DDUtil.DEFAULT_LOGGER.log(Level.WARNING, "XML Grid loading failed");
+            return null;
         }
-        return null;
     }
 
     /**
@@ -192,6 +250,26 @@ public class XMLGridImporter implements GridImporter {
         return null;
     }
 
+    /**
+     * Lightweight mutator method.
+     *
+     * @param trackLibrary Track Library that is searched first, or null to only search the currently loaded one.
+     */
+    @Override
+    public void setTrackLibrary(TrackLibrary trackLibrary) {
+        this.trackLibrary = trackLibrary;
+    }
+
+    /**
+     * Lightweight accessor method.
+     *
+     * @return Report of the problems found during the last import, or null if nothing has been imported yet.
+     */
+    @Override
+    public ImportReport getLastImportReport() {
+        return lastImportReport;
+    }
+
     /**
      * Coverts a given XMLGrid to a Grid.
      *
@@ -202,7 +280,9 @@ public class XMLGridImporter implements GridImporter {
         if (xmlGrid == null)
             return null;
 
-        Grid grid = new Grid();
+        lastImportReport = new ImportReport();
+        GridAssembler assembler = new GridAssembler(lastImportReport);
+        DriverValueDecoder decoder = new DriverValueDecoder(lastImportReport);
         xmlGrid.getXmlDrivers().forEach(xmlDriver -> {
             if (xmlDriver.getTracks() != null)
                 return;
@@ -212,10 +292,11 @@ public class XMLGridImporter implements GridImporter {
             if (xmlDriver.getLiveryName() != null)
                 driver.liveryNameProperty().set(xmlDriver.getLiveryName());
 
-            importBaseProperties(xmlDriver, driver);
-            grid.getDrivers().add(driver);
+            importBaseProperties(xmlDriver, driver, decoder);
+            assembler.addDriver(driver);
         });
 
+        Map<String, Integer> trackMisses = new HashMap<>();
         xmlGrid.getXmlDrivers().forEach(xmlDriver -> {
             if (xmlDriver.getTracks() == null)
                 return;
@@ -224,34 +305,45 @@ public class XMLGridImporter implements GridImporter {
             List<String> stringTracks = Arrays.asList(xmlDriver.getTracks().split(","));
             List<Track> tracks = new ArrayList<>();
             stringTracks.forEach(stringTrack -> {
-                Track track = LibraryManager.getInstance().getTrackLibrary().findTrackWithXmlName(stringTrack);
+                Track track = findTrack(stringTrack, trackMisses);
                 if (track != null)
                     tracks.add(track);
-                else
-                    tracks.add(new Track(stringTrack, stringTrack));
+                else {
+                    String xmlName = StringPool.getInstance().intern(stringTrack);
+                    tracks.add(new Track(xmlName, xmlName));
+                }
             });
 
             override.getTrack().addAll(tracks);
-
-            List<Driver> collect = grid.getDrivers().stream().filter(driver -> driver.liveryNameProperty().get().equals(xmlDriver.getLiveryName())).collect(Collectors.toList());
-
-            importBaseProperties(xmlDriver, override);
-
-            if (collect.size() == 1) {
-                collect.get(0).getTrackOverrides().add(override);
-            }
+            importBaseProperties(xmlDriver, override, decoder);
+            assembler.addOverride(xmlDriver.getLiveryName(), xmlDriver.getTracks(), override);
         });
+        TrackLibrary.logUnknownTracks(trackMisses);
 
-        return grid;
+        return assembler.assemble();
+    }
+
+    /**
+     * Finds a track first in the Track Library set with setTrackLibrary() and then in the currently loaded one. Only
+     * tracks missing from both are counted as misses.
+     *
+     * @param xmlName Track name that is used in the XML when exporting.
+     * @param misses  Number of failed lookups per unknown xml name of the current import.
+     * @return Track with the given xml name, or null if none found.
+     */
+    private Track findTrack(String xmlName, Map<String, Integer> misses) {
+        Track track = trackLibrary != null ? trackLibrary.findTrackWithXmlName(xmlName) : null;
+        return track != null ? track : LibraryManager.getInstance().getTrackLibrary().findTrackWithXmlName(xmlName, misses);
     }
 
     /**
      * Imports the base properties shared between the track specific overrides and driver overrides.
      *
-     * @param source Source XML driver, whose fields will be used to set the base properties.
-     * @param target Target whose properties are going to be set. Should be either a Driver or a TrackOverride.
+     * @param source  Source XML driver, whose fields will be used to set the base properties.
+     * @param target  Target whose properties are going to be set. Should be either a Driver or a TrackOverride.
+     * @param decoder Decoder used to parse and validate the numeric values.
      */
-    private void importBaseProperties(XMLDriver source, DriverBase target) {
+    private void importBaseProperties(XMLDriver source, DriverBase target, DriverValueDecoder decoder) {
         if (source.getName() != null) {
             target.nameProperty().set(source.getName());
             target.getOverrideFlags().overrideNameProperty().set(true);
@@ -264,95 +356,54 @@ public class XMLGridImporter implements GridImporter {
         } else
             target.getOverrideFlags().overrideCountryProperty().set(false);
 
-        if (source.getRaceSkill() != null) {
-            target.raceSkillProperty().set(Double.parseDouble(source.getRaceSkill()));
-            target.getOverrideFlags().overrideRaceSkillProperty().set(true);
-        } else
-            target.getOverrideFlags().overrideRaceSkillProperty().set(false);
-
-        if (source.getQualifyingSkill() != null) {
-            target.qualifyingSkillProperty().set(Double.parseDouble(source.getQualifyingSkill()));
-            target.getOverrideFlags().overrideQualifyingSkillProperty().set(true);
-        } else
-            target.getOverrideFlags().overrideQualifyingSkillProperty().set(false);
-
-        if (source.getAggression() != null) {
-            target.aggressionProperty().set(Double.parseDouble(source.getAggression()));
-            target.getOverrideFlags().overrideAggressionProperty().set(true);
-        } else
-            target.getOverrideFlags().overrideAggressionProperty().set(false);
-
-        if (source.getDefending() != null) {
-            target.defendingProperty().set(Double.parseDouble(source.getDefending()));
-            target.getOverrideFlags().overrideDefendingProperty().set(true);
-        } else
-            target.getOverrideFlags().overrideDefendingProperty().set(false);
-
-        if (source.getStamina() != null) {
-            target.staminaProperty().set(Double.parseDouble(source.getStamina()));
-            target.getOverrideFlags().overrideStaminaProperty().set(true);
-        } else
-            target.getOverrideFlags().overrideStaminaProperty().set(false);
-
-        if (source.getConsistency() != null) {
-            target.consistencyProperty().set(Double.parseDouble(source.getConsistency()));
-            target.getOverrideFlags().overrideConsistencyProperty().set(true);
-        } else
-            target.getOverrideFlags().overrideConsistencyProperty().set(false);
-
-        if (source.getStartReactions() != null) {
-            target.startReactionsProperty().set(Double.parseDouble(source.getStartReactions()));
-            target.getOverrideFlags().overrideStartReactionsProperty().set(true);
-        } else
-            target.getOverrideFlags().overrideStartReactionsProperty().set(false);
-
-        if (source.getWetSkill() != null) {
-            target.wetSkillProperty().set(Double.parseDouble(source.getWetSkill()));
-            target.getOverrideFlags().overrideWetSkillProperty().set(true);
-        } else
-            target.getOverrideFlags().overrideWetSkillProperty().set(false);
-
-        if (source.getTyreManagement() != null) {
-            target.tyreManagementProperty().set(Double.parseDouble(source.getTyreManagement()));
-            target.getOverrideFlags().overrideTyreManagementProperty().set(true);
-        } else
-            target.getOverrideFlags().overrideTyreManagementProperty().set(false);
-
-        if (source.getFuelManagement() != null) {
-            target.fuelManagementProperty().set(Double.parseDouble(source.getFuelManagement()));
-            target.getOverrideFlags().overrideFuelManagementProperty().set(true);
-        } else
-            target.getOverrideFlags().overrideFuelManagementProperty().set(false);
-
-        if (source.getBlueFlagConceding() != null) {
-            target.blueFlagConcedingProperty().set(Double.parseDouble(source.getBlueFlagConceding()));
-            target.getOverrideFlags().overrideBlueFlagConcedingProperty().set(true);
-        } else
-            target.getOverrideFlags().overrideBlueFlagConcedingProperty().set(false);
-
-        if (source.getWeatherTyreChanges() != null) {
-            target.weatherTyreChangeProperty().set(Double.parseDouble(source.getWeatherTyreChanges()));
-            target.getOverrideFlags().overrideWeatherTyreChangeProperty().set(true);
-        } else
-            target.getOverrideFlags().overrideWeatherTyreChangeProperty().set(false);
-
-        if (source.getAvoidanceOfMistakes() != null) {
-            target.avoidanceOfMistakesProperty().set(Double.parseDouble(source.getAvoidanceOfForcedMistakes()));
-            target.getOverrideFlags().overrideAvoidanceOfMistakesProperty().set(true);
-        } else
-            target.getOverrideFlags().overrideAvoidanceOfMistakesProperty().set(false);
-
-        if (source.getAvoidanceOfForcedMistakes() != null) {
-            target.avoidanceOfForcedMistakesProperty().set(Double.parseDouble(source.getAvoidanceOfForcedMistakes()));
-            target.getOverrideFlags().overrideAvoidanceOfForcedMistakesProperty().set(true);
-        } else
-            target.getOverrideFlags().overrideAvoidanceOfForcedMistakesProperty().set(false);
+        decoder.reset(source.getLiveryName(), source.getTracks());
+        for (DriverParameter parameter : DriverParameter.all())
+            decoder.decode(parameter, valueOf(source, parameter));
+        decoder.applyTo(target);
+    }
 
-        if (source.getVehicleReliability() != null) {
-            target.vehicleReliabilityProperty().set(Double.parseDouble(source.getVehicleReliability()));
-            target.getOverrideFlags().overrideVehicleReliabilityProperty().set(true);
-        } else
-            target.getOverrideFlags().overrideVehicleReliabilityProperty().set(false);
+    /**
+     * Returns the value of a numeric parameter as it was read into an XMLDriver.
+     *
+     * @param source    Source XML driver.
+     * @param parameter Parameter whose value is returned.
+     * @return Value of the parameter as it appears in the XML, or null if the element is absent.
+     */
+    private static String valueOf(XMLDriver source, DriverParameter parameter) {
+        switch (parameter) {
+            case RACE_SKILL:
+                return source.getRaceSkill();
+            case QUALIFYING_SKILL:
+                return source.getQualifyingSkill();
+            case AGGRESSION:
+                return source.getAggression();
+            case DEFENDING:
+                return source.getDefending();
+            case STAMINA:
+                return source.getStamina();
+            case CONSISTENCY:
+                return source.getConsistency();
+            case START_REACTIONS:
+                return source.getStartReactions();
+            case WET_SKILL:
+                return source.getWetSkill();
+            case TYRE_MANAGEMENT:
+                return source.getTyreManagement();
+            case FUEL_MANAGEMENT:
+                return source.getFuelManagement();
+            case BLUE_FLAG_CONCEDING:
+                return source.getBlueFlagConceding();
+            case WEATHER_TYRE_CHANGES:
+                return source.getWeatherTyreChanges();
+            case AVOIDANCE_OF_MISTAKES:
+                return source.getAvoidanceOfMistakes();
+            case AVOIDANCE_OF_FORCED_MISTAKES:
+                return source.getAvoidanceOfForcedMistakes();
+            case VEHICLE_RELIABILITY:
+                return source.getVehicleReliability();
+            default:
+                return null;
+        }
     }
 
 }
@@ -14,7 +14,10 @@
 
 package net.dragondelve.customdriversutil.model.xml;
 
+import net.dragondelve.customdriversutil.util.InternedStringAdapter;
+
 import javax.xml.bind.annotation.XmlAttribute;
+import javax.xml.bind.annotation.adapters.XmlJavaTypeAdapter;
 
 /**
  * Represents a single livery override in the XML file.
@@ -31,6 +34,7 @@ public class XMLLiveryOverride {
      * @return Name of the livery after it is overridden.
      */
     @XmlAttribute(name = "NAME")
+    @XmlJavaTypeAdapter(InternedStringAdapter.class)
     public String getName() {
         return name;
     }
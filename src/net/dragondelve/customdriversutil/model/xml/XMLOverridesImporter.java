@@ -16,12 +16,11 @@ package net.dragondelve.customdriversutil.model.xml;
 
 import net.dragondelve.customdriversutil.model.VehicleClass;
 import net.dragondelve.customdriversutil.util.DDUtil;
+import net.dragondelve.customdriversutil.util.JAXBContextRegistry;
 
-import javax.xml.bind.JAXBContext;
 import javax.xml.bind.JAXBException;
 import javax.xml.bind.Unmarshaller;
 import java.io.*;
-import java.nio.charset.StandardCharsets;
 import java.util.logging.Level;
 
 /**
@@ -35,79 +34,36 @@ public class XMLOverridesImporter {
      * @return New instance of XMLOverrides.
      */
     private static XMLOverrides loadXMLOverrides(File file) {
-        return parseXMLOverrides(preParseFile(file));
+        try (Reader reader = XMLSanitizingReader.fromFile(file)) {
+            return parseXMLOverrides(reader);
+        } catch (IOException e) {
+            e.printStackTrace();
+            DDUtil.DEFAULT_LOGGER.log(Level.WARNING, "XML overrides loading failed from file: " + file.getPath());
+            return null;
+        }
     }
 
     /**
-     * Parses a String containing XMLOverrides formatted to an xml
+     * Parses XMLOverrides from a given Reader. The reader should remove the discrepancies between AMS2's loader and the
+     * JAXB unmarshaller, which XMLSanitizingReader does.
      *
-     * @param xml String containing XMLOverrides formatted to an xml
+     * @param reader Reader that contains the sanitized XMLOverrides formatted to an xml.
      * @return New instance of XMLOverrides.
      */
-    private static XMLOverrides parseXMLOverrides(String xml) {
+    private static XMLOverrides parseXMLOverrides(Reader reader) {
         try {
-            DDUtil.DEFAULT_LOGGER.log(Level.FINE, "XML overrides loading initiated from String");
-            JAXBContext context = JAXBContext.newInstance(XMLOverrides.class);
-            Unmarshaller unmarshaller = context.createUnmarshaller();
-            XMLOverrides xmlOverrides = (XMLOverrides) unmarshaller.unmarshal(new StringReader(xml));
-            DDUtil.DEFAULT_LOGGER.log(Level.FINE, "XML overrides loading successful from String");
+            DDUtil.DEFAULT_LOGGER.log(Level.FINE, "XML overrides loading initiated");
+            Unmarshaller unmarshaller = JAXBContextRegistry.getInstance().getUnmarshaller(XMLOverrides.class);
+            XMLOverrides xmlOverrides = (XMLOverrides) unmarshaller.unmarshal(reader);
+            DDUtil.DEFAULT_LOGGER.log(Level.FINE, "XML overrides loading successful");
             return xmlOverrides;
         } catch (JAXBException e) {
             e.printStackTrace();
-            DDUtil.DEFAULT_LOGGER.log(Level.WARNING, "XML overrides loading failed from from String");
+            DDUtil.DEFAULT_LOGGER.log(Level.WARNING, "XML overrides loading failed");
             return null;
         }
     }
 
-    /**
-     * Removes things from the XML file that are technically not allowed but AMS2 will ignore and still load the file
-     * For example comments containing multiple --- and multiple xml header declarations.
-     *
-     * @param inputStream InputStream that contains the xml overrides.
-     * @return String containing the XMLOverrides
-     */
-    private static String preParseInputStream(InputStream inputStream) {
-        try {
-            BufferedReader bufferedReader = new BufferedReader(new InputStreamReader(inputStream, StandardCharsets.UTF_8));
-            StringBuilder stringBuilder = new StringBuilder();
-            char[] buffer = new char[10];
-            while (bufferedReader.read(buffer) != -1) {
-                stringBuilder.append(new String(buffer));
-                buffer = new char[10];
-            }
-            bufferedReader.close();
-
-            //Fixes dropped characters at the beginning of the stream
-            String xml = stringBuilder.toString().trim().replaceFirst("^([\\W]+)<", "<");
-            //Removes any comments left in the xml
-            xml = xml.replaceAll("<!--[\\s\\S]*?-->", "");
-            //Removes redundant xml header declarations (don't ask, there are sometimes 2 headers in the same file
-            xml = xml.replaceAll("<\\?xml.*\\?>", "");
-            //Adding a fixed header after all other headers have been removed.
-            return "<?xml version=\"1.0\" encoding=\"UTF-8\"?> " + xml;
-        } catch (IOException e) {
-            e.printStackTrace();
-        }
-
-        return null;
-    }
-
-    /**
-     * Removes things from the XML file that are technically not allowed but AMS2 will ignore and still load the file
-     * For example comments containing multiple --- and multiple xml header declarations.
-     *
-     * @param file File that contains the xml overrides.
-     * @return String containing the XMLOverrides
-     */
-    private static String preParseFile(File file) {
-        try {
-            return preParseInputStream(new FileInputStream(file));
-        } catch (FileNotFoundException e) {
-            e.printStackTrace();
-        }
-        return null;
-    }
-
     /**
      * Imports a overrides from a given File. If the File contains a valid XML formatted with AMS2 XML representation of Custom AI it will return a overrides.
      * This will not set the correct Class for the overrides. This should be handled elsewhere.
@@ -0,0 +1,318 @@
+// Copyright 2023 Prokhor Kalinin
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package net.dragondelve.customdriversutil.model.xml;
+
+import java.io.*;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Removes things from an XML character stream that are technically not allowed but AMS2 will ignore and still load the file.
+ * This includes any characters before the first '&lt;' (byte order marks and dropped characters), comments (which sometimes
+ * contain multiple ---) and xml header declarations (there are sometimes 2 headers in the same file).
+ * The repairs are done on the fly using a fixed size buffer, so the document is never held in memory.
+ * Instances can be created over any Reader, over a ReadableByteChannel or directly over a file with the static
+ * factory methods. Documents are always decoded as UTF-8, malformed byte sequences are replaced.
+ */
+public class XMLSanitizingReader extends FilterReader {
+    /**
+     * Opening sequence of a comment without the leading '&lt;'.
+     */
+    private static final char[] COMMENT_START = {'!', '-', '-'};
+
+    /**
+     * Closing sequence of a comment.
+     */
+    private static final char[] COMMENT_END = {'-', '-', '>'};
+
+    /**
+     * Opening sequence of an xml header declaration without the leading '&lt;'.
+     */
+    private static final char[] HEADER_START = {'?', 'x', 'm', 'l'};
+
+    /**
+     * Closing sequence of an xml header declaration.
+     */
+    private static final char[] HEADER_END = {'?', '>'};
+
+    /**
+     * Size of the internal buffer.
+     */
+    private static final int BUFFER_SIZE = 8192;
+
+    /**
+     * Internal buffer that holds characters read from the underlying reader that have not been processed yet.
+     */
+    private final char[] buffer = new char[BUFFER_SIZE];
+
+    /**
+     * Index of the next unprocessed character in the buffer.
+     */
+    private int position = 0;
+
+    /**
+     * Number of valid characters in the buffer.
+     */
+    private int limit = 0;
+
+    /**
+     * Flag that is set when the underlying reader has been fully consumed.
+     */
+    private boolean endOfStream = false;
+
+    /**
+     * Flag that is set when the first '&lt;' has been found, everything before it is dropped.
+     */
+    private boolean started = false;
+
+    /**
+     * Creates a new instance of XMLSanitizingReader.
+     *
+     * @param in Reader that contains an xml document as written by AMS2 or another tool.
+     */
+    public XMLSanitizingReader(Reader in) {
+        super(in);
+    }
+
+    /**
+     * Creates a new instance of XMLSanitizingReader that decodes a given byte channel as UTF-8.
+     *
+     * @param channel Channel that contains an xml document. It is closed when the reader is closed.
+     * @return New instance of XMLSanitizingReader.
+     */
+    public static XMLSanitizingReader fromChannel(ReadableByteChannel channel) {
+        return new XMLSanitizingReader(Channels.newReader(channel, createDecoder(), BUFFER_SIZE));
+    }
+
+    /**
+     * Creates a new instance of XMLSanitizingReader that decodes a given input stream as UTF-8.
+     *
+     * @param inputStream Stream that contains an xml document. It is closed when the reader is closed.
+     * @return New instance of XMLSanitizingReader.
+     */
+    public static XMLSanitizingReader fromStream(InputStream inputStream) {
+        return new XMLSanitizingReader(new InputStreamReader(inputStream, createDecoder()));
+    }
+
+    /**
+     * Creates a new instance of XMLSanitizingReader over a file. The file is read through its FileChannel rather than
+     * memory-mapped, as a live mapping keeps the file from being replaced when the grid is saved on Windows.
+     *
+     * @param file File that contains an xml document.
+     * @return New instance of XMLSanitizingReader.
+     * @throws IOException If the file can't be opened.
+     */
+    public static XMLSanitizingReader fromFile(File file) throws IOException {
+        return fromFile(file.toPath());
+    }
+
+    /**
+     * Creates a new instance of XMLSanitizingReader over a file. The file is read through its FileChannel rather than
+     * memory-mapped, as a live mapping keeps the file from being replaced when the grid is saved on Windows.
+     *
+     * @param path Path to a file that contains an xml document.
+     * @return New instance of XMLSanitizingReader.
+     * @throws IOException If the file can't be opened.
+     */
+    public static XMLSanitizingReader fromFile(Path path) throws IOException {
+        return fromChannel(FileChannel.open(path, StandardOpenOption.READ));
+    }
+
+    /**
+     * Creates a UTF-8 decoder that replaces malformed and unmappable input instead of failing, the same way
+     * InputStreamReader does.
+     *
+     * @return New instance of CharsetDecoder.
+     */
+    private static CharsetDecoder createDecoder() {
+        return StandardCharsets.UTF_8.newDecoder()
+                .onMalformedInput(CodingErrorAction.REPLACE)
+                .onUnmappableCharacter(CodingErrorAction.REPLACE);
+    }
+
+    /**
+     * Reads a single sanitized character.
+     *
+     * @return The character read, or -1 if the end of the stream has been reached.
+     * @throws IOException If an I/O error occurs in the underlying reader.
+     */
+    @Override
+    public int read() throws IOException {
+        char[] single = new char[1];
+        return read(single, 0, 1) == -1 ? -1 : single[0];
+    }
+
+    /**
+     * Reads sanitized characters into a portion of an array.
+     *
+     * @param cbuf Destination buffer.
+     * @param off  Offset at which to start storing characters.
+     * @param len  Maximum number of characters to read.
+     * @return The number of characters read, or -1 if the end of the stream has been reached.
+     * @throws IOException If an I/O error occurs in the underlying reader.
+     */
+    @Override
+    public int read(char[] cbuf, int off, int len) throws IOException {
+        if (len == 0)
+            return 0;
+
+        int count = 0;
+        while (count < len) {
+            if (!ensureAvailable(1))
+                break;
+            char c = buffer[position];
+
+            if (!started) {
+                if (c != '<') {
+                    position++;
+                    continue;
+                }
+                started = true;
+            }
+
+            if (c == '<') {
+                if (lookingAt(COMMENT_START)) {
+                    position += 1 + COMMENT_START.length;
+                    skipPast(COMMENT_END);
+                    continue;
+                }
+                if (lookingAt(HEADER_START)) {
+                    position += 1 + HEADER_START.length;
+                    skipPast(HEADER_END);
+                    continue;
+                }
+            }
+
+            cbuf[off + count++] = c;
+            position++;
+        }
+
+        return count == 0 ? -1 : count;
+    }
+
+    /**
+     * This reader does not support skipping ahead without sanitizing, it reads and discards characters instead.
+     *
+     * @param n Number of characters to skip.
+     * @return Number of characters actually skipped.
+     * @throws IOException If an I/O error occurs in the underlying reader.
+     */
+    @Override
+    public long skip(long n) throws IOException {
+        char[] discard = new char[(int) Math.min(n, BUFFER_SIZE)];
+        long skipped = 0;
+        while (skipped < n) {
+            int read = read(discard, 0, (int) Math.min(n - skipped, discard.length));
+            if (read == -1)
+                break;
+            skipped += read;
+        }
+        return skipped;
+    }
+
+    /**
+     * Marking is not supported as characters are dropped on the fly.
+     *
+     * @return Always returns false.
+     */
+    @Override
+    public boolean markSupported() {
+        return false;
+    }
+
+    /**
+     * Tells whether this stream is ready to be read.
+     *
+     * @return True if there are unprocessed characters in the buffer or the underlying reader is ready.
+     * @throws IOException If an I/O error occurs in the underlying reader.
+     */
+    @Override
+    public boolean ready() throws IOException {
+        return position < limit || in.ready();
+    }
+
+    /**
+     * Checks whether the characters that follow the '&lt;' at the current position match the sequence provided.
+     *
+     * @param sequence Sequence of characters that is expected after the '&lt;'.
+     * @return True if the sequence matches, false if it does not or if the stream ends before the sequence does.
+     * @throws IOException If an I/O error occurs in the underlying reader.
+     */
+    private boolean lookingAt(char[] sequence) throws IOException {
+        if (!ensureAvailable(1 + sequence.length))
+            return false;
+        for (int i = 0; i < sequence.length; i++)
+            if (buffer[position + 1 + i] != sequence[i])
+                return false;
+        return true;
+    }
+
+    /**
+     * Discards characters until the sequence provided has been consumed or the stream ends.
+     *
+     * @param sequence Sequence of characters that terminates the discarded section.
+     * @throws IOException If an I/O error occurs in the underlying reader.
+     */
+    private void skipPast(char[] sequence) throws IOException {
+        while (ensureAvailable(sequence.length)) {
+            boolean matches = true;
+            for (int i = 0; i < sequence.length; i++) {
+                if (buffer[position + i] != sequence[i]) {
+                    matches = false;
+                    break;
+                }
+            }
+            if (matches) {
+                position += sequence.length;
+                return;
+            }
+            position++;
+        }
+        //Unterminated section, everything until the end of the stream is discarded.
+        position = limit;
+    }
+
+    /**
+     * Makes sure that at least the given amount of unprocessed characters is held in the buffer, compacting and refilling
+     * it from the underlying reader if required.
+     *
+     * @param amount Number of characters required.
+     * @return True if the required amount of characters is available, false if the stream ended before that.
+     * @throws IOException If an I/O error occurs in the underlying reader.
+     */
+    private boolean ensureAvailable(int amount) throws IOException {
+        if (limit - position >= amount)
+            return true;
+        if (position > 0) {
+            System.arraycopy(buffer, position, buffer, 0, limit - position);
+            limit -= position;
+            position = 0;
+        }
+        while (!endOfStream && limit < amount) {
+            int read = in.read(buffer, limit, buffer.length - limit);
+            if (read == -1)
+                endOfStream = true;
+            else
+                limit += read;
+        }
+        return limit - position >= amount;
+    }
+}
@@ -0,0 +1,245 @@
+// Copyright 2023 Prokhor Kalinin
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package net.dragondelve.customdriversutil.tools.catalog;
+
+import net.dragondelve.customdriversutil.model.Grid;
+import net.dragondelve.customdriversutil.model.GridSummary;
+import net.dragondelve.customdriversutil.model.VehicleClass;
+import net.dragondelve.customdriversutil.model.VehicleClassLibrary;
+import net.dragondelve.customdriversutil.model.xml.XMLGridImporter;
+import net.dragondelve.customdriversutil.util.DDUtil;
+import net.dragondelve.customdriversutil.util.GridImporter;
+import net.dragondelve.customdriversutil.util.LibraryManager;
+
+import java.io.File;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+import java.util.logging.Level;
+
+/**
+ * Catalog of all grids stored in a directory. Every XML file in the directory is imported concurrently on a bounded
+ * pool of worker threads, and its vehicle class is resolved from the currently loaded VehicleClassLibrary by the file
+ * name. The grids are built off the FX thread and must only be handed to the GUI once importAll() has returned.
+ * For listings that don't need the drivers themselves scanAll() only reads a summary of each file.
+ */
+public class GridCatalog {
+    /**
+     * Default number of worker threads used to import the files.
+     */
+    public static final int DEFAULT_THREADS = Math.max(1, Math.min(Runtime.getRuntime().availableProcessors(), 8));
+
+    /**
+     * Directory that contains the grids.
+     */
+    private final File directory;
+
+    /**
+     * Maximum number of files imported at the same time.
+     */
+    private final int threads;
+
+    /**
+     * Results of the last import, one per file, sorted by file name.
+     */
+    private final List<GridCatalogEntry> entries = new ArrayList<>();
+
+    /**
+     * Wall clock time of the last import in milliseconds.
+     */
+    private long loadTimeMillis = 0;
+
+    /**
+     * Creates a new instance of GridCatalog that uses the default number of worker threads.
+     *
+     * @param directory Directory that contains the grids.
+     */
+    public GridCatalog(File directory) {
+        this(directory, DEFAULT_THREADS);
+    }
+
+    /**
+     * Creates a new instance of GridCatalog.
+     *
+     * @param directory Directory that contains the grids.
+     * @param threads   Maximum number of files imported at the same time.
+     */
+    public GridCatalog(File directory, int threads) {
+        this.directory = directory;
+        this.threads = Math.max(1, threads);
+    }
+
+    /**
+     * Imports every XML file in the directory. This method blocks until all files have been imported, failures of
+     * individual files are recorded in their entries and do not stop the other imports.
+     *
+     * @return Unmodifiable list of results, one per file, sorted by file name.
+     */
+    public List<GridCatalogEntry> importAll() {
+        long start = System.nanoTime();
+        List<GridCatalogEntry> results = forEachFile(listGridFiles(), this::importFile,
+                (file, error) -> new GridCatalogEntry(file, null, null, null, error, 0));
+
+        synchronized (entries) {
+            entries.clear();
+            entries.addAll(results);
+        }
+        loadTimeMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+        DDUtil.DEFAULT_LOGGER.log(Level.FINE, "Grid catalog imported " + results.size() + " files from " + directory.getPath() + " in " + loadTimeMillis + "ms");
+        return getEntries();
+    }
+
+    /**
+     * Scans every XML file in the directory without importing it. This is much cheaper than importAll() and is meant
+     * for listings of the available grids. Files that could not be scanned are left out.
+     *
+     * @return List of summaries, one per readable file, sorted by file name.
+     */
+    public List<GridSummary> scanAll() {
+        long start = System.nanoTime();
+        List<GridSummary> summaries = forEachFile(listGridFiles(), XMLGridImporter::scanFile, (file, error) -> null);
+        summaries.removeIf(Objects::isNull);
+        DDUtil.DEFAULT_LOGGER.log(Level.FINE, "Grid catalog scanned " + summaries.size() + " files from " + directory.getPath() + " in " + TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start) + "ms");
+        return summaries;
+    }
+
+    /**
+     * Lightweight accessor method.
+     *
+     * @return Unmodifiable list of results of the last import, one per file, sorted by file name.
+     */
+    public List<GridCatalogEntry> getEntries() {
+        synchronized (entries) {
+            return List.copyOf(entries);
+        }
+    }
+
+    /**
+     * Lightweight accessor method.
+     *
+     * @return Wall clock time of the last import in milliseconds.
+     */
+    public long getLoadTimeMillis() {
+        return loadTimeMillis;
+    }
+
+    /**
+     * Lightweight accessor method.
+     *
+     * @return Directory that contains the grids.
+     */
+    public File getDirectory() {
+        return directory;
+    }
+
+    /**
+     * Lists all XML files in the directory sorted by name.
+     *
+     * @return List of XML files, empty if the directory does not exist or can't be read.
+     */
+    List<File> listGridFiles() {
+        File[] files = directory.listFiles(file -> file.isFile() && file.getName().toLowerCase(Locale.ROOT).endsWith(".xml"));
+        if (files == null) {
+            DDUtil.DEFAULT_LOGGER.log(Level.WARNING, "Grid catalog could not list directory: " + directory.getPath());
+            return new ArrayList<>();
+        }
+        List<File> sorted = new ArrayList<>(Arrays.asList(files));
+        sorted.sort(Comparator.comparing(File::getName));
+        return sorted;
+    }
+
+    /**
+     * Runs a task for every file on a bounded pool of worker threads and waits for all of them to finish.
+     *
+     * @param files     Files to process.
+     * @param task      Task that is run for each file on a worker thread.
+     * @param onFailure Creates the result of a file whose task has thrown an exception.
+     * @param <T>       Type of the results.
+     * @return List of results in the same order as the files. Files that were not processed because the calling thread
+     * was interrupted are left out.
+     */
+    private <T> List<T> forEachFile(List<File> files, Function<File, T> task, BiFunction<File, Throwable, T> onFailure) {
+        List<T> results = new ArrayList<>();
+        ExecutorService executor = Executors.newFixedThreadPool(Math.min(threads, Math.max(1, files.size())), createThreadFactory());
+        try {
+            List<Future<T>> futures = new ArrayList<>();
+            for (File file : files)
+                futures.add(executor.submit(() -> task.apply(file)));
+            for (int i = 0; i < futures.size(); i++) {
+                try {
+                    results.add(futures.get(i).get());
+                } catch (ExecutionException e) {
+                    results.add(onFailure.apply(files.get(i), e.getCause()));
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            DDUtil.DEFAULT_LOGGER.log(Level.WARNING, "Grid catalog interrupted in directory: " + directory.getPath());
+        } finally {
+            executor.shutdownNow();
+        }
+        return results;
+    }
+
+    /**
+     * Imports a single file and resolves its vehicle class. Runs on a worker thread.
+     *
+     * @param file XML file that contains a grid.
+     * @return Result of the import.
+     */
+    private GridCatalogEntry importFile(File file) {
+        long start = System.nanoTime();
+        GridImporter importer = LibraryManager.createGridImporter();
+        VehicleClass vehicleClass = resolveVehicleClass(file);
+        Grid grid = importer.importFromFile(file);
+        if (grid != null && vehicleClass != null)
+            grid.setVehicleClass(vehicleClass);
+        long time = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+        return new GridCatalogEntry(file, grid, vehicleClass, importer.getLastImportReport(), null, time);
+    }
+
+    /**
+     * Finds the vehicle class whose xml name matches the name of the file without the extension. Vanilla classes take
+     * precedence over modded ones.
+     *
+     * @param file XML file that contains a grid.
+     * @return Matching vehicle class from the currently loaded library, or null if there is none.
+     */
+    static VehicleClass resolveVehicleClass(File file) {
+        VehicleClassLibrary library = LibraryManager.getInstance().getVehicleClassLibrary();
+        if (library == null)
+            return null;
+        return library.findVehicleClass(file.getName().substring(0, file.getName().length() - 4));
+    }
+
+    /**
+     * Creates a factory of daemon worker threads, so that a running import never keeps the program alive.
+     *
+     * @return New instance of ThreadFactory.
+     */
+    private static ThreadFactory createThreadFactory() {
+        return new ThreadFactory() {
+            private int count = 0;
+
+            @Override
+            public synchronized Thread newThread(Runnable runnable) {
+                Thread thread = new Thread(runnable, "Grid catalog worker " + ++count);
+                thread.setDaemon(true);
+                return thread;
+            }
+        };
+    }
+}
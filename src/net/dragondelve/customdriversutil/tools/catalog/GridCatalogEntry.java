@@ -0,0 +1,139 @@
+// Copyright 2023 Prokhor Kalinin
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package net.dragondelve.customdriversutil.tools.catalog;
+
+import net.dragondelve.customdriversutil.model.Grid;
+import net.dragondelve.customdriversutil.model.VehicleClass;
+import net.dragondelve.customdriversutil.util.ImportReport;
+
+import java.io.File;
+
+/**
+ * Result of importing a single file of a GridCatalog. Holds the imported grid, its vehicle class if it was found in the
+ * library, the problems found during the import and how long the import took.
+ */
+public class GridCatalogEntry {
+    /**
+     * File from which the grid was imported.
+     */
+    private final File file;
+
+    /**
+     * Imported grid, null if the import has failed.
+     */
+    private final Grid grid;
+
+    /**
+     * Vehicle class from the library that matches the file name, null if none was found.
+     */
+    private final VehicleClass vehicleClass;
+
+    /**
+     * Report of the problems found during the import, null if the import has failed.
+     */
+    private final ImportReport report;
+
+    /**
+     * Error that caused the import to fail, null if the import has succeeded or failed without an exception.
+     */
+    private final Throwable error;
+
+    /**
+     * Time spent importing the file in milliseconds.
+     */
+    private final long importTimeMillis;
+
+    /**
+     * Creates a new instance of GridCatalogEntry.
+     *
+     * @param file             File from which the grid was imported.
+     * @param grid             Imported grid, null if the import has failed.
+     * @param vehicleClass     Vehicle class from the library that matches the file name, can be null.
+     * @param report           Report of the problems found during the import, can be null.
+     * @param error            Error that caused the import to fail, can be null.
+     * @param importTimeMillis Time spent importing the file in milliseconds.
+     */
+    GridCatalogEntry(File file, Grid grid, VehicleClass vehicleClass, ImportReport report, Throwable error, long importTimeMillis) {
+        this.file = file;
+        this.grid = grid;
+        this.vehicleClass = vehicleClass;
+        this.report = report;
+        this.error = error;
+        this.importTimeMillis = importTimeMillis;
+    }
+
+    /**
+     * Lightweight accessor method.
+     *
+     * @return File from which the grid was imported.
+     */
+    public File getFile() {
+        return file;
+    }
+
+    /**
+     * Lightweight accessor method.
+     *
+     * @return Imported grid, or null if the import has failed.
+     */
+    public Grid getGrid() {
+        return grid;
+    }
+
+    /**
+     * Lightweight accessor method.
+     *
+     * @return Vehicle class from the library that matches the file name, or null if none was found.
+     */
+    public VehicleClass getVehicleClass() {
+        return vehicleClass;
+    }
+
+    /**
+     * Lightweight accessor method.
+     *
+     * @return Report of the problems found during the import, or null if the import has failed.
+     */
+    public ImportReport getReport() {
+        return report;
+    }
+
+    /**
+     * Lightweight accessor method.
+     *
+     * @return Error that caused the import to fail, or null if there was none.
+     */
+    public Throwable getError() {
+        return error;
+    }
+
+    /**
+     * Lightweight accessor method.
+     *
+     * @return Time spent importing the file in milliseconds.
+     */
+    public long getImportTimeMillis() {
+        return importTimeMillis;
+    }
+
+    /**
+     * Checks whether the file was imported.
+     *
+     * @return True if the grid was imported, false if the import has failed.
+     */
+    public boolean isSuccessful() {
+        return grid != null;
+    }
+}
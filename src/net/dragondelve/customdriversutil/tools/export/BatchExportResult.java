@@ -0,0 +1,144 @@
+// Copyright 2023 Prokhor Kalinin
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package net.dragondelve.customdriversutil.tools.export;
+
+import net.dragondelve.customdriversutil.model.Grid;
+
+import java.io.File;
+
+/**
+ * Result of exporting a single grid of a BatchGridExporter. Holds the file the grid was exported to, whether the file
+ * was written, left untouched because its contents were already up to date, or could not be written, and how long the
+ * export took.
+ */
+public class BatchExportResult {
+    /**
+     * Outcome of the export of a single grid.
+     */
+    public enum Status {
+        /**
+         * The file was written with new contents.
+         */
+        WRITTEN,
+        /**
+         * The file already had the exported contents and was not rewritten.
+         */
+        UNCHANGED,
+        /**
+         * The grid could not be exported.
+         */
+        FAILED
+    }
+
+    /**
+     * Grid that was exported.
+     */
+    private final Grid grid;
+
+    /**
+     * File to which the grid was exported, null if no file name could be determined.
+     */
+    private final File file;
+
+    /**
+     * Outcome of the export.
+     */
+    private final Status status;
+
+    /**
+     * Description of the reason the export has failed, null if it has not.
+     */
+    private final String message;
+
+    /**
+     * Time spent exporting the grid in milliseconds.
+     */
+    private final long exportTimeMillis;
+
+    /**
+     * Creates a new instance of BatchExportResult.
+     *
+     * @param grid             Grid that was exported.
+     * @param file             File to which the grid was exported, can be null.
+     * @param status           Outcome of the export.
+     * @param message          Description of the reason the export has failed, can be null.
+     * @param exportTimeMillis Time spent exporting the grid in milliseconds.
+     */
+    BatchExportResult(Grid grid, File file, Status status, String message, long exportTimeMillis) {
+        this.grid = grid;
+        this.file = file;
+        this.status = status;
+        this.message = message;
+        this.exportTimeMillis = exportTimeMillis;
+    }
+
+    /**
+     * Lightweight accessor method.
+     *
+     * @return Grid that was exported.
+     */
+    public Grid getGrid() {
+        return grid;
+    }
+
+    /**
+     * Lightweight accessor method.
+     *
+     * @return File to which the grid was exported, null if no file name could be determined.
+     */
+    public File getFile() {
+        return file;
+    }
+
+    /**
+     * Lightweight accessor method.
+     *
+     * @return Outcome of the export.
+     */
+    public Status getStatus() {
+        return status;
+    }
+
+    /**
+     * Lightweight accessor method.
+     *
+     * @return Description of the reason the export has failed, null if it has not.
+     */
+    public String getMessage() {
+        return message;
+    }
+
+    /**
+     * Lightweight accessor method.
+     *
+     * @return Time spent exporting the grid in milliseconds.
+     */
+    public long getExportTimeMillis() {
+        return exportTimeMillis;
+    }
+
+    /**
+     * Describes the result in a single line for the log.
+     *
+     * @return File name, status and the failure message if there is one.
+     */
+    @Override
+    public String toString() {
+        String name = file != null ? file.getName() : "<unnamed grid>";
+        if (message != null)
+            return name + ": " + status + " (" + message + ")";
+        return name + ": " + status;
+    }
+}
@@ -0,0 +1,268 @@
+// Copyright 2023 Prokhor Kalinin
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package net.dragondelve.customdriversutil.tools.export;
+
+import net.dragondelve.customdriversutil.model.Grid;
+import net.dragondelve.customdriversutil.model.snapshot.GridSnapshot;
+import net.dragondelve.customdriversutil.util.*;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.function.Supplier;
+import java.util.logging.Level;
+
+/**
+ * Exports many grids at once into a single directory, such as the AMS2 custom AI folder. Every grid is written to a
+ * file named after the xml name of its vehicle class. The grids are encoded concurrently on a bounded pool of worker
+ * threads with a GridExporter each, and the encoded contents are compared with the existing files by their content
+ * hash. Files whose contents have not changed are not rewritten and keep their timestamps, the other files are
+ * replaced atomically by the SaveService.
+ * Snapshots of the grids are taken on the calling thread, so exportAll() should be called on the thread that owns
+ * them. The snapshots are prepared for export with LibraryManager.prepareExport() on the worker threads.
+ */
+public class BatchGridExporter {
+    /**
+     * Default number of worker threads used to encode the grids.
+     */
+    public static final int DEFAULT_THREADS = Math.max(1, Math.min(Runtime.getRuntime().availableProcessors(), 8));
+
+    /**
+     * Directory to which the grids are exported.
+     */
+    private final File directory;
+
+    /**
+     * Maximum number of grids encoded at the same time.
+     */
+    private final int threads;
+
+    /**
+     * Creates a new GridExporter for every grid, as exporters are not required to be thread safe.
+     */
+    private final Supplier<GridExporter> exporterFactory;
+
+    /**
+     * Creates a new instance of BatchGridExporter that uses the default number of worker threads and exporter.
+     *
+     * @param directory Directory to which the grids are exported.
+     */
+    public BatchGridExporter(File directory) {
+        this(directory, DEFAULT_THREADS, LibraryManager::createGridExporter);
+    }
+
+    /**
+     * Creates a new instance of BatchGridExporter.
+     *
+     * @param directory       Directory to which the grids are exported.
+     * @param threads         Maximum number of grids encoded at the same time.
+     * @param exporterFactory Creates a new GridExporter for every grid.
+     */
+    public BatchGridExporter(File directory, int threads, Supplier<GridExporter> exporterFactory) {
+        this.directory = directory;
+        this.threads = Math.max(1, threads);
+        this.exporterFactory = exporterFactory;
+    }
+
+    /**
+     * Exports every given grid. This method blocks until all grids have been exported, failures of individual grids are
+     * recorded in their results and do not stop the other exports. Grids without an xml name and grids whose xml name
+     * was already used by a previous grid of the same call are not exported.
+     *
+     * @param grids Grids to be exported.
+     * @return List of results in the same order as the grids.
+     */
+    public List<BatchExportResult> exportAll(Collection<Grid> grids) {
+        long start = System.nanoTime();
+        List<BatchExportResult> results = new ArrayList<>();
+        if (!directory.isDirectory() && !directory.mkdirs()) {
+            DDUtil.DEFAULT_LOGGER.log(Level.WARNING, "Batch export could not create directory: " + directory.getPath());
+            for (Grid grid : grids)
+                results.add(new BatchExportResult(grid, null, BatchExportResult.Status.FAILED, "directory could not be created", 0));
+            return results;
+        }
+
+        Set<String> usedNames = new HashSet<>();
+        List<Grid> sources = new ArrayList<>(grids);
+        List<Future<BatchExportResult>> futures = new ArrayList<>();
+        ExecutorService executor = Executors.newFixedThreadPool(Math.min(threads, Math.max(1, sources.size())), createThreadFactory());
+        try {
+            for (Grid grid : sources) {
+                String name = fileNameOf(grid);
+                if (name == null)
+                    futures.add(CompletableFuture.completedFuture(new BatchExportResult(grid, null, BatchExportResult.Status.FAILED, "vehicle class has no xml name", 0)));
+                else if (!usedNames.add(name.toLowerCase(Locale.ROOT)))
+                    futures.add(CompletableFuture.completedFuture(new BatchExportResult(grid, new File(directory, name), BatchExportResult.Status.FAILED, "another grid is exported to the same file", 0)));
+                else {
+                    GridSnapshot snapshot = grid.snapshot();
+                    File file = new File(directory, name);
+                    futures.add(executor.submit(() -> exportGrid(grid, snapshot, file)));
+                }
+            }
+            for (int i = 0; i < futures.size(); i++) {
+                try {
+                    results.add(futures.get(i).get());
+                } catch (ExecutionException e) {
+                    results.add(new BatchExportResult(sources.get(i), null, BatchExportResult.Status.FAILED, String.valueOf(e.getCause()), 0));
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            DDUtil.DEFAULT_LOGGER.log(Level.WARNING, "Batch export interrupted to directory: " + directory.getPath());
+        } finally {
+            executor.shutdownNow();
+        }
+
+        DDUtil.DEFAULT_LOGGER.log(Level.FINE, "Batch export of " + results.size() + " grids to " + directory.getPath() + " finished in "
+                + TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start) + "ms, " + count(results, BatchExportResult.Status.WRITTEN) + " written, "
+                + count(results, BatchExportResult.Status.UNCHANGED) + " unchanged, " + count(results, BatchExportResult.Status.FAILED) + " failed");
+        return results;
+    }
+
+    /**
+     * Collects grids and exports them in the background, as described in exportAll(). Both run on a thread of this
+     * exporter, so the supplier can import the grids from their files without blocking the calling thread. The grids
+     * are then owned by that thread and must not be modified by any other thread.
+     *
+     * @param gridSupplier Creates the grids to be exported, such as by importing them.
+     * @return Future that is completed with the results in the same order as the grids.
+     */
+    public CompletableFuture<List<BatchExportResult>> exportAllAsync(Supplier<? extends Collection<Grid>> gridSupplier) {
+        CompletableFuture<List<BatchExportResult>> future = new CompletableFuture<>();
+        createThreadFactory().newThread(() -> {
+            try {
+                future.complete(exportAll(gridSupplier.get()));
+            } catch (RuntimeException e) {
+                e.printStackTrace();
+                DDUtil.DEFAULT_LOGGER.log(Level.WARNING, "Batch export failed to directory: " + directory.getPath());
+                future.completeExceptionally(e);
+            }
+        }).start();
+        return future;
+    }
+
+    /**
+     * Lightweight accessor method.
+     *
+     * @return Directory to which the grids are exported.
+     */
+    public File getDirectory() {
+        return directory;
+    }
+
+    /**
+     * Counts the results with a given status.
+     *
+     * @param results Results of an export.
+     * @param status  Status to count.
+     * @return Number of results with the given status.
+     */
+    public static int count(List<BatchExportResult> results, BatchExportResult.Status status) {
+        int count = 0;
+        for (BatchExportResult result : results)
+            if (result.getStatus() == status)
+                count++;
+        return count;
+    }
+
+    /**
+     * Encodes a single grid and writes it unless the file already has the same contents. Runs on a worker thread.
+     *
+     * @param grid     Grid that is exported, used in the result.
+     * @param snapshot Snapshot of the grid that is encoded.
+     * @param file     File to which the grid is exported.
+     * @return Result of the export.
+     */
+    private BatchExportResult exportGrid(Grid grid, GridSnapshot snapshot, File file) {
+        long start = System.nanoTime();
+        ByteArrayOutputStream encoded = new ByteArrayOutputStream();
+        if (!exporterFactory.get().exportToStream(LibraryManager.prepareExport(snapshot), encoded))
+            return new BatchExportResult(grid, file, BatchExportResult.Status.FAILED, "grid could not be encoded", millisSince(start));
+        byte[] bytes = encoded.toByteArray();
+
+        if (hasContents(file, bytes))
+            return new BatchExportResult(grid, file, BatchExportResult.Status.UNCHANGED, null, millisSince(start));
+
+        boolean saved = SaveService.getInstance().save(file, bytes).join();
+        if (!saved)
+            return new BatchExportResult(grid, file, BatchExportResult.Status.FAILED, "file could not be written", millisSince(start));
+        LibraryManager.getInstance().markWritten(file);
+        return new BatchExportResult(grid, file, BatchExportResult.Status.WRITTEN, null, millisSince(start));
+    }
+
+    /**
+     * Checks whether a file already has the given contents. The sizes are compared first, so the file is only hashed if
+     * its size matches.
+     *
+     * @param file  File to check.
+     * @param bytes Expected contents.
+     * @return True if the file exists and its content hash matches the bytes, false otherwise.
+     */
+    private static boolean hasContents(File file, byte[] bytes) {
+        if (!file.isFile() || file.length() != bytes.length)
+            return false;
+        try {
+            return ContentHash.of(file.toPath()).equals(ContentHash.of(bytes));
+        } catch (IOException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Determines the name of the file a grid is exported to.
+     *
+     * @param grid Grid to be exported.
+     * @return Xml name of the vehicle class of the grid followed by .xml, or null if it has none.
+     */
+    static String fileNameOf(Grid grid) {
+        if (grid.getVehicleClass() == null)
+            return null;
+        String xmlName = grid.getVehicleClass().getXmlName();
+        if (xmlName == null || xmlName.isBlank())
+            return null;
+        return xmlName + ".xml";
+    }
+
+    /**
+     * Calculates the time that has passed since a given moment.
+     *
+     * @param start Value of System.nanoTime() at the moment.
+     * @return Milliseconds since the moment.
+     */
+    private static long millisSince(long start) {
+        return TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+    }
+
+    /**
+     * Creates a factory of daemon worker threads, so that a running export never keeps the program alive. Files that
+     * are being written are still completed by the SaveService.
+     *
+     * @return New instance of ThreadFactory.
+     */
+    private static ThreadFactory createThreadFactory() {
+        return new ThreadFactory() {
+            private int count = 0;
+
+            @Override
+            public synchronized Thread newThread(Runnable runnable) {
+                Thread thread = new Thread(runnable, "Batch export worker " + ++count);
+                thread.setDaemon(true);
+                return thread;
+            }
+        };
+    }
+}
@@ -0,0 +1,159 @@
+// Copyright 2023 Prokhor Kalinin
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package net.dragondelve.customdriversutil.tools.export;
+
+import net.dragondelve.customdriversutil.model.Grid;
+import net.dragondelve.customdriversutil.model.TrackLibrary;
+import net.dragondelve.customdriversutil.model.VehicleClassLibrary;
+import net.dragondelve.customdriversutil.model.binary.ProjectBundle;
+import net.dragondelve.customdriversutil.util.*;
+
+import javax.xml.bind.JAXBException;
+import javax.xml.bind.Marshaller;
+import java.io.*;
+import java.util.HashSet;
+import java.util.Locale;
+import java.util.Set;
+import java.util.function.Supplier;
+import java.util.logging.Level;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+/**
+ * Exports a grid pack, such as a season pack, into a single ZIP archive. The archive contains the Track Library and the
+ * Vehicle Class Library of the pack if it has them, and every grid as an AMS2 XML file in the grids directory, named
+ * after the xml name of its vehicle class like in the custom AI folder of the game.
+ * Every document is streamed directly into its archive entry, no intermediate files are written and only the entry
+ * that is currently written is held by the deflater. Snapshots of the grids are taken one at a time, so the pack should
+ * be exported on the thread that owns the grids and libraries.
+ */
+public class GridPackExporter {
+    /**
+     * Name of the archive entry that contains the Track Library.
+     */
+    public static final String TRACK_LIBRARY_ENTRY = "tracks.xml";
+
+    /**
+     * Name of the archive entry that contains the Vehicle Class Library.
+     */
+    public static final String VEHICLE_CLASS_LIBRARY_ENTRY = "vehicle_classes.xml";
+
+    /**
+     * Directory of the archive that contains the grids.
+     */
+    public static final String GRID_DIRECTORY = "grids/";
+
+    /**
+     * Creates the GridExporter used to write the grids.
+     */
+    private final Supplier<GridExporter> exporterFactory;
+
+    /**
+     * Creates a new instance of GridPackExporter that writes the grids with the default exporter.
+     */
+    public GridPackExporter() {
+        this(LibraryManager::createGridExporter);
+    }
+
+    /**
+     * Creates a new instance of GridPackExporter.
+     *
+     * @param exporterFactory Creates the GridExporter used to write the grids.
+     */
+    public GridPackExporter(Supplier<GridExporter> exporterFactory) {
+        this.exporterFactory = exporterFactory;
+    }
+
+    /**
+     * Exports a grid pack to a given ZIP file. The archive is streamed into a temporary file next to the target, which
+     * is forced to the disk and atomically moved over the target by the SaveService, so a failed or interrupted export
+     * never leaves a truncated archive behind and the pack is never held in memory.
+     *
+     * @param bundle Libraries and grids of the pack.
+     * @param file   File to which the pack is to be exported.
+     * @return True if the pack was exported successfully, false otherwise.
+     */
+    public boolean exportToFile(ProjectBundle bundle, File file) {
+        DDUtil.DEFAULT_LOGGER.log(Level.FINE, "Grid pack saving initiated to path: " + file.getPath());
+        boolean saved = SaveService.getInstance().saveNow(file, bundle, this::exportToStream);
+        if (saved)
+            DDUtil.DEFAULT_LOGGER.log(Level.FINE, "Grid pack saving successful to path: " + file.getPath());
+        else
+            DDUtil.DEFAULT_LOGGER.log(Level.WARNING, "Grid pack saving failed to path: " + file.getPath());
+        return saved;
+    }
+
+    /**
+     * Exports a grid pack as a ZIP archive to a given output stream. The archive is finished and the stream is flushed
+     * but not closed. Grids without an xml name and grids whose xml name was already used by a previous grid are not
+     * exported.
+     *
+     * @param bundle       Libraries and grids of the pack.
+     * @param outputStream Stream to which the pack is to be exported.
+     * @return True if the pack was exported successfully, false otherwise.
+     */
+    public boolean exportToStream(ProjectBundle bundle, OutputStream outputStream) {
+        //The archive is finished but never closed, so that the given stream stays open.
+        ZipOutputStream zipStream = new ZipOutputStream(new NonClosingOutputStream(outputStream));
+        OutputStream entryStream = new NonClosingOutputStream(zipStream);
+        try {
+            if (bundle.getTrackLibrary() != null) {
+                zipStream.putNextEntry(new ZipEntry(TRACK_LIBRARY_ENTRY));
+                writeLibrary(bundle.getTrackLibrary(), TrackLibrary.class, entryStream);
+                zipStream.closeEntry();
+            }
+            if (bundle.getVehicleClassLibrary() != null) {
+                zipStream.putNextEntry(new ZipEntry(VEHICLE_CLASS_LIBRARY_ENTRY));
+                writeLibrary(bundle.getVehicleClassLibrary(), VehicleClassLibrary.class, entryStream);
+                zipStream.closeEntry();
+            }
+
+            GridExporter exporter = exporterFactory.get();
+            Set<String> usedNames = new HashSet<>();
+            for (Grid grid : bundle.getGrids()) {
+                String name = BatchGridExporter.fileNameOf(grid);
+                if (name == null || !usedNames.add(name.toLowerCase(Locale.ROOT))) {
+                    DDUtil.DEFAULT_LOGGER.log(Level.WARNING, "Grid pack skipped a grid without a unique xml name: " + name);
+                    continue;
+                }
+                zipStream.putNextEntry(new ZipEntry(GRID_DIRECTORY + name));
+                if (!exporter.exportToStream(LibraryManager.prepareExport(grid.snapshot()), entryStream))
+                    return false;
+                zipStream.closeEntry();
+            }
+            zipStream.finish();
+            zipStream.flush();
+            return true;
+        } catch (IOException | JAXBException e) {
+            e.printStackTrace();
+            DDUtil.DEFAULT_LOGGER.log(Level.WARNING, "Grid pack saving failed");
+            return false;
+        }
+    }
+
+    /**
+     * Marshals a library with JAXB into the current archive entry.
+     *
+     * @param library      Library to be written.
+     * @param libraryClass Class of the library annotated with JAXB.
+     * @param entryStream  Stream of the current archive entry.
+     * @param <T>          Type of the library.
+     * @throws JAXBException If the library could not be marshalled.
+     */
+    private <T> void writeLibrary(T library, Class<T> libraryClass, OutputStream entryStream) throws JAXBException {
+        Marshaller marshaller = JAXBContextRegistry.getInstance().getMarshaller(libraryClass);
+        marshaller.marshal(library, entryStream);
+    }
+}
@@ -0,0 +1,172 @@
+// Copyright 2023 Prokhor Kalinin
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package net.dragondelve.customdriversutil.tools.export;
+
+import net.dragondelve.customdriversutil.model.Driver;
+import net.dragondelve.customdriversutil.model.Grid;
+import net.dragondelve.customdriversutil.model.TrackLibrary;
+import net.dragondelve.customdriversutil.model.VehicleClass;
+import net.dragondelve.customdriversutil.model.VehicleClassLibrary;
+import net.dragondelve.customdriversutil.model.binary.ProjectBundle;
+import net.dragondelve.customdriversutil.util.*;
+
+import javax.xml.bind.JAXBException;
+import javax.xml.bind.Unmarshaller;
+import java.io.*;
+import java.util.Locale;
+import java.util.function.Supplier;
+import java.util.logging.Level;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipInputStream;
+
+/**
+ * Imports a grid pack written by GridPackExporter directly from its ZIP archive without extracting it. The entries are
+ * read one after another, every grid is parsed straight from its entry.
+ * The vehicle class of a grid is looked up by the name of its entry, first in the Vehicle Class Library of the pack and
+ * then in the currently loaded one. If it's in neither, a new vehicle class with the livery names of the grid is
+ * created. Tracks of the grids are resolved against the Track Library of the pack first and then against the currently
+ * loaded one, so grids that use tracks the user does not have in their library still resolve them. The Track Library
+ * entry is written before the grids by GridPackExporter, grids that precede it in an archive are only resolved against
+ * the currently loaded Track Library.
+ */
+public class GridPackImporter {
+    /**
+     * Creates the GridImporter used to read the grids.
+     */
+    private final Supplier<GridImporter> importerFactory;
+
+    /**
+     * Creates a new instance of GridPackImporter that reads the grids with the default importer.
+     */
+    public GridPackImporter() {
+        this(LibraryManager::createGridImporter);
+    }
+
+    /**
+     * Creates a new instance of GridPackImporter.
+     *
+     * @param importerFactory Creates the GridImporter used to read the grids.
+     */
+    public GridPackImporter(Supplier<GridImporter> importerFactory) {
+        this.importerFactory = importerFactory;
+    }
+
+    /**
+     * Imports a grid pack from a given ZIP file.
+     *
+     * @param file ZIP file that contains the grid pack.
+     * @return New instance of ProjectBundle with the libraries and grids of the pack, or null if the import has failed.
+     */
+    public ProjectBundle importFromFile(File file) {
+        DDUtil.DEFAULT_LOGGER.log(Level.FINE, "Grid pack loading initiated from path: " + file.getPath());
+        try (InputStream inputStream = new BufferedInputStream(new FileInputStream(file))) {
+            ProjectBundle bundle = importFromStream(inputStream);
+            if (bundle != null)
+                DDUtil.DEFAULT_LOGGER.log(Level.FINE, "Grid pack loading successful from path: " + file.getPath());
+            return bundle;
+        } catch (IOException e) {
+            e.printStackTrace();
+            DDUtil.DEFAULT_LOGGER.log(Level.WARNING, "Grid pack loading failed from path: " + file.getPath());
+            return null;
+        }
+    }
+
+    /**
+     * Imports a grid pack from a ZIP archive in a given input stream. The stream is read but not closed. Entries that
+     * are not part of a grid pack are skipped.
+     *
+     * @param inputStream Stream that contains the ZIP archive.
+     * @return New instance of ProjectBundle with the libraries and grids of the pack, or null if the import has failed.
+     */
+    public ProjectBundle importFromStream(InputStream inputStream) {
+        if (inputStream == null)
+            return null;
+        ProjectBundle bundle = new ProjectBundle();
+        GridImporter importer = importerFactory.get();
+        try (ZipInputStream zipStream = new ZipInputStream(new NonClosingInputStream(inputStream))) {
+            InputStream entryStream = new NonClosingInputStream(zipStream);
+            for (ZipEntry entry = zipStream.getNextEntry(); entry != null; entry = zipStream.getNextEntry()) {
+                String name = entry.getName();
+                if (entry.isDirectory())
+                    continue;
+                if (name.equals(GridPackExporter.TRACK_LIBRARY_ENTRY)) {
+                    bundle.setTrackLibrary(readLibrary(entryStream, TrackLibrary.class));
+                    importer.setTrackLibrary(bundle.getTrackLibrary());
+                } else if (name.equals(GridPackExporter.VEHICLE_CLASS_LIBRARY_ENTRY))
+                    bundle.setVehicleClassLibrary(readLibrary(entryStream, VehicleClassLibrary.class));
+                else if (name.startsWith(GridPackExporter.GRID_DIRECTORY) && name.toLowerCase(Locale.ROOT).endsWith(".xml")) {
+                    Grid grid = importer.importFromStream(entryStream);
+                    if (grid == null) {
+                        DDUtil.DEFAULT_LOGGER.log(Level.WARNING, "Grid pack loading failed for entry: " + name);
+                        return null;
+                    }
+                    String xmlName = name.substring(GridPackExporter.GRID_DIRECTORY.length(), name.length() - 4);
+                    grid.setVehicleClass(findVehicleClass(bundle, xmlName, grid));
+                    bundle.getGrids().add(grid);
+                } else
+                    DDUtil.DEFAULT_LOGGER.log(Level.FINE, "Grid pack skipped entry: " + name);
+                zipStream.closeEntry();
+            }
+        } catch (IOException | JAXBException e) {
+            e.printStackTrace();
+            DDUtil.DEFAULT_LOGGER.log(Level.WARNING, "Grid pack loading failed");
+            return null;
+        }
+        return bundle;
+    }
+
+    /**
+     * Unmarshals a library with JAXB from the current archive entry.
+     *
+     * @param entryStream  Stream of the current archive entry.
+     * @param libraryClass Class of the library annotated with JAXB.
+     * @param <T>          Type of the library.
+     * @return New instance of the library.
+     * @throws JAXBException If the entry does not contain a library of the given type.
+     */
+    private <T> T readLibrary(InputStream entryStream, Class<T> libraryClass) throws JAXBException {
+        Unmarshaller unmarshaller = JAXBContextRegistry.getInstance().getUnmarshaller(libraryClass);
+        Object library = unmarshaller.unmarshal(entryStream);
+        if (!libraryClass.isInstance(library))
+            throw new JAXBException("Grid pack entry does not contain a " + libraryClass.getSimpleName());
+        return libraryClass.cast(library);
+    }
+
+    /**
+     * Finds the vehicle class of a grid of the pack.
+     *
+     * @param bundle  Pack that is imported, whose Vehicle Class Library is searched first.
+     * @param xmlName Xml name of the vehicle class, taken from the name of the grid entry.
+     * @param grid    Grid whose livery names are used if a new vehicle class has to be created.
+     * @return Vehicle class with the given xml name.
+     */
+    private VehicleClass findVehicleClass(ProjectBundle bundle, String xmlName, Grid grid) {
+        VehicleClass vehicleClass = null;
+        if (bundle.getVehicleClassLibrary() != null)
+            vehicleClass = bundle.getVehicleClassLibrary().findVehicleClass(xmlName);
+        if (vehicleClass == null && LibraryManager.getInstance().getVehicleClassLibrary() != null)
+            vehicleClass = LibraryManager.getInstance().getVehicleClassLibrary().findVehicleClass(xmlName);
+        if (vehicleClass != null)
+            return vehicleClass;
+
+        vehicleClass = new VehicleClass();
+        vehicleClass.setName(xmlName);
+        vehicleClass.setXmlName(xmlName);
+        for (Driver driver : grid.getDrivers())
+            if (driver.getLiveryName() != null && !vehicleClass.getLiveryNames().contains(driver.getLiveryName()))
+                vehicleClass.getLiveryNames().add(driver.getLiveryName());
+        return vehicleClass;
+    }
+}
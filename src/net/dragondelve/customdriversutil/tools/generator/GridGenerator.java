@@ -20,10 +20,10 @@ import net.dragondelve.customdriversutil.model.Driver;
 import net.dragondelve.customdriversutil.model.Grid;
 import net.dragondelve.customdriversutil.model.Track;
 import net.dragondelve.customdriversutil.model.TrackOverride;
-import net.dragondelve.customdriversutil.model.xml.XMLGridImporter;
 import net.dragondelve.customdriversutil.util.Configurator;
 import net.dragondelve.customdriversutil.util.DDUtil;
 import net.dragondelve.customdriversutil.util.LibraryManager;
+import net.dragondelve.customdriversutil.util.StringPool;
 
 import java.util.Collections;
 import java.util.NoSuchElementException;
@@ -35,6 +35,11 @@ import java.util.logging.Level;
  * generate a grid with empty values.
  */
 public class GridGenerator {
+    /**
+     * Country that is given to generated drivers without a name source. Shared through the StringPool with the country
+     * codes of imported drivers.
+     */
+    private static final String DEFAULT_COUNTRY = StringPool.getInstance().intern("GBR");
 
     /**
      * GeneratorSettings that dictate the desired grid that is generated when the generateGrid method is called.
@@ -84,7 +89,7 @@ public class GridGenerator {
         Collections.shuffle(settings.getVehicleClass().getLiveryNames());
 
         if (settings.isUseNAMeS()) {
-            namesSource = (new XMLGridImporter().importFromStream(CustomDriverUtilMain.class.getClassLoader().getResourceAsStream("NAMeS/" + settings.getVehicleClass().getXmlName() + ".xml")));
+            namesSource = (LibraryManager.createGridImporter().importFromStream(CustomDriverUtilMain.class.getClassLoader().getResourceAsStream("NAMeS/" + settings.getVehicleClass().getXmlName() + ".xml")));
         }
         while (i < settings.getnDrivers()) {
             Driver driver = new Driver();
@@ -93,7 +98,7 @@ public class GridGenerator {
             if (settings.isFromLiveryNames()) {
                 String liveryName = driver.getLiveryName();
                 driver.nameProperty().set("drv" + (i + 1) + liveryName.substring(liveryName.length() - 8));
-                driver.countryProperty().set("GBR");
+                driver.countryProperty().set(DEFAULT_COUNTRY);
                 driver.liveryNameProperty().set(settings.getVehicleClass().getLiveryNames().get(i));
             } else if (settings.isUseNAMeS()) {
                 if (namesSource != null) {
@@ -104,15 +109,15 @@ public class GridGenerator {
                         driver.countryProperty().set(name.getCountry());
                     } catch (NoSuchElementException e) {
                         DDUtil.DEFAULT_LOGGER.log(Level.SEVERE, "No such Livery in NAMeS: " + driver.getLiveryName());
-                        driver.countryProperty().set("GBR");
+                        driver.countryProperty().set(DEFAULT_COUNTRY);
                     }
                 } else {
-                    driver.countryProperty().set("GBR");
+                    driver.countryProperty().set(DEFAULT_COUNTRY);
                 }
 
             } else {
                 noNames = true;
-                driver.countryProperty().set("GBR");
+                driver.countryProperty().set(DEFAULT_COUNTRY);
             }
 
             if (generator != null) {
@@ -0,0 +1,119 @@
+// Copyright 2023 Prokhor Kalinin
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package net.dragondelve.customdriversutil.util;
+
+import net.dragondelve.customdriversutil.model.Grid;
+import net.dragondelve.customdriversutil.model.TrackLibrary;
+import net.dragondelve.customdriversutil.model.VehicleClassLibrary;
+
+import java.io.File;
+import java.io.InputStream;
+
+/**
+ * GridImporter that imports files through the ParseCache and delegates everything else to another importer. A grid
+ * loaded from the cache had no issues when it was cached, so its ImportReport is empty.
+ */
+final class CachedGridImporter implements GridImporter {
+    /**
+     * Importer used for streams and for files that are not cached.
+     */
+    private final GridImporter importer;
+
+    /**
+     * Report of the last import if the grid was loaded from the cache, null if it was imported by the importer.
+     */
+    private ImportReport cachedImportReport;
+
+    /**
+     * Flag that determines if a Track Library was set, files are then always imported by the importer, as cached grids
+     * are resolved against the currently loaded Track Library.
+     */
+    private boolean customTrackLibrary = false;
+
+    /**
+     * Creates a new instance of CachedGridImporter.
+     *
+     * @param importer Importer used for streams and for files that are not cached.
+     */
+    CachedGridImporter(GridImporter importer) {
+        this.importer = importer;
+    }
+
+    /**
+     * Imports a grid from a given File, from the cache if the file has not changed since it was cached.
+     *
+     * @param file a file that contains the Grid.
+     * @return New instance of a Grid from the source, or null if the import has failed.
+     */
+    @Override
+    public Grid importFromFile(File file) {
+        if (customTrackLibrary) {
+            cachedImportReport = null;
+            return importer.importFromFile(file);
+        }
+        //Every import creates a new report, so an unchanged report means that the importer was not used.
+        ImportReport previousReport = importer.getLastImportReport();
+        Grid grid = ParseCache.getInstance().loadGrid(file, importer);
+        cachedImportReport = grid != null && importer.getLastImportReport() == previousReport ? new ImportReport() : null;
+        return grid;
+    }
+
+    /**
+     * Imports a grid from a given input stream.
+     *
+     * @param inputStream an input stream that contains the Grid;
+     * @return New instance of a Grid from the source, or null if the import has failed.
+     */
+    @Override
+    public Grid importFromStream(InputStream inputStream) {
+        cachedImportReport = null;
+        return importer.importFromStream(inputStream);
+    }
+
+    /**
+     * Imports a grid and its VehicleClass from a given File. The vehicle class is generated from the file, so it's never
+     * loaded from the cache.
+     *
+     * @param file    a file that contains the Grid.
+     * @param library Vehicle Class Library that is meant to contain the newly loaded VehicleClass.
+     * @return New instance of a Grid from the source, or null if the import has failed.
+     */
+    @Override
+    public Grid importWithVehicleClass(File file, VehicleClassLibrary library) {
+        cachedImportReport = null;
+        return importer.importWithVehicleClass(file, library);
+    }
+
+    /**
+     * Sets the Track Library of the importer. Files are no longer loaded from the cache once a Track Library was set.
+     *
+     * @param trackLibrary Track Library that is searched first, or null to only search the currently loaded one.
+     */
+    @Override
+    public void setTrackLibrary(TrackLibrary trackLibrary) {
+        customTrackLibrary = trackLibrary != null;
+        importer.setTrackLibrary(trackLibrary);
+    }
+
+    /**
+     * Lightweight accessor method.
+     *
+     * @return Report of the problems found during the last import, or null if nothing has been imported yet.
+     */
+    @Override
+    public ImportReport getLastImportReport() {
+        return cachedImportReport != null ? cachedImportReport : importer.getLastImportReport();
+    }
+}
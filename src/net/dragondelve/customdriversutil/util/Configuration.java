@@ -75,6 +75,26 @@ public class Configuration {
      */
     private int roundingDecimalPlaces = 2;
 
+    /**
+     * Flag that determines if grids should be imported with the single pass StreamingXMLGridImporter instead of the JAXB based XMLGridImporter.
+     */
+    private boolean streamingGridImport = false;
+
+    /**
+     * Flag that determines if the edits of the currently edited grid should be autosaved to an EditJournal next to the grid file.
+     */
+    private boolean autosaveJournal = false;
+
+    /**
+     * Flag that determines if the track overrides of grids should be compacted by a TrackOverrideCompactor during export.
+     */
+    private boolean compactTrackOverrides = false;
+
+    /**
+     * Flag that determines if parsed library and grid files should be cached on disk by the ParseCache.
+     */
+    private boolean parseCache = true;
+
     /**
      * Lightweight accessor method.
      *
@@ -263,4 +283,80 @@ public class Configuration {
     public void setRoundingDecimalPlaces(int roundingDecimalPlaces) {
         this.roundingDecimalPlaces = roundingDecimalPlaces;
     }
+
+    /**
+     * Lightweight accessor method.
+     *
+     * @return Flag that determines if grids should be imported with the single pass StreamingXMLGridImporter.
+     */
+    @XmlElement(name = "streaming_grid_import")
+    public boolean isStreamingGridImport() {
+        return streamingGridImport;
+    }
+
+    /**
+     * Lightweight mutator method.
+     *
+     * @param streamingGridImport Flag that determines if grids should be imported with the single pass StreamingXMLGridImporter.
+     */
+    public void setStreamingGridImport(boolean streamingGridImport) {
+        this.streamingGridImport = streamingGridImport;
+    }
+
+    /**
+     * Lightweight accessor method.
+     *
+     * @return Flag that determines if the edits of the currently edited grid should be autosaved to an EditJournal.
+     */
+    @XmlElement(name = "autosave_journal")
+    public boolean isAutosaveJournal() {
+        return autosaveJournal;
+    }
+
+    /**
+     * Lightweight mutator method.
+     *
+     * @param autosaveJournal Flag that determines if the edits of the currently edited grid should be autosaved to an EditJournal.
+     */
+    public void setAutosaveJournal(boolean autosaveJournal) {
+        this.autosaveJournal = autosaveJournal;
+    }
+
+    /**
+     * Lightweight accessor method.
+     *
+     * @return Flag that determines if the track overrides of grids should be compacted during export.
+     */
+    @XmlElement(name = "compact_track_overrides")
+    public boolean isCompactTrackOverrides() {
+        return compactTrackOverrides;
+    }
+
+    /**
+     * Lightweight mutator method.
+     *
+     * @param compactTrackOverrides Flag that determines if the track overrides of grids should be compacted during export.
+     */
+    public void setCompactTrackOverrides(boolean compactTrackOverrides) {
+        this.compactTrackOverrides = compactTrackOverrides;
+    }
+
+    /**
+     * Lightweight accessor method.
+     *
+     * @return Flag that determines if parsed library and grid files should be cached on disk.
+     */
+    @XmlElement(name = "parse_cache")
+    public boolean isParseCache() {
+        return parseCache;
+    }
+
+    /**
+     * Lightweight mutator method.
+     *
+     * @param parseCache Flag that determines if parsed library and grid files should be cached on disk.
+     */
+    public void setParseCache(boolean parseCache) {
+        this.parseCache = parseCache;
+    }
 }
@@ -14,7 +14,6 @@
 
 package net.dragondelve.customdriversutil.util;
 
-import javax.xml.bind.JAXBContext;
 import javax.xml.bind.JAXBException;
 import javax.xml.bind.Marshaller;
 import javax.xml.bind.Unmarshaller;
@@ -97,8 +96,7 @@ public class Configurator {
         File config = new File(pathname);
         DDUtil.DEFAULT_LOGGER.log(Level.FINE, "Configuration loading initiated with path: " + pathname);
         try {
-            JAXBContext context = JAXBContext.newInstance(Configuration.class);
-            Unmarshaller unmarshaller = context.createUnmarshaller();
+            Unmarshaller unmarshaller = JAXBContextRegistry.getInstance().getUnmarshaller(Configuration.class);
             configuration = (Configuration) unmarshaller.unmarshal(config);
             return true;
         } catch (JAXBException | IllegalArgumentException e) {
@@ -126,9 +124,7 @@ public class Configurator {
         File config = new File(pathname);
         DDUtil.DEFAULT_LOGGER.log(Level.FINE, "Configuration saving initiated with path: " + pathname);
         try {
-            JAXBContext context = JAXBContext.newInstance(Configuration.class);
-            Marshaller marshaller = context.createMarshaller();
-            marshaller.setProperty(Marshaller.JAXB_FORMATTED_OUTPUT, true);
+            Marshaller marshaller = JAXBContextRegistry.getInstance().getMarshaller(Configuration.class);
             marshaller.marshal(configuration, config);
             return true;
         } catch (JAXBException | IllegalArgumentException e) {
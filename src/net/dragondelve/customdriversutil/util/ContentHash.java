@@ -0,0 +1,114 @@
+// Copyright 2023 Prokhor Kalinin
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package net.dragondelve.customdriversutil.util;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+
+/**
+ * Computes SHA-256 hashes of file and byte contents, used to tell whether a file has actually changed.
+ */
+public final class ContentHash {
+    /**
+     * Size of the buffer used to read files.
+     */
+    private static final int BUFFER_SIZE = 16384;
+
+    /**
+     * Characters used to convert the hash to hex.
+     */
+    private static final char[] HEX = "0123456789abcdef".toCharArray();
+
+    /**
+     * Private constructor. Used to make this class non instantiable.
+     */
+    private ContentHash() {
+        super();
+    }
+
+    /**
+     * Hashes the contents of a file.
+     *
+     * @param path Path to the file.
+     * @return SHA-256 hash of the file contents as a lowercase hex String.
+     * @throws IOException If the file can't be read.
+     */
+    public static String of(Path path) throws IOException {
+        MessageDigest digest = newDigest();
+        byte[] buffer = new byte[BUFFER_SIZE];
+        try (InputStream inputStream = Files.newInputStream(path)) {
+            int read;
+            while ((read = inputStream.read(buffer)) != -1)
+                digest.update(buffer, 0, read);
+        }
+        return toHex(digest.digest());
+    }
+
+    /**
+     * Hashes a part of a byte array.
+     *
+     * @param bytes  Array that contains the bytes.
+     * @param offset Index of the first byte to hash.
+     * @param length Number of bytes to hash.
+     * @return SHA-256 hash of the bytes as a lowercase hex String.
+     */
+    public static String of(byte[] bytes, int offset, int length) {
+        MessageDigest digest = newDigest();
+        digest.update(bytes, offset, length);
+        return toHex(digest.digest());
+    }
+
+    /**
+     * Hashes a byte array.
+     *
+     * @param bytes Bytes to hash.
+     * @return SHA-256 hash of the bytes as a lowercase hex String.
+     */
+    public static String of(byte[] bytes) {
+        return of(bytes, 0, bytes.length);
+    }
+
+    /**
+     * Creates a new SHA-256 MessageDigest. Every Java platform is required to support SHA-256.
+     *
+     * @return New instance of MessageDigest.
+     */
+    private static MessageDigest newDigest() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not supported by this platform", e);
+        }
+    }
+
+    /**
+     * Converts bytes to a lowercase hex String.
+     *
+     * @param bytes Bytes to convert.
+     * @return Hex representation of the bytes.
+     */
+    private static String toHex(byte[] bytes) {
+        char[] chars = new char[bytes.length * 2];
+        for (int i = 0; i < bytes.length; i++) {
+            chars[i * 2] = HEX[(bytes[i] >> 4) & 0xF];
+            chars[i * 2 + 1] = HEX[bytes[i] & 0xF];
+        }
+        return new String(chars);
+    }
+}
@@ -0,0 +1,860 @@
+// Copyright 2023 Prokhor Kalinin
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package net.dragondelve.customdriversutil.util;
+
+import javafx.application.Platform;
+import javafx.beans.value.ChangeListener;
+import javafx.beans.value.ObservableValue;
+import javafx.collections.ListChangeListener;
+import javafx.collections.ObservableList;
+import net.dragondelve.customdriversutil.model.*;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Supplier;
+import java.util.logging.Level;
+import java.util.zip.CRC32;
+
+/**
+ * Append-only journal of the edits made to a grid since it was last saved. Every change of a property of a Driver or
+ * TrackOverride is appended to a small binary file next to the grid file as a single record, so the cost of an
+ * autosave is proportional to the edit rather than to the size of the grid. Once enough records have been appended, or
+ * drivers, overrides or their tracks are added or removed, the journal is compacted: the whole grid is saved with the
+ * SaveService and the records covered by that save are dropped. Edits made after drivers, overrides or tracks were
+ * added or removed are held in memory until the save that includes that change has completed, then appended.
+ * The header of the journal contains the size and modification time of the grid file the records apply to, so that
+ * the grid file never has to be read or hashed on the JavaFX Application Thread, and a fingerprint of the number of
+ * drivers and overrides the record indices refer to. When a grid is opened and its journal matches both the file and
+ * the imported grid, the records are replayed onto the imported grid, restoring the edits of a session that ended
+ * without saving. Records are protected by a checksum, a record that was only partially written is discarded.
+ * Records are handed to the operating system as they are made, so they survive a crash of this program.
+ * All methods must be called on the JavaFX Application Thread.
+ */
+public final class EditJournal {
+    /**
+     * Extension that is appended to the name of a grid file to get the name of its journal.
+     */
+    public static final String EXTENSION = ".journal";
+
+    /**
+     * Number of records after which the journal is compacted.
+     */
+    public static final int COMPACTION_THRESHOLD = 512;
+
+    /**
+     * Magic number at the start of every journal file, "CDJ1".
+     */
+    private static final int MAGIC = 0x43444A31;
+
+    /**
+     * Version of the journal format. Version 2 added the fingerprint of the grid structure to the header, journals of
+     * any other version are not recovered.
+     */
+    private static final short VERSION = 2;
+
+    /**
+     * Record that sets the value of a DriverParameter.
+     */
+    private static final byte VALUE = 0;
+
+    /**
+     * Record that sets the override flag of a DriverParameter.
+     */
+    private static final byte FLAG = 1;
+
+    /**
+     * Record that sets the name.
+     */
+    private static final byte NAME = 2;
+
+    /**
+     * Record that sets the country.
+     */
+    private static final byte COUNTRY = 3;
+
+    /**
+     * Record that sets the livery name of a Driver.
+     */
+    private static final byte LIVERY_NAME = 4;
+
+    /**
+     * Record that sets the override flag of the name.
+     */
+    private static final byte OVERRIDE_NAME = 5;
+
+    /**
+     * Record that sets the override flag of the country.
+     */
+    private static final byte OVERRIDE_COUNTRY = 6;
+
+    /**
+     * Grid file whose edits are journaled.
+     */
+    private final File gridFile;
+
+    /**
+     * Path of the journal file.
+     */
+    private final Path journalPath;
+
+    /**
+     * Grid whose edits are journaled.
+     */
+    private final Grid grid;
+
+    /**
+     * Actions that remove all listeners added to the grid.
+     */
+    private final List<Runnable> detachers = new ArrayList<>();
+
+    /**
+     * Buffer in which the payload of a record is assembled.
+     */
+    private final ByteArrayOutputStream recordBytes = new ByteArrayOutputStream(64);
+
+    /**
+     * Stream that writes the payload of a record into recordBytes.
+     */
+    private final DataOutputStream recordOutput = new DataOutputStream(recordBytes);
+
+    /**
+     * Checksum of the record payloads.
+     */
+    private final CRC32 crc = new CRC32();
+
+    /**
+     * Channel to which the records are appended.
+     */
+    private FileChannel channel;
+
+    /**
+     * Number of records in the journal.
+     */
+    private int recordCount = 0;
+
+    /**
+     * Incremented whenever drivers, overrides or tracks are added or removed.
+     */
+    private int structureVersion = 0;
+
+    /**
+     * Flag that determines if the structure of the grid has changed since the last save. Records are not appended to
+     * the journal file while it's set, as their indices would not match the grid file, they are deferred instead.
+     */
+    private boolean structureDirty = false;
+
+    /**
+     * Records made against the new structure of the grid while structureDirty is set. They are appended to the journal
+     * once a save that includes the structural change has completed.
+     */
+    private final ByteArrayOutputStream deferredRecords = new ByteArrayOutputStream();
+
+    /**
+     * Number of records in deferredRecords.
+     */
+    private int deferredCount = 0;
+
+    /**
+     * Flag that determines if a structural change is waiting to be handled.
+     */
+    private boolean structureChangeScheduled = false;
+
+    /**
+     * Flag that determines if no records should be appended, set while records are replayed or external changes applied.
+     */
+    private boolean suspended = false;
+
+    /**
+     * Flag that determines if another compaction should be performed after the pending one.
+     */
+    private boolean compactAgain = false;
+
+    /**
+     * Save that is currently compacting the journal, null if there is none.
+     */
+    private CompletableFuture<Boolean> pendingCompaction;
+
+    /**
+     * Flag that determines if the journal was closed.
+     */
+    private boolean closed = false;
+
+    /**
+     * Creates a new instance of EditJournal. Use open() to create a journal.
+     *
+     * @param gridFile Grid file whose edits are journaled.
+     * @param grid     Grid whose edits are journaled.
+     */
+    private EditJournal(File gridFile, Grid grid) {
+        this.gridFile = gridFile.getAbsoluteFile();
+        this.journalPath = journalFileOf(this.gridFile).toPath();
+        this.grid = grid;
+    }
+
+    /**
+     * Starts journaling the edits of a grid that was imported from or is going to be saved to a file.
+     *
+     * @param gridFile Grid file whose edits are journaled.
+     * @param grid     Grid whose edits are journaled.
+     * @param recover  If true and the existing journal matches the grid file, its records are replayed onto the grid
+     *                 and kept. Otherwise the existing journal is discarded.
+     * @return New instance of EditJournal, or null if the journal file could not be written.
+     */
+    public static EditJournal open(File gridFile, Grid grid, boolean recover) {
+        EditJournal journal = new EditJournal(gridFile, grid);
+        try {
+            if (!recover || !journal.recover())
+                journal.rewrite(stateOf(journal.gridFile), shapeOf(grid), new byte[0], 0);
+        } catch (IOException e) {
+            e.printStackTrace();
+            DDUtil.DEFAULT_LOGGER.log(Level.WARNING, "Edit journal could not be opened: " + journal.journalPath);
+            journal.closeChannel();
+            return null;
+        }
+        journal.attach();
+        return journal;
+    }
+
+    /**
+     * Returns the journal file of a grid file.
+     *
+     * @param gridFile Grid file.
+     * @return File next to the grid file that holds its journal.
+     */
+    public static File journalFileOf(File gridFile) {
+        return new File(gridFile.getPath() + EXTENSION);
+    }
+
+    /**
+     * Checks whether this journal records the edits of a given grid saved to a given file.
+     *
+     * @param grid Grid to check.
+     * @param file Grid file to check.
+     * @return True if this open journal belongs to the same grid instance and file, false otherwise.
+     */
+    public boolean isJournaling(Grid grid, File file) {
+        return !closed && this.grid == grid && gridFile.equals(file.getAbsoluteFile());
+    }
+
+    /**
+     * Lightweight accessor method.
+     *
+     * @return Number of records in the journal.
+     */
+    public int getRecordCount() {
+        return recordCount;
+    }
+
+    /**
+     * Saves the grid and drops the records covered by that save. If a compaction is already pending, the save is
+     * performed after it.
+     *
+     * @param save Takes a snapshot of the grid on the calling thread and saves it to the grid file.
+     * @return Future that is completed on the JavaFX Application Thread with true if the grid was saved.
+     */
+    public CompletableFuture<Boolean> compact(Supplier<CompletableFuture<Boolean>> save) {
+        if (pendingCompaction != null)
+            return pendingCompaction.thenComposeAsync(saved -> compact(save), Platform::runLater);
+
+        long position = channelSize();
+        int coveredRecords = recordCount;
+        int coveredStructure = structureVersion;
+        int shape = shapeOf(grid);
+        CompletableFuture<Boolean> compaction = save.get().thenApplyAsync(saved -> {
+            pendingCompaction = null;
+            if (saved && !closed)
+                compacted(position, coveredRecords, coveredStructure, shape);
+            if (!closed && (compactAgain || structureDirty || recordCount >= COMPACTION_THRESHOLD)) {
+                compactAgain = false;
+                requestCompaction();
+            }
+            return saved;
+        }, Platform::runLater);
+        pendingCompaction = compaction;
+        return compaction;
+    }
+
+    /**
+     * Applies changes that were made to the grid file by another program. The changes are not journaled, the journal is
+     * restarted for the new contents of the grid file.
+     *
+     * @param applier Applies the changes to the grid.
+     */
+    public void reload(Runnable applier) {
+        suspended = true;
+        try {
+            applier.run();
+        } finally {
+            suspended = false;
+        }
+        if (closed)
+            return;
+        detach();
+        attach();
+        structureDirty = false;
+        discardDeferredRecords();
+        try {
+            rewrite(stateOf(gridFile), shapeOf(grid), new byte[0], 0);
+        } catch (IOException e) {
+            fail(e);
+        }
+    }
+
+    /**
+     * Stops journaling. The journal file is kept, so edits that were not saved yet can be recovered when the grid is
+     * opened again.
+     */
+    public void close() {
+        if (closed)
+            return;
+        closed = true;
+        detach();
+        closeChannel();
+    }
+
+    /**
+     * Replays the records of an existing journal onto the grid if the journal matches the grid file.
+     *
+     * @return True if the existing journal was kept, false if there was none or it did not match the grid file.
+     * @throws IOException If the journal could not be reopened after replaying.
+     */
+    private boolean recover() throws IOException {
+        if (!Files.isRegularFile(journalPath))
+            return false;
+        byte[] bytes;
+        try {
+            bytes = Files.readAllBytes(journalPath);
+        } catch (IOException e) {
+            DDUtil.DEFAULT_LOGGER.log(Level.WARNING, "Edit journal could not be read: " + journalPath);
+            return false;
+        }
+
+        ByteBuffer buffer = ByteBuffer.wrap(bytes);
+        if (!matchesHeader(buffer)) {
+            DDUtil.DEFAULT_LOGGER.log(Level.FINE, "Edit journal does not match the grid file and is discarded: " + journalPath);
+            return false;
+        }
+
+        suspended = true;
+        int replayed = 0;
+        try {
+            while (replayRecord(buffer))
+                replayed++;
+        } finally {
+            suspended = false;
+        }
+        if (buffer.hasRemaining())
+            DDUtil.DEFAULT_LOGGER.log(Level.WARNING, "Edit journal contains an incomplete record that is discarded: " + journalPath);
+
+        channel = FileChannel.open(journalPath, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        channel.truncate(buffer.position());
+        channel.position(buffer.position());
+        recordCount = replayed;
+        if (replayed > 0)
+            DDUtil.DEFAULT_LOGGER.log(Level.INFO, "Recovered " + replayed + " unsaved edits from journal: " + journalPath);
+        return true;
+    }
+
+    /**
+     * Reads the header of a journal and checks whether it applies to the grid file and the imported grid.
+     *
+     * @param buffer Buffer positioned at the start of the journal. Positioned after the header if it matches.
+     * @return True if the header is valid, has the current version and matches both the grid file and the grid, false
+     * otherwise.
+     */
+    private boolean matchesHeader(ByteBuffer buffer) {
+        if (buffer.remaining() < 12 || buffer.getInt() != MAGIC || buffer.getShort() != VERSION)
+            return false;
+        int shape = buffer.getInt();
+        int length = buffer.getShort() & 0xFFFF;
+        if (buffer.remaining() < length)
+            return false;
+        byte[] state = new byte[length];
+        buffer.get(state);
+        return shape == shapeOf(grid) && new String(state, StandardCharsets.US_ASCII).equals(stateOf(gridFile));
+    }
+
+    /**
+     * Reads a single record and applies it to the grid.
+     *
+     * @param buffer Buffer positioned at the start of a record.
+     * @return True if a complete record was applied, false if there are no more valid records. The buffer is left at the
+     * start of the first record that was not applied.
+     */
+    private boolean replayRecord(ByteBuffer buffer) {
+        int start = buffer.position();
+        if (buffer.remaining() < 4)
+            return false;
+        int length = buffer.getInt();
+        if (length <= 0 || buffer.remaining() < length + 4) {
+            buffer.position(start);
+            return false;
+        }
+        crc.reset();
+        crc.update(buffer.array(), buffer.position(), length);
+        int payloadStart = buffer.position();
+        buffer.position(payloadStart + length);
+        if (buffer.getInt() != (int) crc.getValue()) {
+            buffer.position(start);
+            return false;
+        }
+
+        try (DataInputStream input = new DataInputStream(new ByteArrayInputStream(buffer.array(), payloadStart, length))) {
+            if (applyRecord(input))
+                return true;
+        } catch (IOException | RuntimeException e) {
+            DDUtil.DEFAULT_LOGGER.log(Level.WARNING, "Edit journal contains a record that does not match the grid: " + journalPath);
+        }
+        buffer.position(start);
+        return false;
+    }
+
+    /**
+     * Applies the payload of a record to the grid.
+     *
+     * @param input Stream that contains the payload.
+     * @return True if the record was applied, false if it does not match the grid.
+     * @throws IOException If the payload is invalid.
+     */
+    private boolean applyRecord(DataInputStream input) throws IOException {
+        int driverIndex = input.readInt();
+        int overrideIndex = input.readInt();
+        byte field = input.readByte();
+        int ordinal = input.readByte();
+        if (driverIndex < 0 || driverIndex >= grid.getDrivers().size())
+            return false;
+        Driver driver = grid.getDrivers().get(driverIndex);
+        if (overrideIndex >= driver.getTrackOverrides().size())
+            return false;
+        DriverBase target = overrideIndex < 0 ? driver : driver.getTrackOverrides().get(overrideIndex);
+
+        switch (field) {
+            case VALUE:
+                DriverParameter.all()[ordinal].propertyOf(target).set(input.readDouble());
+                return true;
+            case FLAG:
+                DriverParameter.all()[ordinal].flagOf(target.getOverrideFlags()).set(input.readBoolean());
+                return true;
+            case NAME:
+                target.nameProperty().set(readString(input));
+                return true;
+            case COUNTRY:
+                target.countryProperty().set(readString(input));
+                return true;
+            case LIVERY_NAME:
+                driver.liveryNameProperty().set(readString(input));
+                return true;
+            case OVERRIDE_NAME:
+                target.getOverrideFlags().overrideNameProperty().set(input.readBoolean());
+                return true;
+            case OVERRIDE_COUNTRY:
+                target.getOverrideFlags().overrideCountryProperty().set(input.readBoolean());
+                return true;
+            default:
+                return false;
+        }
+    }
+
+    /**
+     * Reads a String that can be null.
+     *
+     * @param input Stream positioned at the String.
+     * @return String that was read, can be null.
+     * @throws IOException If the stream is invalid.
+     */
+    private static String readString(DataInputStream input) throws IOException {
+        return input.readBoolean() ? input.readUTF() : null;
+    }
+
+    /**
+     * Adds listeners to all journaled properties of the grid and to all lists whose changes alter its structure.
+     */
+    private void attach() {
+        listen(grid.getDrivers(), change -> structureChanged());
+        for (int i = 0; i < grid.getDrivers().size(); i++) {
+            Driver driver = grid.getDrivers().get(i);
+            int driverIndex = i;
+            attach(driver, driverIndex, -1);
+            listen(driver.liveryNameProperty(), (observable, oldValue, newValue) -> appendString(driverIndex, -1, LIVERY_NAME, newValue));
+            listen(driver.getTrackOverrides(), change -> structureChanged());
+            for (int j = 0; j < driver.getTrackOverrides().size(); j++) {
+                TrackOverride trackOverride = driver.getTrackOverrides().get(j);
+                attach(trackOverride, driverIndex, j);
+                listen(trackOverride.getTrack(), change -> structureChanged());
+            }
+        }
+    }
+
+    /**
+     * Adds listeners to the properties shared by a Driver and a TrackOverride.
+     *
+     * @param target        Driver or TrackOverride.
+     * @param driverIndex   Index of the driver in the grid.
+     * @param overrideIndex Index of the TrackOverride in the driver, -1 for the driver itself.
+     */
+    private void attach(DriverBase target, int driverIndex, int overrideIndex) {
+        OverrideFlags flags = target.getOverrideFlags();
+        for (DriverParameter parameter : DriverParameter.all()) {
+            listen(parameter.propertyOf(target), (observable, oldValue, newValue) -> appendDouble(driverIndex, overrideIndex, parameter, newValue.doubleValue()));
+            listen(parameter.flagOf(flags), (observable, oldValue, newValue) -> appendBoolean(driverIndex, overrideIndex, FLAG, parameter.ordinal(), newValue));
+        }
+        listen(target.nameProperty(), (observable, oldValue, newValue) -> appendString(driverIndex, overrideIndex, NAME, newValue));
+        listen(target.countryProperty(), (observable, oldValue, newValue) -> appendString(driverIndex, overrideIndex, COUNTRY, newValue));
+        listen(flags.overrideNameProperty(), (observable, oldValue, newValue) -> appendBoolean(driverIndex, overrideIndex, OVERRIDE_NAME, -1, newValue));
+        listen(flags.overrideCountryProperty(), (observable, oldValue, newValue) -> appendBoolean(driverIndex, overrideIndex, OVERRIDE_COUNTRY, -1, newValue));
+    }
+
+    /**
+     * Adds a listener to an observable value and remembers how to remove it.
+     *
+     * @param value    Observable value.
+     * @param listener Listener to add.
+     * @param <T>      Type of the value.
+     */
+    private <T> void listen(ObservableValue<T> value, ChangeListener<? super T> listener) {
+        value.addListener(listener);
+        detachers.add(() -> value.removeListener(listener));
+    }
+
+    /**
+     * Adds a listener to an observable list and remembers how to remove it.
+     *
+     * @param list     Observable list.
+     * @param listener Listener to add.
+     * @param <T>      Type of the list elements.
+     */
+    private <T> void listen(ObservableList<T> list, ListChangeListener<? super T> listener) {
+        list.addListener(listener);
+        detachers.add(() -> list.removeListener(listener));
+    }
+
+    /**
+     * Removes all listeners added to the grid.
+     */
+    private void detach() {
+        detachers.forEach(Runnable::run);
+        detachers.clear();
+    }
+
+    /**
+     * Handles a change of the structure of the grid. The listeners are reattached with the new indices and the journal
+     * is compacted after the current event has been handled. Deferred records are discarded, as their indices no longer
+     * apply and the save requested for this change includes their edits.
+     */
+    private void structureChanged() {
+        if (suspended || closed)
+            return;
+        structureVersion++;
+        structureDirty = true;
+        discardDeferredRecords();
+        if (structureChangeScheduled)
+            return;
+        structureChangeScheduled = true;
+        Platform.runLater(() -> {
+            structureChangeScheduled = false;
+            if (closed)
+                return;
+            detach();
+            attach();
+            requestCompaction();
+        });
+    }
+
+    /**
+     * Compacts the journal by saving the grid, unless a compaction is already pending.
+     */
+    private void requestCompaction() {
+        if (pendingCompaction != null) {
+            compactAgain = true;
+            return;
+        }
+        LibraryManager.getInstance().exportGrid(grid, gridFile);
+    }
+
+    /**
+     * Drops the records covered by a successful save and starts a new journal for the saved grid file.
+     *
+     * @param position         Size of the journal when the snapshot of the grid was taken.
+     * @param coveredRecords   Number of records in the journal when the snapshot of the grid was taken.
+     * @param coveredStructure Structure version when the snapshot of the grid was taken.
+     * @param shape            Fingerprint of the structure of the grid when the snapshot was taken.
+     */
+    private void compacted(long position, int coveredRecords, int coveredStructure, int shape) {
+        try {
+            long size = channel.size();
+            byte[] tail = new byte[(int) Math.max(0, size - position)];
+            ByteBuffer buffer = ByteBuffer.wrap(tail);
+            while (buffer.hasRemaining()) {
+                if (channel.read(buffer, position + buffer.position()) < 0)
+                    throw new EOFException("Edit journal was truncated: " + journalPath);
+            }
+            rewrite(stateOf(gridFile), shape, tail, recordCount - coveredRecords);
+            if (structureVersion == coveredStructure && structureDirty) {
+                structureDirty = false;
+                writeFully(channel, ByteBuffer.wrap(deferredRecords.toByteArray()));
+                recordCount += deferredCount;
+                discardDeferredRecords();
+            }
+            DDUtil.DEFAULT_LOGGER.log(Level.FINE, "Edit journal compacted: " + journalPath);
+        } catch (IOException e) {
+            fail(e);
+        }
+    }
+
+    /**
+     * Atomically replaces the journal file with a new header followed by the given records and reopens it.
+     *
+     * @param state       Size and modification time of the grid file the records apply to.
+     * @param shape       Fingerprint of the structure of the grid the record indices refer to.
+     * @param records     Records to keep.
+     * @param recordCount Number of records kept.
+     * @throws IOException If the journal could not be written.
+     */
+    private void rewrite(String state, int shape, byte[] records, int recordCount) throws IOException {
+        closeChannel();
+        byte[] stateBytes = state.getBytes(StandardCharsets.US_ASCII);
+        ByteBuffer header = ByteBuffer.allocate(12 + stateBytes.length);
+        header.putInt(MAGIC).putShort(VERSION).putInt(shape).putShort((short) stateBytes.length).put(stateBytes).flip();
+
+        Path temp = Files.createTempFile(journalPath.getParent(), "." + journalPath.getFileName(), ".tmp");
+        try (FileChannel tempChannel = FileChannel.open(temp, StandardOpenOption.WRITE)) {
+            writeFully(tempChannel, header);
+            writeFully(tempChannel, ByteBuffer.wrap(records));
+            tempChannel.force(true);
+        } catch (IOException e) {
+            Files.deleteIfExists(temp);
+            throw e;
+        }
+        try {
+            Files.move(temp, journalPath, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(temp, journalPath, StandardCopyOption.REPLACE_EXISTING);
+        }
+        channel = FileChannel.open(journalPath, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        channel.position(channel.size());
+        this.recordCount = recordCount;
+    }
+
+    /**
+     * Appends a record that sets the value of a DriverParameter.
+     *
+     * @param driverIndex   Index of the driver in the grid.
+     * @param overrideIndex Index of the TrackOverride in the driver, -1 for the driver itself.
+     * @param parameter     Parameter whose value was set.
+     * @param value         New value.
+     */
+    private void appendDouble(int driverIndex, int overrideIndex, DriverParameter parameter, double value) {
+        if (beginRecord(driverIndex, overrideIndex, VALUE, parameter.ordinal())) {
+            try {
+                recordOutput.writeDouble(value);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            endRecord();
+        }
+    }
+
+    /**
+     * Appends a record that sets a flag.
+     *
+     * @param driverIndex   Index of the driver in the grid.
+     * @param overrideIndex Index of the TrackOverride in the driver, -1 for the driver itself.
+     * @param field         Type of the record.
+     * @param ordinal       Ordinal of the DriverParameter, -1 if the flag does not belong to one.
+     * @param value         New value.
+     */
+    private void appendBoolean(int driverIndex, int overrideIndex, byte field, int ordinal, boolean value) {
+        if (beginRecord(driverIndex, overrideIndex, field, ordinal)) {
+            try {
+                recordOutput.writeBoolean(value);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            endRecord();
+        }
+    }
+
+    /**
+     * Appends a record that sets a String.
+     *
+     * @param driverIndex   Index of the driver in the grid.
+     * @param overrideIndex Index of the TrackOverride in the driver, -1 for the driver itself.
+     * @param field         Type of the record.
+     * @param value         New value, can be null.
+     */
+    private void appendString(int driverIndex, int overrideIndex, byte field, String value) {
+        if (beginRecord(driverIndex, overrideIndex, field, -1)) {
+            try {
+                recordOutput.writeBoolean(value != null);
+                if (value != null)
+                    recordOutput.writeUTF(value);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            endRecord();
+        }
+    }
+
+    /**
+     * Starts a new record unless records are currently not appended. Records are not made between a structural change
+     * and the reattachment of the listeners, as the listeners still carry the old indices, the save that is requested
+     * once they are reattached includes those edits.
+     *
+     * @param driverIndex   Index of the driver in the grid.
+     * @param overrideIndex Index of the TrackOverride in the driver, -1 for the driver itself.
+     * @param field         Type of the record.
+     * @param ordinal       Ordinal of the DriverParameter, -1 if the record does not belong to one.
+     * @return True if the record was started and its value should be written, false otherwise.
+     */
+    private boolean beginRecord(int driverIndex, int overrideIndex, byte field, int ordinal) {
+        if (suspended || closed || structureChangeScheduled || channel == null)
+            return false;
+        recordBytes.reset();
+        try {
+            recordOutput.writeInt(driverIndex);
+            recordOutput.writeInt(overrideIndex);
+            recordOutput.writeByte(field);
+            recordOutput.writeByte(ordinal);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return true;
+    }
+
+    /**
+     * Appends the assembled record with its length and checksum to the journal and compacts the journal if it has
+     * grown past the COMPACTION_THRESHOLD. The record is deferred instead while the structure of the grid differs from
+     * the grid file.
+     */
+    private void endRecord() {
+        byte[] payload = recordBytes.toByteArray();
+        crc.reset();
+        crc.update(payload, 0, payload.length);
+        ByteBuffer record = ByteBuffer.allocate(payload.length + 8);
+        record.putInt(payload.length).put(payload).putInt((int) crc.getValue()).flip();
+        if (structureDirty) {
+            deferredRecords.write(record.array(), 0, record.limit());
+            deferredCount++;
+            return;
+        }
+        try {
+            writeFully(channel, record);
+        } catch (IOException e) {
+            fail(e);
+            return;
+        }
+        if (++recordCount >= COMPACTION_THRESHOLD)
+            requestCompaction();
+    }
+
+    /**
+     * Discards the records that were deferred while the structure of the grid differs from the grid file.
+     */
+    private void discardDeferredRecords() {
+        deferredRecords.reset();
+        deferredCount = 0;
+    }
+
+    /**
+     * Writes all remaining bytes of a buffer to a channel.
+     *
+     * @param channel Channel to write to.
+     * @param buffer  Buffer to write.
+     * @throws IOException If writing fails.
+     */
+    private static void writeFully(FileChannel channel, ByteBuffer buffer) throws IOException {
+        while (buffer.hasRemaining())
+            channel.write(buffer);
+    }
+
+    /**
+     * Lightweight accessor method that does not throw.
+     *
+     * @return Current size of the journal, 0 if it's not open.
+     */
+    private long channelSize() {
+        try {
+            return channel != null ? channel.size() : 0;
+        } catch (IOException e) {
+            return 0;
+        }
+    }
+
+    /**
+     * Stops journaling after the journal file could not be written. The grid is still saved explicitly.
+     *
+     * @param e Exception that occurred.
+     */
+    private void fail(IOException e) {
+        e.printStackTrace();
+        DDUtil.DEFAULT_LOGGER.log(Level.WARNING, "Edit journal could not be written, journaling stopped: " + journalPath);
+        close();
+    }
+
+    /**
+     * Closes the journal channel, ignoring any exception.
+     */
+    private void closeChannel() {
+        if (channel == null)
+            return;
+        try {
+            channel.close();
+        } catch (IOException e) {
+            DDUtil.DEFAULT_LOGGER.log(Level.FINE, "Edit journal could not be closed: " + journalPath);
+        }
+        channel = null;
+    }
+
+    /**
+     * Computes a fingerprint of the structure of a grid that the indices of the records refer to. Saves of a journaled
+     * grid keep its track overrides as they are, so a grid file that was changed by anything else than those saves has a
+     * different fingerprint and its journal is discarded instead of being replayed onto the wrong overrides.
+     *
+     * @param grid Grid.
+     * @return Checksum of the number of drivers and the number of overrides of each driver.
+     */
+    private static int shapeOf(Grid grid) {
+        CRC32 checksum = new CRC32();
+        ByteBuffer buffer = ByteBuffer.allocate(4);
+        buffer.putInt(0, grid.getDrivers().size());
+        checksum.update(buffer.array());
+        for (Driver driver : grid.getDrivers()) {
+            buffer.putInt(0, driver.getTrackOverrides().size());
+            checksum.update(buffer.array());
+        }
+        return (int) checksum.getValue();
+    }
+
+    /**
+     * Describes the state of a grid file by its size and modification time. Unlike a hash of the contents, the cost does
+     * not depend on the size of the grid file.
+     *
+     * @param file Grid file.
+     * @return Size and modification time of the grid file, or an empty String if it does not exist or can't be read.
+     */
+    private static String stateOf(File file) {
+        try {
+            return Files.size(file.toPath()) + ":" + Files.getLastModifiedTime(file.toPath()).toMillis();
+        } catch (IOException e) {
+            return "";
+        }
+    }
+}
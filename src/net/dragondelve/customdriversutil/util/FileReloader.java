@@ -0,0 +1,302 @@
+// Copyright 2023 Prokhor Kalinin
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package net.dragondelve.customdriversutil.util;
+
+import javafx.application.Platform;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.file.*;
+import java.util.Map;
+import java.util.concurrent.*;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.logging.Level;
+
+/**
+ * Watches files for changes made by other programs and reloads them. Every file is registered with a parser, that runs
+ * on a background thread, and an applier, that receives the parsed result on the JavaFX Application Thread.
+ * Bursts of change events are coalesced, and a file is only parsed when the SHA-256 hash of its contents differs from
+ * the one seen last, so touching a file or rewriting it with the same contents does nothing.
+ */
+public class FileReloader implements Closeable {
+    /**
+     * Time to wait after the last change event of a file before reloading it, in milliseconds. Editors often write a
+     * file in several steps.
+     */
+    private static final long SETTLE_DELAY_MILLIS = 250;
+
+    /**
+     * WatchService to which the directories of all watched files are registered.
+     */
+    private final WatchService watchService;
+
+    /**
+     * Watched files by their absolute normalized path.
+     */
+    private final Map<Path, WatchedFile<?>> watchedFiles = new ConcurrentHashMap<>();
+
+    /**
+     * Registration keys by the directory they watch.
+     */
+    private final Map<Path, WatchKey> directoryKeys = new ConcurrentHashMap<>();
+
+    /**
+     * Single background thread that delays, hashes and parses the changed files.
+     */
+    private final ScheduledExecutorService worker;
+
+    /**
+     * Executor on which the parsed results are applied.
+     */
+    private final Executor applyExecutor;
+
+    /**
+     * Background thread that waits for events from the WatchService.
+     */
+    private final Thread watchThread;
+
+    /**
+     * Creates a new instance of FileReloader that applies the parsed results on the JavaFX Application Thread.
+     *
+     * @throws IOException If the WatchService can't be created.
+     */
+    public FileReloader() throws IOException {
+        this(Platform::runLater);
+    }
+
+    /**
+     * Creates a new instance of FileReloader.
+     *
+     * @param applyExecutor Executor on which the parsed results are applied.
+     * @throws IOException If the WatchService can't be created.
+     */
+    public FileReloader(Executor applyExecutor) throws IOException {
+        this.applyExecutor = applyExecutor;
+        this.watchService = FileSystems.getDefault().newWatchService();
+        this.worker = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "File reloader worker");
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.watchThread = new Thread(this::processEvents, "File reloader watcher");
+        this.watchThread.setDaemon(true);
+        this.watchThread.start();
+    }
+
+    /**
+     * Starts watching a file. If the file is already watched its parser and applier are replaced. The current contents
+     * of the file are hashed on the worker thread.
+     *
+     * @param file    File to watch. Its parent directory must exist.
+     * @param parser  Parses the file, runs on a background thread. May return null if parsing failed, in which case
+     *                nothing is applied.
+     * @param applier Receives the parsed result on the apply executor.
+     * @param <T>     Type of the parsed result.
+     */
+    public <T> void watch(Path file, Function<Path, T> parser, Consumer<T> applier) {
+        Path path = file.toAbsolutePath().normalize();
+        Path directory = path.getParent();
+        try {
+            if (!directoryKeys.containsKey(directory))
+                directoryKeys.put(directory, directory.register(watchService, StandardWatchEventKinds.ENTRY_CREATE, StandardWatchEventKinds.ENTRY_MODIFY));
+        } catch (IOException e) {
+            e.printStackTrace();
+            DDUtil.DEFAULT_LOGGER.log(Level.WARNING, "File watching could not be started for path: " + path);
+            return;
+        }
+        WatchedFile<T> watchedFile = new WatchedFile<>(path, parser, applier);
+        watchedFiles.put(path, watchedFile);
+        //The file is hashed on the worker before any check of it runs, never on the calling thread.
+        try {
+            worker.execute(() -> watchedFile.hash = hashQuietly(path));
+        } catch (RejectedExecutionException e) {
+            DDUtil.DEFAULT_LOGGER.log(Level.FINE, "File watching skipped as the reloader is closed: " + path);
+        }
+        DDUtil.DEFAULT_LOGGER.log(Level.FINE, "File watching started for path: " + path);
+    }
+
+    /**
+     * Stops watching a file.
+     *
+     * @param file File that is no longer watched.
+     */
+    public void unwatch(Path file) {
+        Path path = file.toAbsolutePath().normalize();
+        WatchedFile<?> watchedFile = watchedFiles.remove(path);
+        if (watchedFile != null && watchedFile.pending != null)
+            watchedFile.pending.cancel(false);
+        Path directory = path.getParent();
+        if (watchedFiles.keySet().stream().noneMatch(other -> other.getParent().equals(directory))) {
+            WatchKey key = directoryKeys.remove(directory);
+            if (key != null)
+                key.cancel();
+        }
+    }
+
+    /**
+     * Records the current contents of a watched file as seen. Should be called after the program itself has written
+     * the file, so that its own changes are not reloaded.
+     *
+     * @param file File that has been written.
+     */
+    public void refresh(Path file) {
+        WatchedFile<?> watchedFile = watchedFiles.get(file.toAbsolutePath().normalize());
+        if (watchedFile != null)
+            watchedFile.hash = hashQuietly(watchedFile.path);
+    }
+
+    /**
+     * Stops watching all files and releases the WatchService.
+     *
+     * @throws IOException If the WatchService could not be closed.
+     */
+    @Override
+    public void close() throws IOException {
+        watchedFiles.clear();
+        directoryKeys.clear();
+        worker.shutdownNow();
+        watchThread.interrupt();
+        watchService.close();
+    }
+
+    /**
+     * Waits for events from the WatchService and schedules a check of every watched file that was changed.
+     * Runs on the watcher thread until the reloader is closed.
+     */
+    private void processEvents() {
+        while (!Thread.currentThread().isInterrupted()) {
+            WatchKey key;
+            try {
+                key = watchService.take();
+            } catch (InterruptedException | ClosedWatchServiceException e) {
+                return;
+            }
+            Path directory = (Path) key.watchable();
+            for (WatchEvent<?> event : key.pollEvents()) {
+                if (event.kind() == StandardWatchEventKinds.OVERFLOW) {
+                    watchedFiles.values().stream().filter(watchedFile -> watchedFile.path.getParent().equals(directory)).forEach(this::schedule);
+                    continue;
+                }
+                WatchedFile<?> watchedFile = watchedFiles.get(directory.resolve((Path) event.context()).normalize());
+                if (watchedFile != null)
+                    schedule(watchedFile);
+            }
+            key.reset();
+        }
+    }
+
+    /**
+     * Schedules a check of a watched file after the settle delay, replacing a check that has not run yet.
+     *
+     * @param watchedFile File to check.
+     */
+    private synchronized void schedule(WatchedFile<?> watchedFile) {
+        if (watchedFile.pending != null)
+            watchedFile.pending.cancel(false);
+        try {
+            watchedFile.pending = worker.schedule(() -> reload(watchedFile), SETTLE_DELAY_MILLIS, TimeUnit.MILLISECONDS);
+        } catch (RejectedExecutionException e) {
+            DDUtil.DEFAULT_LOGGER.log(Level.FINE, "File reload skipped as the reloader is closed: " + watchedFile.path);
+        }
+    }
+
+    /**
+     * Parses a watched file if its contents have changed and hands the result to its applier. Runs on the worker thread.
+     *
+     * @param watchedFile File to reload.
+     * @param <T>         Type of the parsed result.
+     */
+    private <T> void reload(WatchedFile<T> watchedFile) {
+        if (!Files.isRegularFile(watchedFile.path) || watchedFiles.get(watchedFile.path) != watchedFile)
+            return;
+        String hash = hashQuietly(watchedFile.path);
+        if (hash == null || hash.equals(watchedFile.hash)) {
+            DDUtil.DEFAULT_LOGGER.log(Level.FINE, "File reload skipped as the contents have not changed: " + watchedFile.path);
+            return;
+        }
+
+        DDUtil.DEFAULT_LOGGER.log(Level.FINE, "File reload initiated for path: " + watchedFile.path);
+        T result = watchedFile.parser.apply(watchedFile.path);
+        if (result == null) {
+            DDUtil.DEFAULT_LOGGER.log(Level.WARNING, "File reload failed for path: " + watchedFile.path);
+            return;
+        }
+        watchedFile.hash = hash;
+        applyExecutor.execute(() -> {
+            if (watchedFiles.get(watchedFile.path) == watchedFile)
+                watchedFile.applier.accept(result);
+        });
+    }
+
+    /**
+     * Hashes a file, returning null instead of throwing if it can't be read.
+     *
+     * @param path Path to the file.
+     * @return SHA-256 hash of the file contents, or null if the file can't be read.
+     */
+    private static String hashQuietly(Path path) {
+        try {
+            return ContentHash.of(path);
+        } catch (IOException e) {
+            return null;
+        }
+    }
+
+    /**
+     * A file that is watched along with the functions that reload it.
+     *
+     * @param <T> Type of the parsed result.
+     */
+    private static final class WatchedFile<T> {
+        /**
+         * Absolute normalized path of the file.
+         */
+        private final Path path;
+
+        /**
+         * Parses the file on the worker thread.
+         */
+        private final Function<Path, T> parser;
+
+        /**
+         * Receives the parsed result on the apply executor.
+         */
+        private final Consumer<T> applier;
+
+        /**
+         * Hash of the contents that were last loaded or written by the program.
+         */
+        private volatile String hash;
+
+        /**
+         * Check that has been scheduled but has not run yet.
+         */
+        private ScheduledFuture<?> pending;
+
+        /**
+         * Creates a new instance of WatchedFile.
+         *
+         * @param path    Absolute normalized path of the file.
+         * @param parser  Parses the file on the worker thread.
+         * @param applier Receives the parsed result on the apply executor.
+         */
+        private WatchedFile(Path path, Function<Path, T> parser, Consumer<T> applier) {
+            this.path = path;
+            this.parser = parser;
+            this.applier = applier;
+        }
+    }
+}
@@ -0,0 +1,238 @@
+// Copyright 2023 Prokhor Kalinin
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package net.dragondelve.customdriversutil.util;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+/**
+ * Encodes driver parameter values as plain decimal text for export. When rounding is enabled values are rounded half
+ * up to the configured number of decimal places, as they are displayed, and trailing zeros are dropped while at least
+ * one decimal place is kept, e.g. 0.876 is encoded as "0.88" and 0.5 as "0.5" with two decimal places. When rounding is
+ * disabled the shortest representation that identifies the value is used. Exponent notation is never produced.
+ * Digits are written into a reusable char buffer. Rounded values are encoded without creating any objects unless the
+ * value lies exactly on a rounding tie. The settings are captured when the encoder is created, so one instance should be
+ * created per export. Instances are not thread safe.
+ */
+public final class FixedDecimalEncoder {
+    /**
+     * Highest number of decimal places that can be rounded to. Higher settings behave as if rounding was disabled.
+     */
+    public static final int MAX_DECIMAL_PLACES = 15;
+
+    /**
+     * Powers of ten up to 10^MAX_DECIMAL_PLACES.
+     */
+    private static final long[] POWERS_OF_TEN = createPowersOfTen();
+
+    /**
+     * Distance from a rounding tie below which the exact decimal value is used to decide the rounding direction.
+     */
+    private static final double TIE_TOLERANCE = 1e-7;
+
+    /**
+     * Largest scaled value that can be rounded with long arithmetic.
+     */
+    private static final double MAX_SCALED_VALUE = 9e15;
+
+    /**
+     * Flag that determines if values are rounded.
+     */
+    private final boolean round;
+
+    /**
+     * Number of decimal places values are rounded to.
+     */
+    private final int decimalPlaces;
+
+    /**
+     * Buffer that contains the characters of the last encoded value.
+     */
+    private char[] buffer = new char[32];
+
+    /**
+     * Creates a new instance of FixedDecimalEncoder.
+     *
+     * @param round         Flag that determines if values are rounded.
+     * @param decimalPlaces Number of decimal places values are rounded to. Negative numbers are treated as 0.
+     */
+    public FixedDecimalEncoder(boolean round, int decimalPlaces) {
+        this.round = round && decimalPlaces <= MAX_DECIMAL_PLACES;
+        this.decimalPlaces = Math.max(0, decimalPlaces);
+    }
+
+    /**
+     * Creates a new FixedDecimalEncoder with the rounding settings of the current Configuration.
+     *
+     * @return New instance of FixedDecimalEncoder.
+     */
+    public static FixedDecimalEncoder fromConfiguration() {
+        Configuration configuration = Configurator.getInstance().getConfiguration();
+        return new FixedDecimalEncoder(configuration.isRoundGeneratedValues(), configuration.getRoundingDecimalPlaces());
+    }
+
+    /**
+     * Encodes a value into the buffer, replacing the previously encoded value.
+     *
+     * @param value Value to encode.
+     * @return Number of characters written to the start of the buffer.
+     */
+    public int encode(double value) {
+        if (Double.isNaN(value) || Double.isInfinite(value))
+            return copy(Double.toString(value));
+        if (!round)
+            return encodeShortest(value);
+
+        double scaled = Math.abs(value) * POWERS_OF_TEN[decimalPlaces];
+        if (scaled >= MAX_SCALED_VALUE) {
+            BigDecimal rounded = new BigDecimal(Double.toString(value)).setScale(decimalPlaces, RoundingMode.HALF_UP).stripTrailingZeros();
+            return copy(rounded.setScale(Math.max(1, rounded.scale())).toPlainString());
+        }
+
+        double floor = Math.floor(scaled);
+        double fraction = scaled - floor;
+        long units;
+        if (Math.abs(fraction - 0.5) < TIE_TOLERANCE + 4 * Math.ulp(scaled))
+            units = new BigDecimal(Double.toString(Math.abs(value))).setScale(decimalPlaces, RoundingMode.HALF_UP).unscaledValue().longValue();
+        else
+            units = (long) floor + (fraction > 0.5 ? 1 : 0);
+
+        int length = 0;
+        if (value < 0 && units != 0)
+            buffer[length++] = '-';
+        length = writeDigits(units / POWERS_OF_TEN[decimalPlaces], length);
+        buffer[length++] = '.';
+        if (decimalPlaces == 0) {
+            buffer[length++] = '0';
+            return length;
+        }
+        long fractionDigits = units % POWERS_OF_TEN[decimalPlaces];
+        for (int i = decimalPlaces - 1; i >= 0; i--)
+            buffer[length++] = (char) ('0' + (fractionDigits / POWERS_OF_TEN[i]) % 10);
+        //Trailing zeros are dropped, but one decimal place is always kept.
+        int pointIndex = length - decimalPlaces - 1;
+        while (length > pointIndex + 2 && buffer[length - 1] == '0')
+            length--;
+        return length;
+    }
+
+    /**
+     * Encodes a value and returns it as a String.
+     *
+     * @param value Value to encode.
+     * @return Encoded value.
+     */
+    public String encodeToString(double value) {
+        return new String(buffer, 0, encode(value));
+    }
+
+    /**
+     * Lightweight accessor method. The buffer is reused and its contents are replaced by every call to encode.
+     *
+     * @return Buffer that contains the characters of the last encoded value.
+     */
+    public char[] getBuffer() {
+        return buffer;
+    }
+
+    /**
+     * Lightweight accessor method.
+     *
+     * @return Flag that determines if values are rounded.
+     */
+    public boolean isRound() {
+        return round;
+    }
+
+    /**
+     * Lightweight accessor method.
+     *
+     * @return Number of decimal places values are rounded to.
+     */
+    public int getDecimalPlaces() {
+        return decimalPlaces;
+    }
+
+    /**
+     * Encodes the shortest representation of a value as plain decimal text.
+     *
+     * @param value Finite value to encode.
+     * @return Number of characters written to the start of the buffer.
+     */
+    private int encodeShortest(double value) {
+        String text = Double.toString(value);
+        if (text.indexOf('E') < 0)
+            return copy(text);
+        BigDecimal decimal = new BigDecimal(text).stripTrailingZeros();
+        return copy(decimal.setScale(Math.max(1, decimal.scale())).toPlainString());
+    }
+
+    /**
+     * Writes the decimal digits of a non-negative number to the buffer.
+     *
+     * @param number Non-negative number.
+     * @param offset Index at which the first digit is written.
+     * @return Index after the last digit.
+     */
+    private int writeDigits(long number, int offset) {
+        int digits = 1;
+        for (long rest = number / 10; rest > 0; rest /= 10)
+            digits++;
+        ensureCapacity(offset + digits + MAX_DECIMAL_PLACES + 2);
+        for (int i = offset + digits - 1; i >= offset; i--) {
+            buffer[i] = (char) ('0' + number % 10);
+            number /= 10;
+        }
+        return offset + digits;
+    }
+
+    /**
+     * Copies a String to the start of the buffer.
+     *
+     * @param text Text to copy.
+     * @return Length of the text.
+     */
+    private int copy(String text) {
+        ensureCapacity(text.length());
+        text.getChars(0, text.length(), buffer, 0);
+        return text.length();
+    }
+
+    /**
+     * Grows the buffer if it's smaller than the given capacity.
+     *
+     * @param capacity Required capacity.
+     */
+    private void ensureCapacity(int capacity) {
+        if (buffer.length < capacity) {
+            char[] grown = new char[Math.max(capacity, buffer.length * 2)];
+            System.arraycopy(buffer, 0, grown, 0, buffer.length);
+            buffer = grown;
+        }
+    }
+
+    /**
+     * Creates the powers of ten up to 10^MAX_DECIMAL_PLACES.
+     *
+     * @return Array of powers of ten indexed by their exponent.
+     */
+    private static long[] createPowersOfTen() {
+        long[] powers = new long[MAX_DECIMAL_PLACES + 1];
+        powers[0] = 1;
+        for (int i = 1; i < powers.length; i++)
+            powers[i] = powers[i - 1] * 10;
+        return powers;
+    }
+}
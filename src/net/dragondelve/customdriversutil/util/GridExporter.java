@@ -15,11 +15,14 @@
 package net.dragondelve.customdriversutil.util;
 
 import net.dragondelve.customdriversutil.model.Grid;
+import net.dragondelve.customdriversutil.model.snapshot.GridSnapshot;
 
 import java.io.File;
+import java.io.OutputStream;
 
 /**
- * Exports a given Grid to a File or to a String.
+ * Exports a given Grid to a File or to an OutputStream. Exporters can also export an immutable GridSnapshot, which is
+ * how grids are exported off the JavaFX Application Thread.
  */
 public interface GridExporter {
     /**
@@ -29,4 +32,25 @@ public interface GridExporter {
      * @param file File to which the grid is to be exported.
      */
     void exportToFile(Grid grid, File file);
+
+    /**
+     * Exports the given grid to a given output stream. The stream is flushed but not closed.
+     *
+     * @param grid         Grid to be exported.
+     * @param outputStream Stream to which the grid is to be exported.
+     * @return True if the grid was exported successfully, false otherwise.
+     */
+    boolean exportToStream(Grid grid, OutputStream outputStream);
+
+    /**
+     * Exports a snapshot of a grid to a given output stream. The stream is flushed but not closed. Can be called on any
+     * thread. Exporters that can't read snapshots directly export a detached Grid created from the snapshot.
+     *
+     * @param snapshot     Snapshot of the grid to be exported.
+     * @param outputStream Stream to which the grid is to be exported.
+     * @return True if the grid was exported successfully, false otherwise.
+     */
+    default boolean exportToStream(GridSnapshot snapshot, OutputStream outputStream) {
+        return exportToStream(snapshot.toGrid(), outputStream);
+    }
 }
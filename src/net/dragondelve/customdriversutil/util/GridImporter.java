@@ -15,6 +15,7 @@
 package net.dragondelve.customdriversutil.util;
 
 import net.dragondelve.customdriversutil.model.Grid;
+import net.dragondelve.customdriversutil.model.TrackLibrary;
 import net.dragondelve.customdriversutil.model.VehicleClassLibrary;
 
 import java.io.File;
@@ -50,4 +51,19 @@ public interface GridImporter {
      * @return New instance of a Grid from the source, or null if the import has failed.
      */
     Grid importWithVehicleClass(File file, VehicleClassLibrary library);
+
+    /**
+     * Sets a Track Library against which the tracks of the imported track specific overrides are resolved before the
+     * currently loaded one, such as the Track Library of a grid pack.
+     *
+     * @param trackLibrary Track Library that is searched first, or null to only search the currently loaded one.
+     */
+    void setTrackLibrary(TrackLibrary trackLibrary);
+
+    /**
+     * Lightweight accessor method.
+     *
+     * @return Report of the problems found during the last import done by this importer, or null if nothing has been imported yet.
+     */
+    ImportReport getLastImportReport();
 }
@@ -0,0 +1,122 @@
+// Copyright 2023 Prokhor Kalinin
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package net.dragondelve.customdriversutil.util;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Collects the problems found while importing a Grid that did not prevent the import from succeeding, but caused some
+ * of the source data to be left out of or changed in the imported Grid.
+ */
+public class ImportReport {
+    /**
+     * Descriptions of track specific overrides that could not be attached to any driver.
+     */
+    private final List<String> orphanedOverrides = new ArrayList<>();
+
+    /**
+     * Livery names that were used by more than one base driver.
+     */
+    private final List<String> duplicateLiveries = new ArrayList<>();
+
+    /**
+     * Descriptions of parameter values that were not numbers or were outside their range.
+     */
+    private final List<String> invalidValues = new ArrayList<>();
+
+    /**
+     * Records a track specific override that could not be attached to a driver.
+     *
+     * @param liveryName Livery name of the override, can be null.
+     * @param tracks     Comma separated xml names of the tracks of the override.
+     * @param reason     Short description of why the override could not be attached.
+     */
+    public void addOrphanedOverride(String liveryName, String tracks, String reason) {
+        orphanedOverrides.add("livery '" + liveryName + "', tracks '" + tracks + "': " + reason);
+    }
+
+    /**
+     * Records a livery name that was used by more than one base driver.
+     *
+     * @param liveryName Livery name shared by multiple drivers.
+     */
+    public void addDuplicateLivery(String liveryName) {
+        duplicateLiveries.add(liveryName);
+    }
+
+    /**
+     * Records a parameter value that was not a number or was outside its range.
+     *
+     * @param owner     Description of the driver element that contains the value.
+     * @param parameter Xml name of the parameter.
+     * @param value     Value as it appears in the source.
+     * @param reason    Short description of the problem and how it was handled.
+     */
+    public void addInvalidValue(String owner, String parameter, String value, String reason) {
+        invalidValues.add(owner + ", " + parameter + " '" + value.trim() + "': " + reason);
+    }
+
+    /**
+     * Lightweight accessor method.
+     *
+     * @return Unmodifiable list of descriptions of the overrides that could not be attached to any driver.
+     */
+    public List<String> getOrphanedOverrides() {
+        return Collections.unmodifiableList(orphanedOverrides);
+    }
+
+    /**
+     * Lightweight accessor method.
+     *
+     * @return Unmodifiable list of livery names that were used by more than one base driver.
+     */
+    public List<String> getDuplicateLiveries() {
+        return Collections.unmodifiableList(duplicateLiveries);
+    }
+
+    /**
+     * Lightweight accessor method.
+     *
+     * @return Unmodifiable list of descriptions of the parameter values that were not numbers or were outside their range.
+     */
+    public List<String> getInvalidValues() {
+        return Collections.unmodifiableList(invalidValues);
+    }
+
+    /**
+     * Checks whether any problems were recorded.
+     *
+     * @return True if at least one problem was recorded, false otherwise.
+     */
+    public boolean hasIssues() {
+        return !orphanedOverrides.isEmpty() || !duplicateLiveries.isEmpty() || !invalidValues.isEmpty();
+    }
+
+    /**
+     * Builds a human-readable summary of all recorded problems, one per line.
+     *
+     * @return Summary of all recorded problems.
+     */
+    @Override
+    public String toString() {
+        StringBuilder builder = new StringBuilder();
+        duplicateLiveries.forEach(livery -> builder.append("Duplicate livery: ").append(livery).append(System.lineSeparator()));
+        orphanedOverrides.forEach(override -> builder.append("Orphaned override: ").append(override).append(System.lineSeparator()));
+        invalidValues.forEach(value -> builder.append("Invalid value: ").append(value).append(System.lineSeparator()));
+        return builder.toString();
+    }
+}
@@ -0,0 +1,47 @@
+// Copyright 2023 Prokhor Kalinin
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package net.dragondelve.customdriversutil.util;
+
+import javax.xml.bind.annotation.adapters.XmlAdapter;
+
+/**
+ * JAXB adapter that passes the strings it unmarshals through the StringPool. Annotate a String property or a list of
+ * strings with @XmlJavaTypeAdapter(InternedStringAdapter.class) to share the instances of its values.
+ * The value is interned before it's set, which matters for JavaFX properties, because they keep their current instance
+ * when they are set to an equal string.
+ */
+public class InternedStringAdapter extends XmlAdapter<String, String> {
+    /**
+     * Interns a string that was read from XML.
+     *
+     * @param value String that was read, can be null.
+     * @return Shared instance of the string.
+     */
+    @Override
+    public String unmarshal(String value) {
+        return StringPool.getInstance().intern(value);
+    }
+
+    /**
+     * Writes a string to XML unchanged.
+     *
+     * @param value String to be written, can be null.
+     * @return The given string.
+     */
+    @Override
+    public String marshal(String value) {
+        return value;
+    }
+}
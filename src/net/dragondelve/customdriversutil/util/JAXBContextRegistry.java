@@ -0,0 +1,162 @@
+// Copyright 2023 Prokhor Kalinin
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package net.dragondelve.customdriversutil.util;
+
+import javax.xml.bind.JAXBContext;
+import javax.xml.bind.JAXBException;
+import javax.xml.bind.Marshaller;
+import javax.xml.bind.Unmarshaller;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.FutureTask;
+import java.util.logging.Level;
+
+/**
+ * Central registry of JAXBContexts used by every XML persistence path of the program. Creating a JAXBContext is the most
+ * expensive step of JAXB, so each context is built only once per bound class and then shared.
+ * Marshallers and Unmarshallers are not thread safe, they are handed out per thread and reused by subsequent calls on
+ * the same thread.
+ * This class is non-instantiable, in order to get its only instance you should use the getInstance() method.
+ */
+public final class JAXBContextRegistry {
+    /**
+     * The only instance of JAXBContextRegistry.
+     */
+    private static final JAXBContextRegistry instance = new JAXBContextRegistry();
+
+    /**
+     * Contexts that have been built or are being built, by the class they are bound to. Whoever inserts the task first
+     * runs it, everyone else waits for the same result.
+     */
+    private final Map<Class<?>, FutureTask<JAXBContext>> contexts = new ConcurrentHashMap<>();
+
+    /**
+     * Unmarshallers confined to the thread that created them, by the class they are bound to.
+     */
+    private final Map<Class<?>, ThreadLocal<Unmarshaller>> unmarshallers = new ConcurrentHashMap<>();
+
+    /**
+     * Marshallers with formatted output enabled confined to the thread that created them, by the class they are bound to.
+     */
+    private final Map<Class<?>, ThreadLocal<Marshaller>> marshallers = new ConcurrentHashMap<>();
+
+    /**
+     * Private constructor. Used to make this class non instantiable.
+     */
+    private JAXBContextRegistry() {
+        super();
+    }
+
+    /**
+     * Lightweight accessor method.
+     *
+     * @return The only instance of this class.
+     */
+    public static JAXBContextRegistry getInstance() {
+        return instance;
+    }
+
+    /**
+     * Builds the contexts for the given classes on a background daemon thread, so that they are ready by the time
+     * they are first used. Classes whose context is already built are skipped.
+     *
+     * @param boundClasses Classes annotated with JAXB whose contexts should be built ahead of time.
+     */
+    public void warmUp(Class<?>... boundClasses) {
+        Thread thread = new Thread(() -> {
+            for (Class<?> boundClass : boundClasses) {
+                try {
+                    getContext(boundClass);
+                } catch (JAXBException e) {
+                    DDUtil.DEFAULT_LOGGER.log(Level.WARNING, "JAXB context warm up failed for: " + boundClass.getName());
+                }
+            }
+            DDUtil.DEFAULT_LOGGER.log(Level.FINE, "JAXB context warm up finished");
+        }, "JAXB context warm up");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    /**
+     * Returns the shared JAXBContext for a given class, building it if it has not been built yet. If the context is
+     * being built by another thread this method waits for it instead of building it a second time.
+     *
+     * @param boundClass Class annotated with JAXB.
+     * @return Shared JAXBContext for the class.
+     * @throws JAXBException If the context could not be built.
+     */
+    public JAXBContext getContext(Class<?> boundClass) throws JAXBException {
+        FutureTask<JAXBContext> task = contexts.get(boundClass);
+        if (task == null) {
+            FutureTask<JAXBContext> newTask = new FutureTask<>(() -> JAXBContext.newInstance(boundClass));
+            task = contexts.putIfAbsent(boundClass, newTask);
+            if (task == null) {
+                task = newTask;
+                task.run();
+            }
+        }
+
+        try {
+            return task.get();
+        } catch (ExecutionException e) {
+            //Failed contexts are not cached, so that the next call can try again.
+            contexts.remove(boundClass, task);
+            if (e.getCause() instanceof JAXBException)
+                throw (JAXBException) e.getCause();
+            throw new JAXBException(e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new JAXBException(e);
+        }
+    }
+
+    /**
+     * Returns an Unmarshaller for a given class that is confined to the calling thread. Subsequent calls on the same
+     * thread return the same instance.
+     *
+     * @param boundClass Class annotated with JAXB.
+     * @return Unmarshaller that must only be used on the calling thread.
+     * @throws JAXBException If the context or the Unmarshaller could not be created.
+     */
+    public Unmarshaller getUnmarshaller(Class<?> boundClass) throws JAXBException {
+        ThreadLocal<Unmarshaller> local = unmarshallers.computeIfAbsent(boundClass, c -> new ThreadLocal<>());
+        Unmarshaller unmarshaller = local.get();
+        if (unmarshaller == null) {
+            unmarshaller = getContext(boundClass).createUnmarshaller();
+            local.set(unmarshaller);
+        }
+        return unmarshaller;
+    }
+
+    /**
+     * Returns a Marshaller with formatted output for a given class that is confined to the calling thread. Subsequent
+     * calls on the same thread return the same instance.
+     *
+     * @param boundClass Class annotated with JAXB.
+     * @return Marshaller that must only be used on the calling thread.
+     * @throws JAXBException If the context or the Marshaller could not be created.
+     */
+    public Marshaller getMarshaller(Class<?> boundClass) throws JAXBException {
+        ThreadLocal<Marshaller> local = marshallers.computeIfAbsent(boundClass, c -> new ThreadLocal<>());
+        Marshaller marshaller = local.get();
+        if (marshaller == null) {
+            marshaller = getContext(boundClass).createMarshaller();
+            marshaller.setProperty(Marshaller.JAXB_FORMATTED_OUTPUT, true);
+            local.set(marshaller);
+        }
+        return marshaller;
+    }
+}
@@ -14,17 +14,31 @@
 
 package net.dragondelve.customdriversutil.util;
 
+import javafx.application.Platform;
 import javafx.stage.FileChooser;
 import net.dragondelve.customdriversutil.model.*;
-import net.dragondelve.customdriversutil.model.xml.XMLGridExporter;
+import net.dragondelve.customdriversutil.model.binary.BinaryProjectExporter;
+import net.dragondelve.customdriversutil.model.binary.BinaryProjectImporter;
+import net.dragondelve.customdriversutil.model.binary.ProjectBundle;
+import net.dragondelve.customdriversutil.model.snapshot.GridSnapshot;
+import net.dragondelve.customdriversutil.model.xml.StreamingXMLGridExporter;
+import net.dragondelve.customdriversutil.model.xml.StreamingXMLGridImporter;
 import net.dragondelve.customdriversutil.model.xml.XMLGridImporter;
 
-import javax.xml.bind.JAXBContext;
 import javax.xml.bind.JAXBException;
 import javax.xml.bind.Marshaller;
 import javax.xml.bind.Unmarshaller;
+import java.io.ByteArrayOutputStream;
 import java.io.File;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.IntConsumer;
 import java.util.logging.Level;
 
 /**
@@ -51,6 +65,31 @@ public class LibraryManager {
      * Currently used VehicleClassLibrary. VehicleClassLibrary is used to allow users to select a livery from a list.
      */
     private VehicleClassLibrary vehicleClassLibrary = new VehicleClassLibrary();
+    /**
+     * Reloads the library files and the watched grid when they are changed by other programs. Null until file watching
+     * is enabled with enableFileWatching().
+     */
+    private FileReloader fileReloader;
+    /**
+     * Path of the Track Library file that is currently watched.
+     */
+    private Path watchedTrackLibrary;
+    /**
+     * Path of the Vehicle Class Library file that is currently watched.
+     */
+    private Path watchedVehicleClassLibrary;
+    /**
+     * Path of the Driver Library file that is currently watched.
+     */
+    private Path watchedDriverLibrary;
+    /**
+     * Path of the grid file that is currently watched.
+     */
+    private Path watchedGrid;
+    /**
+     * Journal of the edits made to the currently edited grid, null if autosave is disabled or no grid file is known.
+     */
+    private EditJournal gridJournal;
 
     /**
      * Private constructor. Used to make this class non instantiable.
@@ -84,6 +123,172 @@ public class LibraryManager {
         return fileChooser;
     }
 
+    /**
+     * Creates a new GridImporter for AMS2 XML grids. The implementation is selected by the streamingGridImport flag of
+     * the current Configuration. Grid files are loaded through the ParseCache, which falls back to the selected
+     * implementation if the file has changed or the cache is disabled.
+     *
+     * @return StreamingXMLGridImporter if streaming import is enabled, XMLGridImporter otherwise, wrapped by the cache.
+     */
+    public static GridImporter createGridImporter() {
+        if (Configurator.getInstance().getConfiguration().isStreamingGridImport())
+            return new CachedGridImporter(new StreamingXMLGridImporter());
+        else
+            return new CachedGridImporter(new XMLGridImporter());
+    }
+
+    /**
+     * Creates a new GridExporter for AMS2 XML grids. The streaming exporter writes the same bytes as the JAXB based
+     * XMLGridExporter without building an intermediate XML representation, so it's always used.
+     *
+     * @return New instance of StreamingXMLGridExporter.
+     */
+    public static GridExporter createGridExporter() {
+        return new StreamingXMLGridExporter();
+    }
+
+    /**
+     * Prepares a snapshot of a grid to be exported. If enabled in the configuration, the track overrides of the
+     * snapshot are compacted by a TrackOverrideCompactor. Snapshots are immutable, so this can be called on any thread.
+     *
+     * @param snapshot Snapshot of the grid to be exported.
+     * @return Snapshot that is exported, the given snapshot if nothing had to be changed.
+     */
+    public static GridSnapshot prepareExport(GridSnapshot snapshot) {
+        return prepareExport(snapshot, removedElements -> {
+        });
+    }
+
+    /**
+     * Prepares a snapshot of a grid to be exported and reports how many driver elements the TrackOverrideCompactor has
+     * removed from it. Snapshots are immutable, so this can be called on any thread.
+     *
+     * @param snapshot           Snapshot of the grid to be exported.
+     * @param compactionListener Receives the number of removed driver elements on the calling thread, 0 if compaction
+     *                           is disabled or nothing was removed.
+     * @return Snapshot that is exported, the given snapshot if nothing had to be changed.
+     */
+    public static GridSnapshot prepareExport(GridSnapshot snapshot, IntConsumer compactionListener) {
+        if (!Configurator.getInstance().getConfiguration().isCompactTrackOverrides()) {
+            compactionListener.accept(0);
+            return snapshot;
+        }
+        TrackOverrideCompactor compactor = new TrackOverrideCompactor(FixedDecimalEncoder.fromConfiguration());
+        GridSnapshot compacted = compactor.compact(snapshot);
+        compactionListener.accept(compactor.getRemovedElements());
+        return compacted;
+    }
+
+    /**
+     * Enables reloading of the library files when they are changed on disk by other programs. Libraries that are
+     * imported after this call are watched, the changes are applied to the live libraries as a minimal diff on the
+     * JavaFX Application Thread, so that open editors keep their selection.
+     * Must be called after the JavaFX toolkit has started.
+     */
+    public void enableFileWatching() {
+        if (fileReloader != null)
+            return;
+        try {
+            fileReloader = new FileReloader();
+        } catch (IOException e) {
+            e.printStackTrace();
+            DDUtil.DEFAULT_LOGGER.log(Level.WARNING, "File watching could not be enabled");
+        }
+    }
+
+    /**
+     * Watches a grid file and applies the changes made to it by other programs to the drivers of a given grid. Only one
+     * grid is watched at a time, the previously watched grid is no longer watched. File watching does nothing if it is
+     * not enabled.
+     * If autosave is enabled the edits of the grid are also journaled, and edits that were journaled but never saved
+     * in a previous session are recovered into the grid.
+     *
+     * @param file File from which the grid was imported or to which it was exported.
+     * @param grid Grid that is currently edited.
+     */
+    public void watchGrid(File file, Grid grid) {
+        watchedGrid = rewatch(watchedGrid, file, path -> createGridImporter().importFromFile(path.toFile()),
+                parsed -> applyReloadedGrid(file, grid, parsed));
+        journalGrid(file, grid, true);
+    }
+
+    /**
+     * Applies the drivers of a grid file that was changed by another program to the currently edited grid. The changes
+     * are not journaled, the journal is restarted for the new contents of the file instead.
+     *
+     * @param file   Grid file that was changed.
+     * @param grid   Grid that is currently edited.
+     * @param parsed Grid parsed from the changed file.
+     */
+    private void applyReloadedGrid(File file, Grid grid, Grid parsed) {
+        if (gridJournal != null && gridJournal.isJournaling(grid, file))
+            gridJournal.reload(() -> ModelDiff.applyDrivers(grid.getDrivers(), parsed.getDrivers()));
+        else
+            ModelDiff.applyDrivers(grid.getDrivers(), parsed.getDrivers());
+    }
+
+    /**
+     * Starts journaling the edits of a grid if autosave is enabled. The journal of the previously edited grid is closed.
+     * Does nothing if the grid is already journaled to the given file.
+     *
+     * @param file    Grid file next to which the journal is kept.
+     * @param grid    Grid that is currently edited.
+     * @param recover If true, edits that were journaled but never saved are replayed onto the grid.
+     */
+    private void journalGrid(File file, Grid grid, boolean recover) {
+        if (gridJournal != null) {
+            if (gridJournal.isJournaling(grid, file))
+                return;
+            gridJournal.close();
+            gridJournal = null;
+        }
+        if (Configurator.getInstance().getConfiguration().isAutosaveJournal())
+            gridJournal = EditJournal.open(file, grid, recover);
+    }
+
+    /**
+     * Records the current contents of a file as seen by the file watcher, so that a file written by this program is not
+     * reloaded. Does nothing if file watching is not enabled or the file is not watched.
+     *
+     * @param file File that was written by this program.
+     */
+    public void markWritten(File file) {
+        if (fileReloader != null)
+            fileReloader.refresh(file.toPath());
+    }
+
+    /**
+     * Stops watching a previously watched file and starts watching another one.
+     *
+     * @param previous Previously watched path, can be null.
+     * @param file     File to be watched.
+     * @param parser   Parses the file off the JavaFX Application Thread.
+     * @param applier  Applies the parsed result on the JavaFX Application Thread.
+     * @param <T>      Type of the parsed result.
+     * @return Path that is now watched, or the previous one if file watching is not enabled.
+     */
+    private <T> Path rewatch(Path previous, File file, Function<Path, T> parser, Consumer<T> applier) {
+        if (fileReloader == null)
+            return previous;
+        Path path = file.toPath().toAbsolutePath().normalize();
+        if (previous != null && !previous.equals(path))
+            fileReloader.unwatch(previous);
+        fileReloader.watch(path, parser, applier);
+        return path;
+    }
+
+    /**
+     * Stops watching a previously watched file.
+     *
+     * @param previous Previously watched path, can be null.
+     * @return Null, so that the result can be assigned to the field that held the path.
+     */
+    private Path unwatch(Path previous) {
+        if (fileReloader != null && previous != null)
+            fileReloader.unwatch(previous);
+        return null;
+    }
+
     /**
      * Lightweight accessor method.
      *
@@ -102,38 +307,55 @@ public class LibraryManager {
     public boolean importTrackLibrary(String pathname) {
         File library = new File(pathname);
         DDUtil.DEFAULT_LOGGER.log(Level.FINE, "Track library loading initiated from path: " + pathname);
-        try {
-            JAXBContext context = JAXBContext.newInstance(TrackLibrary.class);
-            Unmarshaller unmarshaller = context.createUnmarshaller();
-            trackLibrary = (TrackLibrary) unmarshaller.unmarshal(library);
-            DDUtil.DEFAULT_LOGGER.log(Level.FINE, "Track library loading successful from path: " + pathname);
-            return true;
-        } catch (JAXBException | IllegalArgumentException e) {
+        return applyTrackLibrary(library, readTrackLibrary(library));
+    }
+
+    /**
+     * Imports the Track Library from a File located at a given pathname without blocking the calling thread. The file
+     * is parsed on a given executor and the parsed library replaces the current one on the JavaFX Application Thread.
+     *
+     * @param pathname Pathname to an XML file that contains a Track Library.
+     * @param executor Executor on which the file is parsed.
+     * @return Future that is completed on the JavaFX Application Thread with true if importing has succeeded, false if
+     * it has failed.
+     */
+    public CompletableFuture<Boolean> importTrackLibraryAsync(String pathname, Executor executor) {
+        File library = new File(pathname);
+        DDUtil.DEFAULT_LOGGER.log(Level.FINE, "Track library loading initiated from path: " + pathname);
+        return CompletableFuture.supplyAsync(() -> readTrackLibrary(library), executor)
+                .thenApplyAsync(importedLibrary -> applyTrackLibrary(library, importedLibrary), Platform::runLater);
+    }
+
+    /**
+     * Replaces the current Track Library with a library that was read from a file and starts watching that file.
+     *
+     * @param library         File from which the library was read.
+     * @param importedLibrary Library that was read, or null if reading has failed.
+     * @return true if the library was replaced, false if reading has failed.
+     */
+    private boolean applyTrackLibrary(File library, TrackLibrary importedLibrary) {
+        String pathname = library.getPath();
+        if (importedLibrary == null) {
             DDUtil.DEFAULT_LOGGER.log(Level.WARNING, "Track library loading failed from path: " + pathname);
             return false;
         }
+        trackLibrary = importedLibrary;
+        watchedTrackLibrary = rewatch(watchedTrackLibrary, library, path -> readTrackLibrary(path.toFile()),
+                parsed -> ModelDiff.applyTrackLibrary(trackLibrary, parsed));
+        DDUtil.DEFAULT_LOGGER.log(Level.FINE, "Track library loading successful from path: " + pathname);
+        return true;
     }
 
     /**
-     * Exports the currently loaded TrackLibrary to an XML file located at a given pathname.
+     * Exports the currently loaded TrackLibrary to an XML file located at a given pathname. The library is marshalled
+     * on the calling thread and written to the file by the SaveService.
      *
      * @param pathname pathname to a File to which the TrackLibrary should be exported.
-     * @return true if exporting has succeeded, false if it has failed.
+     * @return Future that is completed with true if exporting has succeeded, false if it has failed.
      */
-    public boolean exportTrackLibrary(String pathname) {
-        File library = new File(pathname);
+    public CompletableFuture<Boolean> exportTrackLibrary(String pathname) {
         DDUtil.DEFAULT_LOGGER.log(Level.FINE, "Track Library saving initiated to path: " + pathname);
-        try {
-            JAXBContext context = JAXBContext.newInstance(TrackLibrary.class);
-            Marshaller marshaller = context.createMarshaller();
-            marshaller.setProperty(Marshaller.JAXB_FORMATTED_OUTPUT, true);
-            marshaller.marshal(trackLibrary, library);
-            DDUtil.DEFAULT_LOGGER.log(Level.FINE, "Track Library successfully saved to path: " + pathname);
-            return true;
-        } catch (JAXBException | IllegalArgumentException e) {
-            DDUtil.DEFAULT_LOGGER.log(Level.WARNING, "Track Library saving failed to path: " + pathname);
-            return false;
-        }
+        return saveLibrary(new File(pathname), trackLibrary, TrackLibrary.class, "Track Library");
     }
 
     /**
@@ -154,38 +376,180 @@ public class LibraryManager {
     public boolean importVehicleClassLibrary(String pathname) {
         File library = new File(pathname);
         DDUtil.DEFAULT_LOGGER.log(Level.FINE, "Vehicle Class Library loading initiated from path: " + pathname);
-        try {
-            JAXBContext context = JAXBContext.newInstance(VehicleClassLibrary.class);
-            Unmarshaller unmarshaller = context.createUnmarshaller();
-            vehicleClassLibrary = (VehicleClassLibrary) unmarshaller.unmarshal(library);
-            DDUtil.DEFAULT_LOGGER.log(Level.FINE, "Vehicle Class Library loading successful from path: " + pathname);
-            return true;
-        } catch (JAXBException | IllegalArgumentException e) {
+        return applyVehicleClassLibrary(library, readVehicleClassLibrary(library));
+    }
+
+    /**
+     * Imports the VehicleClassLibrary from a File located at a given pathname without blocking the calling thread. The
+     * file is parsed on a given executor and the parsed library replaces the current one on the JavaFX Application
+     * Thread.
+     *
+     * @param pathname Pathname to an XML file that contains a Vehicle Class Library.
+     * @param executor Executor on which the file is parsed.
+     * @return Future that is completed on the JavaFX Application Thread with true if importing has succeeded, false if
+     * it has failed.
+     */
+    public CompletableFuture<Boolean> importVehicleClassLibraryAsync(String pathname, Executor executor) {
+        File library = new File(pathname);
+        DDUtil.DEFAULT_LOGGER.log(Level.FINE, "Vehicle Class Library loading initiated from path: " + pathname);
+        return CompletableFuture.supplyAsync(() -> readVehicleClassLibrary(library), executor)
+                .thenApplyAsync(importedLibrary -> applyVehicleClassLibrary(library, importedLibrary), Platform::runLater);
+    }
+
+    /**
+     * Replaces the current VehicleClassLibrary with a library that was read from a file and starts watching that file.
+     *
+     * @param library         File from which the library was read.
+     * @param importedLibrary Library that was read, or null if reading has failed.
+     * @return True if the library was replaced, false if reading has failed.
+     */
+    private boolean applyVehicleClassLibrary(File library, VehicleClassLibrary importedLibrary) {
+        String pathname = library.getPath();
+        if (importedLibrary == null) {
             DDUtil.DEFAULT_LOGGER.log(Level.WARNING, "Vehicle Class Library loading failed from path: " + pathname);
             return false;
         }
+        vehicleClassLibrary = importedLibrary;
+        watchedVehicleClassLibrary = rewatch(watchedVehicleClassLibrary, library, path -> readVehicleClassLibrary(path.toFile()),
+                parsed -> ModelDiff.applyVehicleClassLibrary(vehicleClassLibrary, parsed));
+        DDUtil.DEFAULT_LOGGER.log(Level.FINE, "Vehicle Class Library loading successful from path: " + pathname);
+        return true;
+    }
+
+    /**
+     * Loads a Track Library from a file through the ParseCache. Safe to call from any thread.
+     *
+     * @param file XML file that contains the library.
+     * @return New instance of TrackLibrary, or null if it could not be loaded.
+     */
+    private static TrackLibrary readTrackLibrary(File file) {
+        return ParseCache.getInstance().loadTrackLibrary(file, source -> readLibrary(source, TrackLibrary.class));
+    }
+
+    /**
+     * Loads a Vehicle Class Library from a file through the ParseCache. Safe to call from any thread.
+     *
+     * @param file XML file that contains the library.
+     * @return New instance of VehicleClassLibrary, or null if it could not be loaded.
+     */
+    private static VehicleClassLibrary readVehicleClassLibrary(File file) {
+        return ParseCache.getInstance().loadVehicleClassLibrary(file, source -> readLibrary(source, VehicleClassLibrary.class));
+    }
+
+    /**
+     * Unmarshals a library of a given type from a file with JAXB. Safe to call from any thread.
+     *
+     * @param file         XML file that contains the library.
+     * @param libraryClass Class of the library annotated with JAXB.
+     * @param <T>          Type of the library.
+     * @return New instance of the library, or null if it could not be loaded.
+     */
+    private static <T> T readLibrary(File file, Class<T> libraryClass) {
+        try {
+            Unmarshaller unmarshaller = JAXBContextRegistry.getInstance().getUnmarshaller(libraryClass);
+            return libraryClass.cast(unmarshaller.unmarshal(file));
+        } catch (JAXBException | IllegalArgumentException e) {
+            e.printStackTrace();
+            DDUtil.DEFAULT_LOGGER.log(Level.WARNING, libraryClass.getSimpleName() + " could not be read from path: " + file.getPath());
+            return null;
+        }
     }
 
     /**
-     * Exports the currently loaded VehicleClassLibrary to an XML file located at a given pathname.
+     * Exports the currently loaded VehicleClassLibrary to an XML file located at a given pathname. The library is
+     * marshalled on the calling thread and written to the file by the SaveService.
      *
      * @param pathname Pathname to a File to which the VehicleClassLibrary should be exported.
-     * @return True if exporting has succeeded, false if it has failed.
+     * @return Future that is completed with true if exporting has succeeded, false if it has failed.
      */
-    public boolean exportVehicleClassLibrary(String pathname) {
-        File library = new File(pathname);
+    public CompletableFuture<Boolean> exportVehicleClassLibrary(String pathname) {
         DDUtil.DEFAULT_LOGGER.log(Level.FINE, "Vehicle Class Library saving initiated to path: " + pathname);
+        return saveLibrary(new File(pathname), vehicleClassLibrary, VehicleClassLibrary.class, "Vehicle Class Library");
+    }
+
+    /**
+     * Applies a library patch file to the currently loaded TrackLibrary and VehicleClassLibrary in place, as described
+     * in ModelDiff.applyLibraryPatch. User-added modded vehicle classes are preserved. The library files themselves are
+     * not modified, the libraries have to be exported to keep the changes.
+     *
+     * @param pathname Pathname to an XML file that contains a library patch.
+     * @return Summary of the added, updated, removed and skipped tracks and vehicle classes, or null if the file could
+     * not be read.
+     */
+    public MergeSummary applyLibraryPatch(String pathname) {
+        DDUtil.DEFAULT_LOGGER.log(Level.FINE, "Library patch loading initiated from path: " + pathname);
+        LibraryPatch patch = readLibrary(new File(pathname), LibraryPatch.class);
+        if (patch == null) {
+            DDUtil.DEFAULT_LOGGER.log(Level.WARNING, "Library patch loading failed from path: " + pathname);
+            return null;
+        }
+        MergeSummary summary = ModelDiff.applyLibraryPatch(trackLibrary, vehicleClassLibrary, patch);
+        DDUtil.DEFAULT_LOGGER.log(Level.FINE, "Library patch applied from path: " + pathname + ", " + summary);
+        return summary;
+    }
+
+    /**
+     * Exports a library patch that turns the libraries stored in two given files, such as the libraries of the previous
+     * AMS2 version, into the currently loaded TrackLibrary and VehicleClassLibrary. The old libraries are read on the
+     * calling thread and the patch is written to the file by the SaveService.
+     *
+     * @param trackLibraryPathname        Pathname to an XML file that contains the old Track Library.
+     * @param vehicleClassLibraryPathname Pathname to an XML file that contains the old Vehicle Class Library.
+     * @param pathname                    Pathname to a File to which the patch should be exported.
+     * @return Future that is completed with true if exporting has succeeded, false if it has failed.
+     */
+    public CompletableFuture<Boolean> exportLibraryPatch(String trackLibraryPathname, String vehicleClassLibraryPathname, String pathname) {
+        DDUtil.DEFAULT_LOGGER.log(Level.FINE, "Library patch saving initiated to path: " + pathname);
+        //Old libraries are read directly rather than through the ParseCache, so that they are never the loaded instances.
+        TrackLibrary oldTrackLibrary = readLibrary(new File(trackLibraryPathname), TrackLibrary.class);
+        VehicleClassLibrary oldVehicleClassLibrary = readLibrary(new File(vehicleClassLibraryPathname), VehicleClassLibrary.class);
+        if (oldTrackLibrary == null || oldVehicleClassLibrary == null) {
+            DDUtil.DEFAULT_LOGGER.log(Level.WARNING, "Library patch saving failed to path: " + pathname);
+            return CompletableFuture.completedFuture(false);
+        }
+        LibraryPatch patch = ModelDiff.diffLibraries(oldTrackLibrary, oldVehicleClassLibrary, trackLibrary, vehicleClassLibrary);
+        return saveLibrary(new File(pathname), patch, LibraryPatch.class, "Library patch");
+    }
+
+    /**
+     * Marshals a library with JAXB into memory and saves the bytes with the SaveService, so that the library can be
+     * edited again as soon as this method returns.
+     *
+     * @param file         File to which the library is saved.
+     * @param library      Library to be saved.
+     * @param libraryClass Class of the library annotated with JAXB.
+     * @param description  Name of the library used in the log.
+     * @param <T>          Type of the library.
+     * @return Future that is completed with true if saving has succeeded, false if it has failed.
+     */
+    private <T> CompletableFuture<Boolean> saveLibrary(File file, T library, Class<T> libraryClass, String description) {
+        ByteArrayOutputStream snapshot = new ByteArrayOutputStream();
         try {
-            JAXBContext context = JAXBContext.newInstance(VehicleClassLibrary.class);
-            Marshaller marshaller = context.createMarshaller();
-            marshaller.setProperty(Marshaller.JAXB_FORMATTED_OUTPUT, true);
-            marshaller.marshal(vehicleClassLibrary, library);
-            DDUtil.DEFAULT_LOGGER.log(Level.FINE, "Vehicle Class Library saving successful to path: " + pathname);
-            return true;
+            Marshaller marshaller = JAXBContextRegistry.getInstance().getMarshaller(libraryClass);
+            marshaller.marshal(library, snapshot);
         } catch (JAXBException | IllegalArgumentException e) {
-            DDUtil.DEFAULT_LOGGER.log(Level.WARNING, "Vehicle Class Library saving failed to path: " + pathname);
-            return false;
+            e.printStackTrace();
+            DDUtil.DEFAULT_LOGGER.log(Level.WARNING, description + " saving failed to path: " + file.getPath());
+            return CompletableFuture.completedFuture(false);
         }
+        return SaveService.getInstance().save(file, snapshot.toByteArray()).thenApply(saved -> afterSave(file, saved, description));
+    }
+
+    /**
+     * Finishes a save performed by the SaveService. Runs on the save worker thread.
+     *
+     * @param file        File that was saved.
+     * @param saved       True if the file was saved, false otherwise.
+     * @param description Name of the saved data used in the log.
+     * @return The saved flag.
+     */
+    private boolean afterSave(File file, boolean saved, String description) {
+        if (saved) {
+            markWritten(file);
+            DDUtil.DEFAULT_LOGGER.log(Level.FINE, description + " saving successful to path: " + file.getPath());
+        } else
+            DDUtil.DEFAULT_LOGGER.log(Level.WARNING, description + " saving failed to path: " + file.getPath());
+        return saved;
     }
 
     /**
@@ -206,11 +570,42 @@ public class LibraryManager {
     public boolean importDriverLibrary(String pathname) {
         File library = new File(pathname);
         DDUtil.DEFAULT_LOGGER.log(Level.FINE, "Driver Library loading initiated from path: " + pathname);
+        return applyDriverLibrary(library, createGridImporter().importFromFile(library));
+    }
 
-        List<Driver> importedDrivers = new XMLGridImporter().importFromFile(library).getDrivers();
+    /**
+     * Imports the DriverLibrary from a File located at a given pathname without blocking the calling thread. The file
+     * is parsed on a given executor and the drivers replace the current ones on the JavaFX Application Thread.
+     * Tracks of the drivers are looked up in the current Track Library, so it should be loaded first.
+     *
+     * @param pathname Pathname to an XML file that contains a Driver Library.
+     * @param executor Executor on which the file is parsed.
+     * @return Future that is completed on the JavaFX Application Thread with true if importing has succeeded, false if
+     * it has failed.
+     */
+    public CompletableFuture<Boolean> importDriverLibraryAsync(String pathname, Executor executor) {
+        File library = new File(pathname);
+        DDUtil.DEFAULT_LOGGER.log(Level.FINE, "Driver Library loading initiated from path: " + pathname);
+        return CompletableFuture.supplyAsync(() -> createGridImporter().importFromFile(library), executor)
+                .thenApplyAsync(importedGrid -> applyDriverLibrary(library, importedGrid), Platform::runLater);
+    }
+
+    /**
+     * Replaces the drivers of the DriverLibrary with the drivers of a grid that was read from a file and starts
+     * watching that file.
+     *
+     * @param library      File from which the grid was read.
+     * @param importedGrid Grid that was read, or null if reading has failed.
+     * @return True if the drivers were replaced, false if reading has failed or the grid had no drivers.
+     */
+    private boolean applyDriverLibrary(File library, Grid importedGrid) {
+        String pathname = library.getPath();
+        List<Driver> importedDrivers = importedGrid != null ? importedGrid.getDrivers() : List.of();
         if (!importedDrivers.isEmpty()) {
             driverLibrary.getDrivers().clear();
             driverLibrary.getDrivers().addAll(importedDrivers);
+            watchedDriverLibrary = rewatch(watchedDriverLibrary, library, path -> createGridImporter().importFromFile(path.toFile()),
+                    parsed -> ModelDiff.applyDrivers(driverLibrary.getDrivers(), parsed.getDrivers()));
             DDUtil.DEFAULT_LOGGER.log(Level.FINE, "Driver Library loading successful from path: " + pathname);
             return true;
         } else {
@@ -220,22 +615,144 @@ public class LibraryManager {
     }
 
     /**
-     * Exports the currently loaded driverLibrary to an XML file located at a given pathname.
+     * Merges the drivers of a Driver Library file into the currently loaded DriverLibrary instead of replacing them.
+     * Exact duplicates are skipped and drivers with the same name and country are updated, as described in
+     * ModelDiff.mergeDrivers. The merged file does not become the watched Driver Library file.
      *
-     * @param pathname pathname to a File to which the DriverLibrary should be exported.
-     * @return Always returns true.
+     * @param pathname Pathname to an XML file that contains a Driver Library.
+     * @return Summary of the added, updated and skipped drivers, or null if the file could not be imported.
      */
-    public boolean exportDriverLibrary(String pathname) {
+    public MergeSummary mergeDriverLibrary(String pathname) {
         File library = new File(pathname);
+        DDUtil.DEFAULT_LOGGER.log(Level.FINE, "Driver Library merging initiated from path: " + pathname);
+        Grid importedGrid = createGridImporter().importFromFile(library);
+        if (importedGrid == null) {
+            DDUtil.DEFAULT_LOGGER.log(Level.WARNING, "Driver Library merging failed from path: " + pathname);
+            return null;
+        }
+        MergeSummary summary = ModelDiff.mergeDrivers(driverLibrary.getDrivers(), importedGrid.getDrivers());
+        DDUtil.DEFAULT_LOGGER.log(Level.FINE, "Driver Library merging successful from path: " + pathname + ", " + summary);
+        return summary;
+    }
+
+    /**
+     * Exports the currently loaded driverLibrary to an XML file located at a given pathname. Livery names are left out
+     * of the exported drivers, the drivers of the library itself are not modified.
+     *
+     * @param pathname pathname to a File to which the DriverLibrary should be exported.
+     * @return Future that is completed with true if exporting has succeeded, false if it has failed.
+     */
+    public CompletableFuture<Boolean> exportDriverLibrary(String pathname) {
         DDUtil.DEFAULT_LOGGER.log(Level.FINE, "Driver Library saving initiated to path: " + pathname);
 
-        //Removing all redundant livery names from the library before exporting.
-        driverLibrary.getDrivers().forEach(driver -> driver.liveryNameProperty().set(""));
+        //Removing all redundant livery names from the snapshot that is exported.
+        GridSnapshot snapshot = GridSnapshot.of(null, driverLibrary.getDrivers()).withoutLiveryNames();
+        return saveGrid(new File(pathname), snapshot, "Driver Library", removedElements -> {
+        });
+    }
 
-        XMLGridExporter exporter = new XMLGridExporter();
-        Grid grid = new Grid();
-        grid.getDrivers().addAll(driverLibrary.getDrivers());
-        exporter.exportToFile(grid, library);
-        return true;
+    /**
+     * Exports a grid to an AMS2 XML file. A snapshot of the grid is taken on the calling thread and written to the file
+     * by the SaveService, so that the grid can be edited again as soon as this method returns.
+     * If autosave is enabled the grid becomes the journaled grid, and its journal is compacted once the export has
+     * succeeded. Must be called on the JavaFX Application Thread in that case. The track overrides of a journaled grid
+     * are not compacted, as the records of the journal refer to them by their index in the edited grid.
+     *
+     * @param grid Grid to be exported.
+     * @param file File to which the grid should be exported.
+     * @return Future that is completed with true if exporting has succeeded, false if it has failed.
+     */
+    public CompletableFuture<Boolean> exportGrid(Grid grid, File file) {
+        return exportGrid(grid, file, removedElements -> {
+        });
+    }
+
+    /**
+     * Exports a grid to an AMS2 XML file, as described in exportGrid(Grid, File), and reports how many driver elements
+     * were removed from the written file by the track override compaction.
+     *
+     * @param grid               Grid to be exported.
+     * @param file               File to which the grid should be exported.
+     * @param compactionListener Receives the number of removed driver elements on the save worker thread before the
+     *                           file is written, it's not called if the grid is journaled.
+     * @return Future that is completed with true if exporting has succeeded, false if it has failed.
+     */
+    public CompletableFuture<Boolean> exportGrid(Grid grid, File file, IntConsumer compactionListener) {
+        DDUtil.DEFAULT_LOGGER.log(Level.FINE, "Grid saving initiated to path: " + file.getPath());
+        journalGrid(file, grid, false);
+        if (gridJournal != null)
+            return gridJournal.compact(() -> saveGrid(file, grid.snapshot(), "Grid", null));
+        return saveGrid(file, grid.snapshot(), "Grid", compactionListener);
+    }
+
+    /**
+     * Exports the currently loaded libraries together with a given list of grids into a single compressed binary
+     * project file. The project is encoded on the calling thread and written to the file by the SaveService.
+     *
+     * @param file  File to which the project should be exported.
+     * @param grids Grids that are saved with the libraries.
+     * @return Future that is completed with true if exporting has succeeded, false if it has failed.
+     */
+    public CompletableFuture<Boolean> exportProject(File file, List<Grid> grids) {
+        DDUtil.DEFAULT_LOGGER.log(Level.FINE, "Project saving initiated to path: " + file.getPath());
+        ProjectBundle bundle = new ProjectBundle();
+        bundle.setTrackLibrary(trackLibrary);
+        bundle.setVehicleClassLibrary(vehicleClassLibrary);
+        bundle.setDriverLibrary(driverLibrary);
+        bundle.getGrids().addAll(grids);
+        byte[] snapshot = new BinaryProjectExporter(true).exportToBytes(bundle);
+        if (snapshot == null) {
+            DDUtil.DEFAULT_LOGGER.log(Level.WARNING, "Project saving failed to path: " + file.getPath());
+            return CompletableFuture.completedFuture(false);
+        }
+        return SaveService.getInstance().save(file, snapshot).thenApply(saved -> afterSave(file, saved, "Project"));
+    }
+
+    /**
+     * Imports a binary project file. The libraries contained in the project replace the currently loaded ones, library
+     * files that were watched before are no longer watched, as the libraries no longer come from them.
+     *
+     * @param file Binary project file.
+     * @return Grids of the project, or null if importing has failed.
+     */
+    public List<Grid> importProject(File file) {
+        DDUtil.DEFAULT_LOGGER.log(Level.FINE, "Project loading initiated from path: " + file.getPath());
+        ProjectBundle bundle = new BinaryProjectImporter().importFromFile(file);
+        if (bundle == null) {
+            DDUtil.DEFAULT_LOGGER.log(Level.WARNING, "Project loading failed from path: " + file.getPath());
+            return null;
+        }
+        if (bundle.getTrackLibrary() != null) {
+            trackLibrary = bundle.getTrackLibrary();
+            watchedTrackLibrary = unwatch(watchedTrackLibrary);
+        }
+        if (bundle.getVehicleClassLibrary() != null) {
+            vehicleClassLibrary = bundle.getVehicleClassLibrary();
+            watchedVehicleClassLibrary = unwatch(watchedVehicleClassLibrary);
+        }
+        if (bundle.getDriverLibrary() != null) {
+            driverLibrary.getDrivers().setAll(bundle.getDriverLibrary().getDrivers());
+            watchedDriverLibrary = unwatch(watchedDriverLibrary);
+        }
+        DDUtil.DEFAULT_LOGGER.log(Level.FINE, "Project loading successful from path: " + file.getPath());
+        return new ArrayList<>(bundle.getGrids());
+    }
+
+    /**
+     * Saves a snapshot of a grid with the SaveService. The snapshot is prepared for export on the worker thread, unless
+     * it has to be written as it is.
+     *
+     * @param file               File to which the grid is saved.
+     * @param snapshot           Snapshot of the grid.
+     * @param description        Name of the grid used in the log.
+     * @param compactionListener Receives the number of driver elements removed by the compaction on the worker thread,
+     *                           null if the snapshot is written as it is.
+     * @return Future that is completed with true if saving has succeeded, false if it has failed.
+     */
+    private CompletableFuture<Boolean> saveGrid(File file, GridSnapshot snapshot, String description, IntConsumer compactionListener) {
+        GridExporter exporter = createGridExporter();
+        return SaveService.getInstance().save(file, snapshot, (grid, outputStream) -> exporter.exportToStream(
+                compactionListener != null ? prepareExport(grid, compactionListener) : grid, outputStream))
+                .thenApply(saved -> afterSave(file, saved, description));
     }
 }
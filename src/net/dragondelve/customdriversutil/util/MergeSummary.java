@@ -0,0 +1,139 @@
+// Copyright 2023 Prokhor Kalinin
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package net.dragondelve.customdriversutil.util;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Collects the outcome of merging imported elements into a library: which elements were added, which existing
+ * elements were updated or removed and which imported elements were skipped because the library already contained
+ * them unchanged or they could not be applied. Used for merged Driver Libraries and for applied library patches.
+ */
+public class MergeSummary {
+    /**
+     * Names of the elements that were added to the library.
+     */
+    private final List<String> added = new ArrayList<>();
+
+    /**
+     * Names of the elements of the library that were updated with imported values.
+     */
+    private final List<String> updated = new ArrayList<>();
+
+    /**
+     * Names of the elements that were removed from the library.
+     */
+    private final List<String> removed = new ArrayList<>();
+
+    /**
+     * Names of the imported elements that were skipped.
+     */
+    private final List<String> skipped = new ArrayList<>();
+
+    /**
+     * Records an element that was added to the library.
+     *
+     * @param name Name of the element.
+     */
+    public void addAdded(String name) {
+        added.add(name);
+    }
+
+    /**
+     * Records an element of the library that was updated with imported values.
+     *
+     * @param name Name of the element.
+     */
+    public void addUpdated(String name) {
+        updated.add(name);
+    }
+
+    /**
+     * Records an element that was removed from the library.
+     *
+     * @param name Name of the element.
+     */
+    public void addRemoved(String name) {
+        removed.add(name);
+    }
+
+    /**
+     * Records an imported element that was skipped, because it's an exact duplicate or could not be applied.
+     *
+     * @param name Name of the element.
+     */
+    public void addSkipped(String name) {
+        skipped.add(name);
+    }
+
+    /**
+     * Lightweight accessor method.
+     *
+     * @return Unmodifiable list of the names of the elements that were added to the library.
+     */
+    public List<String> getAdded() {
+        return Collections.unmodifiableList(added);
+    }
+
+    /**
+     * Lightweight accessor method.
+     *
+     * @return Unmodifiable list of the names of the elements of the library that were updated with imported values.
+     */
+    public List<String> getUpdated() {
+        return Collections.unmodifiableList(updated);
+    }
+
+    /**
+     * Lightweight accessor method.
+     *
+     * @return Unmodifiable list of the names of the elements that were removed from the library.
+     */
+    public List<String> getRemoved() {
+        return Collections.unmodifiableList(removed);
+    }
+
+    /**
+     * Lightweight accessor method.
+     *
+     * @return Unmodifiable list of the names of the imported elements that were skipped.
+     */
+    public List<String> getSkipped() {
+        return Collections.unmodifiableList(skipped);
+    }
+
+    /**
+     * Checks whether the merge has changed the library.
+     *
+     * @return True if at least one element was added, updated or removed, false otherwise.
+     */
+    public boolean hasChanges() {
+        return !added.isEmpty() || !updated.isEmpty() || !removed.isEmpty();
+    }
+
+    /**
+     * Builds a single line summary with the number of added, updated and skipped elements. Removed elements are only
+     * mentioned if there are any, as merging drivers never removes any.
+     *
+     * @return Summary of the merge.
+     */
+    @Override
+    public String toString() {
+        return added.size() + " added, " + updated.size() + " updated, " + (removed.isEmpty() ? "" : removed.size() + " removed, ")
+                + skipped.size() + " skipped";
+    }
+}
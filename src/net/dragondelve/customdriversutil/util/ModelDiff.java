@@ -0,0 +1,533 @@
+// Copyright 2023 Prokhor Kalinin
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package net.dragondelve.customdriversutil.util;
+
+import javafx.collections.ObservableList;
+import net.dragondelve.customdriversutil.model.*;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.*;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Applies freshly parsed model objects to the live model as a minimal set of changes. Objects that are still present
+ * are matched by a key and updated in place, only added, removed and moved elements cause list changes. This keeps the
+ * instances that open editors are bound to and avoids rebuilding their views.
+ * All methods must be called on the JavaFX Application Thread when the live model is displayed by the GUI.
+ */
+public final class ModelDiff {
+    /**
+     * Private constructor. Used to make this class non instantiable.
+     */
+    private ModelDiff() {
+        super();
+    }
+
+    /**
+     * Updates a live TrackLibrary to match a parsed one. Tracks are matched by their xml name.
+     *
+     * @param live   TrackLibrary that is currently used by the program.
+     * @param parsed TrackLibrary that was parsed from the changed file.
+     */
+    public static void applyTrackLibrary(TrackLibrary live, TrackLibrary parsed) {
+        apply(live.getTracks(), reconcile(live.getTracks(), parsed.getTracks(), Track::getXmlName, ModelDiff::updateTrack));
+    }
+
+    /**
+     * Updates a live VehicleClassLibrary to match a parsed one. Vehicle classes are matched by their xml name and
+     * modded flag, their liveries and vehicles are diffed as well.
+     *
+     * @param live   VehicleClassLibrary that is currently used by the program.
+     * @param parsed VehicleClassLibrary that was parsed from the changed file.
+     */
+    public static void applyVehicleClassLibrary(VehicleClassLibrary live, VehicleClassLibrary parsed) {
+        apply(live.getVehicleClasses(), reconcile(live.getVehicleClasses(), parsed.getVehicleClasses(),
+                vehicleClass -> vehicleClass.getXmlName() + (vehicleClass.isModded() ? "#modded" : ""),
+                (vehicleClass, source) -> {
+                    vehicleClass.setName(source.getName());
+                    apply(vehicleClass.getLiveryNames(), reconcile(vehicleClass.getLiveryNames(), source.getLiveryNames(), Function.identity(), (a, b) -> {
+                    }));
+                    apply(vehicleClass.getVehicles(), reconcile(vehicleClass.getVehicles(), source.getVehicles(), Vehicle::getXmlName,
+                            (vehicle, sourceVehicle) -> vehicle.setName(sourceVehicle.getName())));
+                }));
+    }
+
+    /**
+     * Updates a live list of drivers to match a parsed one. Drivers are matched by their livery name, drivers that
+     * share a livery name are matched in the order they appear. Track specific overrides are matched by their tracks.
+     *
+     * @param live   List of drivers that is currently used by the program.
+     * @param parsed List of drivers that was parsed from the changed file.
+     */
+    public static void applyDrivers(ObservableList<Driver> live, List<Driver> parsed) {
+        apply(live, reconcile(live, parsed, Driver::getLiveryName, ModelDiff::updateDriver));
+    }
+
+    /**
+     * Merges imported drivers into a live list of drivers in linear time. Every driver is hashed by its name, country,
+     * livery name, parameter values, override flags and track specific overrides. An imported driver whose hash matches
+     * a driver of the list is skipped, an imported driver with the same name and country as a driver of the list
+     * updates that driver in place, and every other imported driver is added to the end of the list. Drivers without a
+     * name are never matched by name, they are only skipped if they are exact duplicates.
+     *
+     * @param live     List of drivers that is currently used by the program, such as the Driver Library.
+     * @param imported Drivers that were imported and are not used anywhere else.
+     * @return Summary of the added, updated and skipped drivers.
+     */
+    public static MergeSummary mergeDrivers(ObservableList<Driver> live, List<Driver> imported) {
+        MergeSummary summary = new MergeSummary();
+        //Number of drivers with each content hash, and the hash of every driver, so that updated drivers can be rehashed.
+        Map<String, Integer> contentHashes = new HashMap<>();
+        Map<Driver, String> hashes = new IdentityHashMap<>();
+        Map<String, Driver> byIdentity = new HashMap<>();
+        for (Driver driver : live) {
+            String contentHash = contentHashOf(driver);
+            contentHashes.merge(contentHash, 1, Integer::sum);
+            hashes.put(driver, contentHash);
+            if (hasName(driver))
+                byIdentity.putIfAbsent(identityOf(driver), driver);
+        }
+
+        List<Driver> added = new ArrayList<>();
+        for (Driver source : imported) {
+            String contentHash = contentHashOf(source);
+            if (contentHashes.containsKey(contentHash)) {
+                summary.addSkipped(source.getName());
+                continue;
+            }
+            Driver match = hasName(source) ? byIdentity.get(identityOf(source)) : null;
+            if (match != null) {
+                updateDriver(match, source);
+                if (source.getLiveryName() != null && !source.getLiveryName().isEmpty())
+                    match.liveryNameProperty().set(source.getLiveryName());
+                contentHashes.computeIfPresent(hashes.get(match), (key, count) -> count > 1 ? count - 1 : null);
+                contentHash = contentHashOf(match);
+                hashes.put(match, contentHash);
+                summary.addUpdated(source.getName());
+            } else {
+                added.add(source);
+                if (hasName(source))
+                    byIdentity.put(identityOf(source), source);
+                hashes.put(source, contentHash);
+                summary.addAdded(source.getName());
+            }
+            contentHashes.merge(contentHash, 1, Integer::sum);
+        }
+        live.addAll(added);
+        return summary;
+    }
+
+    /**
+     * Creates a patch that turns one version of the Track Library and the Vehicle Class Library into another. Tracks
+     * and vanilla vehicle classes are matched by their xml name, modded vehicle classes of both versions are ignored.
+     * Changed vehicle classes only list their added and removed liveries and vehicles. The patch references the tracks,
+     * vehicle classes and vehicles of the new version, it should be exported before the new version is modified.
+     *
+     * @param fromTracks  Track Library of the old version.
+     * @param fromClasses Vehicle Class Library of the old version.
+     * @param toTracks    Track Library of the new version.
+     * @param toClasses   Vehicle Class Library of the new version.
+     * @return Patch that contains every difference between the two versions.
+     */
+    public static LibraryPatch diffLibraries(TrackLibrary fromTracks, VehicleClassLibrary fromClasses, TrackLibrary toTracks, VehicleClassLibrary toClasses) {
+        LibraryPatch patch = new LibraryPatch();
+
+        Map<String, Track> oldTracks = new LinkedHashMap<>();
+        fromTracks.getTracks().forEach(track -> oldTracks.putIfAbsent(track.getXmlName(), track));
+        for (Track track : toTracks.getTracks()) {
+            Track oldTrack = oldTracks.remove(track.getXmlName());
+            if (oldTrack == null)
+                patch.getAddedTracks().add(track);
+            else if (!isSameTrack(oldTrack, track))
+                patch.getChangedTracks().add(track);
+        }
+        patch.getRemovedTracks().addAll(oldTracks.keySet());
+
+        Map<String, VehicleClass> oldClasses = vanillaVehicleClasses(fromClasses);
+        for (VehicleClass vehicleClass : toClasses.getVehicleClasses()) {
+            if (vehicleClass.isModded())
+                continue;
+            VehicleClass oldClass = oldClasses.remove(vehicleClass.getXmlName());
+            if (oldClass == null) {
+                patch.getAddedVehicleClasses().add(vehicleClass);
+                continue;
+            }
+            VehicleClassPatch classPatch = diffVehicleClass(oldClass, vehicleClass);
+            if (!classPatch.isEmpty())
+                patch.getChangedVehicleClasses().add(classPatch);
+        }
+        patch.getRemovedVehicleClasses().addAll(oldClasses.keySet());
+        return patch;
+    }
+
+    /**
+     * Applies a patch to the live Track Library and Vehicle Class Library. Removals are applied first, then changes
+     * and then additions, and every list is changed with as few list changes as possible so that the indexes of the
+     * libraries are updated once per batch. Modded vehicle classes are never touched, even if they share an xml name
+     * with a vanilla class of the patch. Added elements that are already in the library update it or are skipped if
+     * they are identical, changed and removed elements that are not in the library are skipped. Added liveries and
+     * vehicles are appended to the end of their lists.
+     *
+     * @param trackLibrary        Track Library that is currently used by the program.
+     * @param vehicleClassLibrary Vehicle Class Library that is currently used by the program.
+     * @param patch               Patch to apply.
+     * @return Summary of the added, updated, removed and skipped tracks and vehicle classes.
+     */
+    public static MergeSummary applyLibraryPatch(TrackLibrary trackLibrary, VehicleClassLibrary vehicleClassLibrary, LibraryPatch patch) {
+        MergeSummary summary = new MergeSummary();
+
+        Map<String, Track> tracks = new HashMap<>();
+        trackLibrary.getTracks().forEach(track -> tracks.putIfAbsent(track.getXmlName(), track));
+        Set<Track> removedTracks = Collections.newSetFromMap(new IdentityHashMap<>());
+        for (String xmlName : patch.getRemovedTracks()) {
+            Track track = tracks.remove(xmlName);
+            if (track == null)
+                summary.addSkipped(xmlName);
+            else {
+                removedTracks.add(track);
+                summary.addRemoved(track.getName());
+            }
+        }
+        if (!removedTracks.isEmpty())
+            trackLibrary.getTracks().removeAll(removedTracks);
+        for (Track source : patch.getChangedTracks()) {
+            Track track = tracks.get(source.getXmlName());
+            if (track == null || isSameTrack(track, source))
+                summary.addSkipped(source.getName());
+            else {
+                updateTrack(track, source);
+                summary.addUpdated(source.getName());
+            }
+        }
+        List<Track> addedTracks = new ArrayList<>();
+        for (Track source : patch.getAddedTracks()) {
+            Track track = tracks.get(source.getXmlName());
+            if (track == null) {
+                addedTracks.add(source);
+                tracks.put(source.getXmlName(), source);
+                summary.addAdded(source.getName());
+            } else if (isSameTrack(track, source))
+                summary.addSkipped(source.getName());
+            else {
+                updateTrack(track, source);
+                summary.addUpdated(source.getName());
+            }
+        }
+        trackLibrary.getTracks().addAll(addedTracks);
+
+        Map<String, VehicleClass> vehicleClasses = vanillaVehicleClasses(vehicleClassLibrary);
+        Set<VehicleClass> removedClasses = Collections.newSetFromMap(new IdentityHashMap<>());
+        for (String xmlName : patch.getRemovedVehicleClasses()) {
+            VehicleClass vehicleClass = vehicleClasses.remove(xmlName);
+            if (vehicleClass == null)
+                summary.addSkipped(xmlName);
+            else {
+                removedClasses.add(vehicleClass);
+                summary.addRemoved(vehicleClass.getName());
+            }
+        }
+        if (!removedClasses.isEmpty())
+            vehicleClassLibrary.getVehicleClasses().removeAll(removedClasses);
+        for (VehicleClassPatch classPatch : patch.getChangedVehicleClasses()) {
+            VehicleClass vehicleClass = vehicleClasses.get(classPatch.getXmlName());
+            if (vehicleClass != null && applyVehicleClassPatch(vehicleClass, classPatch))
+                summary.addUpdated(vehicleClass.getName());
+            else
+                summary.addSkipped(classPatch.getXmlName());
+        }
+        List<VehicleClass> addedClasses = new ArrayList<>();
+        for (VehicleClass source : patch.getAddedVehicleClasses()) {
+            VehicleClass vehicleClass = vehicleClasses.get(source.getXmlName());
+            if (source.isModded())
+                summary.addSkipped(source.getName());
+            else if (vehicleClass == null) {
+                addedClasses.add(source);
+                vehicleClasses.put(source.getXmlName(), source);
+                summary.addAdded(source.getName());
+            } else if (applyVehicleClassPatch(vehicleClass, diffVehicleClass(vehicleClass, source)))
+                summary.addUpdated(source.getName());
+            else
+                summary.addSkipped(source.getName());
+        }
+        vehicleClassLibrary.getVehicleClasses().addAll(addedClasses);
+        return summary;
+    }
+
+    /**
+     * Builds the list of elements the live list should contain. Every parsed element whose key matches an element of the
+     * live list is replaced by that live element, which is updated with the values of the parsed one.
+     *
+     * @param live   Elements currently in use.
+     * @param parsed Elements parsed from the changed source.
+     * @param key    Function that extracts the key by which the elements are matched.
+     * @param update Copies the values of a parsed element (second argument) to the matching live element (first argument).
+     * @param <T>    Type of the elements.
+     * @param <K>    Type of the key.
+     * @return List of elements in the parsed order, made of live elements where possible.
+     */
+    public static <T, K> List<T> reconcile(List<T> live, List<T> parsed, Function<T, K> key, BiConsumer<T, T> update) {
+        Map<K, Deque<T>> byKey = new HashMap<>();
+        live.forEach(element -> byKey.computeIfAbsent(key.apply(element), k -> new ArrayDeque<>()).add(element));
+
+        List<T> target = new ArrayList<>(parsed.size());
+        for (T source : parsed) {
+            Deque<T> candidates = byKey.get(key.apply(source));
+            T match = candidates == null ? null : candidates.poll();
+            if (match != null) {
+                update.accept(match, source);
+                target.add(match);
+            } else
+                target.add(source);
+        }
+        return target;
+    }
+
+    /**
+     * Changes a live list so that it contains exactly the elements of the target list in the same order. Elements are
+     * compared by identity. Elements that are already in place are not touched.
+     *
+     * @param live   List that is changed.
+     * @param target Elements that the live list should contain in the order it should contain them.
+     * @param <T>    Type of the elements.
+     */
+    public static <T> void apply(ObservableList<T> live, List<T> target) {
+        Set<T> wanted = Collections.newSetFromMap(new IdentityHashMap<>());
+        wanted.addAll(target);
+        if (live.stream().anyMatch(element -> !wanted.contains(element)))
+            live.removeIf(element -> !wanted.contains(element));
+
+        for (int i = 0; i < target.size(); i++) {
+            T element = target.get(i);
+            if (i < live.size() && live.get(i) == element)
+                continue;
+            for (int j = i + 1; j < live.size(); j++) {
+                if (live.get(j) == element) {
+                    live.remove(j);
+                    break;
+                }
+            }
+            live.add(i, element);
+        }
+        if (live.size() > target.size())
+            live.remove(target.size(), live.size());
+    }
+
+    /**
+     * Copies the name and flags of a track to another track with the same xml name.
+     *
+     * @param track  Track that is currently used by the program.
+     * @param source Track whose values are copied.
+     */
+    private static void updateTrack(Track track, Track source) {
+        track.setName(source.getName());
+        track.setOval(source.isOval());
+        track.setRX(source.isRX());
+    }
+
+    /**
+     * Compares the name and flags of two tracks with the same xml name.
+     *
+     * @param track  First track.
+     * @param source Second track.
+     * @return True if both tracks have the same name and flags, false otherwise.
+     */
+    private static boolean isSameTrack(Track track, Track source) {
+        return Objects.equals(track.getName(), source.getName()) && track.isOval() == source.isOval() && track.isRX() == source.isRX();
+    }
+
+    /**
+     * Collects the vanilla vehicle classes of a library by their xml name, in the order of the library.
+     *
+     * @param library Vehicle Class Library.
+     * @return Map of the vanilla vehicle classes by their xml name. If several classes share an xml name only the first is included.
+     */
+    private static Map<String, VehicleClass> vanillaVehicleClasses(VehicleClassLibrary library) {
+        Map<String, VehicleClass> vehicleClasses = new LinkedHashMap<>();
+        for (VehicleClass vehicleClass : library.getVehicleClasses())
+            if (!vehicleClass.isModded())
+                vehicleClasses.putIfAbsent(vehicleClass.getXmlName(), vehicleClass);
+        return vehicleClasses;
+    }
+
+    /**
+     * Lists the differences between two versions of a vehicle class.
+     *
+     * @param from Old version of the vehicle class.
+     * @param to   New version of the vehicle class.
+     * @return Patch with the changed name and the added and removed liveries and vehicles, can be empty.
+     */
+    private static VehicleClassPatch diffVehicleClass(VehicleClass from, VehicleClass to) {
+        VehicleClassPatch classPatch = new VehicleClassPatch();
+        classPatch.setXmlName(to.getXmlName());
+        if (!Objects.equals(from.getName(), to.getName()))
+            classPatch.setName(to.getName());
+
+        Set<String> oldLiveries = new LinkedHashSet<>(from.getLiveryNames());
+        for (String liveryName : to.getLiveryNames())
+            if (!oldLiveries.remove(liveryName))
+                classPatch.getAddedLiveries().add(liveryName);
+        classPatch.getRemovedLiveries().addAll(oldLiveries);
+
+        Map<String, Vehicle> oldVehicles = new LinkedHashMap<>();
+        from.getVehicles().forEach(vehicle -> oldVehicles.putIfAbsent(vehicle.getXmlName(), vehicle));
+        for (Vehicle vehicle : to.getVehicles()) {
+            Vehicle oldVehicle = oldVehicles.remove(vehicle.getXmlName());
+            if (oldVehicle == null || !Objects.equals(oldVehicle.getName(), vehicle.getName()))
+                classPatch.getAddedVehicles().add(vehicle);
+        }
+        classPatch.getRemovedVehicles().addAll(oldVehicles.keySet());
+        return classPatch;
+    }
+
+    /**
+     * Applies the changes of a single vehicle class. Liveries and vehicles are removed and added in one batch each.
+     *
+     * @param vehicleClass Vehicle class that is currently used by the program.
+     * @param classPatch   Changes to apply.
+     * @return True if the vehicle class was changed, false if the patch did not change anything.
+     */
+    private static boolean applyVehicleClassPatch(VehicleClass vehicleClass, VehicleClassPatch classPatch) {
+        boolean changed = false;
+        if (classPatch.getName() != null && !classPatch.getName().equals(vehicleClass.getName())) {
+            vehicleClass.setName(classPatch.getName());
+            changed = true;
+        }
+
+        if (!classPatch.getRemovedLiveries().isEmpty())
+            changed |= vehicleClass.getLiveryNames().removeAll(new HashSet<>(classPatch.getRemovedLiveries()));
+        Set<String> liveries = new HashSet<>(vehicleClass.getLiveryNames());
+        List<String> addedLiveries = new ArrayList<>();
+        for (String liveryName : classPatch.getAddedLiveries())
+            if (liveries.add(liveryName))
+                addedLiveries.add(liveryName);
+        changed |= vehicleClass.getLiveryNames().addAll(addedLiveries);
+
+        if (!classPatch.getRemovedVehicles().isEmpty()) {
+            Set<String> removedVehicles = new HashSet<>(classPatch.getRemovedVehicles());
+            List<Vehicle> removed = vehicleClass.getVehicles().stream().filter(vehicle -> removedVehicles.contains(vehicle.getXmlName())).collect(Collectors.toList());
+            changed |= vehicleClass.getVehicles().removeAll(removed);
+        }
+        Map<String, Vehicle> vehicles = new HashMap<>();
+        vehicleClass.getVehicles().forEach(vehicle -> vehicles.putIfAbsent(vehicle.getXmlName(), vehicle));
+        List<Vehicle> addedVehicles = new ArrayList<>();
+        for (Vehicle source : classPatch.getAddedVehicles()) {
+            Vehicle vehicle = vehicles.get(source.getXmlName());
+            if (vehicle == null) {
+                addedVehicles.add(source);
+                vehicles.put(source.getXmlName(), source);
+            } else if (!Objects.equals(vehicle.getName(), source.getName())) {
+                vehicle.setName(source.getName());
+                changed = true;
+            }
+        }
+        changed |= vehicleClass.getVehicles().addAll(addedVehicles);
+        return changed;
+    }
+
+    /**
+     * Updates a live driver with the values and track specific overrides of a parsed one. Track specific overrides are
+     * matched by their tracks.
+     *
+     * @param driver Driver that is currently used by the program.
+     * @param source Driver whose values are copied.
+     */
+    private static void updateDriver(Driver driver, Driver source) {
+        driver.setBaseProperties(source);
+        apply(driver.getTrackOverrides(), reconcile(driver.getTrackOverrides(), source.getTrackOverrides(), ModelDiff::trackKey,
+                (override, sourceOverride) -> {
+                    override.setBaseProperties(sourceOverride);
+                    apply(override.getTrack(), reconcile(override.getTrack(), sourceOverride.getTrack(), Track::getXmlName, (a, b) -> {
+                    }));
+                }));
+    }
+
+    /**
+     * Checks whether a driver can be matched by its name when merging.
+     *
+     * @param driver Driver to check.
+     * @return True if the driver's name is not empty.
+     */
+    private static boolean hasName(Driver driver) {
+        return driver.getName() != null && !driver.getName().isEmpty();
+    }
+
+    /**
+     * Creates the key by which drivers are matched when merging.
+     *
+     * @param driver Driver with a name.
+     * @return Name and country of the driver.
+     */
+    private static String identityOf(Driver driver) {
+        return driver.getName() + '\n' + driver.getCountry();
+    }
+
+    /**
+     * Hashes everything that a driver is exported with, so that exact duplicates can be recognized in constant time.
+     *
+     * @param driver Driver to be hashed.
+     * @return Hash of the driver's contents.
+     */
+    private static String contentHashOf(Driver driver) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(256);
+        DataOutputStream output = new DataOutputStream(bytes);
+        try {
+            writeContent(output, driver);
+            output.writeUTF(String.valueOf(driver.getLiveryName()));
+            output.writeInt(driver.getTrackOverrides().size());
+            for (TrackOverride override : driver.getTrackOverrides()) {
+                output.writeUTF(trackKey(override));
+                writeContent(output, override);
+            }
+        } catch (IOException e) {
+            //ByteArrayOutputStream never throws.
+            throw new IllegalStateException(e);
+        }
+        return ContentHash.of(bytes.toByteArray());
+    }
+
+    /**
+     * Writes the properties shared between drivers and track specific overrides for hashing.
+     *
+     * @param output     Stream to write to.
+     * @param driverBase Driver or TrackOverride whose properties are written.
+     * @throws IOException Never, the stream writes to memory.
+     */
+    private static void writeContent(DataOutputStream output, DriverBase driverBase) throws IOException {
+        output.writeUTF(String.valueOf(driverBase.getName()));
+        output.writeUTF(String.valueOf(driverBase.getCountry()));
+        output.writeBoolean(driverBase.getOverrideFlags().isOverrideName());
+        output.writeBoolean(driverBase.getOverrideFlags().isOverrideCountry());
+        for (DriverParameter parameter : DriverParameter.all()) {
+            output.writeBoolean(parameter.flagOf(driverBase.getOverrideFlags()).get());
+            output.writeDouble(parameter.propertyOf(driverBase).get());
+        }
+    }
+
+    /**
+     * Creates the key by which track specific overrides are matched.
+     *
+     * @param override Track specific override.
+     * @return Comma separated xml names of the tracks of the override.
+     */
+    private static String trackKey(TrackOverride override) {
+        StringBuilder builder = new StringBuilder();
+        override.getTrack().forEach(track -> builder.append(track.getXmlName()).append(','));
+        return builder.toString();
+    }
+}
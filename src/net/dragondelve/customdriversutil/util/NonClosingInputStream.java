@@ -0,0 +1,41 @@
+// Copyright 2023 Prokhor Kalinin
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package net.dragondelve.customdriversutil.util;
+
+import java.io.FilterInputStream;
+import java.io.InputStream;
+
+/**
+ * Wraps an InputStream so that closing the wrapper leaves the wrapped stream open. Used to hand a single entry of an
+ * archive to parsers that close the stream they read, while the archive itself stays open for the following entries.
+ */
+public class NonClosingInputStream extends FilterInputStream {
+    /**
+     * Creates a new instance of NonClosingInputStream.
+     *
+     * @param inputStream Stream that is read and never closed by this wrapper.
+     */
+    public NonClosingInputStream(InputStream inputStream) {
+        super(inputStream);
+    }
+
+    /**
+     * Does nothing, the wrapped stream stays open.
+     */
+    @Override
+    public void close() {
+        //The wrapped stream is closed by its owner.
+    }
+}
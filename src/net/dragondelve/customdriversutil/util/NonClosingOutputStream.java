@@ -0,0 +1,57 @@
+// Copyright 2023 Prokhor Kalinin
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package net.dragondelve.customdriversutil.util;
+
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+
+/**
+ * Wraps an OutputStream so that closing the wrapper only flushes the wrapped stream. Used to hand a single entry of an
+ * archive to code that closes the stream it writes to, while the archive itself stays open for the following entries.
+ */
+public class NonClosingOutputStream extends FilterOutputStream {
+    /**
+     * Creates a new instance of NonClosingOutputStream.
+     *
+     * @param outputStream Stream that is written to and never closed by this wrapper.
+     */
+    public NonClosingOutputStream(OutputStream outputStream) {
+        super(outputStream);
+    }
+
+    /**
+     * Writes a part of an array directly to the wrapped stream instead of byte by byte.
+     *
+     * @param bytes  Data to write.
+     * @param offset Start of the data in the array.
+     * @param length Number of bytes to write.
+     * @throws IOException If the wrapped stream can't be written to.
+     */
+    @Override
+    public void write(byte[] bytes, int offset, int length) throws IOException {
+        out.write(bytes, offset, length);
+    }
+
+    /**
+     * Flushes the wrapped stream without closing it.
+     *
+     * @throws IOException If the wrapped stream can't be flushed.
+     */
+    @Override
+    public void close() throws IOException {
+        out.flush();
+    }
+}
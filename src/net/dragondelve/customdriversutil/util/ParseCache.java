@@ -0,0 +1,353 @@
+// Copyright 2023 Prokhor Kalinin
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package net.dragondelve.customdriversutil.util;
+
+import net.dragondelve.customdriversutil.model.Grid;
+import net.dragondelve.customdriversutil.model.TrackLibrary;
+import net.dragondelve.customdriversutil.model.VehicleClassLibrary;
+import net.dragondelve.customdriversutil.model.binary.BinaryProjectExporter;
+import net.dragondelve.customdriversutil.model.binary.BinaryProjectImporter;
+import net.dragondelve.customdriversutil.model.binary.ProjectBundle;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
+import java.util.function.Predicate;
+import java.util.logging.Level;
+
+/**
+ * Caches parsed library and grid files on disk in the binary project format, so that unchanged XML files don't have to
+ * be parsed again on the next start or the next time they are opened. Every source file has its own cache entry, named
+ * after the hash of its absolute path. An entry records the size, the modification time and the content hash of the
+ * source it was built from. The entry is used as long as size and modification time match; if only the modification
+ * time differs, the source is hashed and the entry is still used if the contents are unchanged. Otherwise the source
+ * is parsed again and the entry is rebuilt in the background by the SaveService.
+ * Entries are read into memory rather than memory-mapped, as a live mapping keeps the entry from being replaced by
+ * the SaveService on Windows until it's garbage collected. A damaged entry is treated as a miss.
+ * This class is non-instantiable, in order to get its only instance you should use the getInstance() method.
+ */
+public final class ParseCache {
+    /**
+     * Default directory in which the cache entries are stored.
+     */
+    public static final String DEFAULT_DIRECTORY = "cache";
+
+    /**
+     * The only instance of ParseCache that exists, You should use getInstance() in order to get it.
+     */
+    private static final ParseCache instance = new ParseCache();
+
+    /**
+     * Magic number at the start of every cache entry, "CDPC".
+     */
+    private static final int MAGIC = 0x43445043;
+
+    /**
+     * Version of the entry header. Entries with another version are rebuilt.
+     */
+    private static final short VERSION = 1;
+
+    /**
+     * Kind of entry that contains a TrackLibrary.
+     */
+    private static final byte KIND_TRACK_LIBRARY = 1;
+
+    /**
+     * Kind of entry that contains a VehicleClassLibrary.
+     */
+    private static final byte KIND_VEHICLE_CLASS_LIBRARY = 2;
+
+    /**
+     * Kind of entry that contains a Grid.
+     */
+    private static final byte KIND_GRID = 3;
+
+    /**
+     * Position of the modification time in the entry header, used to update it in place.
+     */
+    private static final int MODIFIED_POSITION = Integer.BYTES + Short.BYTES + Byte.BYTES + Long.BYTES;
+
+    /**
+     * Directory in which the cache entries are stored.
+     */
+    private volatile File directory = new File(DEFAULT_DIRECTORY);
+
+    /**
+     * Number of loads that were served from the cache.
+     */
+    private final AtomicInteger hits = new AtomicInteger();
+
+    /**
+     * Number of loads that had to parse the source.
+     */
+    private final AtomicInteger misses = new AtomicInteger();
+
+    /**
+     * Private constructor. Used to make this class non instantiable.
+     */
+    private ParseCache() {
+        super();
+    }
+
+    /**
+     * Lightweight accessor method.
+     *
+     * @return The only instance of this class.
+     */
+    public static ParseCache getInstance() {
+        return instance;
+    }
+
+    /**
+     * Lightweight accessor method.
+     *
+     * @return Directory in which the cache entries are stored.
+     */
+    public File getDirectory() {
+        return directory;
+    }
+
+    /**
+     * Lightweight mutator method.
+     *
+     * @param directory Directory in which the cache entries are stored.
+     */
+    public void setDirectory(File directory) {
+        this.directory = directory;
+    }
+
+    /**
+     * Lightweight accessor method.
+     *
+     * @return Number of loads that were served from the cache.
+     */
+    public int getHits() {
+        return hits.get();
+    }
+
+    /**
+     * Lightweight accessor method.
+     *
+     * @return Number of loads that had to parse the source.
+     */
+    public int getMisses() {
+        return misses.get();
+    }
+
+    /**
+     * Loads a Track Library from the cache, or parses it and caches the result if the cache is outdated.
+     *
+     * @param file   XML file that contains the Track Library.
+     * @param parser Parses the file, returns null if it could not be parsed.
+     * @return Track Library of the file, or null if it could not be parsed.
+     */
+    public TrackLibrary loadTrackLibrary(File file, Function<File, TrackLibrary> parser) {
+        return load(file, KIND_TRACK_LIBRARY, parser, library -> true, ProjectBundle::getTrackLibrary, ProjectBundle::setTrackLibrary);
+    }
+
+    /**
+     * Loads a Vehicle Class Library from the cache, or parses it and caches the result if the cache is outdated.
+     *
+     * @param file   XML file that contains the Vehicle Class Library.
+     * @param parser Parses the file, returns null if it could not be parsed.
+     * @return Vehicle Class Library of the file, or null if it could not be parsed.
+     */
+    public VehicleClassLibrary loadVehicleClassLibrary(File file, Function<File, VehicleClassLibrary> parser) {
+        return load(file, KIND_VEHICLE_CLASS_LIBRARY, parser, library -> true, ProjectBundle::getVehicleClassLibrary, ProjectBundle::setVehicleClassLibrary);
+    }
+
+    /**
+     * Loads a grid from the cache, or imports it and caches the result if the cache is outdated. Grids whose import
+     * reported issues are not cached, so that the issues are reported again the next time the grid is imported.
+     * Tracks of cached grids are resolved against the currently loaded Track Library, like in any other import.
+     *
+     * @param file     File that contains the grid.
+     * @param importer Importer used to import the file if the cache is outdated.
+     * @return Grid of the file, or null if it could not be imported.
+     */
+    public Grid loadGrid(File file, GridImporter importer) {
+        return load(file, KIND_GRID, importer::importFromFile,
+                grid -> importer.getLastImportReport() == null || !importer.getLastImportReport().hasIssues(),
+                bundle -> bundle.getGrids().isEmpty() ? null : bundle.getGrids().get(0),
+                (bundle, grid) -> bundle.getGrids().add(grid));
+    }
+
+    /**
+     * Deletes all cache entries.
+     */
+    public void clear() {
+        File[] entries = directory.listFiles((dir, name) -> name.endsWith(".bin"));
+        if (entries == null)
+            return;
+        for (File entry : entries)
+            if (!entry.delete())
+                DDUtil.DEFAULT_LOGGER.log(Level.FINE, "Parse cache entry could not be deleted: " + entry.getPath());
+    }
+
+    /**
+     * Loads the contents of a file from the cache or from the file itself.
+     *
+     * @param file      Source file.
+     * @param kind      Kind of the contents, an entry of another kind is never used.
+     * @param parser    Parses the source file.
+     * @param cacheable Decides whether parsed contents are cached.
+     * @param extractor Extracts the contents from a cached ProjectBundle.
+     * @param inserter  Inserts the contents into the ProjectBundle that is cached.
+     * @param <T>       Type of the contents.
+     * @return Contents of the file, or null if it could not be parsed.
+     */
+    private <T> T load(File file, byte kind, Function<File, T> parser, Predicate<T> cacheable,
+                       Function<ProjectBundle, T> extractor, BiConsumer<ProjectBundle, T> inserter) {
+        if (!Configurator.getInstance().getConfiguration().isParseCache() || !file.isFile())
+            return parser.apply(file);
+
+        Path source = file.toPath().toAbsolutePath().normalize();
+        File entry = new File(directory, ContentHash.of(source.toString().getBytes(StandardCharsets.UTF_8)) + ".bin");
+        try {
+            long size = Files.size(source);
+            long modified = Files.getLastModifiedTime(source).toMillis();
+            T cached = readEntry(entry.toPath(), source, kind, size, modified, extractor);
+            if (cached != null) {
+                hits.incrementAndGet();
+                DDUtil.DEFAULT_LOGGER.log(Level.FINE, "Parse cache hit for path: " + source);
+                return cached;
+            }
+            misses.incrementAndGet();
+
+            String hash = ContentHash.of(source);
+            T parsed = parser.apply(file);
+            if (parsed != null && cacheable.test(parsed))
+                writeEntry(entry, kind, size, modified, hash, parsed, inserter);
+            return parsed;
+        } catch (IOException e) {
+            DDUtil.DEFAULT_LOGGER.log(Level.FINE, "Parse cache could not be used for path: " + source);
+            return parser.apply(file);
+        }
+    }
+
+    /**
+     * Reads a cache entry if it's up-to-date with its source.
+     *
+     * @param entry     Cache entry.
+     * @param source    Source file of the entry.
+     * @param kind      Expected kind of the contents.
+     * @param size      Current size of the source.
+     * @param modified  Current modification time of the source in milliseconds.
+     * @param extractor Extracts the contents from the cached ProjectBundle.
+     * @param <T>       Type of the contents.
+     * @return Cached contents, or null if the entry does not exist, is outdated or damaged.
+     */
+    private <T> T readEntry(Path entry, Path source, byte kind, long size, long modified, Function<ProjectBundle, T> extractor) {
+        if (!Files.isRegularFile(entry))
+            return null;
+        try (FileChannel channel = FileChannel.open(entry, StandardOpenOption.READ)) {
+            ByteBuffer header = ByteBuffer.allocate(MODIFIED_POSITION + Long.BYTES + Short.BYTES);
+            while (header.hasRemaining() && channel.read(header) >= 0)
+                continue;
+            header.flip();
+            if (header.getInt() != MAGIC || header.getShort() != VERSION || header.get() != kind || header.getLong() != size)
+                return null;
+            long cachedModified = header.getLong();
+            byte[] hash = new byte[header.getShort()];
+            ByteBuffer hashBuffer = ByteBuffer.wrap(hash);
+            while (hashBuffer.hasRemaining() && channel.read(hashBuffer) >= 0)
+                continue;
+
+            if (cachedModified != modified) {
+                //The source was touched, it's still up-to-date if its contents have not changed.
+                if (!ContentHash.of(source).equals(new String(hash, StandardCharsets.US_ASCII)))
+                    return null;
+                updateModified(entry, modified);
+            }
+
+            long position = channel.position();
+            long length = channel.size() - position;
+            if (length > Integer.MAX_VALUE)
+                return null;
+            ByteBuffer payload = ByteBuffer.allocate((int) length);
+            while (payload.hasRemaining() && channel.read(payload) >= 0)
+                continue;
+            payload.flip();
+            ProjectBundle bundle = new BinaryProjectImporter().importFromBuffer(payload);
+            return bundle != null ? extractor.apply(bundle) : null;
+        } catch (IOException | BufferUnderflowException | NegativeArraySizeException e) {
+            DDUtil.DEFAULT_LOGGER.log(Level.FINE, "Parse cache entry is damaged: " + entry);
+            return null;
+        }
+    }
+
+    /**
+     * Updates the modification time recorded in a cache entry whose source was touched without being changed.
+     *
+     * @param entry    Cache entry.
+     * @param modified Current modification time of the source in milliseconds.
+     * @throws IOException If the entry could not be written.
+     */
+    private void updateModified(Path entry, long modified) throws IOException {
+        try (FileChannel channel = FileChannel.open(entry, StandardOpenOption.WRITE)) {
+            channel.write(ByteBuffer.allocate(Long.BYTES).putLong(0, modified), MODIFIED_POSITION);
+        }
+    }
+
+    /**
+     * Encodes parsed contents on the calling thread and saves them as a cache entry with the SaveService.
+     *
+     * @param entry    Cache entry.
+     * @param kind     Kind of the contents.
+     * @param size     Size of the source.
+     * @param modified Modification time of the source in milliseconds.
+     * @param hash     Content hash of the source.
+     * @param contents Parsed contents.
+     * @param inserter Inserts the contents into the ProjectBundle that is cached.
+     * @param <T>      Type of the contents.
+     * @throws IOException If the entry could not be encoded.
+     */
+    private <T> void writeEntry(File entry, byte kind, long size, long modified, String hash, T contents,
+                                BiConsumer<ProjectBundle, T> inserter) throws IOException {
+        ProjectBundle bundle = new ProjectBundle();
+        inserter.accept(bundle, contents);
+        byte[] payload = new BinaryProjectExporter(false).exportToBytes(bundle);
+        if (payload == null)
+            return;
+        if (!directory.isDirectory() && !directory.mkdirs()) {
+            DDUtil.DEFAULT_LOGGER.log(Level.WARNING, "Parse cache could not create directory: " + directory.getPath());
+            return;
+        }
+
+        byte[] hashBytes = hash.getBytes(StandardCharsets.US_ASCII);
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(MODIFIED_POSITION + Long.BYTES + Short.BYTES + hashBytes.length + payload.length);
+        DataOutputStream dataStream = new DataOutputStream(bytes);
+        dataStream.writeInt(MAGIC);
+        dataStream.writeShort(VERSION);
+        dataStream.writeByte(kind);
+        dataStream.writeLong(size);
+        dataStream.writeLong(modified);
+        dataStream.writeShort(hashBytes.length);
+        dataStream.write(hashBytes);
+        dataStream.write(payload);
+        SaveService.getInstance().save(entry, bytes.toByteArray());
+    }
+}
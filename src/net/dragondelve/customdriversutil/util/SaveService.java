@@ -0,0 +1,287 @@
+// Copyright 2023 Prokhor Kalinin
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package net.dragondelve.customdriversutil.util;
+
+import java.io.BufferedOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.*;
+import java.nio.file.attribute.PosixFileAttributeView;
+import java.nio.file.attribute.PosixFilePermission;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+
+/**
+ * Saves files off the JavaFX Application Thread without ever leaving a partially written file behind. The caller takes
+ * a snapshot of the data on its own thread, the snapshot is then written to a temporary file in the target directory,
+ * forced to the disk and atomically moved over the target, so the game always reads either the old or the new file.
+ * Repeated saves of the same file that have not started yet are coalesced, only the latest snapshot is written.
+ * Saves run one at a time on a worker thread that is not a daemon, so saves that are in progress when the program is
+ * closed are still completed.
+ * This class is non-instantiable, in order to get its only instance you should use the getInstance() method.
+ */
+public class SaveService {
+    /**
+     * The only instance of SaveService that exists, You should use getInstance() in order to get it.
+     */
+    private static final SaveService instance = new SaveService();
+
+    /**
+     * Time after which an idle worker thread ends, in seconds.
+     */
+    private static final long KEEP_ALIVE_SECONDS = 5;
+
+    /**
+     * Executor with a single worker thread that performs all saves in the order they were requested.
+     */
+    private final ThreadPoolExecutor executor;
+
+    /**
+     * Saves that have been requested but have not started yet by the absolute normalized path of their target file.
+     */
+    private final Map<Path, SaveJob> queuedJobs = new HashMap<>();
+
+    /**
+     * Private constructor. Used to make this class non instantiable.
+     */
+    private SaveService() {
+        super();
+        executor = new ThreadPoolExecutor(1, 1, KEEP_ALIVE_SECONDS, TimeUnit.SECONDS, new LinkedBlockingQueue<>(),
+                runnable -> new Thread(runnable, "Save service worker"));
+        executor.allowCoreThreadTimeOut(true);
+    }
+
+    /**
+     * Lightweight accessor method.
+     *
+     * @return The only instance of this class.
+     */
+    public static SaveService getInstance() {
+        return instance;
+    }
+
+    /**
+     * Saves a snapshot to a file. If a save of the same file has been requested but has not started yet, its snapshot
+     * is replaced by this one and both requests complete together.
+     *
+     * @param file     File to which the snapshot is saved.
+     * @param snapshot Snapshot of the data that is no longer modified by the caller.
+     * @param writer   Writes the snapshot on the worker thread.
+     * @param <T>      Type of the snapshot.
+     * @return Future that is completed on the worker thread with true if the file was saved, false otherwise.
+     */
+    @SuppressWarnings("unchecked")
+    public synchronized <T> CompletableFuture<Boolean> save(File file, T snapshot, SnapshotWriter<T> writer) {
+        Path path = file.toPath().toAbsolutePath().normalize();
+        SaveJob job = queuedJobs.get(path);
+        if (job == null) {
+            job = new SaveJob(path);
+            queuedJobs.put(path, job);
+            SaveJob submitted = job;
+            executor.execute(() -> run(submitted));
+        } else
+            DDUtil.DEFAULT_LOGGER.log(Level.FINE, "Save coalesced with a pending save to path: " + path);
+        job.snapshot = snapshot;
+        job.writer = (SnapshotWriter<Object>) writer;
+        return job.future;
+    }
+
+    /**
+     * Saves bytes that have already been serialized to a file.
+     *
+     * @param file  File to which the bytes are saved.
+     * @param bytes Contents of the file that are no longer modified by the caller.
+     * @return Future that is completed on the worker thread with true if the file was saved, false otherwise.
+     */
+    public CompletableFuture<Boolean> save(File file, byte[] bytes) {
+        return save(file, bytes, (snapshot, outputStream) -> {
+            outputStream.write(snapshot);
+            return true;
+        });
+    }
+
+    /**
+     * Saves data to a file on the calling thread with the same atomic replacement, for data that is too large to be
+     * snapshotted into memory and has to be written while the caller still owns it. The save is not coalesced with
+     * queued saves of the same file.
+     *
+     * @param file   File to which the data is saved.
+     * @param data   Data that is written.
+     * @param writer Writes the data on the calling thread.
+     * @param <T>    Type of the data.
+     * @return True if the file was saved, false otherwise.
+     */
+    @SuppressWarnings("unchecked")
+    public <T> boolean saveNow(File file, T data, SnapshotWriter<T> writer) {
+        return writeAtomically(file.toPath().toAbsolutePath().normalize(), data, (SnapshotWriter<Object>) writer);
+    }
+
+    /**
+     * Performs a queued save. Runs on the worker thread.
+     *
+     * @param job Save to perform.
+     */
+    private void run(SaveJob job) {
+        Object snapshot;
+        SnapshotWriter<Object> writer;
+        synchronized (this) {
+            queuedJobs.remove(job.path, job);
+            snapshot = job.snapshot;
+            writer = job.writer;
+        }
+        try {
+            job.future.complete(writeAtomically(job.path, snapshot, writer));
+        } catch (RuntimeException e) {
+            e.printStackTrace();
+            DDUtil.DEFAULT_LOGGER.log(Level.WARNING, "Saving failed to path: " + job.path);
+            job.future.complete(false);
+        }
+    }
+
+    /**
+     * Writes a snapshot to a temporary file next to the target, forces it to the disk and moves it over the target.
+     * The temporary file is deleted if anything fails, the target is then left untouched.
+     *
+     * @param path     Absolute path of the target file.
+     * @param snapshot Snapshot to write.
+     * @param writer   Writes the snapshot.
+     * @return True if the target was replaced, false otherwise.
+     */
+    private boolean writeAtomically(Path path, Object snapshot, SnapshotWriter<Object> writer) {
+        DDUtil.DEFAULT_LOGGER.log(Level.FINE, "Saving initiated to path: " + path);
+        Path temp = null;
+        boolean moved = false;
+        try {
+            temp = Files.createTempFile(path.getParent(), "." + path.getFileName(), ".tmp");
+            copyPermissions(path, temp);
+            try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+                //The stream is closed together with the channel.
+                OutputStream outputStream = new BufferedOutputStream(Channels.newOutputStream(channel));
+                if (!writer.write(snapshot, outputStream)) {
+                    DDUtil.DEFAULT_LOGGER.log(Level.WARNING, "Saving failed to path: " + path);
+                    return false;
+                }
+                outputStream.flush();
+                channel.force(true);
+            }
+            moveIntoPlace(temp, path);
+            moved = true;
+            DDUtil.DEFAULT_LOGGER.log(Level.FINE, "Saving successful to path: " + path);
+            return true;
+        } catch (IOException e) {
+            e.printStackTrace();
+            DDUtil.DEFAULT_LOGGER.log(Level.WARNING, "Saving failed to path: " + path);
+            return false;
+        } finally {
+            if (temp != null && !moved)
+                deleteQuietly(temp);
+        }
+    }
+
+    /**
+     * Copies the permissions of the target file onto the temporary file, as temporary files are created readable by
+     * their owner only and the move would otherwise carry that onto the target. New targets get the default
+     * permissions of a newly created file. Does nothing on file systems without POSIX permissions.
+     *
+     * @param target File whose permissions are copied.
+     * @param temp   Temporary file that replaces the target.
+     * @throws IOException If the permissions could not be read or set.
+     */
+    private void copyPermissions(Path target, Path temp) throws IOException {
+        if (!Files.getFileStore(temp).supportsFileAttributeView(PosixFileAttributeView.class))
+            return;
+        Set<PosixFilePermission> permissions;
+        if (Files.exists(target))
+            permissions = Files.getPosixFilePermissions(target);
+        else
+            permissions = EnumSet.complementOf(EnumSet.of(PosixFilePermission.OWNER_EXECUTE, PosixFilePermission.GROUP_EXECUTE,
+                    PosixFilePermission.GROUP_WRITE, PosixFilePermission.OTHERS_EXECUTE, PosixFilePermission.OTHERS_WRITE));
+        Files.setPosixFilePermissions(temp, permissions);
+    }
+
+    /**
+     * Moves a file over another one atomically, or with a plain replacing move on file systems that don't support
+     * atomic moves.
+     *
+     * @param source File to move.
+     * @param target File to replace.
+     * @throws IOException If the file could not be moved.
+     */
+    private void moveIntoPlace(Path source, Path target) throws IOException {
+        try {
+            Files.move(source, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } catch (AtomicMoveNotSupportedException e) {
+            DDUtil.DEFAULT_LOGGER.log(Level.FINE, "Atomic move is not supported, replacing file: " + target);
+            Files.move(source, target, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    /**
+     * Deletes a file, ignoring any exception.
+     *
+     * @param path File to delete.
+     */
+    private void deleteQuietly(Path path) {
+        try {
+            Files.deleteIfExists(path);
+        } catch (IOException e) {
+            DDUtil.DEFAULT_LOGGER.log(Level.FINE, "Temporary file could not be deleted: " + path);
+        }
+    }
+
+    /**
+     * A save that has been requested and has not completed yet.
+     */
+    private static final class SaveJob {
+        /**
+         * Absolute normalized path of the target file.
+         */
+        private final Path path;
+
+        /**
+         * Future that is completed once the save has finished.
+         */
+        private final CompletableFuture<Boolean> future = new CompletableFuture<>();
+
+        /**
+         * Latest snapshot requested to be saved.
+         */
+        private Object snapshot;
+
+        /**
+         * Writes the latest snapshot.
+         */
+        private SnapshotWriter<Object> writer;
+
+        /**
+         * Creates a new instance of SaveJob.
+         *
+         * @param path Absolute normalized path of the target file.
+         */
+        private SaveJob(Path path) {
+            this.path = path;
+        }
+    }
+}
@@ -0,0 +1,37 @@
+// Copyright 2023 Prokhor Kalinin
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package net.dragondelve.customdriversutil.util;
+
+import java.io.IOException;
+import java.io.OutputStream;
+
+/**
+ * Writes a snapshot of some data to an OutputStream. Used by the SaveService, which calls it off the JavaFX Application
+ * Thread, so it must only read the snapshot and never the live model.
+ *
+ * @param <T> Type of the snapshot.
+ */
+@FunctionalInterface
+public interface SnapshotWriter<T> {
+    /**
+     * Writes a snapshot to a given output stream. The stream must not be closed.
+     *
+     * @param snapshot     Snapshot to write.
+     * @param outputStream Stream to which the snapshot is written.
+     * @return True if the snapshot was written successfully, false otherwise.
+     * @throws IOException If the stream can't be written to.
+     */
+    boolean write(T snapshot, OutputStream outputStream) throws IOException;
+}
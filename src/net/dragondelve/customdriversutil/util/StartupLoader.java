@@ -0,0 +1,276 @@
+// Copyright 2023 Prokhor Kalinin
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package net.dragondelve.customdriversutil.util;
+
+import javafx.application.Platform;
+import javafx.beans.property.ReadOnlyBooleanProperty;
+import javafx.beans.property.ReadOnlyBooleanWrapper;
+import javafx.beans.property.ReadOnlyDoubleProperty;
+import javafx.beans.property.ReadOnlyDoubleWrapper;
+import javafx.beans.property.ReadOnlyStringProperty;
+import javafx.beans.property.ReadOnlyStringWrapper;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+import java.util.logging.Level;
+
+/**
+ * Loads the Configuration and the last used libraries when the program starts. The Configuration is loaded first,
+ * because it holds the pathnames of the libraries, then the libraries are parsed concurrently on worker threads and
+ * applied on the JavaFX Application Thread as soon as each of them is ready, so a window can be shown while they are
+ * loading and the start is only as slow as the slowest library. The Driver Library is parsed after the Track Library
+ * has been applied, because its tracks are looked up in the Track Library.
+ * The duration of every phase is recorded and logged once all libraries are loaded.
+ * This class is non-instantiable, in order to get its only instance you should use the getInstance() method.
+ */
+public class StartupLoader {
+    /**
+     * The only instance of StartupLoader that exists, You should use getInstance() in order to get it.
+     */
+    private static final StartupLoader instance = new StartupLoader();
+
+    /**
+     * Name of the phase that loads the Configuration.
+     */
+    public static final String CONFIGURATION_PHASE = "Configuration";
+
+    /**
+     * Name of the phase that loads the Track Library.
+     */
+    public static final String TRACK_LIBRARY_PHASE = "Track Library";
+
+    /**
+     * Name of the phase that loads the Vehicle Class Library.
+     */
+    public static final String VEHICLE_CLASS_LIBRARY_PHASE = "Vehicle Class Library";
+
+    /**
+     * Name of the phase that loads the Driver Library.
+     */
+    public static final String DRIVER_LIBRARY_PHASE = "Driver Library";
+
+    /**
+     * Name under which the time from the start of loading until all libraries are applied is recorded.
+     */
+    public static final String TOTAL = "Total";
+
+    /**
+     * Number of worker threads that parse the libraries. The Track and Vehicle Class Libraries are parsed at the same
+     * time, the Driver Library waits for the Track Library.
+     */
+    private static final int WORKER_COUNT = 2;
+
+    /**
+     * Durations of the phases in milliseconds by the name of the phase, in the order in which they were completed.
+     */
+    private final Map<String, Long> timings = Collections.synchronizedMap(new LinkedHashMap<>());
+
+    /**
+     * Share of the library phases that have been completed, from 0 to 1. Only changed on the JavaFX Application Thread.
+     */
+    private final ReadOnlyDoubleWrapper progress = new ReadOnlyDoubleWrapper(0);
+
+    /**
+     * Description of what is currently loaded. Only changed on the JavaFX Application Thread.
+     */
+    private final ReadOnlyStringWrapper status = new ReadOnlyStringWrapper("");
+
+    /**
+     * Becomes true once all libraries are loaded. Only changed on the JavaFX Application Thread.
+     */
+    private final ReadOnlyBooleanWrapper loaded = new ReadOnlyBooleanWrapper(false);
+
+    /**
+     * Future that is completed on the JavaFX Application Thread once all libraries are loaded, null if loading has not
+     * been started.
+     */
+    private CompletableFuture<Void> loading;
+
+    /**
+     * Private constructor. Used to make this class non instantiable.
+     */
+    private StartupLoader() {
+        super();
+    }
+
+    /**
+     * Lightweight accessor method.
+     *
+     * @return The only instance of this class.
+     */
+    public static StartupLoader getInstance() {
+        return instance;
+    }
+
+    /**
+     * Loads the Configuration on the calling thread and starts loading the libraries it points to. If the Configuration
+     * could not be loaded a default one is generated and saved. Must be called on the JavaFX Application Thread, the
+     * loading is only started once.
+     *
+     * @param defaultConfiguration Generates the Configuration that is used if none could be loaded.
+     * @return Future that is completed on the JavaFX Application Thread once all libraries are loaded, whether they
+     * were loaded successfully or not.
+     */
+    public synchronized CompletableFuture<Void> start(Supplier<Configuration> defaultConfiguration) {
+        if (loading != null)
+            return loading;
+        long startTime = System.nanoTime();
+        if (!Configurator.getInstance().loadConfiguration()) {
+            Configurator.getInstance().setConfiguration(defaultConfiguration.get());
+            Configurator.getInstance().saveConfiguration();
+        }
+        record(CONFIGURATION_PHASE, startTime);
+        LibraryManager.getInstance().enableFileWatching();
+
+        Configuration configuration = Configurator.getInstance().getConfiguration();
+        String driverLibraryPathname = configuration.getDriverLibraryPathname();
+        boolean loadDriverLibrary = driverLibraryPathname != null && driverLibraryPathname.length() > 0;
+        int phaseCount = loadDriverLibrary ? 3 : 2;
+        AtomicInteger completedPhases = new AtomicInteger();
+
+        AtomicInteger threadCount = new AtomicInteger();
+        ExecutorService executor = Executors.newFixedThreadPool(WORKER_COUNT, runnable -> {
+            Thread thread = new Thread(runnable, "Startup loader " + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        status.set("Loading libraries");
+
+        long libraryStartTime = System.nanoTime();
+        CompletableFuture<Boolean> trackLibrary = LibraryManager.getInstance()
+                .importTrackLibraryAsync(configuration.getTrackLibraryPathname(), executor)
+                .whenComplete((imported, e) -> completePhase(TRACK_LIBRARY_PHASE, libraryStartTime, imported, e, completedPhases, phaseCount));
+        CompletableFuture<Boolean> vehicleClassLibrary = LibraryManager.getInstance()
+                .importVehicleClassLibraryAsync(configuration.getVehicleClassLibraryPathname(), executor)
+                .whenComplete((imported, e) -> completePhase(VEHICLE_CLASS_LIBRARY_PHASE, libraryStartTime, imported, e, completedPhases, phaseCount));
+        CompletableFuture<Boolean> driverLibrary = CompletableFuture.completedFuture(false);
+        if (loadDriverLibrary)
+            driverLibrary = trackLibrary.handle((imported, e) -> System.nanoTime())
+                    .thenCompose(driverStartTime -> LibraryManager.getInstance()
+                            .importDriverLibraryAsync(driverLibraryPathname, executor)
+                            .whenComplete((imported, e) -> completePhase(DRIVER_LIBRARY_PHASE, driverStartTime, imported, e, completedPhases, phaseCount)));
+
+        loading = CompletableFuture.allOf(trackLibrary, vehicleClassLibrary, driverLibrary)
+                .handleAsync((result, e) -> {
+                    executor.shutdown();
+                    record(TOTAL, startTime);
+                    status.set("");
+                    loaded.set(true);
+                    DDUtil.DEFAULT_LOGGER.log(Level.INFO, "Startup loading finished, timings in ms: " + getTimings());
+                    DDUtil.DEFAULT_LOGGER.log(Level.INFO, StringPool.getInstance().getReport());
+                    return null;
+                }, Platform::runLater);
+        return loading;
+    }
+
+    /**
+     * Records a completed library phase and updates the progress on the JavaFX Application Thread.
+     *
+     * @param phase           Name of the phase.
+     * @param startTime       Value of System.nanoTime() when the phase was started.
+     * @param imported        True if the library was imported, can be null if the phase has failed with an exception.
+     * @param e               Exception with which the phase has failed, can be null.
+     * @param completedPhases Number of library phases that were completed.
+     * @param phaseCount      Number of library phases that are loaded.
+     */
+    private void completePhase(String phase, long startTime, Boolean imported, Throwable e, AtomicInteger completedPhases, int phaseCount) {
+        record(phase, startTime);
+        if (e != null)
+            e.printStackTrace();
+        if (e != null || !Boolean.TRUE.equals(imported))
+            DDUtil.DEFAULT_LOGGER.log(Level.WARNING, phase + " could not be loaded at startup");
+        int completed = completedPhases.incrementAndGet();
+        Platform.runLater(() -> {
+            progress.set(Math.max(progress.get(), (double) completed / phaseCount));
+            if (completed < phaseCount)
+                status.set("Loading libraries");
+        });
+    }
+
+    /**
+     * Records the duration of a phase.
+     *
+     * @param phase     Name of the phase.
+     * @param startTime Value of System.nanoTime() when the phase was started.
+     */
+    private void record(String phase, long startTime) {
+        timings.put(phase, TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startTime));
+    }
+
+    /**
+     * Lightweight accessor method.
+     *
+     * @return Copy of the durations of the completed phases in milliseconds by the name of the phase, in the order in
+     * which they were completed.
+     */
+    public Map<String, Long> getTimings() {
+        synchronized (timings) {
+            return new LinkedHashMap<>(timings);
+        }
+    }
+
+    /**
+     * Lightweight accessor method.
+     *
+     * @return Future that is completed on the JavaFX Application Thread once all libraries are loaded, or null if
+     * loading has not been started.
+     */
+    public synchronized CompletableFuture<Void> getLoading() {
+        return loading;
+    }
+
+    /**
+     * Lightweight accessor method.
+     *
+     * @return Property that holds the share of the library phases that have been completed, from 0 to 1.
+     */
+    public ReadOnlyDoubleProperty progressProperty() {
+        return progress.getReadOnlyProperty();
+    }
+
+    /**
+     * Lightweight accessor method.
+     *
+     * @return Property that holds a description of what is currently loaded, empty once loading is finished.
+     */
+    public ReadOnlyStringProperty statusProperty() {
+        return status.getReadOnlyProperty();
+    }
+
+    /**
+     * Lightweight accessor method.
+     *
+     * @return Property that becomes true once all libraries are loaded.
+     */
+    public ReadOnlyBooleanProperty loadedProperty() {
+        return loaded.getReadOnlyProperty();
+    }
+
+    /**
+     * Lightweight accessor method.
+     *
+     * @return True if all libraries are loaded.
+     */
+    public boolean isLoaded() {
+        return loaded.get();
+    }
+}
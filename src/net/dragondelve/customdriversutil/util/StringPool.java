@@ -0,0 +1,173 @@
+// Copyright 2023 Prokhor Kalinin
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package net.dragondelve.customdriversutil.util;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Shared pool of the strings that are repeated throughout the loaded data, such as livery names, track names and
+ * country codes. The same livery name is held by its vehicle class, by every driver that uses it and by every grid
+ * that was imported with it; importers pass the strings they read through this pool, so that identical strings share a
+ * single instance no matter which file they were read from. JAXB annotated fields use the InternedStringAdapter.
+ * The pool keeps count of the strings it has replaced with a shared instance, so that the memory it saves can be
+ * reported. It's safe to use from any thread.
+ * This class is non-instantiable, in order to get its only instance you should use the getInstance() method.
+ */
+public class StringPool {
+    /**
+     * The only instance of StringPool that exists, You should use getInstance() in order to get it.
+     */
+    private static final StringPool instance = new StringPool();
+
+    /**
+     * Estimated size of a String object without its characters in bytes, including the header of its byte array.
+     */
+    private static final int STRING_OVERHEAD = 40;
+
+    /**
+     * Shared instances of the strings by their value.
+     */
+    private final ConcurrentMap<String, String> strings = new ConcurrentHashMap<>();
+
+    /**
+     * Number of strings that have been passed through the pool.
+     */
+    private final AtomicLong lookups = new AtomicLong();
+
+    /**
+     * Number of strings that were replaced with an instance that was already in the pool.
+     */
+    private final AtomicLong duplicates = new AtomicLong();
+
+    /**
+     * Estimated number of bytes held by the strings that were replaced with an instance that was already in the pool.
+     */
+    private final AtomicLong savedBytes = new AtomicLong();
+
+    /**
+     * Private constructor. Used to make this class non instantiable.
+     */
+    private StringPool() {
+        super();
+    }
+
+    /**
+     * Lightweight accessor method.
+     *
+     * @return The only instance of this class.
+     */
+    public static StringPool getInstance() {
+        return instance;
+    }
+
+    /**
+     * Returns the shared instance of a string, the string becomes the shared instance if the pool does not hold an
+     * equal string yet.
+     *
+     * @param string String to be interned, can be null.
+     * @return Shared instance equal to the string, or null if the string is null.
+     */
+    public String intern(String string) {
+        if (string == null)
+            return null;
+        lookups.incrementAndGet();
+        String shared = strings.putIfAbsent(string, string);
+        if (shared == null)
+            return string;
+        if (shared != string) {
+            duplicates.incrementAndGet();
+            savedBytes.addAndGet(sizeOf(string));
+        }
+        return shared;
+    }
+
+    /**
+     * Removes all strings from the pool and resets its statistics. Strings that are already shared stay shared.
+     */
+    public void clear() {
+        strings.clear();
+        lookups.set(0);
+        duplicates.set(0);
+        savedBytes.set(0);
+    }
+
+    /**
+     * Lightweight accessor method.
+     *
+     * @return Number of distinct strings in the pool.
+     */
+    public int getSize() {
+        return strings.size();
+    }
+
+    /**
+     * Lightweight accessor method.
+     *
+     * @return Number of strings that have been passed through the pool.
+     */
+    public long getLookups() {
+        return lookups.get();
+    }
+
+    /**
+     * Lightweight accessor method.
+     *
+     * @return Number of strings that were replaced with an instance that was already in the pool.
+     */
+    public long getDuplicates() {
+        return duplicates.get();
+    }
+
+    /**
+     * Lightweight accessor method.
+     *
+     * @return Estimated number of bytes held by the strings that were replaced with a shared instance. These bytes can
+     * be reclaimed by the garbage collector once the importers are done with the duplicates.
+     */
+    public long getSavedBytes() {
+        return savedBytes.get();
+    }
+
+    /**
+     * Describes the contents of the pool and the memory it has saved in a single line, to be logged.
+     *
+     * @return Memory report of the pool.
+     */
+    public String getReport() {
+        long lookupCount = getLookups();
+        long duplicateCount = getDuplicates();
+        long percentage = lookupCount > 0 ? duplicateCount * 100 / lookupCount : 0;
+        return "String pool: " + getSize() + " distinct strings, " + lookupCount + " lookups, " + duplicateCount
+                + " duplicates shared (" + percentage + "%), about " + (getSavedBytes() + 512) / 1024 + " KB saved";
+    }
+
+    /**
+     * Estimates the memory held by a string, compact strings store one byte per character if all characters are Latin-1.
+     *
+     * @param string String whose size is estimated.
+     * @return Estimated size of the string in bytes, aligned to 8 bytes.
+     */
+    private static long sizeOf(String string) {
+        int bytesPerChar = 1;
+        for (int i = 0; i < string.length(); i++)
+            if (string.charAt(i) > 0xFF) {
+                bytesPerChar = 2;
+                break;
+            }
+        return (STRING_OVERHEAD + (long) string.length() * bytesPerChar + 7) & ~7L;
+    }
+}
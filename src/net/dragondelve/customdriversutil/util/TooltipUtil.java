@@ -191,6 +191,14 @@ public class TooltipUtil {
 
     public static final Tooltip SKIP_WELCOME_SCREEN_TOOLTIP = new Tooltip("Tick if you want to skip the welcome screen shown on startup");
 
+    public static final Tooltip STREAMING_GRID_IMPORT_TOOLTIP = new Tooltip("Tick if you want grids to be imported with the faster single pass streaming importer");
+
+    public static final Tooltip COMPACT_TRACK_OVERRIDES_TOOLTIP = new Tooltip("Tick if you want identical track overrides to be merged and redundant ones dropped when grids are exported");
+
+    public static final Tooltip PARSE_CACHE_TOOLTIP = new Tooltip("Tick if you want parsed libraries and grids to be cached, so that unchanged files load faster");
+
+    public static final Tooltip AUTOSAVE_JOURNAL_TOOLTIP = new Tooltip("Tick if you want edits to be autosaved to a journal next to the grid file and recovered after a crash");
+
     public static final Tooltip CONFIG_OK_BUTTON = new Tooltip("Confirm and save the configuration");
 
     public static final Tooltip CONFIG_CANCEL_BUTTON = new Tooltip("Discard changes and exit");
@@ -0,0 +1,310 @@
+// Copyright 2023 Prokhor Kalinin
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package net.dragondelve.customdriversutil.util;
+
+import net.dragondelve.customdriversutil.model.DriverParameter;
+import net.dragondelve.customdriversutil.model.snapshot.DriverSnapshot;
+import net.dragondelve.customdriversutil.model.snapshot.GridSnapshot;
+import net.dragondelve.customdriversutil.model.snapshot.TrackOverrideSnapshot;
+import net.dragondelve.customdriversutil.model.snapshot.TrackSnapshot;
+
+import java.util.*;
+import java.util.logging.Level;
+
+/**
+ * Shrinks the track specific overrides of a grid before it's exported, as every TrackOverride becomes its own driver
+ * element. Track lists are normalized by dropping duplicate and empty tracks. Overridden values that are equal to the
+ * overridden value of the base driver are no longer overridden, as the override falls back to the base driver for them.
+ * Overrides that no longer override anything or apply to no track are dropped. Values are only removed and overrides
+ * are only dropped if no other override of the driver applies to one of their tracks, as the game then decides which
+ * of the overlapping overrides applies by their order and values. Overrides with identical values are merged into one
+ * override with the tracks of both. Values are compared as they are exported by the given FixedDecimalEncoder.
+ * Overrides are only merged if no override between them applies to one of the moved tracks, so the order in which
+ * overlapping overrides are written is kept.
+ * The compactor works on immutable snapshots, so it can run on any thread. Drivers whose overrides are already compact
+ * keep their snapshot. Instances count the removed elements over all compacted grids and are not thread safe.
+ */
+public final class TrackOverrideCompactor {
+    /**
+     * Encoder used to compare values as they are exported.
+     */
+    private final FixedDecimalEncoder encoder;
+
+    /**
+     * Number of overrides that were merged into another override.
+     */
+    private int mergedOverrides = 0;
+
+    /**
+     * Number of overrides that were dropped, because they override nothing or apply to no track.
+     */
+    private int droppedOverrides = 0;
+
+    /**
+     * Number of duplicate or empty tracks removed from track lists.
+     */
+    private int removedTracks = 0;
+
+    /**
+     * Number of overridden values removed because they were equal to the value of the base driver.
+     */
+    private int removedValues = 0;
+
+    /**
+     * Creates a new instance of TrackOverrideCompactor.
+     *
+     * @param encoder Encoder used to compare values as they are exported.
+     */
+    public TrackOverrideCompactor(FixedDecimalEncoder encoder) {
+        this.encoder = encoder;
+    }
+
+    /**
+     * Compacts the track specific overrides of all drivers of a grid.
+     *
+     * @param grid Snapshot of the grid to compact.
+     * @return Compacted snapshot of the grid, or the given snapshot if nothing was compacted.
+     */
+    public GridSnapshot compact(GridSnapshot grid) {
+        int removedBefore = getRemovedElements();
+        boolean changed = false;
+        List<DriverSnapshot> drivers = new ArrayList<>(grid.getDrivers().size());
+        for (DriverSnapshot driver : grid.getDrivers()) {
+            DriverSnapshot compacted = compact(driver);
+            changed |= compacted != driver;
+            drivers.add(compacted);
+        }
+        int removed = getRemovedElements() - removedBefore;
+        if (removed > 0)
+            DDUtil.DEFAULT_LOGGER.log(Level.FINE, "Track override compaction removed " + removed + " driver elements");
+        return changed ? grid.withDrivers(drivers) : grid;
+    }
+
+    /**
+     * Compacts the track specific overrides of a single driver.
+     *
+     * @param driver Snapshot of the driver whose overrides are compacted.
+     * @return Compacted snapshot of the driver, or the given snapshot if nothing was compacted.
+     */
+    public DriverSnapshot compact(DriverSnapshot driver) {
+        boolean changed = false;
+        List<TrackOverrideSnapshot> normalized = new ArrayList<>(driver.getTrackOverrides().size());
+        Map<String, Integer> coverage = new HashMap<>();
+        for (TrackOverrideSnapshot trackOverride : driver.getTrackOverrides()) {
+            TrackOverrideSnapshot compacted = normalizeTracks(trackOverride);
+            changed |= compacted != trackOverride;
+            compacted.getTracks().forEach(track -> coverage.merge(track.getXmlName(), 1, Integer::sum));
+            normalized.add(compacted);
+        }
+
+        List<TrackOverrideSnapshot> overrides = new ArrayList<>(normalized.size());
+        for (TrackOverrideSnapshot trackOverride : normalized) {
+            TrackOverrideSnapshot compacted = trackOverride;
+            //Values of an override that shares a track with another one decide which of them applies, so they are kept.
+            if (!overlapsOthers(trackOverride, coverage))
+                compacted = removeInheritedValues(driver, trackOverride);
+            changed |= compacted != trackOverride;
+            if (compacted.getTracks().isEmpty() || (!compacted.overridesAnything() && !overlapsOthers(compacted, coverage))) {
+                droppedOverrides++;
+                changed = true;
+            } else
+                overrides.add(compacted);
+        }
+
+        for (int i = 0; i < overrides.size(); i++) {
+            for (int j = i + 1; j < overrides.size(); ) {
+                if (hasSameValues(overrides.get(i), overrides.get(j)) && canMove(overrides, i, j)) {
+                    overrides.set(i, addTracks(overrides.get(i), overrides.remove(j)));
+                    mergedOverrides++;
+                    changed = true;
+                } else
+                    j++;
+            }
+        }
+        return changed ? driver.withTrackOverrides(overrides) : driver;
+    }
+
+    /**
+     * Lightweight accessor method.
+     *
+     * @return Number of driver elements removed by this compactor.
+     */
+    public int getRemovedElements() {
+        return mergedOverrides + droppedOverrides;
+    }
+
+    /**
+     * Lightweight accessor method.
+     *
+     * @return Number of overrides that were merged into another override.
+     */
+    public int getMergedOverrides() {
+        return mergedOverrides;
+    }
+
+    /**
+     * Lightweight accessor method.
+     *
+     * @return Number of overrides that were dropped, because they override nothing or apply to no track.
+     */
+    public int getDroppedOverrides() {
+        return droppedOverrides;
+    }
+
+    /**
+     * Lightweight accessor method.
+     *
+     * @return Number of duplicate or empty tracks removed from track lists.
+     */
+    public int getRemovedTracks() {
+        return removedTracks;
+    }
+
+    /**
+     * Lightweight accessor method.
+     *
+     * @return Number of overridden values removed because they were equal to the value of the base driver.
+     */
+    public int getRemovedValues() {
+        return removedValues;
+    }
+
+    /**
+     * Removes tracks without an xml name and tracks whose xml name appears earlier in the list.
+     *
+     * @param trackOverride Override whose tracks are normalized.
+     * @return Override with the normalized tracks, or the given override if its tracks are already normalized.
+     */
+    private TrackOverrideSnapshot normalizeTracks(TrackOverrideSnapshot trackOverride) {
+        Set<String> seen = new HashSet<>();
+        List<TrackSnapshot> tracks = new ArrayList<>(trackOverride.getTracks().size());
+        for (TrackSnapshot track : trackOverride.getTracks())
+            if (track.getXmlName() != null && !track.getXmlName().isBlank() && seen.add(track.getXmlName()))
+                tracks.add(track);
+        int removed = trackOverride.getTracks().size() - tracks.size();
+        if (removed == 0)
+            return trackOverride;
+        removedTracks += removed;
+        return trackOverride.withTracks(tracks);
+    }
+
+    /**
+     * Stops overriding the values of an override that are equal to the overridden values of its driver.
+     *
+     * @param driver        Base driver of the override.
+     * @param trackOverride Track specific override.
+     * @return Override without the inherited values, or the given override if it has none.
+     */
+    private TrackOverrideSnapshot removeInheritedValues(DriverSnapshot driver, TrackOverrideSnapshot trackOverride) {
+        int mask = trackOverride.getOverrideMask();
+        for (DriverParameter parameter : DriverParameter.all()) {
+            if (trackOverride.isOverridden(parameter) && driver.isOverridden(parameter)
+                    && encodedEquals(trackOverride.getValue(parameter), driver.getValue(parameter))) {
+                mask &= ~parameter.getBit();
+                removedValues++;
+            }
+        }
+        if (trackOverride.isOverrideName() && driver.isOverrideName() && Objects.equals(trackOverride.getName(), driver.getName())) {
+            mask &= ~TrackOverrideSnapshot.OVERRIDE_NAME;
+            removedValues++;
+        }
+        if (trackOverride.isOverrideCountry() && driver.isOverrideCountry() && Objects.equals(trackOverride.getCountry(), driver.getCountry())) {
+            mask &= ~TrackOverrideSnapshot.OVERRIDE_COUNTRY;
+            removedValues++;
+        }
+        return trackOverride.withOverrideMask(mask);
+    }
+
+    /**
+     * Checks whether another override applies to one of the tracks of an override.
+     *
+     * @param trackOverride Track specific override with normalized tracks.
+     * @param coverage      Number of overrides of the driver that apply to each track by its xml name.
+     * @return True if a track of the override is also listed by another override, false otherwise.
+     */
+    private boolean overlapsOthers(TrackOverrideSnapshot trackOverride, Map<String, Integer> coverage) {
+        for (TrackSnapshot track : trackOverride.getTracks())
+            if (coverage.getOrDefault(track.getXmlName(), 0) > 1)
+                return true;
+        return false;
+    }
+
+    /**
+     * Checks whether two overrides write the same values.
+     *
+     * @param first  Track specific override.
+     * @param second Track specific override.
+     * @return True if both overrides override the same values with the same exported values, false otherwise.
+     */
+    private boolean hasSameValues(TrackOverrideSnapshot first, TrackOverrideSnapshot second) {
+        if (first.getOverrideMask() != second.getOverrideMask())
+            return false;
+        for (DriverParameter parameter : DriverParameter.all())
+            if (first.isOverridden(parameter) && !encodedEquals(first.getValue(parameter), second.getValue(parameter)))
+                return false;
+        if (first.isOverrideName() && !Objects.equals(first.getName(), second.getName()))
+            return false;
+        return !first.isOverrideCountry() || Objects.equals(first.getCountry(), second.getCountry());
+    }
+
+    /**
+     * Checks whether the tracks of an override can be moved to an earlier override without changing the order of
+     * overrides that apply to the same track.
+     *
+     * @param overrides Overrides of a driver.
+     * @param target    Index of the override to which the tracks are moved.
+     * @param source    Index of the override whose tracks are moved.
+     * @return True if no override between them applies to one of the moved tracks, false otherwise.
+     */
+    private boolean canMove(List<TrackOverrideSnapshot> overrides, int target, int source) {
+        Set<String> moved = new HashSet<>();
+        overrides.get(source).getTracks().forEach(track -> moved.add(track.getXmlName()));
+        for (int k = target + 1; k < source; k++)
+            for (TrackSnapshot track : overrides.get(k).getTracks())
+                if (moved.contains(track.getXmlName()))
+                    return false;
+        return true;
+    }
+
+    /**
+     * Adds the tracks of an override that the target does not apply to yet.
+     *
+     * @param target Override to which the tracks are added.
+     * @param source Override whose tracks are added.
+     * @return Override with the tracks of both overrides.
+     */
+    private TrackOverrideSnapshot addTracks(TrackOverrideSnapshot target, TrackOverrideSnapshot source) {
+        Set<String> present = new HashSet<>();
+        List<TrackSnapshot> tracks = new ArrayList<>(target.getTracks());
+        target.getTracks().forEach(track -> present.add(track.getXmlName()));
+        for (TrackSnapshot track : source.getTracks())
+            if (present.add(track.getXmlName()))
+                tracks.add(track);
+        return target.withTracks(tracks);
+    }
+
+    /**
+     * Compares two values as they are exported.
+     *
+     * @param first  Value.
+     * @param second Value.
+     * @return True if both values are exported as the same text, false otherwise.
+     */
+    private boolean encodedEquals(double first, double second) {
+        if (first == second)
+            return true;
+        return encoder.encodeToString(first).equals(encoder.encodeToString(second));
+    }
+}
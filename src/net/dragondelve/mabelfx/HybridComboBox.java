@@ -17,6 +17,7 @@ package net.dragondelve.mabelfx;
 import javafx.scene.control.CheckBox;
 import javafx.scene.control.ComboBox;
 import javafx.scene.control.TextField;
+import javafx.scene.input.KeyEvent;
 import javafx.scene.layout.HBox;
 import javafx.scene.layout.Priority;
 
@@ -27,6 +28,10 @@ import javafx.scene.layout.Priority;
  * @param <T> Combo box that will be displayed if the CheckBox is selected.
  */
 public class HybridComboBox<T extends ComboBox<?>> extends HBox {
+    /**
+     * Time after which typed characters no longer extend the type-ahead text of the ComboBox, in milliseconds.
+     */
+    private static final long TYPE_AHEAD_RESET_MILLIS = 1000;
     /**
      * CheckBox that controls whether the ComboBox is shown to the user or the TextField.
      */
@@ -35,6 +40,22 @@ public class HybridComboBox<T extends ComboBox<?>> extends HBox {
      * TextField that is displayed to the user if the CheckBox is NOT selected.
      */
     private final TextField textField = new TextField();
+    /**
+     * Popup that shows suggestions while the user is typing into the TextField.
+     */
+    private final SuggestionPopup suggestionPopup = new SuggestionPopup(textField);
+    /**
+     * Characters typed while the ComboBox was focused that are used to look up the item to select.
+     */
+    private final StringBuilder typeAheadText = new StringBuilder();
+    /**
+     * Time at which the last character was typed while the ComboBox was focused, in milliseconds.
+     */
+    private long lastTypedTime = 0;
+    /**
+     * Provider of the suggestions for the TextField and of the type-ahead lookups of the ComboBox, can be null.
+     */
+    private SuggestionProvider suggestionProvider;
     /**
      * Combo Box that is displayed to the user if the CheckBox is selected.
      */
@@ -55,6 +76,8 @@ public class HybridComboBox<T extends ComboBox<?>> extends HBox {
         this.getChildren().addAll(textField, checkBox);
         comboBox.setMaxWidth(Double.MAX_VALUE);
 
+        comboBox.addEventHandler(KeyEvent.KEY_TYPED, this::typeAhead);
+
         checkBox.setText(checkBoxText);
         //Makes it so the label of the checkbox should be always visible if it's possible in the current layout.
         checkBox.setMinWidth(checkBox.getPrefWidth());
@@ -69,6 +92,44 @@ public class HybridComboBox<T extends ComboBox<?>> extends HBox {
         });
     }
 
+    /**
+     * Sets the provider of the suggestions that are shown below the TextField while the user is typing into it. The
+     * provider is also used to select the best matching item of the ComboBox while the user is typing with the
+     * ComboBox focused.
+     *
+     * @param suggestionProvider Provider of the suggestions, null to show no suggestions.
+     */
+    public void setSuggestionProvider(SuggestionProvider suggestionProvider) {
+        this.suggestionProvider = suggestionProvider;
+        suggestionPopup.setProvider(suggestionProvider);
+    }
+
+    /**
+     * Selects the first suggestion for the recently typed characters that is an item of the ComboBox. Characters typed
+     * within TYPE_AHEAD_RESET_MILLIS of each other are looked up together.
+     *
+     * @param event KEY_TYPED event received by the ComboBox.
+     */
+    private void typeAhead(KeyEvent event) {
+        String character = event.getCharacter();
+        if (suggestionProvider == null || character.isEmpty() || Character.isISOControl(character.charAt(0)))
+            return;
+        long now = System.currentTimeMillis();
+        if (now - lastTypedTime > TYPE_AHEAD_RESET_MILLIS)
+            typeAheadText.setLength(0);
+        lastTypedTime = now;
+        typeAheadText.append(character);
+
+        for (String suggestion : suggestionProvider.suggest(typeAheadText.toString(), SuggestionPopup.MAX_SUGGESTIONS)) {
+            int index = comboBox.getItems().indexOf(suggestion);
+            if (index >= 0) {
+                comboBox.getSelectionModel().select(index);
+                break;
+            }
+        }
+        event.consume();
+    }
+
     /**
      * Lightweight accessor method.
      *
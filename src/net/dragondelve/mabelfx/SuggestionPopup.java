@@ -0,0 +1,127 @@
+// Copyright 2023 Prokhor Kalinin
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package net.dragondelve.mabelfx;
+
+import javafx.geometry.Side;
+import javafx.scene.control.ContextMenu;
+import javafx.scene.control.MenuItem;
+import javafx.scene.control.TextField;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Popup that shows the suggestions of a SuggestionProvider below a TextField while the user is typing into it.
+ * Choosing a suggestion replaces the text of the TextField. Suggestions are only shown while the TextField is focused,
+ * so text that is set programmatically does not open the popup.
+ */
+final class SuggestionPopup {
+    /**
+     * Maximum number of suggestions that are displayed at once.
+     */
+    static final int MAX_SUGGESTIONS = 12;
+
+    /**
+     * TextField whose text is completed.
+     */
+    private final TextField textField;
+
+    /**
+     * Menu that displays the suggestions.
+     */
+    private final ContextMenu menu = new ContextMenu();
+
+    /**
+     * Provider of the suggestions, can be null in which case no suggestions are shown.
+     */
+    private SuggestionProvider provider;
+
+    /**
+     * Set while a chosen suggestion is applied, so that applying it does not show the popup again.
+     */
+    private boolean applying = false;
+
+    /**
+     * Creates a new SuggestionPopup and attaches it to a TextField.
+     *
+     * @param textField TextField whose text is completed.
+     */
+    SuggestionPopup(TextField textField) {
+        this.textField = textField;
+        textField.textProperty().addListener((observable, oldValue, newValue) -> {
+            if (!applying && textField.isFocused())
+                update(newValue);
+        });
+        textField.focusedProperty().addListener((observable, oldValue, newValue) -> {
+            if (!newValue)
+                menu.hide();
+        });
+    }
+
+    /**
+     * Lightweight mutator method.
+     *
+     * @param provider Provider of the suggestions, can be null in which case no suggestions are shown.
+     */
+    void setProvider(SuggestionProvider provider) {
+        this.provider = provider;
+        if (provider == null)
+            menu.hide();
+    }
+
+    /**
+     * Shows the suggestions for a given text, or hides the popup if there are none.
+     *
+     * @param text Current text of the TextField.
+     */
+    private void update(String text) {
+        if (provider == null || text == null || text.isEmpty()) {
+            menu.hide();
+            return;
+        }
+        List<String> suggestions = provider.suggest(text, MAX_SUGGESTIONS);
+        if (suggestions.isEmpty() || (suggestions.size() == 1 && suggestions.get(0).equals(text))) {
+            menu.hide();
+            return;
+        }
+        List<MenuItem> items = new ArrayList<>(suggestions.size());
+        for (String suggestion : suggestions) {
+            MenuItem item = new MenuItem(suggestion);
+            //Livery names and similar values can contain underscores, which must not be treated as mnemonics.
+            item.setMnemonicParsing(false);
+            item.setOnAction(e -> apply(suggestion));
+            items.add(item);
+        }
+        menu.getItems().setAll(items);
+        if (!menu.isShowing())
+            menu.show(textField, Side.BOTTOM, 0, 0);
+    }
+
+    /**
+     * Replaces the text of the TextField with a chosen suggestion.
+     *
+     * @param suggestion Suggestion chosen by the user.
+     */
+    private void apply(String suggestion) {
+        applying = true;
+        try {
+            textField.setText(suggestion);
+            textField.positionCaret(suggestion.length());
+        } finally {
+            applying = false;
+        }
+        menu.hide();
+    }
+}
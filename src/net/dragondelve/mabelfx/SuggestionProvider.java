@@ -0,0 +1,34 @@
+// Copyright 2023 Prokhor Kalinin
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package net.dragondelve.mabelfx;
+
+import java.util.List;
+
+/**
+ * Provides suggestions for the text that a user is typing, used by HybridComboBox and HybridChoiceHBox for type-ahead.
+ * Suggestions are requested on the JavaFX Application Thread after every keystroke, so implementations should answer
+ * well within a frame, typically from a prebuilt search index.
+ */
+@FunctionalInterface
+public interface SuggestionProvider {
+    /**
+     * Suggests values for a given text.
+     *
+     * @param text  Text typed by the user, never empty.
+     * @param limit Maximum number of suggestions that are displayed.
+     * @return Suggestions in the order in which they are displayed, the best suggestion first.
+     */
+    List<String> suggest(String text, int limit);
+}